@@ -0,0 +1,180 @@
+package CTS.bench;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tiny timing harness shared by the benchmark mains in this folder.
+ *
+ * Runs a body a few times to let the JIT settle, then reports the mean
+ * wall-clock time of the measured runs. measure() also keeps every
+ * iteration's score and a 99.9% confidence interval, and writeJson()
+ * saves results in JMH's JSON layout so runs can be compared.
+ */
+public class Bench {
+
+    private static volatile Object sink;
+
+    public interface Body {
+        Object run() throws Exception;
+    }
+
+    /** Runs body warmup + iterations times and prints/returns mean ms per run. */
+    public static double time(String name, int warmup, int iterations, Body body) throws Exception {
+        for (int i = 0; i < warmup; i++) {
+            sink = body.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink = body.run();
+        }
+        double ms = (System.nanoTime() - start) / 1e6 / iterations;
+        System.out.printf("%-48s %12.3f ms/op%n", name, ms);
+        return ms;
+    }
+
+    /** Prints operations per second for a run of ops operations that took nanos. */
+    public static double rate(String name, long ops, long nanos, String unit) {
+        double perSec = ops / (nanos / 1e9);
+        System.out.printf("%-48s %12.0f %s/sec%n", name, perSec, unit);
+        return perSec;
+    }
+
+    // =========================================================================
+    //  MEASURED RESULTS
+    // =========================================================================
+
+    /** One benchmark at one set of parameters: average time per operation. */
+    public static class Result {
+        public final String name;
+        public final Map<String, String> params;
+        public final TimeUnit unit;
+        public final double[] scores;   // per measured iteration, in unit per op
+        public final int warmup;
+
+        Result(String name, Map<String, String> params, TimeUnit unit, double[] scores, int warmup) {
+            this.name = name;
+            this.params = params;
+            this.unit = unit;
+            this.scores = scores;
+            this.warmup = warmup;
+        }
+
+        public double mean() {
+            double sum = 0;
+            for (double s : scores) sum += s;
+            return sum / scores.length;
+        }
+
+        /** Half-width of the 99.9% confidence interval around mean(). */
+        public double error() {
+            int n = scores.length;
+            if (n < 2) return Double.NaN;
+            double mean = mean();
+            double sq = 0;
+            for (double s : scores) sq += (s - mean) * (s - mean);
+            return studentT999(n - 1) * Math.sqrt(sq / (n - 1)) / Math.sqrt(n);
+        }
+
+        public String unitLabel() {
+            return unitLabel(unit);
+        }
+
+        static String unitLabel(TimeUnit unit) {
+            switch (unit) {
+                case NANOSECONDS:  return "ns/op";
+                case MICROSECONDS: return "us/op";
+                case MILLISECONDS: return "ms/op";
+                default:           return "s/op";
+            }
+        }
+    }
+
+    /**
+     * Runs body warmup + iterations times; each run performs opsPerRun
+     * operations. Prints and returns the time per operation in unit.
+     */
+    public static Result measure(String name, Map<String, String> params, TimeUnit unit, long opsPerRun,
+                                 int warmup, int iterations, Body body) throws Exception {
+        for (int i = 0; i < warmup; i++) {
+            sink = body.run();
+        }
+        double nanosPerUnit = unit.toNanos(1);
+        double[] scores = new double[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            sink = body.run();
+            scores[i] = (System.nanoTime() - start) / nanosPerUnit / opsPerRun;
+        }
+        Result r = new Result(name, new LinkedHashMap<>(params), unit, scores, warmup);
+        System.out.printf("%-30s %-34s %12.3f +- %9.3f %s%n",
+                name, params.toString(), r.mean(), r.error(), r.unitLabel());
+        return r;
+    }
+
+    // Two-sided 99.9% quantiles of Student's t, by degrees of freedom
+    private static final double[] T999 = {
+        636.62, 31.60, 12.92, 8.61, 6.87, 5.96, 5.41, 5.04, 4.78, 4.59,
+        4.44, 4.32, 4.22, 4.14, 4.07, 4.01, 3.97, 3.92, 3.88, 3.85,
+        3.82, 3.79, 3.77, 3.75, 3.73, 3.71, 3.69, 3.67, 3.66, 3.65
+    };
+
+    static double studentT999(int df) {
+        if (df <= T999.length) return T999[df - 1];
+        return df <= 60 ? 3.46 : df <= 120 ? 3.37 : 3.29;
+    }
+
+    /**
+     * Writes results as a JSON array in the layout JMH uses for
+     * -rf json, so existing JMH result viewers can read it.
+     */
+    public static void writeJson(Path file, List<Result> results) throws IOException {
+        try (Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            w.write("[\n");
+            for (int i = 0; i < results.size(); i++) {
+                Result r = results.get(i);
+                double mean = r.mean();
+                double err = r.error();
+                w.write("  {\"benchmark\": " + quote(r.name)
+                        + ", \"mode\": \"avgt\", \"threads\": 1, \"forks\": 0"
+                        + ", \"warmupIterations\": " + r.warmup
+                        + ", \"measurementIterations\": " + r.scores.length
+                        + ", \"params\": {");
+                int k = 0;
+                for (Map.Entry<String, String> e : r.params.entrySet()) {
+                    w.write((k++ > 0 ? ", " : "") + quote(e.getKey()) + ": " + quote(e.getValue()));
+                }
+                w.write("}, \"primaryMetric\": {\"score\": " + number(mean)
+                        + ", \"scoreError\": " + number(err)
+                        + ", \"scoreConfidence\": [" + number(mean - err) + ", " + number(mean + err) + "]"
+                        + ", \"scoreUnit\": " + quote(r.unitLabel())
+                        + ", \"rawData\": [[");
+                for (int j = 0; j < r.scores.length; j++) {
+                    w.write((j > 0 ? ", " : "") + number(r.scores[j]));
+                }
+                w.write("]]}}" + (i + 1 < results.size() ? "," : "") + "\n");
+            }
+            w.write("]\n");
+        }
+    }
+
+    private static String quote(String s) {
+        return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private static String number(double d) {
+        return Double.isFinite(d) ? Double.toString(d) : "\"NaN\"";
+    }
+
+    /** Parses args[i] as an int, falling back to def. */
+    public static int intArg(String[] args, int i, int def) {
+        return (args.length > i) ? Integer.parseInt(args[i]) : def;
+    }
+}
@@ -0,0 +1,218 @@
+package CTS.bench;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares two BenchSuite (or JMH) JSON result files.
+ *
+ * A benchmark regressed when its new score is more than threshold percent
+ * slower and the two 99.9% confidence intervals do not overlap, so noise
+ * alone does not fail a run. Exits 1 if anything regressed.
+ *
+ * Usage: BenchCompare baseline.json candidate.json [thresholdPercent]
+ */
+public class BenchCompare {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchCompare baseline.json candidate.json [thresholdPercent]");
+            System.exit(2);
+        }
+        Map<String, Score> base = read(args[0]);
+        Map<String, Score> cand = read(args[1]);
+        int threshold = Bench.intArg(args, 2, 10);
+
+        int regressions = 0;
+        System.out.printf("%-60s %12s %12s %8s%n", "benchmark", "baseline", "candidate", "change");
+        for (Map.Entry<String, Score> e : cand.entrySet()) {
+            Score now = e.getValue();
+            Score was = base.get(e.getKey());
+            if (was == null) {
+                System.out.printf("%-60s %12s %12s %8s%n", e.getKey(), "-", now, "new");
+                continue;
+            }
+            double change = (now.nanos - was.nanos) / was.nanos * 100;
+            boolean separated = now.nanos - now.errorNanos > was.nanos + was.errorNanos
+                             || now.nanos + now.errorNanos < was.nanos - was.errorNanos;
+            String verdict = "";
+            if (separated && change > threshold) {
+                verdict = "  REGRESSED";
+                regressions++;
+            } else if (separated && change < -threshold) {
+                verdict = "  improved";
+            }
+            System.out.printf("%-60s %12s %12s %+7.1f%%%s%n", e.getKey(), was, now, change, verdict);
+        }
+        for (String key : base.keySet()) {
+            if (!cand.containsKey(key)) {
+                System.out.printf("%-60s %12s %12s %8s%n", key, base.get(key), "-", "gone");
+            }
+        }
+        System.out.println(regressions == 0 ? "No regressions." : regressions + " regression(s).");
+        if (regressions > 0) {
+            System.exit(1);
+        }
+    }
+
+    /** A score normalised to nanoseconds per op, so runs in different units compare. */
+    static class Score {
+        final double nanos;
+        final double errorNanos;
+        final String unit;
+        final double shown;
+
+        Score(double score, double error, String unit) {
+            double toNanos = unitNanos(unit);
+            this.nanos = score * toNanos;
+            this.errorNanos = Double.isNaN(error) ? 0 : error * toNanos;
+            this.unit = unit;
+            this.shown = score;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.3f %s", shown, unit.replace("/op", ""));
+        }
+    }
+
+    static double unitNanos(String unit) {
+        switch (unit) {
+            case "ns/op": return 1;
+            case "us/op": return 1e3;
+            case "ms/op": return 1e6;
+            case "s/op":  return 1e9;
+            default: throw new IllegalArgumentException("Only average-time results can be compared: " + unit);
+        }
+    }
+
+    // Results keyed by "name {param=value, ...}"
+    @SuppressWarnings("unchecked")
+    static Map<String, Score> read(String file) throws IOException {
+        String text = new String(Files.readAllBytes(Paths.get(file)), StandardCharsets.UTF_8);
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (Object o : (List<Object>) new Json(text).value()) {
+            Map<String, Object> r = (Map<String, Object>) o;
+            Map<String, Object> metric = (Map<String, Object>) r.get("primaryMetric");
+            Map<String, Object> params = (Map<String, Object>) r.get("params");
+            String key = r.get("benchmark") + (params != null && !params.isEmpty() ? " " + params : "");
+            scores.put(key, new Score(number(metric.get("score")), number(metric.get("scoreError")),
+                    (String) metric.get("scoreUnit")));
+        }
+        return scores;
+    }
+
+    private static double number(Object o) {
+        return (o instanceof Double) ? (Double) o : Double.NaN; // JMH writes "NaN" as a string
+    }
+
+    /** Just enough JSON for result files: objects, arrays, strings, numbers, literals. */
+    static class Json {
+        private final String s;
+        private int pos;
+
+        Json(String s) {
+            this.s = s;
+        }
+
+        Object value() {
+            skipSpace();
+            char c = s.charAt(pos);
+            switch (c) {
+                case '{': return object();
+                case '[': return array();
+                case '"': return string();
+                case 't': pos += 4; return Boolean.TRUE;
+                case 'f': pos += 5; return Boolean.FALSE;
+                case 'n': pos += 4; return null;
+                default:  return number();
+            }
+        }
+
+        private Map<String, Object> object() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            pos++;
+            skipSpace();
+            if (s.charAt(pos) == '}') {
+                pos++;
+                return m;
+            }
+            while (true) {
+                skipSpace();
+                String key = string();
+                skipSpace();
+                expect(':');
+                m.put(key, value());
+                skipSpace();
+                if (s.charAt(pos++) == '}') return m;
+            }
+        }
+
+        private List<Object> array() {
+            List<Object> list = new ArrayList<>();
+            pos++;
+            skipSpace();
+            if (s.charAt(pos) == ']') {
+                pos++;
+                return list;
+            }
+            while (true) {
+                list.add(value());
+                skipSpace();
+                if (s.charAt(pos++) == ']') return list;
+            }
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                char c = s.charAt(pos++);
+                if (c == '"') return sb.toString();
+                if (c == '\\') {
+                    char esc = s.charAt(pos++);
+                    switch (esc) {
+                        case 'n': sb.append('\n'); break;
+                        case 't': sb.append('\t'); break;
+                        case 'r': sb.append('\r'); break;
+                        case 'b': sb.append('\b'); break;
+                        case 'f': sb.append('\f'); break;
+                        case 'u':
+                            sb.append((char) Integer.parseInt(s.substring(pos, pos + 4), 16));
+                            pos += 4;
+                            break;
+                        default: sb.append(esc);
+                    }
+                } else {
+                    sb.append(c);
+                }
+            }
+        }
+
+        private Double number() {
+            int start = pos;
+            while (pos < s.length() && "+-0123456789.eE".indexOf(s.charAt(pos)) >= 0) {
+                pos++;
+            }
+            return Double.valueOf(s.substring(start, pos));
+        }
+
+        private void expect(char c) {
+            if (s.charAt(pos++) != c) {
+                throw new IllegalArgumentException("Expected '" + c + "' at offset " + (pos - 1));
+            }
+        }
+
+        private void skipSpace() {
+            while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) {
+                pos++;
+            }
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package CTS.bench;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import CTS.booking.Order;
+import CTS.booking.OrderDatabase;
+import CTS.booking.Ticket;
+import CTS.enums.EventStatus;
+import CTS.enums.PaymentStatus;
+import CTS.enums.PaymentType;
+import CTS.enums.SeatStatus;
+import CTS.event.Event;
+import CTS.metrics.Counter;
+import CTS.metrics.Histogram;
+import CTS.metrics.Metrics;
+import CTS.misc.Money;
+import CTS.misc.PaymentTransaction;
+import CTS.seating.Seat;
+import CTS.seating.Seating;
+import CTS.seating.SeatingManager;
+import CTS.user.ConcertGoer;
+import CTS.user.User;
+
+/**
+ * The regression suite: persistence, seating and booking hot paths on
+ * synthetic data, written to a JSON results file (JMH's layout) that
+ * BenchCompare diffs against an earlier run.
+ *
+ * scale multiplies every dataset size; scale 1 is 10k events, 100k
+ * orders with 300k tickets, and 50k-seat binary seat maps. filter keeps
+ * only benchmarks whose name contains it.
+ *
+ * Usage: BenchSuite [scale] [results.json] [filter] [iterations]
+ */
+public class BenchSuite {
+
+    private static final int WARMUP = 5;
+
+    private final int scale;
+    private final String filter;
+    private final int iterations;
+    private final Path work;
+    private final List<Bench.Result> results = new ArrayList<>();
+
+    public static void main(String[] args) throws Exception {
+        int scale = Bench.intArg(args, 0, 1);
+        Path out = Paths.get(args.length > 1 ? args[1] : "bench-results.json");
+        String filter = args.length > 2 ? args[2] : "";
+        int iterations = Bench.intArg(args, 3, 10);
+
+        Path work = Files.createTempDirectory("cts-bench");
+        System.setProperty("cts.data.dir", work.toString()); // before OrderDatabase loads
+
+        BenchSuite suite = new BenchSuite(scale, filter, iterations, work);
+        suite.run();
+        Bench.writeJson(out, suite.results);
+        System.out.println("Wrote " + suite.results.size() + " results to " + out.toAbsolutePath());
+    }
+
+    BenchSuite(int scale, String filter, int iterations, Path work) {
+        this.scale = scale;
+        this.filter = filter;
+        this.iterations = iterations;
+        this.work = work;
+    }
+
+    void run() throws Exception {
+        events();
+        orders();
+        seating(5_000);              // stays on CSV
+        seating(50_000 * scale);     // binary seat store
+        seatTransitions();
+        orderTotals();
+        passwords();
+        money();
+        metrics();
+    }
+
+    private void measure(String name, Map<String, String> params, TimeUnit unit, long ops,
+                         Bench.Body body) throws Exception {
+        if (name.contains(filter)) {
+            results.add(Bench.measure(name, params, unit, ops, WARMUP, iterations, body));
+        }
+    }
+
+    // Name/value pairs, kept in order so results line up run to run
+    private static Map<String, String> params(Object... pairs) {
+        Map<String, String> m = new LinkedHashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            m.put(pairs[i].toString(), pairs[i + 1].toString());
+        }
+        return m;
+    }
+
+    // =========================================================================
+    //  EVENTS
+    // =========================================================================
+
+    private void events() throws Exception {
+        int n = 10_000 * scale;
+        List<Event> events = new ArrayList<>(n);
+        long day = 24L * 60 * 60 * 1000;
+        for (int i = 1; i <= n; i++) {
+            Event e = new Event(i, "Show #" + i + ", \"live\"", new Date(1_700_000_000_000L + i * day),
+                    "Venue " + (i % 200), "Night " + i + " of the tour", 500 + i % 5_000,
+                    EventStatus.PUBLISHED, new Money(20 + (i % 80) + 0.5, "USD"));
+            events.add(e);
+        }
+        Path file = work.resolve("events.csv");
+        Event.saveToCsv(file, events);
+        Map<String, String> params = params("events", n);
+
+        measure("Event.loadFromCsv", params, TimeUnit.MILLISECONDS, 1, () -> Event.loadFromCsv(file));
+        Path copy = work.resolve("events-out.csv");
+        measure("Event.saveToCsv", params, TimeUnit.MILLISECONDS, 1, () -> {
+            Event.saveToCsv(copy, events);
+            return null;
+        });
+    }
+
+    // =========================================================================
+    //  ORDERS
+    // =========================================================================
+
+    private void orders() throws Exception {
+        int n = 100_000 * scale;
+        List<Order> orders = new ArrayList<>(n);
+        List<Ticket> tickets = new ArrayList<>(n * 3);
+        Money price = new Money(35.0, "USD");
+        int ticketId = 1;
+        for (int id = 1; id <= n; id++) {
+            orders.add(new Order(id, id % 1_000));
+            for (int k = 0; k < 3; k++) {
+                tickets.add(new Ticket(ticketId, id, id % 50, price, "Seat " + ticketId));
+                ticketId++;
+            }
+        }
+        measure("OrderDatabase.reload", params("orders", n, "tickets", tickets.size()),
+                TimeUnit.MILLISECONDS, 1, () -> {
+                    OrderDatabase.reload(orders, tickets);
+                    return null;
+                });
+
+        // loadAll links each payment row to its order by id
+        int linkOrders = 10_000 * scale;
+        int linkPayments = 2_000 * scale;
+        List<PaymentTransaction> payments = new ArrayList<>(linkPayments);
+        for (int i = 1; i <= linkPayments; i++) {
+            Order o = orders.get((int) ((i * 7919L) % linkOrders));
+            payments.add(new PaymentTransaction(i, "txn_" + i, PaymentType.CHARGE, price,
+                    new Date(1_700_000_000_000L + i), PaymentStatus.SUCCESS, o));
+        }
+        Path file = work.resolve("payments-bench.csv");
+        PaymentTransaction.saveToCsv(file, payments);
+        List<Order> some = orders.subList(0, linkOrders);
+        measure("PaymentTransaction.loadAll",
+                params("orders", linkOrders, "payments", linkPayments),
+                TimeUnit.MILLISECONDS, 1, () -> PaymentTransaction.loadAll(file, some));
+    }
+
+    // =========================================================================
+    //  SEATING
+    // =========================================================================
+
+    private void seating(int seats) throws Exception {
+        int eventId = 900_000 + seats;
+        Event event = new Event(eventId, "Seated", new Date(), "Arena", "", seats,
+                EventStatus.PUBLISHED, new Money(60.0, "USD"));
+        Path csv = SeatingManager.csvFile(eventId);
+        Path bin = SeatingManager.binaryFile(eventId);
+        try {
+            Seating seating = SeatingManager.loadOrCreate(event);
+            for (int s = 1; s <= seats; s += 3) {
+                seating.getSeatByNumber(s).markSold(); // a third sold, spread out
+            }
+            SeatingManager.save(seating);
+
+            Map<String, String> params = params("seats", seats,
+                    "format", seats >= SeatingManager.BINARY_THRESHOLD ? "binary" : "csv");
+            measure("SeatingManager.loadOrCreate", params, TimeUnit.MILLISECONDS, 1,
+                    () -> SeatingManager.loadOrCreate(event));
+
+            // One sale per save, as at checkout
+            int[] next = { 2 };
+            measure("SeatingManager.save", params, TimeUnit.MILLISECONDS, 1, () -> {
+                Seat seat = seating.getSeatByNumber(next[0]);
+                if (!seat.markSold()) seat.markAvailable();
+                next[0] = (next[0] % seats) + 1;
+                SeatingManager.save(seating);
+                return null;
+            });
+        } finally {
+            Files.deleteIfExists(csv);
+            Files.deleteIfExists(bin);
+        }
+    }
+
+    private void seatTransitions() throws Exception {
+        int seats = 10_000;
+        List<Seat> list = new ArrayList<>(seats);
+        for (int i = 1; i <= seats; i++) {
+            list.add(new Seat(1, i, 1 + i / 1_000, "A", i, new Money(50.0, "USD")));
+        }
+        Seating seating = Seating.of(1, list);
+        Map<String, String> params = params("seats", seats);
+
+        // AVAILABLE -> HELD -> SOLD -> AVAILABLE: three transitions per seat
+        measure("Seat transitions", params, TimeUnit.NANOSECONDS, 3L * seats, () -> {
+            int ok = 0;
+            for (int i = 1; i <= seats; i++) {
+                Seat s = seating.getSeatByNumber(i);
+                if (s.markHeld() && s.markSold() && s.markAvailable()) ok++;
+            }
+            if (seating.getInventory().count(SeatStatus.AVAILABLE) != seats) {
+                throw new IllegalStateException("seat left behind");
+            }
+            return ok;
+        });
+    }
+
+    // =========================================================================
+    //  BOOKING
+    // =========================================================================
+
+    private void orderTotals() throws Exception {
+        int cartSize = 1_000;
+        int carts = 100;
+        List<Order> orders = new ArrayList<>(carts);
+        int ticketId = 1;
+        for (int c = 1; c <= carts; c++) {
+            Order o = new Order(c, 1);
+            for (int i = 0; i < cartSize; i++) {
+                o.addTicket(new Ticket(ticketId++, c, 1, new Money(10.0 + (i % 97) * 0.35, "USD"), "Seat " + i));
+            }
+            orders.add(o);
+        }
+        measure("Order.calculateTotal", params("tickets", cartSize),
+                TimeUnit.MICROSECONDS, carts, () -> {
+                    double sum = 0;
+                    for (Order o : orders) sum += o.calculateTotal();
+                    return sum;
+                });
+    }
+
+    private void passwords() throws Exception {
+        int checks = 10_000;
+        User user = new ConcertGoer(1, "Bench", "bench@example.com", "correct horse battery staple");
+        measure("User.checkPassword", params(), TimeUnit.NANOSECONDS, checks, () -> {
+            int ok = 0;
+            for (int i = 0; i < checks; i++) {
+                if (user.checkPassword((i & 1) == 0 ? "correct horse battery staple" : "wrong password")) ok++;
+            }
+            return ok;
+        });
+    }
+
+    private void money() throws Exception {
+        String[] currencies = { "USD", "EUR", "JPY", "GBP" };
+        String[] inputs = new String[10_000];
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = (i % 500) + "." + (i % 100) + ":" + currencies[i % currencies.length];
+        }
+        measure("Money.fromInlineString", params(), TimeUnit.NANOSECONDS, inputs.length, () -> {
+            long sum = 0;
+            for (String s : inputs) sum += Money.fromInlineString(s).getMinorUnits();
+            return sum;
+        });
+    }
+
+    // =========================================================================
+    //  METRICS (recording cost on the hot path)
+    // =========================================================================
+
+    private void metrics() throws Exception {
+        int n = 1_000_000;
+        Counter counter = Metrics.counter("bench.counter");
+        measure("Counter.inc", params(), TimeUnit.NANOSECONDS, n, () -> {
+            for (int i = 0; i < n; i++) counter.inc();
+            return counter.get();
+        });
+        Histogram histogram = Metrics.histogram("bench.histogram");
+        measure("Histogram.record", params(), TimeUnit.NANOSECONDS, n, () -> {
+            for (int i = 0; i < n; i++) histogram.record(1_000 + (i & 0xFFFF) * 97L);
+            return histogram.max();
+        });
+    }
+}
@@ -0,0 +1,84 @@
+package CTS.bench;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import CTS.booking.BookingResult;
+import CTS.booking.BookingService;
+import CTS.booking.HoldManager;
+import CTS.enums.EventStatus;
+import CTS.event.Event;
+import CTS.misc.Money;
+
+/**
+ * Concurrent checkouts through BookingService with no UI: each session
+ * buys two general-admission tickets, which reserves, issues, charges and
+ * waits for the order journal to reach disk.
+ *
+ * The async API (one virtual thread per purchase) is compared with the
+ * blocking API driven from a fixed pool of platform threads, the usual way
+ * to bound concurrency without virtual threads. Sessions blocked on the
+ * journal share fsyncs, so the more of them can wait at once the better.
+ *
+ * Usage: BookingServiceBench [sessions] [poolThreads]
+ */
+public class BookingServiceBench {
+
+    private static final String CARD = "4111111111111111";
+
+    public static void main(String[] args) throws Exception {
+        int sessions = Bench.intArg(args, 0, 20_000);
+        int poolThreads = Bench.intArg(args, 1, 16);
+        System.setProperty("cts.data.dir", Files.createTempDirectory("cts-booking-bench").toString());
+
+        BookingService service = new BookingService(HoldManager.shared());
+
+        for (int round = 0; round < 3; round++) { // the first round warms up
+            Event gig = event(sessions * 2);
+            long start = System.nanoTime();
+            List<CompletableFuture<BookingResult>> futures = new ArrayList<>(sessions);
+            for (int i = 0; i < sessions; i++) {
+                futures.add(service.purchaseGeneralAdmissionAsync(i, gig, 2, CARD));
+            }
+            int ok = 0;
+            for (CompletableFuture<BookingResult> f : futures) {
+                if (f.join().isConfirmed()) ok++;
+            }
+            report("async, virtual thread per purchase", ok, sessions, start);
+
+            gig = event(sessions * 2);
+            ExecutorService pool = Executors.newFixedThreadPool(poolThreads);
+            Event target = gig;
+            start = System.nanoTime();
+            List<Future<BookingResult>> results = new ArrayList<>(sessions);
+            for (int i = 0; i < sessions; i++) {
+                int user = i;
+                results.add(pool.submit(() -> service.purchaseGeneralAdmission(user, target, 2, CARD)));
+            }
+            ok = 0;
+            for (Future<BookingResult> f : results) {
+                if (f.get().isConfirmed()) ok++;
+            }
+            pool.shutdown();
+            report("sync, " + poolThreads + " platform threads", ok, sessions, start);
+        }
+        service.shutdown();
+    }
+
+    private static Event event(int capacity) {
+        return new Event(1, "Bench", new Date(), "Arena", "", capacity, EventStatus.PUBLISHED, new Money(40.0, "USD"));
+    }
+
+    private static void report(String name, int ok, int sessions, long start) {
+        if (ok != sessions) {
+            throw new IllegalStateException(name + ": only " + ok + " of " + sessions + " confirmed");
+        }
+        Bench.rate(name, sessions, System.nanoTime() - start, "bookings");
+    }
+}
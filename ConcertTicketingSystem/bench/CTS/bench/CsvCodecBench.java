@@ -0,0 +1,103 @@
+package CTS.bench;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import CTS.booking.Ticket;
+import CTS.enums.EventStatus;
+import CTS.event.Event;
+import CTS.misc.Money;
+
+/**
+ * Load time and allocation of the entity CSV parsers on large files.
+ *
+ * "legacy" is the per-class parser the entities used before CsvReader:
+ * readAllLines, split (with a look-behind regex for events) and chained
+ * replace() to unescape. "codec" is the current loadFromCsv.
+ *
+ * Usage: CsvCodecBench [rows]
+ */
+public class CsvCodecBench {
+
+    public static void main(String[] args) throws Exception {
+        int rows = Bench.intArg(args, 0, 1_000_000);
+
+        Path dir = Files.createTempDirectory("cts-csv-bench");
+        Path eventsFile = dir.resolve("events.csv");
+        Path ticketsFile = dir.resolve("tickets.csv");
+
+        List<Event> events = new ArrayList<>(rows);
+        List<Ticket> tickets = new ArrayList<>(rows);
+        for (int id = 1; id <= rows; id++) {
+            events.add(new Event(id, "Event " + id, new Date(), "Venue\\Hall " + (id % 20),
+                    "Description, with a comma", 500, EventStatus.PUBLISHED, new Money(40.5, "USD")));
+            tickets.add(new Ticket(id, id / 3, 1 + id % 500, new Money(40.5, "USD"), "Row " + (id % 40) + "\\, Seat " + id));
+        }
+        Event.saveToCsv(eventsFile, events);
+        Ticket.saveToCsv(ticketsFile, tickets);
+        events = null;
+        tickets = null;
+
+        System.out.println("--- " + rows + " rows per file ---");
+        measure("events: legacy (readAllLines + regex split)", rows, () -> legacyEvents(eventsFile).size());
+        measure("events: codec (Event.loadFromCsv)", rows, () -> Event.loadFromCsv(eventsFile).size());
+        measure("tickets: legacy (readAllLines + split)", rows, () -> legacyTickets(ticketsFile).size());
+        measure("tickets: codec (Ticket.loadFromCsv)", rows, () -> Ticket.loadFromCsv(ticketsFile).size());
+    }
+
+    private static void measure(String name, int rows, Bench.Body body) throws Exception {
+        Bench.time(name, 2, 5, body);
+        long before = allocatedBytes();
+        body.run();
+        long bytes = allocatedBytes() - before;
+        System.out.printf("%-48s %12.0f B/row allocated%n", "", (double) bytes / rows);
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().threadId());
+    }
+
+    // =========================================================================
+    //  LEGACY PARSERS (as they were before the shared codec)
+    // =========================================================================
+
+    private static List<Event> legacyEvents(Path path) throws Exception {
+        List<Event> result = new ArrayList<>();
+        for (String line : Files.readAllLines(path)) {
+            if (line.trim().isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split("(?<!\\\\),", -1);
+            long millis = Long.parseLong(parts[2]);
+            Event e = new Event(Integer.parseInt(parts[0]), unescape(parts[1]),
+                    millis == 0L ? null : new Date(millis), unescape(parts[3]), unescape(parts[4]),
+                    Integer.parseInt(parts[5]), EventStatus.valueOf(parts[6]),
+                    Money.fromInlineString(unescape(parts[7])));
+            Integer.parseInt(parts[8]); // ticketsSold (setter is private; parse cost kept)
+            result.add(e);
+        }
+        return result;
+    }
+
+    private static List<Ticket> legacyTickets(Path path) throws Exception {
+        List<Ticket> result = new ArrayList<>();
+        for (String line : Files.readAllLines(path)) {
+            if (line.trim().isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split(",", 6);
+            result.add(new Ticket(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]),
+                    new Money(Double.parseDouble(parts[3]), unescape(parts[4])), unescape(parts[5])));
+        }
+        return result;
+    }
+
+    private static String unescape(String s) {
+        return s.replace("\\,", ",").replace("\\\\", "\\");
+    }
+}
@@ -0,0 +1,480 @@
+package CTS.bench;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import CTS.booking.Order;
+import CTS.booking.Ticket;
+import CTS.enums.EventStatus;
+import CTS.enums.OrderStatus;
+import CTS.enums.PaymentStatus;
+import CTS.enums.PaymentType;
+import CTS.enums.RefundStatus;
+import CTS.enums.SeatStatus;
+import CTS.event.Artist;
+import CTS.event.Event;
+import CTS.event.LineupEntry;
+import CTS.misc.CsvWriter;
+import CTS.misc.Money;
+import CTS.misc.PaymentTransaction;
+import CTS.misc.RefundRequest;
+import CTS.seating.SeatFactory;
+import CTS.seating.Seating;
+import CTS.seating.SeatingManager;
+import CTS.user.ConcertGoer;
+import CTS.user.User;
+import CTS.user.VenueAdmin;
+
+/**
+ * Writes a complete CTS data set of any size: users, events, artists,
+ * lineup, orders, tickets, payments, refunds and seats_event_N.csv files.
+ *
+ * Every row is built as the real entity and written with its own
+ * writeCsv(), so the files match what the app saves, escaping included.
+ * Each value is a pure function of (seed, id), so big files are split
+ * into chunks written on all cores and joined in order; the output is
+ * byte-identical for a seed however many threads ran.
+ *
+ * The data is consistent: tickets fill their event's seats in order
+ * ("Seat N"), seat files mark the seats of live orders SOLD, every paid
+ * order has its charge, refunded orders have an approved refund and a
+ * REFUND payment, and ticketsSold counts the live tickets.
+ *
+ * Usage: DatasetGenerator outDir [tickets] [seed] [seatMaps]
+ *        seatMaps = how many of the first events get a seat file
+ */
+public class DatasetGenerator {
+
+    private static final long EPOCH = 1_735_689_600_000L; // 2025-01-01
+    private static final long DAY = 24L * 60 * 60 * 1000;
+    private static final int CHUNK = 200_000;             // rows per part file
+    private static final int[] CAPACITIES = { 300, 500, 1_000, 2_500, 5_000, 20_000, 50_000 };
+
+    // Salts keep the per-id random streams independent
+    private static final int PARTY = 1, FILL = 2, CAPACITY = 3, STATUS = 4, USER = 5, PRICE = 6,
+            TIME = 7, NAME = 8, REFUND = 9, GENRE = 10, LINEUP = 11, VENUE = 12;
+
+    private static final String[] FIRST = { "Ava", "Liam", "Mia", "Noah", "Zoe", "Eli", "Ivy", "Leo", "Ana", "Max",
+            "Sofia", "Omar", "Yuki", "Priya", "Jonas", "Chloe" };
+    private static final String[] LAST = { "Nguyen", "Smith", "Garcia", "Kim", "O'Brien", "Patel", "Rossi",
+            "Müller", "Silva", "Cohen", "Okafor", "Smith, Jr.", "Haddad", "Larsen" };
+    private static final String[] WORDS = { "Neon", "Velvet", "Paper", "Saint", "Glass", "Wild", "Golden", "Static",
+            "Midnight", "Echo", "Violet", "Iron", "Honey", "Arctic", "Lunar", "Copper" };
+    private static final String[] NOUNS = { "Motel", "Tigers", "Harbor", "Youth", "Garden", "Signal", "Parade",
+            "Wolves", "Hearts", "Machines", "Rivers", "Lanterns" };
+    private static final String[] GENRES = { "rock", "pop", "jazz", "indie", "classical/rock", "hip-hop",
+            "electronic", "folk", "metal", "r&b, soul" };
+    private static final String[] VENUES = { "TCC", "Gila River Arena", "Red Rocks", "The Fillmore", "Madison Square Garden",
+            "Hollywood Bowl", "Ryman Auditorium", "The Anthem", "Crescent Ballroom", "Footprint Center" };
+    private static final String[] REASONS = { "Can't attend", "Bought the wrong date", "Event moved, can't make it",
+            "Duplicate purchase", "Illness \\ travel" };
+
+    private final long seed;
+    private final int seatMaps;
+
+    // The plan: which orders, tickets and seats exist, fixed before any file is written
+    private int orderCount;
+    private int[] firstTicket;   // by order id; ticket ids firstTicket[o] .. firstTicket[o + 1] - 1
+    private int[] orderEvent;    // by order id
+    private int[] firstSeat;     // by order id; seat number of its first ticket
+    private int eventCount;
+    private int soldEvents;      // events 1..soldEvents have sales, the rest are upcoming
+    private int[] firstOrder;    // by event id; orders firstOrder[e] .. firstOrder[e + 1] - 1
+    private int[] liveTickets;   // by event id; tickets of PENDING/CONFIRMED orders
+    private int userCount;
+    private int adminCount;
+    private int artistCount;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: DatasetGenerator outDir [tickets] [seed] [seatMaps]");
+            System.exit(2);
+        }
+        Path dir = Paths.get(args[0]);
+        int tickets = Bench.intArg(args, 1, 1_000_000);
+        long seed = Bench.intArg(args, 2, 1);
+        int seatMaps = Bench.intArg(args, 3, 10);
+
+        long start = System.nanoTime();
+        DatasetGenerator gen = new DatasetGenerator(seed, tickets, seatMaps);
+        gen.write(dir, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%d users, %d events, %d artists, %d orders, %d tickets, %d seat files in %.1f s -> %s%n",
+                gen.userCount, gen.eventCount, gen.artistCount, gen.orderCount, tickets,
+                Math.min(seatMaps, gen.eventCount), (System.nanoTime() - start) / 1e9, dir.toAbsolutePath());
+    }
+
+    public DatasetGenerator(long seed, int tickets, int seatMaps) {
+        if (tickets < 1) {
+            throw new IllegalArgumentException("tickets must be positive");
+        }
+        this.seed = seed;
+        this.seatMaps = seatMaps;
+        plan(tickets);
+    }
+
+    // =========================================================================
+    //  PLAN
+    // =========================================================================
+
+    // Orders of 1-4 tickets fill each event to 60-100% of capacity, in order
+    private void plan(int tickets) {
+        int cap = 1 << 16;
+        firstTicket = new int[cap];
+        orderEvent = new int[cap];
+        firstSeat = new int[cap];
+        int[] eventOrders = new int[1 << 10];
+
+        int issued = 0;
+        int o = 0;
+        int e = 1;
+        int seatsUsed = 0;
+        int fill = fill(e);
+        eventOrders[1] = 1;
+        while (issued < tickets) {
+            int party = Math.min(1 + (int) (mix(PARTY, o + 1) % 4), tickets - issued);
+            if (seatsUsed + party > fill) {
+                e++;
+                seatsUsed = 0;
+                fill = fill(e);
+                if (e + 1 >= eventOrders.length) eventOrders = Arrays.copyOf(eventOrders, eventOrders.length * 2);
+                eventOrders[e] = o + 1;
+            }
+            o++;
+            if (o + 1 >= firstTicket.length) {
+                cap = firstTicket.length * 2;
+                firstTicket = Arrays.copyOf(firstTicket, cap);
+                orderEvent = Arrays.copyOf(orderEvent, cap);
+                firstSeat = Arrays.copyOf(firstSeat, cap);
+            }
+            firstTicket[o] = issued + 1;
+            orderEvent[o] = e;
+            firstSeat[o] = seatsUsed + 1;
+            issued += party;
+            seatsUsed += party;
+        }
+        orderCount = o;
+        firstTicket[o + 1] = issued + 1;
+        soldEvents = e;
+        eventCount = soldEvents + soldEvents / 10 + 1;
+        firstOrder = Arrays.copyOf(eventOrders, eventCount + 2);
+        for (int k = soldEvents + 1; k <= eventCount + 1; k++) {
+            firstOrder[k] = orderCount + 1; // upcoming events have no orders
+        }
+
+        liveTickets = new int[eventCount + 1];
+        for (int k = 1; k <= orderCount; k++) {
+            OrderStatus s = status(k);
+            if (s == OrderStatus.PENDING || s == OrderStatus.CONFIRMED) {
+                liveTickets[orderEvent[k]] += tickets(k);
+            }
+        }
+
+        userCount = Math.max(10, orderCount / 3);
+        adminCount = Math.max(1, userCount / 1_000);
+        artistCount = Math.max(20, eventCount / 2);
+    }
+
+    private int capacity(int event) {
+        return CAPACITIES[(int) (mix(CAPACITY, event) % CAPACITIES.length)];
+    }
+
+    private int fill(int event) {
+        return capacity(event) * (60 + (int) (mix(FILL, event) % 41)) / 100;
+    }
+
+    private int tickets(int order) {
+        return firstTicket[order + 1] - firstTicket[order];
+    }
+
+    private OrderStatus status(int order) {
+        int r = (int) (mix(STATUS, order) % 100);
+        return r < 88 ? OrderStatus.CONFIRMED : r < 93 ? OrderStatus.PENDING
+             : r < 97 ? OrderStatus.REFUNDED : OrderStatus.CANCELED;
+    }
+
+    private Money price(int event) {
+        return new Money(20 + (mix(PRICE, event) % 16) * 5 + ((event & 1) == 0 ? 0.0 : 0.5), "USD");
+    }
+
+    private Date orderDate(int order) {
+        return new Date(EPOCH + mix(TIME, order) % (300 * DAY));
+    }
+
+    private int buyer(int order) {
+        return adminCount + 1 + (int) (mix(USER, order) % (userCount - adminCount));
+    }
+
+    // SplitMix64 of (seed, salt, id): independent, reproducible draws per id
+    private long mix(int salt, long id) {
+        long z = seed * 0x9E3779B97F4A7C15L + salt * 0xBF58476D1CE4E5B9L + id * 0x94D049BB133111EBL;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return (z ^ (z >>> 31)) >>> 1;
+    }
+
+    private String pick(String[] options, int salt, long id) {
+        return options[(int) (mix(salt, id) % options.length)];
+    }
+
+    // =========================================================================
+    //  WRITE
+    // =========================================================================
+
+    /** Writes rows for ids from..to-1 (orders, users, ...). */
+    private interface Rows {
+        void write(CsvWriter w, int from, int to) throws IOException;
+    }
+
+    /** Writes every file into dir using up to threads threads. */
+    public void write(Path dir, int threads) throws Exception {
+        Files.createDirectories(dir);
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            List<Future<?>> parts = new ArrayList<>();
+            List<Runnable> joins = new ArrayList<>();
+
+            chunked(pool, parts, joins, dir.resolve("users.csv"), "userId,name,email,passwordHash,role",
+                    userCount, this::users);
+            chunked(pool, parts, joins, dir.resolve("events.csv"),
+                    "eventId,name,startDateTimeMillis,venueName,description,capacity,status,priceInline,ticketsSold",
+                    eventCount, this::events);
+            chunked(pool, parts, joins, dir.resolve("artists.csv"), "artistId,stageName,genre",
+                    artistCount, this::artists);
+            chunked(pool, parts, joins, dir.resolve("lineup.csv"), "eventId,position,artistId,notes",
+                    eventCount, this::lineup);
+            chunked(pool, parts, joins, dir.resolve("orders.csv"), "orderId,userId,createdAtMillis,status",
+                    orderCount, this::orders);
+            chunked(pool, parts, joins, dir.resolve("tickets.csv"),
+                    "ticketId,orderId,eventId,priceAmount,priceCurrency,seatLabel",
+                    orderCount, this::tickets);
+            chunked(pool, parts, joins, dir.resolve("payments.csv"),
+                    "paymentId,orderId,gatewayRef,type,amountInline,timestampMillis,status",
+                    orderCount, this::payments);
+            chunked(pool, parts, joins, dir.resolve("refunds.csv"),
+                    "refundId,orderId,reason,createdAtMillis,processedAtMillis,status,adminUserId,refundTxnId",
+                    orderCount, this::refunds);
+            for (int e = 1; e <= Math.min(seatMaps, eventCount); e++) {
+                int event = e;
+                parts.add(pool.submit(() -> {
+                    seatFile(dir, event);
+                    return null;
+                }));
+            }
+
+            for (Future<?> f : parts) {
+                f.get();
+            }
+            for (Runnable join : joins) {
+                join.run();
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Splits ids 1..count into part files written in parallel, joined in order afterwards
+    private void chunked(ExecutorService pool, List<Future<?>> parts, List<Runnable> joins,
+                         Path file, String header, int count, Rows rows) {
+        int chunks = Math.max(1, (count + CHUNK - 1) / CHUNK);
+        List<Path> pieces = new ArrayList<>(chunks);
+        for (int c = 0; c < chunks; c++) {
+            int from = 1 + c * CHUNK;
+            int to = Math.min(count + 1, from + CHUNK);
+            boolean first = (c == 0);
+            Path piece = (chunks == 1) ? file : file.resolveSibling(file.getFileName() + ".part" + c);
+            pieces.add(piece);
+            parts.add(pool.submit(() -> {
+                try (CsvWriter w = CsvWriter.create(piece)) {
+                    if (first) {
+                        w.comment(header);
+                    }
+                    rows.write(w, from, to);
+                }
+                return null;
+            }));
+        }
+        if (chunks > 1) {
+            joins.add(() -> concat(file, pieces));
+        }
+    }
+
+    private static void concat(Path file, List<Path> pieces) {
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Path piece : pieces) {
+                try (FileChannel in = FileChannel.open(piece, StandardOpenOption.READ)) {
+                    long pos = 0;
+                    long size = in.size();
+                    while (pos < size) {
+                        pos += in.transferTo(pos, size - pos, out);
+                    }
+                }
+                Files.delete(piece);
+            }
+        } catch (IOException e) {
+            throw new java.io.UncheckedIOException(e);
+        }
+    }
+
+    // =========================================================================
+    //  ROWS
+    // =========================================================================
+
+    private void users(CsvWriter w, int from, int to) throws IOException {
+        for (int id = from; id < to; id++) {
+            String name = pick(FIRST, NAME, id) + " " + pick(LAST, NAME, id * 31L + 7);
+            String email = "user" + id + "@example.com";
+            User u = (id <= adminCount)
+                    ? new VenueAdmin(id, name, email, "password" + id)
+                    : new ConcertGoer(id, name, email, "password" + id);
+            u.writeCsv(w);
+            w.endRow();
+        }
+    }
+
+    private Event event(int id) {
+        boolean upcoming = id > soldEvents;
+        Artist headliner = artist(1 + (int) (mix(LINEUP, id * 8L) % artistCount));
+        Event e = new Event(id, headliner.getStageName() + (upcoming ? " (announced)" : " Live"),
+                new Date(EPOCH + (upcoming ? 330 : 30) * DAY + (id % 300) * DAY),
+                pick(VENUES, VENUE, id), "Tour stop " + id + ", doors at 7pm",
+                capacity(id), upcoming && id % 3 == 0 ? EventStatus.DRAFT : EventStatus.PUBLISHED, price(id));
+        if (liveTickets[id] > 0) {
+            e.sellTickets(liveTickets[id]);
+        }
+        return e;
+    }
+
+    private void events(CsvWriter w, int from, int to) throws IOException {
+        for (int id = from; id < to; id++) {
+            event(id).writeCsv(w);
+            w.endRow();
+        }
+    }
+
+    private Artist artist(int id) {
+        return new Artist(id, pick(WORDS, NAME, id) + " " + pick(NOUNS, NAME, id * 17L + 3),
+                pick(GENRES, GENRE, id));
+    }
+
+    private void artists(CsvWriter w, int from, int to) throws IOException {
+        for (int id = from; id < to; id++) {
+            artist(id).writeCsv(w);
+            w.endRow();
+        }
+    }
+
+    private void lineup(CsvWriter w, int from, int to) throws IOException {
+        for (int e = from; e < to; e++) {
+            int acts = 1 + (int) (mix(LINEUP, e) % 3);
+            for (int pos = 1; pos <= acts; pos++) {
+                Artist a = artist(1 + (int) (mix(LINEUP, e * 8L + pos - 1) % artistCount));
+                String notes = (pos == 1) ? "Headliner" : (pos == 2 ? "Support, acoustic set" : "");
+                new LineupEntry(e, pos, notes, a).writeCsv(w);
+                w.endRow();
+            }
+        }
+    }
+
+    private Order order(int id) {
+        return Order.restore(id, buyer(id), orderDate(id), status(id));
+    }
+
+    private void orders(CsvWriter w, int from, int to) throws IOException {
+        for (int id = from; id < to; id++) {
+            order(id).writeCsv(w);
+            w.endRow();
+        }
+    }
+
+    private void tickets(CsvWriter w, int from, int to) throws IOException {
+        for (int o = from; o < to; o++) {
+            int event = orderEvent[o];
+            Money price = price(event);
+            for (int k = 0; k < tickets(o); k++) {
+                new Ticket(firstTicket[o] + k, o, event, price, "Seat " + (firstSeat[o] + k)).writeCsv(w);
+                w.endRow();
+            }
+        }
+    }
+
+    // Payment o is the order's AUTH/CHARGE; orderCount + o is its refund
+    private void payments(CsvWriter w, int from, int to) throws IOException {
+        for (int o = from; o < to; o++) {
+            OrderStatus s = status(o);
+            Order order = order(o);
+            Money total = price(orderEvent[o]).times(tickets(o));
+            Date paid = new Date(order.getCreatedAt().getTime() + 5_000);
+            PaymentType type = (s == OrderStatus.PENDING) ? PaymentType.AUTH : PaymentType.CHARGE;
+            PaymentStatus ps = s == OrderStatus.PENDING ? PaymentStatus.PENDING
+                             : s == OrderStatus.CANCELED ? PaymentStatus.FAILED : PaymentStatus.SUCCESS;
+            new PaymentTransaction(o, gatewayRef(o), type, total, paid, ps, order).writeCsv(w);
+            w.endRow();
+            if (s == OrderStatus.REFUNDED) {
+                new PaymentTransaction(orderCount + o, "refund_" + o, PaymentType.REFUND, total,
+                        new Date(refundDecided(o)), PaymentStatus.SUCCESS, order).writeCsv(w);
+                w.endRow();
+            }
+        }
+    }
+
+    private String gatewayRef(int order) {
+        return "txn_" + Long.toHexString(mix(TIME, order * 7L + 1) & 0xFFFFFFFFL);
+    }
+
+    private long refundDecided(int order) {
+        return orderDate(order).getTime() + (1 + mix(REFUND, order) % 20) * DAY;
+    }
+
+    // Refund o belongs to order o: approved for refunded orders, a few pending/denied for confirmed ones
+    private void refunds(CsvWriter w, int from, int to) throws IOException {
+        for (int o = from; o < to; o++) {
+            OrderStatus s = status(o);
+            int r = (int) (mix(REFUND, o * 3L + 1) % 100);
+            RefundStatus rs;
+            if (s == OrderStatus.REFUNDED) {
+                rs = RefundStatus.APPROVED;
+            } else if (s == OrderStatus.CONFIRMED && r < 2) {
+                rs = (r == 0) ? RefundStatus.PENDING : RefundStatus.DENIED;
+            } else {
+                continue;
+            }
+            long created = orderDate(o).getTime() + DAY;
+            boolean decided = rs != RefundStatus.PENDING;
+            int admin = 1 + (int) (mix(REFUND, o * 3L + 2) % adminCount);
+            RefundRequest.RawRefundRow raw = new RefundRequest.RawRefundRow(o, o, pick(REASONS, REFUND, o),
+                    new Date(created), decided ? new Date(refundDecided(o)) : null, rs,
+                    decided ? admin : -1, -1);
+            RefundRequest req = RefundRequest.fromRawRow(raw, order(o));
+            if (rs == RefundStatus.APPROVED) {
+                req.setRefundTxn(new PaymentTransaction(orderCount + o, "refund_" + o, PaymentType.REFUND,
+                        Money.zero("USD"), null, PaymentStatus.SUCCESS, null)); // only its id is written
+            }
+            req.writeCsv(w);
+            w.endRow();
+        }
+    }
+
+    private void seatFile(Path dir, int eventId) throws IOException {
+        Seating seating = SeatFactory.generateSeating(event(eventId));
+        for (int o = firstOrder[eventId]; o < firstOrder[eventId + 1]; o++) {
+            OrderStatus s = status(o);
+            if (s != OrderStatus.PENDING && s != OrderStatus.CONFIRMED) continue;
+            for (int k = 0; k < tickets(o); k++) {
+                seating.getInventory().transition(firstSeat[o] + k - 1, SeatStatus.AVAILABLE, SeatStatus.SOLD);
+            }
+        }
+        SeatingManager.writeCsv(dir.resolve("seats_event_" + eventId + ".csv"), seating);
+    }
+}
@@ -0,0 +1,70 @@
+package CTS.bench;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import CTS.booking.Order;
+import CTS.booking.Ticket;
+import CTS.enums.EventStatus;
+import CTS.event.Event;
+import CTS.gui.EventDetailsHelper;
+import CTS.misc.Money;
+
+/**
+ * Cost of resolving the event for each card of a booking history.
+ *
+ * "legacy" is the old EventDetailsHelper: parse events.csv once per order.
+ * "shared" is the current helper, an EventDatabase index hit.
+ *
+ * Usage: EventLookupBench [events] [orders]
+ */
+public class EventLookupBench {
+
+    public static void main(String[] args) throws Exception {
+        int eventCount = Bench.intArg(args, 0, 2_000);
+        int orderCount = Bench.intArg(args, 1, 200);
+
+        Path dir = Files.createTempDirectory("cts-lookup-bench");
+        System.setProperty("cts.data.dir", dir.toString()); // before EventDatabase loads
+        Path eventsFile = dir.resolve("events.csv");
+
+        List<Event> events = new ArrayList<>(eventCount);
+        for (int id = 1; id <= eventCount; id++) {
+            events.add(new Event(id, "Event " + id, new Date(), "Venue " + (id % 20),
+                    "Description, with a comma", 500, EventStatus.PUBLISHED, new Money(40.0, "USD")));
+        }
+        Event.saveToCsv(eventsFile, events);
+
+        List<Order> orders = new ArrayList<>(orderCount);
+        for (int id = 1; id <= orderCount; id++) {
+            Order o = new Order(id, 1);
+            o.addTicket(new Ticket(id, id, 1 + (id * 7) % eventCount, new Money(40.0, "USD"), "Seat 1"));
+            orders.add(o);
+        }
+
+        System.out.println("--- " + orderCount + " order cards, " + eventCount + " events ---");
+        Bench.time("legacy (events.csv parse per card)", 1, 3, () -> {
+            int found = 0;
+            for (Order o : orders) {
+                int wanted = o.getTickets().get(0).getEventId();
+                for (Event e : Event.loadFromCsv(eventsFile)) {
+                    if (e.getEventId() == wanted) {
+                        found++;
+                        break;
+                    }
+                }
+            }
+            return found;
+        });
+        Bench.time("shared (EventDatabase index)", 5, 50, () -> {
+            int found = 0;
+            for (Order o : orders) {
+                if (EventDetailsHelper.getEvent(o) != null) found++;
+            }
+            return found;
+        });
+    }
+}
@@ -0,0 +1,102 @@
+package CTS.bench;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import CTS.enums.EventStatus;
+import CTS.event.Artist;
+import CTS.event.Event;
+import CTS.event.EventDatabase;
+import CTS.event.EventPage;
+import CTS.event.EventQuery;
+import CTS.event.LineupEntry;
+import CTS.misc.Money;
+
+/**
+ * Faceted browsing over a large catalog: EventDatabase.query() against the
+ * old approach of streaming every event through a filter and sorting.
+ *
+ * Usage: EventQueryBench [events]
+ */
+public class EventQueryBench {
+
+    private static final String[] GENRES = { "rock", "pop", "jazz", "metal", "folk", "blues", "soul", "electronic" };
+    private static final long DAY = 24L * 60 * 60 * 1000;
+
+    public static void main(String[] args) throws Exception {
+        int n = Bench.intArg(args, 0, 100_000);
+        Random rnd = new Random(11);
+
+        Path dir = Files.createTempDirectory("cts-query-bench");
+        System.setProperty("cts.data.dir", dir.toString()); // before EventDatabase loads
+
+        List<Artist> artists = new ArrayList<>();
+        for (int i = 1; i <= 500; i++) {
+            artists.add(new Artist(i, "Artist " + i, GENRES[i % GENRES.length]));
+        }
+        long now = System.currentTimeMillis();
+        List<Event> events = new ArrayList<>(n);
+        List<LineupEntry> lineup = new ArrayList<>(n);
+        for (int id = 1; id <= n; id++) {
+            EventStatus status = (id % 10 == 0) ? EventStatus.DRAFT : EventStatus.PUBLISHED;
+            Event e = new Event(id, "Event " + id, new Date(now + rnd.nextInt(365) * DAY),
+                    "Venue " + rnd.nextInt(200), "", 1000, status, new Money(15 + rnd.nextInt(200), "USD"));
+            events.add(e);
+            lineup.add(new LineupEntry(id, 1, "", artists.get(rnd.nextInt(artists.size()))));
+        }
+        Event.saveToCsv(dir.resolve("events.csv"), events);
+        Artist.saveToCsv(dir.resolve("artists.csv"), artists);
+        LineupEntry.saveToCsv(dir.resolve("lineup.csv"), lineup);
+
+        long start = System.nanoTime();
+        List<Event> all = EventDatabase.getAllEvents(); // loads and indexes
+        System.out.printf("%-48s %12.1f ms%n", "load + index " + all.size() + " events", (System.nanoTime() - start) / 1e6);
+
+        Date from = new Date(now + 30 * DAY);
+        Date to = new Date(now + 90 * DAY);
+        Money lo = new Money(40.0, "USD");
+        Money hi = new Money(80.0, "USD");
+
+        System.out.println("--- first page of 20 ---");
+        Bench.time("legacy stream: published, by date", 3, 20, () ->
+                all.stream().filter(e -> e.getStatus() == EventStatus.PUBLISHED)
+                        .sorted(Comparator.comparing(Event::getStartDateTime))
+                        .limit(20).collect(Collectors.toList()));
+        Bench.time("query: published, by date (+facets)", 3, 200, () ->
+                EventDatabase.query(new EventQuery().limit(20)));
+
+        Bench.time("legacy stream: jazz, 2 months, $40-80", 3, 20, () ->
+                all.stream().filter(e -> e.getStatus() == EventStatus.PUBLISHED)
+                        .filter(e -> !e.getStartDateTime().before(from) && e.getStartDateTime().before(to))
+                        .filter(e -> e.getBasePrice().compareTo(lo) >= 0 && e.getBasePrice().compareTo(hi) <= 0)
+                        .filter(e -> e.getLineup().stream().anyMatch(l -> "jazz".equalsIgnoreCase(l.getArtist().getGenre())))
+                        .sorted(Comparator.comparing(Event::getBasePrice))
+                        .limit(20).collect(Collectors.toList()));
+        Bench.time("query: jazz, 2 months, $40-80 (+facets)", 3, 200, () ->
+                EventDatabase.query(new EventQuery().genre("jazz").between(from, to)
+                        .priceBetween(lo, hi).sortBy(EventQuery.Sort.PRICE).limit(20)));
+
+        Bench.time("query: one venue, available, by price", 3, 200, () ->
+                EventDatabase.query(new EventQuery().venue("Venue 7").availableOnly()
+                        .sortBy(EventQuery.Sort.PRICE).limit(20)));
+
+        System.out.println("--- paging through one venue ---");
+        Bench.time("query: every page of 20, by date", 1, 20, () -> {
+            EventQuery q = new EventQuery().venue("Venue 7").limit(20);
+            int pages = 0;
+            EventPage p;
+            do {
+                p = EventDatabase.query(q);
+                q.after(p.getNextCursor());
+                pages++;
+            } while (p.getNextCursor() != null);
+            return pages;
+        });
+    }
+}
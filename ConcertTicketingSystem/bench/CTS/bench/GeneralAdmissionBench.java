@@ -0,0 +1,147 @@
+package CTS.bench;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import CTS.seating.GeneralAdmissionInventory;
+
+/**
+ * Contention on one general-admission event from 1 to 128 threads: the
+ * striped GeneralAdmissionInventory against a single CAS counter and a
+ * synchronized counter.
+ *
+ * "churn" runs reserve(1) + release(1) pairs for a fixed time (buyers
+ * coming and going on a big event). "sell-out" sells a large capacity
+ * down to zero and checks that exactly capacity units were sold.
+ *
+ * Usage: GeneralAdmissionBench [millisPerRun] [sellOutCapacity]
+ */
+public class GeneralAdmissionBench {
+
+    private interface Counter {
+        boolean reserve(int n);
+        void release(int n);
+    }
+
+    private static final class CasCounter implements Counter {
+        private final AtomicLong left;
+
+        CasCounter(long capacity) {
+            left = new AtomicLong(capacity);
+        }
+
+        public boolean reserve(int n) {
+            while (true) {
+                long v = left.get();
+                if (v < n) return false;
+                if (left.compareAndSet(v, v - n)) return true;
+            }
+        }
+
+        public void release(int n) {
+            left.addAndGet(n);
+        }
+    }
+
+    private static final class LockedCounter implements Counter {
+        private long left;
+
+        LockedCounter(long capacity) {
+            left = capacity;
+        }
+
+        public synchronized boolean reserve(int n) {
+            if (left < n) return false;
+            left -= n;
+            return true;
+        }
+
+        public synchronized void release(int n) {
+            left += n;
+        }
+    }
+
+    private static Counter striped(int capacity) {
+        GeneralAdmissionInventory inv = new GeneralAdmissionInventory(capacity, 0);
+        return new Counter() {
+            public boolean reserve(int n) {
+                return inv.reserve(n);
+            }
+
+            public void release(int n) {
+                inv.release(n);
+            }
+        };
+    }
+
+    public static void main(String[] args) throws Exception {
+        int millis = Bench.intArg(args, 0, 300);
+        int sellOut = Bench.intArg(args, 1, 20_000_000);
+        System.out.println(Runtime.getRuntime().availableProcessors() + " cpus");
+
+        System.out.println("--- churn: reserve(1) + release(1), Mops/sec ---");
+        System.out.printf("%8s %12s %12s %12s%n", "threads", "synchronized", "single CAS", "striped");
+        for (int threads = 1; threads <= 128; threads *= 2) {
+            double locked = churn(new LockedCounter(1_000_000), threads, millis);
+            double cas = churn(new CasCounter(1_000_000), threads, millis);
+            double striped = churn(striped(1_000_000), threads, millis);
+            System.out.printf("%8d %12.1f %12.1f %12.1f%n", threads, locked, cas, striped);
+        }
+
+        System.out.println("--- sell-out of " + sellOut + " units, ms ---");
+        System.out.printf("%8s %12s %12s %12s%n", "threads", "synchronized", "single CAS", "striped");
+        for (int threads = 1; threads <= 128; threads *= 4) {
+            double locked = sellOut(new LockedCounter(sellOut), sellOut, threads);
+            double cas = sellOut(new CasCounter(sellOut), sellOut, threads);
+            double striped = sellOut(striped(sellOut), sellOut, threads);
+            System.out.printf("%8d %12.1f %12.1f %12.1f%n", threads, locked, cas, striped);
+        }
+    }
+
+    private static double churn(Counter c, int threads, int millis) throws Exception {
+        AtomicLong ops = new AtomicLong();
+        long deadline = System.nanoTime() + millis * 1_000_000L;
+        run(threads, () -> {
+            long n = 0;
+            while ((n & 1023) != 0 || System.nanoTime() < deadline) {
+                if (c.reserve(1)) c.release(1);
+                n++;
+            }
+            ops.addAndGet(n);
+        });
+        return ops.get() / (millis / 1000.0) / 1e6;
+    }
+
+    private static double sellOut(Counter c, int capacity, int threads) throws Exception {
+        AtomicLong sold = new AtomicLong();
+        long start = System.nanoTime();
+        run(threads, () -> {
+            long n = 0;
+            while (c.reserve(1)) n++;
+            sold.addAndGet(n);
+        });
+        double ms = (System.nanoTime() - start) / 1e6;
+        if (sold.get() != capacity) {
+            throw new IllegalStateException("sold " + sold.get() + " of " + capacity);
+        }
+        return ms;
+    }
+
+    private static void run(int threads, Runnable body) throws Exception {
+        CountDownLatch go = new CountDownLatch(1);
+        Thread[] ts = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            ts[i] = new Thread(() -> {
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                body.run();
+            });
+            ts[i].start();
+        }
+        go.countDown();
+        for (Thread t : ts) t.join();
+    }
+}
@@ -0,0 +1,49 @@
+package CTS.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import CTS.booking.HoldManager;
+import CTS.enums.SeatStatus;
+import CTS.misc.Money;
+import CTS.seating.Seat;
+import CTS.seating.Seating;
+
+/**
+ * How fast HoldManager can place and then expire a burst of single-seat
+ * holds (an on-sale where most carts are abandoned).
+ *
+ * Usage: HoldExpiryBench [holds] [ttlMillis]
+ */
+public class HoldExpiryBench {
+
+    public static void main(String[] args) throws Exception {
+        int holds = Bench.intArg(args, 0, 200_000);
+        int ttl = Bench.intArg(args, 1, 200);
+
+        List<Seat> seats = new ArrayList<>(holds);
+        for (int i = 1; i <= holds; i++) {
+            seats.add(new Seat(1, i, 1, "A", i, new Money(10.0, "USD")));
+        }
+        Seating seating = Seating.of(1, seats);
+        HoldManager manager = new HoldManager(10, 1024);
+
+        long start = System.nanoTime();
+        for (int i = 1; i <= holds; i++) {
+            manager.placeHold(1, seating, List.of(i), ttl);
+        }
+        long placed = System.nanoTime();
+        Bench.rate("placeHold", holds, placed - start, "holds");
+
+        while (manager.getExpiredCount() < holds) {
+            Thread.sleep(1);
+        }
+        long expired = System.nanoTime();
+
+        // Expiry can't start before the TTL, so measure from the first deadline
+        long expiryWindow = Math.max(1, expired - start - ttl * 1_000_000L);
+        Bench.rate("expire (after first deadline)", holds, expiryWindow, "holds");
+        System.out.println("available after expiry: " + seating.getInventory().count(SeatStatus.AVAILABLE));
+        manager.shutdown();
+    }
+}
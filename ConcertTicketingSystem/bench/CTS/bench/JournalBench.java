@@ -0,0 +1,93 @@
+package CTS.bench;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+import CTS.booking.Order;
+import CTS.booking.OrderDatabase;
+import CTS.booking.Ticket;
+import CTS.enums.PaymentStatus;
+import CTS.enums.PaymentType;
+import CTS.misc.Money;
+import CTS.misc.PaymentTransaction;
+
+/**
+ * Sustained bookings/sec with durable writes.
+ *
+ * "legacy" is the old purchase path: rewrite orders.csv and tickets.csv
+ * after every booking, so throughput falls as history grows. "journal"
+ * is OrderDatabase.createOrder + attachPayment + saveAll, which appends
+ * and fsyncs a few records per booking; with more threads, group commit
+ * shares each fsync between concurrent bookings.
+ *
+ * Usage: JournalBench [millisPerRound] [legacyHistory]
+ */
+public class JournalBench {
+
+    public static void main(String[] args) throws Exception {
+        int millis = Bench.intArg(args, 0, 2_000);
+        int history = Bench.intArg(args, 1, 50_000);
+
+        Path dir = Files.createTempDirectory("cts-journal-bench");
+        System.setProperty("cts.data.dir", dir.toString()); // before OrderDatabase loads
+
+        System.out.println("--- legacy: full CSV rewrite per booking ---");
+        for (int n = history / 4; n <= history; n *= 2) {
+            legacy(dir, n, millis);
+        }
+
+        System.out.println("--- journal: append + group-commit fsync ---");
+        Money price = new Money(25.0, "USD");
+        for (int threads = 1; threads <= 64; threads *= 4) {
+            LongAdder bookings = new LongAdder();
+            CountDownLatch done = new CountDownLatch(threads);
+            long deadline = System.nanoTime() + millis * 1_000_000L;
+            long start = System.nanoTime();
+
+            for (int t = 0; t < threads; t++) {
+                int user = t;
+                new Thread(() -> {
+                    List<Integer> seats = List.of(1, 2);
+                    while (System.nanoTime() < deadline) {
+                        Order o = OrderDatabase.createOrder(user, 1, seats);
+                        PaymentTransaction txn = new PaymentTransaction(
+                                0, "BENCH", PaymentType.CHARGE, price, new Date(), PaymentStatus.SUCCESS, o);
+                        OrderDatabase.attachPayment(o, txn);
+                        OrderDatabase.saveAll();
+                        bookings.increment();
+                    }
+                    done.countDown();
+                }).start();
+            }
+            done.await();
+            Bench.rate("journal, " + threads + " threads", bookings.sum(), System.nanoTime() - start, "bookings");
+        }
+    }
+
+    private static void legacy(Path dir, int n, int millis) throws Exception {
+        List<Order> orders = new ArrayList<>();
+        List<Ticket> tickets = new ArrayList<>();
+        OrderDatabaseBench.fill(n, orders, tickets);
+        Path ordersFile = dir.resolve("legacy-orders.csv");
+        Path ticketsFile = dir.resolve("legacy-tickets.csv");
+
+        Money price = new Money(25.0, "USD");
+        long count = 0;
+        long deadline = System.nanoTime() + millis * 1_000_000L;
+        long start = System.nanoTime();
+        while (System.nanoTime() < deadline) {
+            int id = orders.size() + 1;
+            orders.add(new Order(id, 1));
+            tickets.add(new Ticket(tickets.size() + 1, id, 1, price, "Seat 1"));
+            Order.saveToCsv(ordersFile, orders);
+            Ticket.saveToCsv(ticketsFile, tickets);
+            count++;
+        }
+        Bench.rate("legacy, history " + n, count, System.nanoTime() - start, "bookings");
+    }
+}
@@ -0,0 +1,88 @@
+package CTS.bench;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+
+import CTS.user.userDatabase;
+
+/**
+ * Login throughput: the old per-call hashing, the pooled digest with
+ * table hex encoding (userDatabase.login), and a session token lookup
+ * that skips hashing (userDatabase.getSessionUser).
+ *
+ * Usage: LoginBench [users] [threads]
+ */
+public class LoginBench {
+
+    private static final int OPS = 200_000;
+
+    public static void main(String[] args) throws Exception {
+        int users = Bench.intArg(args, 0, 10_000);
+        int threads = Bench.intArg(args, 1, 4);
+
+        userDatabase db = new userDatabase(Files.createTempDirectory("cts-login").resolve("users.csv"));
+        String[] tokens = new String[users];
+        for (int i = 0; i < users; i++) {
+            db.registerUser("User " + i, email(i), "password" + i, "USER");
+        }
+        for (int i = 0; i < users; i++) {
+            tokens[i] = db.openSession(email(i), "password" + i);
+        }
+
+        for (int t : new int[] { 1, threads }) {
+            System.out.println("--- " + t + " thread(s), " + OPS + " ops each ---");
+            run("legacy checkPassword (new digest, %02x)", t, users, i -> {
+                String h = legacyHash("password" + i);
+                return h.length() == 64;
+            });
+            run("login (pooled digest, table hex)", t, users,
+                    i -> db.login(email(i), "password" + i) != null);
+            run("session token lookup", t, users,
+                    i -> db.getSessionUser(tokens[i]) != null);
+        }
+    }
+
+    private interface Op {
+        boolean apply(int i) throws Exception;
+    }
+
+    private static void run(String name, int threads, int users, Op op) throws Exception {
+        // Warm-up on this thread
+        for (int i = 0; i < 50_000; i++) {
+            op.apply(i % users);
+        }
+        Thread[] workers = new Thread[threads];
+        Exception[] failure = new Exception[1];
+        long start = System.nanoTime();
+        for (int w = 0; w < threads; w++) {
+            int seed = w;
+            workers[w] = new Thread(() -> {
+                try {
+                    for (int i = 0; i < OPS; i++) {
+                        if (!op.apply((i * 31 + seed) % users)) throw new IllegalStateException("login failed");
+                    }
+                } catch (Exception e) {
+                    failure[0] = e;
+                }
+            });
+            workers[w].start();
+        }
+        for (Thread w : workers) w.join();
+        if (failure[0] != null) throw failure[0];
+        Bench.rate(name, (long) OPS * threads, System.nanoTime() - start, "logins");
+    }
+
+    private static String email(int i) {
+        return "user" + i + "@example.com";
+    }
+
+    // What User.hashPassword did before: a fresh digest and String.format per byte
+    private static String legacyHash(String password) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        byte[] hash = digest.digest(password.getBytes(StandardCharsets.UTF_8));
+        StringBuilder sb = new StringBuilder();
+        for (byte b : hash) sb.append(String.format("%02x", b));
+        return sb.toString();
+    }
+}
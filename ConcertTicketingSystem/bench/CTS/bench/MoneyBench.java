@@ -0,0 +1,125 @@
+package CTS.bench;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import CTS.booking.Order;
+import CTS.booking.Ticket;
+import CTS.misc.Money;
+
+/**
+ * Order-total computation over large carts.
+ *
+ * "legacy" is the old calculateTotal: sum getAmount() doubles and write
+ * the result into a mutable double Money (copied here as LegacyMoney).
+ * "fixed" is Order.calculateTotal on the long minor-unit Money, and
+ * "plus chain" folds the cart with Money.plus.
+ *
+ * Usage: MoneyBench [cartSize] [carts]
+ */
+public class MoneyBench {
+
+    public static void main(String[] args) throws Exception {
+        int cartSize = Bench.intArg(args, 0, 10_000);
+        int carts = Bench.intArg(args, 1, 100);
+
+        List<Order> orders = new ArrayList<>(carts);
+        List<List<LegacyTicket>> legacyCarts = new ArrayList<>(carts);
+        int id = 1;
+        for (int c = 0; c < carts; c++) {
+            Order o = new Order(c + 1, 1);
+            List<LegacyTicket> legacy = new ArrayList<>(cartSize);
+            for (int i = 0; i < cartSize; i++) {
+                double price = 10.0 + (i % 97) * 0.35;
+                o.addTicket(new Ticket(id++, c + 1, 1, new Money(price, "USD"), "Seat " + i));
+                legacy.add(new LegacyTicket(id, c + 1, 1, new LegacyMoney(price, "USD"), "Seat " + i));
+            }
+            orders.add(o);
+            legacyCarts.add(legacy);
+        }
+        long tickets = (long) cartSize * carts;
+
+        System.out.println("--- " + carts + " carts x " + cartSize + " tickets ---");
+        LegacyMoney legacyTotal = new LegacyMoney(0.0, "USD");
+        measure("legacy (double sum, mutable Money)", tickets, () -> {
+            double all = 0;
+            for (List<LegacyTicket> cart : legacyCarts) {
+                double sum = 0.0;
+                for (LegacyTicket t : cart) {
+                    if (t != null && t.price != null) {
+                        sum += t.price.amount;
+                    }
+                }
+                legacyTotal.amount = sum;
+                all += sum;
+            }
+            return all;
+        });
+        measure("fixed (Order.calculateTotal)", tickets, () -> {
+            double all = 0;
+            for (Order o : orders) {
+                all += o.calculateTotal();
+            }
+            return all;
+        });
+        measure("fixed (plus chain)", tickets, () -> {
+            long all = 0;
+            for (Order o : orders) {
+                Money sum = Money.zero("USD");
+                for (Ticket t : o.getTickets()) {
+                    sum = sum.plus(t.getPrice());
+                }
+                all += sum.getMinorUnits();
+            }
+            return all;
+        });
+
+        double legacySum = 0.0;
+        for (LegacyTicket t : legacyCarts.get(0)) legacySum += t.price.amount;
+        orders.get(0).calculateTotal();
+        System.out.printf("cart 0 total: legacy %s, fixed %s%n",
+                Double.toString(legacySum), orders.get(0).getTotalAmount());
+    }
+
+    private static void measure(String name, long tickets, Bench.Body body) throws Exception {
+        double ms = Bench.time(name, 20, 50, body);
+        long before = allocatedBytes();
+        body.run();
+        long bytes = allocatedBytes() - before;
+        System.out.printf("%-48s %12.2f ns/ticket %8d B/op allocated%n", "", ms * 1e6 / tickets, bytes);
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().threadId());
+    }
+
+    // Same shape as Ticket, so both carts have the same memory layout
+    private static final class LegacyTicket {
+        final int ticketId;
+        final int orderId;
+        final int eventId;
+        final LegacyMoney price;
+        final String seatLabel;
+
+        LegacyTicket(int ticketId, int orderId, int eventId, LegacyMoney price, String seatLabel) {
+            this.ticketId = ticketId;
+            this.orderId = orderId;
+            this.eventId = eventId;
+            this.price = price;
+            this.seatLabel = seatLabel;
+        }
+    }
+
+    // The pre-change Money layout: mutable double plus currency
+    private static final class LegacyMoney {
+        double amount;
+        final String currency;
+
+        LegacyMoney(double amount, String currency) {
+            this.amount = amount;
+            this.currency = currency;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package CTS.bench;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import CTS.booking.BookingResult;
+import CTS.booking.BookingService;
+import CTS.booking.HoldManager;
+import CTS.booking.OrderDatabase;
+import CTS.booking.SeatHold;
+import CTS.booking.Ticket;
+import CTS.enums.EventStatus;
+import CTS.enums.SeatStatus;
+import CTS.event.Event;
+import CTS.event.EventDatabase;
+import CTS.event.EventPage;
+import CTS.event.EventQuery;
+import CTS.metrics.Histogram;
+import CTS.metrics.Metrics;
+import CTS.misc.Money;
+import CTS.seating.Seating;
+import CTS.seating.SeatingManager;
+import CTS.user.ConcertGoer;
+
+/**
+ * Replays an on-sale rush against the in-process booking path.
+ *
+ * Simulated ConcertGoers arrive at random (Poisson) times, each on its own
+ * virtual thread. Each one browses events, opens the seat map, holds seats,
+ * pays, and sometimes asks for a refund, pausing between steps. Hot buyers
+ * pick exact seats in the headline event's front rows and fight over them;
+ * the rest take the best available block at any event.
+ *
+ * Prints throughput and p50/p99/p999 latency per step, then checks the
+ * books: no seat may be sold twice, no event may issue more tickets than
+ * it has seats, and every SOLD seat must have exactly one ticket. Exits 1
+ * on any violation.
+ *
+ * Usage: OnSaleLoadTest [goers] [arrivalsPerSec (0 = all at once)] [thinkMillis]
+ *                       [events] [seatsPerEvent] [hotPercent] [refundPercent] [seed]
+ */
+public class OnSaleLoadTest {
+
+    private static final String CARD = "4111 1111 1111 1111";
+    private static final int MAX_PARTY = 4;
+    private static final int HOT_ATTEMPTS = 3;
+
+    private static final String[] STEPS = { "browse", "open seats", "hold", "pay", "refund", "session" };
+    private static final int BROWSE = 0, OPEN = 1, HOLD = 2, PAY = 3, REFUND = 4, SESSION = 5;
+
+    private final int thinkMillis;
+    private final int hotPercent;
+    private final int refundPercent;
+
+    private final BookingService service;
+    private final List<Event> events = new ArrayList<>();
+    private final List<AtomicIntegerArray> seatOwners = new ArrayList<>(); // seat number -> orderId
+    private final int frontSeats;
+
+    private final Histogram[] latency = new Histogram[STEPS.length];
+    private final LongAdder confirmed = new LongAdder();
+    private final LongAdder ticketsSold = new LongAdder();
+    private final LongAdder soldOut = new LongAdder();
+    private final LongAdder holdExpired = new LongAdder();
+    private final LongAdder declined = new LongAdder();
+    private final LongAdder holdConflicts = new LongAdder();
+    private final LongAdder refunds = new LongAdder();
+    private final LongAdder doubleSold = new LongAdder();
+
+    public static void main(String[] args) throws Exception {
+        int goers = Bench.intArg(args, 0, 5_000);
+        int arrivalsPerSec = Bench.intArg(args, 1, 2_000);
+        int thinkMillis = Bench.intArg(args, 2, 10);
+        int eventCount = Bench.intArg(args, 3, 4);
+        int seatsPerEvent = Bench.intArg(args, 4, 2_000);
+        int hotPercent = Bench.intArg(args, 5, 30);
+        int refundPercent = Bench.intArg(args, 6, 5);
+        long seed = Bench.intArg(args, 7, 42);
+
+        System.setProperty("cts.data.dir", Files.createTempDirectory("cts-load").toString());
+        System.out.printf("%d goers, %s, think %d ms, %d events x %d seats, %d%% hot, %d%% refund, seed %d%n",
+                goers, arrivalsPerSec > 0 ? arrivalsPerSec + " arrivals/sec" : "all at once",
+                thinkMillis, eventCount, seatsPerEvent, hotPercent, refundPercent, seed);
+
+        BookingService service = new BookingService(HoldManager.shared());
+        OnSaleLoadTest test = new OnSaleLoadTest(service, eventCount, seatsPerEvent,
+                thinkMillis, hotPercent, refundPercent);
+        try {
+            long elapsed = test.run(goers, arrivalsPerSec, new SplittableRandom(seed));
+            test.report(goers, elapsed);
+            int violations = test.audit();
+            System.out.println(violations == 0 ? "No oversell or double-sell." : violations + " VIOLATIONS");
+            if (violations > 0) {
+                System.exit(1);
+            }
+        } finally {
+            test.deleteSeatFiles();
+            service.shutdown();
+            HoldManager.shared().shutdown();
+        }
+    }
+
+    OnSaleLoadTest(BookingService service, int eventCount, int seatsPerEvent,
+                   int thinkMillis, int hotPercent, int refundPercent) throws Exception {
+        this.service = service;
+        this.thinkMillis = thinkMillis;
+        this.hotPercent = hotPercent;
+        this.refundPercent = refundPercent;
+        this.frontSeats = Math.max(MAX_PARTY * 2, seatsPerEvent / 20);
+        for (int i = 0; i < STEPS.length; i++) {
+            latency[i] = new Histogram();
+        }
+
+        int firstId = EventDatabase.nextEventId();
+        long day = 24L * 60 * 60 * 1000;
+        for (int i = 0; i < eventCount; i++) {
+            Event e = new Event(firstId + i, "On Sale " + (i + 1), new Date(System.currentTimeMillis() + (i + 1) * day),
+                    "Arena " + (i % 3 + 1), "Load test", seatsPerEvent, EventStatus.PUBLISHED,
+                    new Money(45.0 + i * 10, "USD"));
+            EventDatabase.saveEvent(e);
+            events.add(e);
+            seatOwners.add(new AtomicIntegerArray(seatsPerEvent + 1));
+        }
+    }
+
+    /** Starts every goer on schedule and waits for all of them; returns elapsed nanos. */
+    long run(int goers, int arrivalsPerSec, SplittableRandom random) throws InterruptedException {
+        ThreadFactory factory = Thread.ofVirtual().name("goer-", 1).factory();
+        List<Thread> threads = new ArrayList<>(goers);
+        long start = System.nanoTime();
+        double at = 0;
+        for (int i = 1; i <= goers; i++) {
+            if (arrivalsPerSec > 0) {
+                at += -Math.log(1 - random.nextDouble()) / arrivalsPerSec; // exponential gaps
+                long wait = start + (long) (at * 1e9) - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+            ConcertGoer goer = new ConcertGoer(i, "Goer " + i, "goer" + i + "@load.test", "pw");
+            SplittableRandom own = random.split(); // each goer's choices depend only on the seed
+            Thread t = factory.newThread(() -> session(goer, own));
+            threads.add(t);
+            t.start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        return System.nanoTime() - start;
+    }
+
+    // =========================================================================
+    //  ONE BUYER
+    // =========================================================================
+
+    private void session(ConcertGoer goer, SplittableRandom random) {
+        long sessionStart = System.nanoTime();
+        try {
+            long t = System.nanoTime();
+            EventPage page = service.browse(new EventQuery().availableOnly().limit(20));
+            latency[BROWSE].record(System.nanoTime() - t);
+            think(random);
+
+            boolean hot = random.nextInt(100) < hotPercent;
+            List<Event> candidates = hot ? List.of(events.get(0)) : shuffled(page.getEvents(), random);
+            int party = 1 + random.nextInt(MAX_PARTY);
+
+            SeatHold hold = null;
+            int eventIndex = -1;
+            for (Event e : candidates) {
+                eventIndex = events.indexOf(e);
+                if (eventIndex < 0) continue; // someone else's event
+
+                t = System.nanoTime();
+                Seating seating = service.openSeating(e);
+                latency[OPEN].record(System.nanoTime() - t);
+
+                hold = hot ? holdFrontSeats(goer, seating, party, random) : null;
+                if (hold == null) {
+                    t = System.nanoTime();
+                    hold = service.holdBestAvailable(goer.getUserId(), seating, party, 0, null);
+                    latency[HOLD].record(System.nanoTime() - t);
+                }
+                if (hold != null) break;
+            }
+            if (hold == null) {
+                soldOut.increment();
+                return;
+            }
+            think(random);
+
+            t = System.nanoTime();
+            BookingResult result = service.purchase(List.of(hold), CARD);
+            latency[PAY].record(System.nanoTime() - t);
+            switch (result.getOutcome()) {
+                case CONFIRMED -> confirmed(eventIndex, hold, result);
+                case HOLD_EXPIRED -> holdExpired.increment();
+                case PAYMENT_DECLINED -> declined.increment();
+                case SOLD_OUT -> soldOut.increment();
+            }
+
+            if (result.isConfirmed() && random.nextInt(100) < refundPercent) {
+                think(random);
+                t = System.nanoTime();
+                service.requestRefund(result.getOrder(), "Can't make it");
+                latency[REFUND].record(System.nanoTime() - t);
+                refunds.increment();
+            }
+        } finally {
+            latency[SESSION].record(System.nanoTime() - sessionStart);
+        }
+    }
+
+    // Exact seats in the front rows, as a buyer clicking the seat map would
+    private SeatHold holdFrontSeats(ConcertGoer goer, Seating seating, int party, SplittableRandom random) {
+        for (int attempt = 0; attempt < HOT_ATTEMPTS; attempt++) {
+            int first = 1 + random.nextInt(frontSeats - party + 1);
+            List<Integer> seats = new ArrayList<>(party);
+            for (int k = 0; k < party; k++) {
+                seats.add(first + k);
+            }
+            long t = System.nanoTime();
+            SeatHold hold = service.hold(goer.getUserId(), seating, seats);
+            latency[HOLD].record(System.nanoTime() - t);
+            if (hold != null) {
+                return hold;
+            }
+            holdConflicts.increment();
+        }
+        return null;
+    }
+
+    private void confirmed(int eventIndex, SeatHold hold, BookingResult result) {
+        confirmed.increment();
+        AtomicIntegerArray owners = seatOwners.get(eventIndex);
+        int orderId = result.getOrder().getOrderId();
+        for (int seat : hold.getSeatNumbers()) {
+            ticketsSold.increment();
+            if (!owners.compareAndSet(seat, 0, orderId)) {
+                doubleSold.increment();
+                System.err.println("Seat " + seat + " of event " + events.get(eventIndex).getEventId()
+                        + " sold to orders " + owners.get(seat) + " and " + orderId);
+            }
+        }
+    }
+
+    private void think(SplittableRandom random) {
+        if (thinkMillis <= 0) return;
+        long nanos = (long) (-Math.log(1 - random.nextDouble()) * thinkMillis * 1_000_000L);
+        LockSupport.parkNanos(nanos);
+    }
+
+    private static List<Event> shuffled(List<Event> page, SplittableRandom random) {
+        List<Event> copy = new ArrayList<>(page);
+        for (int i = copy.size() - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            copy.set(j, copy.set(i, copy.get(j)));
+        }
+        return copy;
+    }
+
+    // =========================================================================
+    //  REPORT
+    // =========================================================================
+
+    void report(int goers, long elapsed) {
+        double secs = elapsed / 1e9;
+        System.out.printf("%n%.2f s wall, %.0f sessions/sec, %.0f bookings/sec, %.0f tickets/sec%n",
+                secs, goers / secs, confirmed.sum() / secs, ticketsSold.sum() / secs);
+        System.out.printf("confirmed=%d sold-out=%d hold-expired=%d declined=%d hold-conflicts=%d refunds=%d%n%n",
+                confirmed.sum(), soldOut.sum(), holdExpired.sum(), declined.sum(),
+                holdConflicts.sum(), refunds.sum());
+
+        System.out.printf("%-12s %9s %10s %10s %10s %10s %10s%n",
+                "step", "count", "ops/sec", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (int i = 0; i < STEPS.length; i++) {
+            Histogram h = latency[i];
+            System.out.printf("%-12s %9d %10.0f %10.3f %10.3f %10.3f %10.3f%n",
+                    STEPS[i], h.count(), h.count() / secs,
+                    h.percentile(0.50) / 1e6, h.percentile(0.99) / 1e6,
+                    h.percentile(0.999) / 1e6, h.max() / 1e6);
+        }
+
+        // The service's own view of the run
+        System.out.println();
+        System.out.print(Metrics.dump());
+    }
+
+    /** Cross-checks the seat maps and the order database; returns the number of violations. */
+    int audit() {
+        int violations = (int) doubleSold.sum();
+        System.out.println();
+        for (Event e : events) {
+            Seating seating = service.openSeating(e);
+            int sold = seating.getInventory().count(SeatStatus.SOLD);
+            List<Ticket> tickets = OrderDatabase.getTicketsForEvent(e.getEventId());
+            System.out.printf("event %d: %d of %d seats sold, %d tickets%n",
+                    e.getEventId(), sold, e.getCapacity(), tickets.size());
+            if (tickets.size() > e.getCapacity()) {
+                System.err.println("Event " + e.getEventId() + " oversold: " + tickets.size() + " tickets");
+                violations++;
+            }
+            if (sold != tickets.size()) {
+                System.err.println("Event " + e.getEventId() + ": " + sold + " SOLD seats but "
+                        + tickets.size() + " tickets");
+                violations++;
+            }
+        }
+        return violations;
+    }
+
+    void deleteSeatFiles() {
+        for (Event e : events) {
+            try {
+                Files.deleteIfExists(SeatingManager.csvFile(e.getEventId()));
+                Files.deleteIfExists(SeatingManager.binaryFile(e.getEventId()));
+            } catch (Exception ignored) { }
+        }
+    }
+}
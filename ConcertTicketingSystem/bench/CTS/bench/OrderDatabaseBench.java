@@ -0,0 +1,81 @@
+package CTS.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import CTS.booking.Order;
+import CTS.booking.OrderDatabase;
+import CTS.booking.Ticket;
+import CTS.misc.Money;
+
+/**
+ * Startup relink + lookup cost of OrderDatabase.
+ *
+ * "legacy" replays the old algorithm (a linear getOrderById scan per
+ * ticket); "indexed" is OrderDatabase.reload. Doubling the order count
+ * should roughly quadruple legacy and only double indexed.
+ *
+ * Usage: OrderDatabaseBench [maxOrders]
+ */
+public class OrderDatabaseBench {
+
+    public static void main(String[] args) throws Exception {
+        int maxOrders = Bench.intArg(args, 0, 40_000);
+
+        for (int n = maxOrders / 8; n <= maxOrders; n *= 2) {
+            List<Order> orders = new ArrayList<>(n);
+            List<Ticket> tickets = new ArrayList<>(n * 2);
+            fill(n, orders, tickets);
+
+            System.out.println("--- " + n + " orders / " + tickets.size() + " tickets ---");
+            Bench.time("legacy relink (scan per ticket)", 1, 3, () -> legacyRelink(orders, tickets));
+            Bench.time("indexed relink (OrderDatabase.reload)", 3, 10, () -> {
+                OrderDatabase.reload(orders, tickets);
+                return null;
+            });
+
+            int size = n;
+            int lookups = 100_000;
+            Bench.time("indexed getOrderById x" + lookups, 3, 10, () -> {
+                int hits = 0;
+                for (int i = 0; i < lookups; i++) {
+                    if (OrderDatabase.getOrderById(1 + (i % size)) != null) hits++;
+                }
+                return hits;
+            });
+        }
+    }
+
+    // Two tickets per order, spread over 10 users and 5 events
+    static void fill(int n, List<Order> orders, List<Ticket> tickets) {
+        Money price = new Money(25.0, "USD");
+        int ticketId = 1;
+        for (int id = 1; id <= n; id++) {
+            orders.add(new Order(id, id % 10));
+            for (int k = 0; k < 2; k++) {
+                tickets.add(new Ticket(ticketId++, id, id % 5, price, "Seat " + ticketId));
+            }
+        }
+    }
+
+    private static Object legacyRelink(List<Order> orders, List<Ticket> tickets) {
+        for (Order o : orders) {
+            for (Ticket t : new ArrayList<>(o.getTickets())) {
+                o.removeTicket(t);
+            }
+        }
+        for (Ticket t : tickets) {
+            Order parent = null;
+            for (Order o : orders) {
+                if (o.getOrderId() == t.getOrderId()) {
+                    parent = o;
+                    break;
+                }
+            }
+            if (parent != null) {
+                parent.addTicket(t);
+            }
+        }
+        return orders;
+    }
+}
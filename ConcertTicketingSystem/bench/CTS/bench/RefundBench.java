@@ -0,0 +1,95 @@
+package CTS.bench;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import CTS.booking.BookingResult;
+import CTS.booking.BookingService;
+import CTS.booking.BulkRefundResult;
+import CTS.booking.HoldManager;
+import CTS.booking.Order;
+import CTS.booking.SeatHold;
+import CTS.enums.EventStatus;
+import CTS.enums.SeatStatus;
+import CTS.event.Event;
+import CTS.misc.Money;
+import CTS.misc.RefundRequest;
+import CTS.seating.Seating;
+import CTS.seating.SeatingManager;
+
+/**
+ * Refunding a sold-out seated event through BookingService, with the
+ * gateway simulator's round trip (-Dcts.gateway.latencyMillis, default 30).
+ *
+ * The event is sold out in pairs of seats. The first orders are then
+ * refunded one request at a time, the way an admin used to approve them;
+ * cancelEvent() refunds all the rest as one batch. Both rates are printed,
+ * along with the one-at-a-time cost projected to the whole event.
+ *
+ * Usage: RefundBench [seats] [oneAtATime]
+ */
+public class RefundBench {
+
+    private static final String CARD = "4111111111111111";
+    private static final int EVENT_ID = 950_000;
+
+    public static void main(String[] args) throws Exception {
+        int seats = Bench.intArg(args, 0, 50_000);
+        int oneAtATime = Bench.intArg(args, 1, 200);
+        System.setProperty("cts.data.dir", Files.createTempDirectory("cts-refund-bench").toString());
+
+        BookingService service = new BookingService(HoldManager.shared());
+        Event event = new Event(EVENT_ID, "Farewell Tour", new Date(), "Stadium", "", seats,
+                EventStatus.PUBLISHED, new Money(80.0, "USD"));
+        try {
+            List<Order> orders = sellOut(service, event);
+            System.out.printf("%d seats sold as %d orders%n", seats, orders.size());
+
+            long start = System.nanoTime();
+            for (int i = 0; i < oneAtATime && i < orders.size(); i++) {
+                RefundRequest r = service.requestRefund(orders.get(i), "Can't make it");
+                service.approveRefunds(List.of(r), null);
+            }
+            double each = (System.nanoTime() - start) / 1e9 / oneAtATime;
+            System.out.printf("one at a time: %d refunds, %.1f ms each (%.0f s for the whole event)%n",
+                    oneAtATime, each * 1e3, each * orders.size());
+
+            start = System.nanoTime();
+            BulkRefundResult result = service.cancelEvent(event, null);
+            double secs = (System.nanoTime() - start) / 1e9;
+            System.out.printf("cancelEvent:   %s in %.2f s, %.0f refunds/sec%n",
+                    result, secs, result.getRefunded().size() / secs);
+
+            Seating seating = service.openSeating(event);
+            System.out.println("seats available again: "
+                    + seating.getInventory().count(SeatStatus.AVAILABLE) + " of " + seats);
+        } finally {
+            service.shutdown();
+            HoldManager.shared().shutdown();
+            Files.deleteIfExists(SeatingManager.binaryFile(EVENT_ID));
+            Files.deleteIfExists(SeatingManager.csvFile(EVENT_ID));
+        }
+    }
+
+    // Every seat, bought two at a time by concurrent sessions
+    private static List<Order> sellOut(BookingService service, Event event) {
+        Seating seating = service.openSeating(event);
+        List<CompletableFuture<BookingResult>> futures = new ArrayList<>();
+        for (int seat = 1; seat < event.getCapacity(); seat += 2) {
+            SeatHold hold = service.hold(seat, seating, List.of(seat, seat + 1));
+            futures.add(service.purchaseAsync(List.of(hold), CARD));
+        }
+        List<Order> orders = new ArrayList<>(futures.size());
+        for (CompletableFuture<BookingResult> f : futures) {
+            BookingResult r = f.join();
+            if (!r.isConfirmed()) {
+                throw new IllegalStateException("Setup purchase failed: " + r);
+            }
+            orders.add(r.getOrder());
+        }
+        return orders;
+    }
+}
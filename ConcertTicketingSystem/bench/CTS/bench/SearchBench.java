@@ -0,0 +1,135 @@
+package CTS.bench;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+import CTS.misc.SearchIndex;
+import CTS.misc.SearchIndex.Document;
+
+/**
+ * Builds a SearchIndex over a synthetic catalog and measures query latency
+ * against a linear "contains" scan of the same text.
+ *
+ * Usage: SearchBench [events]
+ */
+public class SearchBench {
+
+    private static final String[] WORDS = {
+        "summer", "night", "live", "tour", "festival", "acoustic", "electric", "reunion",
+        "anniversary", "world", "farewell", "unplugged", "session", "orchestra", "jam",
+        "sunset", "midnight", "arena", "legends", "showcase", "block", "party", "winter",
+    };
+    private static final String[] GENRES = {
+        "rock", "pop", "jazz", "metal", "hip hop", "folk", "electronic", "blues", "country", "soul",
+    };
+    private static final String[] VENUES = {
+        "Madison Arena", "Stade de France", "Red Rocks", "Royal Albert Hall", "Blue Note",
+        "Olympia", "Paradiso", "Fillmore", "Zénith", "Tivoli",
+    };
+
+    public static void main(String[] args) throws Exception {
+        int n = Bench.intArg(args, 0, 100_000);
+        Random rnd = new Random(7);
+
+        // Artist names are mostly unique made-up words
+        String[] artists = new String[n / 4 + 1];
+        for (int i = 0; i < artists.length; i++) {
+            artists[i] = syllables(rnd, 2 + rnd.nextInt(2)) + " " + syllables(rnd, 2);
+        }
+
+        String[][] text = new String[n][];
+        for (int i = 0; i < n; i++) {
+            String artist = artists[rnd.nextInt(artists.length)];
+            String name = artist + " " + WORDS[rnd.nextInt(WORDS.length)] + " " + WORDS[rnd.nextInt(WORDS.length)];
+            String venue = VENUES[rnd.nextInt(VENUES.length)];
+            String genre = GENRES[rnd.nextInt(GENRES.length)];
+            String desc = "An evening of " + genre + " with " + artist + " and special guests";
+            text[i] = new String[] { name, venue, desc, artist, genre };
+        }
+
+        SearchIndex<Integer> index = new SearchIndex<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            index.put(i + 1, i, doc(text[i]));
+        }
+        System.out.printf("%-48s %12.1f ms  (%d terms)%n", "build " + n + " events",
+                (System.nanoTime() - start) / 1e6, index.termCount());
+
+        String rareArtist = artists[3].split(" ")[0];
+        String[] queries = {
+            rareArtist,                                // rare term
+            "jazz",                                    // ~10% of events
+            "summer night",                            // two common terms
+            rareArtist.substring(0, 3),                // prefix of a rare term
+            "fe",                                      // short prefix: festival, farewell...
+            "Zenith rock",                             // folded accent + genre
+        };
+        System.out.println("--- query latency, top 20 ---");
+        for (String q : queries) {
+            long[] lat = new long[2_000];
+            int hits = 0;
+            for (int round = 0; round < 2; round++) {
+                for (int i = 0; i < lat.length; i++) {
+                    long t0 = System.nanoTime();
+                    hits = index.search(q, 20).size();
+                    lat[i] = System.nanoTime() - t0;
+                }
+            }
+            report("index \"" + q + "\" (" + hits + " shown)", lat);
+        }
+
+        System.out.println("--- linear contains scan (old approach) ---");
+        for (String q : new String[] { rareArtist, "jazz" }) {
+            String needle = q.toLowerCase(Locale.ROOT);
+            long[] lat = new long[50];
+            for (int i = 0; i < lat.length; i++) {
+                long t0 = System.nanoTime();
+                int hits = 0;
+                for (String[] t : text) {
+                    for (String field : t) {
+                        if (field.toLowerCase(Locale.ROOT).contains(needle)) {
+                            hits++;
+                            break;
+                        }
+                    }
+                }
+                lat[i] = System.nanoTime() - t0;
+                if (hits < 0) throw new IllegalStateException();
+            }
+            report("scan \"" + q + "\"", lat);
+        }
+
+        System.out.println("--- incremental update ---");
+        long[] lat = new long[10_000];
+        for (int i = 0; i < lat.length; i++) {
+            int id = 1 + rnd.nextInt(n);
+            String[] t = text[id - 1].clone();
+            t[0] = t[0] + " " + WORDS[i % WORDS.length] + " edition";
+            long t0 = System.nanoTime();
+            index.put(id, id - 1, doc(t));
+            lat[i] = System.nanoTime() - t0;
+        }
+        report("put (re-index one changed event)", lat);
+    }
+
+    private static Document doc(String[] t) {
+        return new Document().add(t[0], 10).add(t[1], 4).add(t[2], 1).add(t[3], 8).add(t[4], 4);
+    }
+
+    private static String syllables(Random rnd, int count) {
+        String[] s = { "ka", "lo", "mi", "ren", "to", "vax", "zu", "bel", "qui", "nor", "sha", "dro", "fen", "gli" };
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) sb.append(s[rnd.nextInt(s.length)]);
+        sb.setCharAt(0, Character.toUpperCase(sb.charAt(0)));
+        return sb.toString();
+    }
+
+    private static void report(String name, long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        double mean = Arrays.stream(sorted).average().orElse(0) / 1000.0;
+        System.out.printf("%-48s mean %8.1f us   p50 %8.1f us   p99 %8.1f us%n", name, mean,
+                sorted[sorted.length / 2] / 1000.0, sorted[(int) (sorted.length * 0.99)] / 1000.0);
+    }
+}
@@ -0,0 +1,111 @@
+package CTS.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import CTS.enums.SeatStatus;
+import CTS.misc.Money;
+import CTS.seating.Seat;
+import CTS.seating.Seating;
+
+/**
+ * Best-available allocation on a stadium-sized map: SeatAllocator against a
+ * straightforward scan of the seat list, on an empty venue and on one that
+ * is nearly sold out with the remaining seats scattered.
+ *
+ * Each op holds a block and releases it again, so the map stays the same.
+ *
+ * Usage: SeatAllocatorBench [sections] [rowsPerSection] [seatsPerRow]
+ */
+public class SeatAllocatorBench {
+
+    public static void main(String[] args) throws Exception {
+        int sections = Bench.intArg(args, 0, 40);
+        int rows = Bench.intArg(args, 1, 50);
+        int perRow = Bench.intArg(args, 2, 40);
+
+        Seating empty = venue(sections, rows, perRow);
+        Seating fragmented = venue(sections, rows, perRow);
+        Random rnd = new Random(5);
+        for (Seat s : fragmented.getSeats()) {
+            if (rnd.nextInt(100) < 95) s.markHeld(); // 95% gone, holes at random
+        }
+        System.out.printf("%d seats, %d left in the fragmented venue%n",
+                empty.size(), fragmented.getInventory().count(SeatStatus.AVAILABLE));
+
+        for (int party : new int[] { 2, 4, 6 }) {
+            System.out.println("--- party of " + party + " ---");
+            run("legacy scan, empty venue", empty, party, 200, s -> legacyHold(s, party));
+            run("allocator, empty venue", empty, party, 200_000, s -> s.getAllocator().hold(party));
+            run("legacy scan, 95% sold", fragmented, party, 200, s -> legacyHold(s, party));
+            run("allocator, 95% sold", fragmented, party, 200_000, s -> s.getAllocator().hold(party));
+        }
+
+        System.out.println("--- no row has room ---");
+        run("legacy scan, party of 12, 95% sold", fragmented, 12, 200, s -> legacyHold(s, 12));
+        run("allocator, party of 12, 95% sold", fragmented, 12, 200_000, s -> s.getAllocator().hold(12));
+    }
+
+    private interface Allocation {
+        List<Integer> hold(Seating seating);
+    }
+
+    private static void run(String name, Seating seating, int party, int ops, Allocation a) {
+        for (int i = 0; i < Math.min(ops, 20_000); i++) { // warm up
+            release(seating, a.hold(seating));
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ops; i++) {
+            release(seating, a.hold(seating));
+        }
+        Bench.rate(name, ops, System.nanoTime() - start, "holds");
+    }
+
+    private static void release(Seating seating, List<Integer> seats) {
+        if (seats != null) seating.releaseSeats(seats);
+    }
+
+    // First block of party free seats in one row, walking the seat views
+    private static List<Integer> legacyHold(Seating seating, int party) {
+        List<Seat> seats = seating.getSeats();
+        List<Integer> block = new ArrayList<>(party);
+        String row = null;
+        int section = -1;
+        for (Seat s : seats) {
+            if (s.getSectionId() != section || !s.getRowLabel().equals(row)) {
+                block.clear();
+                section = s.getSectionId();
+                row = s.getRowLabel();
+            }
+            if (s.getStatus() != SeatStatus.AVAILABLE) {
+                block.clear();
+                continue;
+            }
+            block.add(s.getSeatNumber());
+            if (block.size() == party) {
+                return seating.holdSeats(block) ? block : null;
+            }
+        }
+        return null;
+    }
+
+    private static Seating venue(int sections, int rows, int perRow) {
+        List<Seat> seats = new ArrayList<>(sections * rows * perRow);
+        Money price = new Money(45.0, "USD");
+        int num = 1;
+        for (int sec = 1; sec <= sections; sec++) {
+            for (int r = 0; r < rows; r++) {
+                String label = "R" + (r + 1);
+                for (int i = 0; i < perRow; i++, num++) {
+                    seats.add(new Seat(1, num, sec, label, num, price));
+                }
+            }
+        }
+        Seating seating = Seating.of(1, seats);
+        long start = System.nanoTime();
+        seating.getAllocator(); // built once per map, on first use
+        System.out.printf("%-48s %12.3f ms%n", "build allocator", (System.nanoTime() - start) / 1e6);
+        return seating;
+    }
+}
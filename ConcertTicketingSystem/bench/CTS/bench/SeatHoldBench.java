@@ -0,0 +1,62 @@
+package CTS.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import CTS.seating.Seat;
+import CTS.seating.Seating;
+import CTS.misc.Money;
+
+/**
+ * Multi-seat hold throughput on one Seating under increasing thread counts.
+ * Each operation holds a random block of 1-4 seats and releases it again.
+ *
+ * Usage: SeatHoldBench [seats] [millisPerRound]
+ */
+public class SeatHoldBench {
+
+    public static void main(String[] args) throws Exception {
+        int seatCount = Bench.intArg(args, 0, 20_000);
+        int millis = Bench.intArg(args, 1, 1_000);
+
+        List<Seat> seats = new ArrayList<>(seatCount);
+        for (int i = 1; i <= seatCount; i++) {
+            seats.add(new Seat(1, i, 1, "A", i, new Money(10.0, "USD")));
+        }
+        Seating seating = Seating.of(1, seats);
+
+        for (int threads = 1; threads <= 64; threads *= 2) {
+            LongAdder holds = new LongAdder();
+            LongAdder conflicts = new LongAdder();
+            CountDownLatch done = new CountDownLatch(threads);
+            long deadline = System.nanoTime() + millis * 1_000_000L;
+            long start = System.nanoTime();
+
+            for (int t = 0; t < threads; t++) {
+                new Thread(() -> {
+                    ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                    List<Integer> want = new ArrayList<>(4);
+                    while (System.nanoTime() < deadline) {
+                        want.clear();
+                        int first = 1 + rnd.nextInt(seatCount - 4);
+                        int n = 1 + rnd.nextInt(4);
+                        for (int k = 0; k < n; k++) want.add(first + k);
+                        if (seating.holdSeats(want)) {
+                            holds.increment();
+                            seating.releaseSeats(want);
+                        } else {
+                            conflicts.increment();
+                        }
+                    }
+                    done.countDown();
+                }).start();
+            }
+            done.await();
+            long elapsed = System.nanoTime() - start;
+            Bench.rate(threads + " threads (conflicts=" + conflicts.sum() + ")", holds.sum(), elapsed, "holds");
+        }
+    }
+}
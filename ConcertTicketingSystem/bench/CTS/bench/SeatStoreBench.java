@@ -0,0 +1,74 @@
+package CTS.bench;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import CTS.enums.EventStatus;
+import CTS.event.Event;
+import CTS.misc.Money;
+import CTS.seating.BinarySeatStore;
+import CTS.seating.SeatFactory;
+import CTS.seating.Seating;
+import CTS.seating.SeatingManager;
+
+/**
+ * Load and save latency of a stadium seat map, CSV vs BinarySeatStore.
+ *
+ * "save" is what GUIBookingFlow does after a sale: the CSV path rewrites
+ * every seat; the binary path has already written each changed status
+ * byte as the seats were sold, so the timing covers the sale itself.
+ *
+ * Usage: SeatStoreBench [seats]
+ */
+public class SeatStoreBench {
+
+    public static void main(String[] args) throws Exception {
+        int capacity = Bench.intArg(args, 0, 80_000);
+
+        Path dir = Files.createTempDirectory("cts-seat-bench");
+        Path csv = dir.resolve("seats_event_1.csv");
+        Path bin = dir.resolve("seats_event_1.bin");
+
+        Event event = new Event(1, "Stadium", new Date(), "Stadium", "", capacity,
+                EventStatus.PUBLISHED, new Money(65.0, "USD"));
+        Seating csvSeating = Seating.of(1, SeatFactory.generate(event));
+        SeatingManager.writeCsv(csv, csvSeating);
+        BinarySeatStore store = BinarySeatStore.convertCsv(csv, bin, 1);
+        Seating binSeating = store.load();
+
+        System.out.printf("--- %d seats: csv %d KB, binary %d KB ---%n",
+                capacity, Files.size(csv) / 1024, Files.size(bin) / 1024);
+
+        Bench.time("load: csv (readCsv)", 3, 10, () -> Seating.of(1, SeatingManager.readCsv(csv, 1)));
+        Bench.time("load: binary (open + load)", 3, 10, () -> BinarySeatStore.open(bin).load());
+
+        int[] next = {1};
+        Bench.time("save after a 2-seat sale: csv", 3, 20, () -> {
+            sellTwo(csvSeating, next);
+            SeatingManager.writeCsv(csv, csvSeating);
+            return csvSeating;
+        });
+        next[0] = 1;
+        Bench.time("save after a 2-seat sale: binary", 3, 20, () -> {
+            sellTwo(binSeating, next);
+            SeatingManager.save(binSeating);
+            return binSeating;
+        });
+        Bench.time("save after a 2-seat sale: binary + force", 3, 20, () -> {
+            sellTwo(binSeating, next);
+            SeatingManager.save(binSeating);
+            store.force();
+            return binSeating;
+        });
+    }
+
+    private static void sellTwo(Seating seating, int[] next) {
+        List<Integer> seats = new ArrayList<>(List.of(next[0], next[0] + 1));
+        next[0] += 2;
+        seating.holdSeats(seats);
+        seating.sellSeats(seats);
+    }
+}
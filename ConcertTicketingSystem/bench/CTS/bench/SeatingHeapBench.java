@@ -0,0 +1,79 @@
+package CTS.bench;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Date;
+import java.util.List;
+
+import CTS.enums.EventStatus;
+import CTS.enums.SeatStatus;
+import CTS.event.Event;
+import CTS.misc.Money;
+import CTS.seating.Seat;
+import CTS.seating.SeatFactory;
+import CTS.seating.Seating;
+
+/**
+ * Retained heap of one large event's seat map.
+ *
+ * "objects" is a List of standalone Seats as SeatFactory.generate builds
+ * them, the per-seat layout Seating used to hold (each with its own Money,
+ * row label and one-slot status). "compact" is the struct-of-arrays Seating.
+ *
+ * Usage: SeatingHeapBench [seats]
+ */
+public class SeatingHeapBench {
+
+    private static Object keep;
+
+    public static void main(String[] args) throws Exception {
+        int capacity = Bench.intArg(args, 0, 100_000);
+        Event event = new Event(1, "Stadium", new Date(), "Stadium", "", capacity,
+                EventStatus.PUBLISHED, new Money(65.0, "USD"));
+
+        System.out.println("--- " + capacity + " seats ---");
+        long objects = retained(() -> SeatFactory.generate(event));
+        long compact = retained(() -> SeatFactory.generateSeating(event));
+        report("objects (List<Seat>)", objects, capacity);
+        report("compact (Seating arrays)", compact, capacity);
+
+        Seating seating = SeatFactory.generateSeating(event);
+        Bench.time("compact: count SOLD via views", 3, 20, () -> {
+            int n = 0;
+            for (Seat s : seating.getSeats()) {
+                if (s.getStatus() == SeatStatus.SOLD) n++;
+            }
+            return n;
+        });
+        List<Seat> seats = SeatFactory.generate(event);
+        Bench.time("objects: count SOLD", 3, 20, () -> {
+            int n = 0;
+            for (Seat s : seats) {
+                if (s.getStatus() == SeatStatus.SOLD) n++;
+            }
+            return n;
+        });
+    }
+
+    private static long retained(Bench.Body build) throws Exception {
+        long before = usedAfterGc();
+        keep = build.run();
+        long after = usedAfterGc();
+        keep = null;
+        usedAfterGc();
+        return after - before;
+    }
+
+    private static long usedAfterGc() throws InterruptedException {
+        MemoryMXBean mem = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return mem.getHeapMemoryUsage().getUsed();
+    }
+
+    private static void report(String name, long bytes, int seats) {
+        System.out.printf("%-48s %9.1f MB %8.1f B/seat%n", name, bytes / 1e6, (double) bytes / seats);
+    }
+}
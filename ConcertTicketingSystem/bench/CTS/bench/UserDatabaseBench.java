@@ -0,0 +1,131 @@
+package CTS.bench;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import CTS.misc.CsvWriter;
+import CTS.user.User;
+import CTS.user.userDatabase;
+
+/**
+ * Registers a burst of users, then measures login lookups.
+ *
+ * The legacy numbers replay the old getUserByEmail (a scan of every user
+ * with equalsIgnoreCase) on the same data. Registration used to rewrite
+ * all of users.csv per signup; that is only timed for the first few
+ * thousand users, since at 1M it would not finish.
+ *
+ * Usage: UserDatabaseBench [users] [lookups]
+ */
+public class UserDatabaseBench {
+
+    public static void main(String[] args) throws Exception {
+        int n = Bench.intArg(args, 0, 1_000_000);
+        int lookups = Bench.intArg(args, 1, 200_000);
+        Path dir = Files.createTempDirectory("cts-users");
+
+        System.out.println("--- registration, " + n + " users ---");
+        userDatabase db = new userDatabase(dir.resolve("users.csv"));
+        long start = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            db.registerUser("User " + i, email(i), "pw" + i, (i % 100 == 0) ? "ADMIN" : "USER");
+        }
+        Bench.rate("registerUser (journal append)", n, System.nanoTime() - start, "users");
+
+        int legacyN = Math.min(n, 3_000);
+        Path legacyFile = dir.resolve("legacy.csv");
+        List<User> legacyUsers = new ArrayList<>();
+        start = System.nanoTime();
+        for (int i = 0; i < legacyN; i++) {
+            legacyUsers.add(db.getUserById(i + 1));
+            // old registerUser: full rewrite per signup
+            try (CsvWriter w = CsvWriter.create(legacyFile)) {
+                for (User u : legacyUsers) {
+                    u.writeCsv(w);
+                    w.endRow();
+                }
+            }
+        }
+        Bench.rate("legacy full rewrite (first " + legacyN + ")", legacyN, System.nanoTime() - start, "users");
+
+        System.out.println("--- login lookups ---");
+        Random rnd = new Random(42);
+        int[] ids = new int[lookups];
+        for (int i = 0; i < lookups; i++) {
+            ids[i] = rnd.nextInt(n);
+        }
+        // Mixed case, as typed by users
+        String[] typed = new String[lookups];
+        for (int i = 0; i < lookups; i++) {
+            typed[i] = email(ids[i]).toUpperCase();
+        }
+
+        long[] lat = new long[lookups];
+        for (int round = 0; round < 3; round++) { // warm up, keep last
+            for (int i = 0; i < lookups; i++) {
+                long t0 = System.nanoTime();
+                if (db.getUserByEmail(typed[i]) == null) throw new IllegalStateException(typed[i]);
+                lat[i] = System.nanoTime() - t0;
+            }
+        }
+        report("getUserByEmail (hash index)", lat);
+
+        for (int i = 0; i < lookups; i++) {
+            long t0 = System.nanoTime();
+            if (db.login(typed[i], "pw" + ids[i]) == null) throw new IllegalStateException(typed[i]);
+            lat[i] = System.nanoTime() - t0;
+        }
+        report("login (index + SHA-256)", lat);
+
+        // The scan is O(users); sample a few hundred lookups
+        List<User> all = allUsers(db, n);
+        int scans = Math.min(lookups, 300);
+        long[] scanLat = new long[scans];
+        for (int i = 0; i < scans; i++) {
+            long t0 = System.nanoTime();
+            if (legacyFind(all, typed[i]) == null) throw new IllegalStateException(typed[i]);
+            scanLat[i] = System.nanoTime() - t0;
+        }
+        report("legacy getUserByEmail (linear scan)", scanLat);
+
+        System.out.println("--- reload ---");
+        Bench.time("new userDatabase (snapshot + journal)", 1, 3,
+                () -> {
+                    userDatabase.unload(dir.resolve("users.csv")); // else the loaded users are reused
+                    return new userDatabase(dir.resolve("users.csv")).size();
+                });
+    }
+
+    private static String email(int i) {
+        return "user" + i + "@example.com";
+    }
+
+    private static List<User> allUsers(userDatabase db, int n) {
+        User[] all = new User[n];
+        for (int i = 0; i < n; i++) {
+            all[i] = db.getUserById(i + 1);
+        }
+        return Arrays.asList(all);
+    }
+
+    private static User legacyFind(List<User> users, String email) {
+        for (User user : users) {
+            if (user.getEmail().equalsIgnoreCase(email)) {
+                return user;
+            }
+        }
+        return null;
+    }
+
+    private static void report(String name, long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        double mean = Arrays.stream(sorted).average().orElse(0);
+        System.out.printf("%-48s mean %9.0f ns   p50 %9d ns   p99 %9d ns%n", name, mean,
+                sorted[sorted.length / 2], sorted[(int) (sorted.length * 0.99)]);
+    }
+}
@@ -6,9 +6,8 @@ import CTS.misc.*;
 import CTS.booking.*;
 import CTS.gui.MainMenuGUI;
 import CTS.gui.GUIApp;
-import CTS.enums.PaymentType; 
+import CTS.metrics.FlightRecording;
 import CTS.enums.EventStatus;
-import CTS.enums.PaymentStatus;
 import CTS.enums.RefundStatus;
 import CTS.enums.OrderStatus;
 import CTS.user.userDatabase;
@@ -65,6 +64,7 @@ public class Main {
     private int nextTicketId = 1;
 
     public static void main(String[] args) {
+        FlightRecording.startFromProperty(); // -Dcts.jfr=recording.jfr
         userDatabase udb = new userDatabase();
 
         MainMenuGUI gui = new MainMenuGUI(udb);
@@ -158,8 +158,7 @@ public class Main {
             List<PaymentTransaction.RawPaymentRow> raw = PaymentTransaction.loadRawRows(PAYMENTS_FILE);
             for (PaymentTransaction.RawPaymentRow r : raw) {
                 Order order = findOrderById(r.orderId); // Find the loaded order
-                PaymentTransaction txn = new PaymentTransaction(
-                        r.paymentId, r.gatewayRef, r.type, r.amount, r.timestamp, r.status, order);
+                PaymentTransaction txn = PaymentTransaction.fromRawRow(r, order);
                 
                 if (order != null) {
                     order.setPayment(txn); // Link payment to its order
@@ -334,7 +333,7 @@ public class Main {
             switch (choice) {
                 case 1 -> listEvents(events, false);
                 case 2 -> createEvent();
-                case 3 -> updateEventStatus();
+                case 3 -> updateEventStatus(admin);
                 case 4 -> manageLineup();
                 case 5 -> processRefundFlow(admin);
                 case 0 -> done = true;
@@ -415,64 +414,43 @@ public class Main {
             return;
         }
         
-        if (numTickets > event.getAvailableSeats()) {
-            System.out.println("Sorry, only " + event.getAvailableSeats() + " tickets are available.");
-            return;
-        }
-
-        // 5. Create Order
-        Order newOrder = new Order(nextOrderId++, goer.getUserId());
-        
-        // 6. Create Tickets and add to Order
-        for (int i = 0; i < numTickets; i++) {
-            String seatLabel = "General Admission, Seat " + (event.getTicketsSold() + 1);
-            
-            Ticket newTicket = new Ticket(
-                nextTicketId++,
-                newOrder.getOrderId(),
-                event.getEventId(),
-                event.getBasePrice(),
-                seatLabel
-            );
-            
-            event.sellTicket(); // Temporarily "sell" ticket
-            newOrder.addTicket(newTicket);
-            tickets.add(newTicket); // Add to master list (temporarily)
-        }
-        
-        // --- 7. NEW PAYMENT SIMULATION ---
-        System.out.println("\nOrder Total: " + newOrder.getTotalAmount());
+        // 5. Quote, then take payment details
+        BookingService service = BookingService.shared();
+        System.out.println("\nOrder Total: " + service.priceGeneralAdmission(event, numTickets));
         String fakeCard = readLine("Enter 16-digit card number to pay (or 0 to cancel): ");
         
         if (fakeCard.equals("0") || fakeCard.isBlank()) {
-            System.out.println("Payment canceled. Order voided.");
-            // We need to "un-sell" the tickets
-            for (int i = 0; i < numTickets; i++) {
-                event.unSellTicket(); 
-                tickets.remove(tickets.size() - 1); // Remove tickets we just added
-            }
+            System.out.println("Payment canceled. Nothing was booked.");
             return;
         }
         
         System.out.println("Processing payment...");
-        
-        // Create the successful payment transaction
-        PaymentTransaction txn = new PaymentTransaction(
-            nextPaymentId++,
-            "txn_" + UUID.randomUUID().toString().substring(0, 8), // Fake gateway ref
-            PaymentType.CHARGE, // <-- Use CHARGE from your enum
-            newOrder.getTotalAmount(),
-            new Date(),
-            PaymentStatus.SUCCESS,
-            newOrder // Link the order
-        );
-        
-        payments.add(txn); // Add to master list
-        newOrder.setPayment(txn); // Link payment to order (this also sets status to CONFIRMED)
-        
-        // --- END NEW PAYMENT SIMULATION ---
-        
-        orders.add(newOrder); // Add to master order list
+
+        // 6. Reserve, issue tickets, charge and persist in one call
+        BookingResult result = service.purchaseGeneralAdmission(goer.getUserId(), event, numTickets, fakeCard);
+        switch (result.getOutcome()) {
+            case SOLD_OUT -> {
+                System.out.println("Sorry, only " + event.getAvailableSeats() + " tickets are available.");
+                return;
+            }
+            case PAYMENT_DECLINED -> {
+                System.out.println("Card declined. Nothing was booked.");
+                return;
+            }
+            default -> { }
+        }
+        Order newOrder = result.getOrder();
+        PaymentTransaction txn = result.getPayment();
+
+        // 7. Keep this session's lists in step for "My Bookings" and saveAll()
+        orders.add(newOrder);
+        tickets.addAll(newOrder.getTickets());
+        payments.add(txn);
+        nextOrderId = Math.max(nextOrderId, newOrder.getOrderId() + 1);
+        for (Ticket t : newOrder.getTickets()) {
+            nextTicketId = Math.max(nextTicketId, t.getTicketId() + 1);
+        }
+        nextPaymentId = Math.max(nextPaymentId, txn.getPaymentId() + 1);
         
         // 8. Success!
         System.out.println("\n--- Booking Confirmed! ---");
@@ -619,8 +597,18 @@ public class Main {
         int choice = readInt("Choose option: ");
         
         if (choice == 1) {
-            request.approve(admin);
-            request.getOrder().markRefunded();
+            // Pays out through the gateway and puts the seats back on sale
+            BulkRefundResult result = BookingService.shared().approveRefunds(List.of(request), admin);
+            if (!result.getManual().isEmpty()) {
+                System.out.println("Refund " + request.getRefundId() + " has no gateway payment to refund against;"
+                        + " refund it by hand. It is still pending.");
+                return;
+            }
+            if (result.getRefunded().isEmpty()) {
+                System.out.println("The payment gateway refused refund " + request.getRefundId() + "; it is still pending.");
+                return;
+            }
+            payments.add(request.getRefundTxn());
             System.out.println("Refund " + request.getRefundId() + " has been APPROVED.");
         } else if (choice == 2) {
             String reason = readLine("Reason for denial: ");
@@ -694,7 +682,7 @@ public class Main {
         System.out.println("Created event with id=" + event.getEventId());
     }
 
-    private void updateEventStatus() {
+    private void updateEventStatus(VenueAdmin admin) {
         int id = readInt("Enter event id: ");
         Event event = findEventById(id);
         if (event == null) {
@@ -709,8 +697,8 @@ public class Main {
             event.publish();
             System.out.println("Event published.");
         } else if (choice == 2) {
-            event.cancel();
-            System.out.println("Event canceled.");
+            BulkRefundResult result = BookingService.shared().cancelEvent(event, admin);
+            System.out.println("Event canceled. Refunds: " + result);
         } else {
             System.out.println("No change.");
         }
@@ -0,0 +1,64 @@
+package CTS.booking;
+
+import CTS.misc.PaymentTransaction;
+
+/**
+ * Outcome of a BookingService purchase: the confirmed order and its
+ * payment, or why nothing was booked.
+ */
+public class BookingResult {
+
+    public enum Outcome {
+        CONFIRMED,
+        /** Not enough tickets left; nothing was reserved. */
+        SOLD_OUT,
+        /** A seat hold ran out before checkout; the seats are back on sale. */
+        HOLD_EXPIRED,
+        /** The card was refused; holds are kept so the buyer can retry. */
+        PAYMENT_DECLINED
+    }
+
+    private final Outcome outcome;
+    private final Order order;
+    private final PaymentTransaction payment;
+
+    private BookingResult(Outcome outcome, Order order, PaymentTransaction payment) {
+        this.outcome = outcome;
+        this.order = order;
+        this.payment = payment;
+    }
+
+    static BookingResult confirmed(Order order, PaymentTransaction payment) {
+        return new BookingResult(Outcome.CONFIRMED, order, payment);
+    }
+
+    static BookingResult failed(Outcome outcome) {
+        return new BookingResult(outcome, null, null);
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public boolean isConfirmed() {
+        return outcome == Outcome.CONFIRMED;
+    }
+
+    /** The new order; null unless confirmed. */
+    public Order getOrder() {
+        return order;
+    }
+
+    /**
+     * The card authorization (AUTH) for the order; null unless confirmed.
+     * The CHARGE is captured later, in a batch.
+     */
+    public PaymentTransaction getPayment() {
+        return payment;
+    }
+
+    @Override
+    public String toString() {
+        return isConfirmed() ? "CONFIRMED order " + order.getOrderId() : outcome.toString();
+    }
+}
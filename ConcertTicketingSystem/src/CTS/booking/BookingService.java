@@ -0,0 +1,394 @@
+package CTS.booking;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import CTS.enums.PaymentStatus;
+import CTS.enums.RefundStatus;
+import CTS.event.Event;
+import CTS.event.EventDatabase;
+import CTS.event.EventPage;
+import CTS.event.EventQuery;
+import CTS.metrics.CheckoutEvent;
+import CTS.metrics.CheckoutPhaseEvent;
+import CTS.metrics.Counter;
+import CTS.metrics.Histogram;
+import CTS.metrics.Metrics;
+import CTS.misc.Money;
+import CTS.misc.PaymentTransaction;
+import CTS.misc.RefundRequest;
+import CTS.payment.PaymentProcessor;
+import CTS.payment.SimulatedGateway;
+import CTS.seating.Seat;
+import CTS.seating.Seating;
+import CTS.seating.SeatingManager;
+import CTS.user.VenueAdmin;
+
+/**
+ * The booking path with no UI attached: browse, hold, price, pay, issue
+ * tickets and persist. The console and Swing front ends only gather input
+ * and show results; everything else happens here.
+ *
+ * Every step has a blocking method and an ...Async twin that runs it on
+ * its own virtual thread. Purchases block on file and journal I/O, so a
+ * virtual thread per request lets thousands of sessions wait at once
+ * without a thread pool to size (and keeps that I/O off the Swing EDT).
+ *
+ * Payment goes through a PaymentProcessor: checkout only authorizes the
+ * card, and no thread waits for the gateway's answer; the rest of the
+ * checkout continues when it arrives. Held seats are pinned meanwhile so
+ * they cannot expire mid-payment. The charge is captured later, in a batch;
+ * if that never succeeds the order is canceled and its seats go back on sale.
+ */
+public class BookingService {
+
+    // Built on first use: starting it re-queues captures left over from the last run
+    private static class Shared {
+        static final BookingService INSTANCE = new BookingService(HoldManager.shared());
+
+        static {
+            INSTANCE.payments.recoverPendingCaptures();
+        }
+    }
+
+    private static final Histogram PURCHASE_TIME = Metrics.histogram("booking.purchase");
+    private static final Counter[] OUTCOMES = new Counter[BookingResult.Outcome.values().length];
+
+    static {
+        for (BookingResult.Outcome o : BookingResult.Outcome.values()) {
+            OUTCOMES[o.ordinal()] = Metrics.counter("booking." + o.name().toLowerCase());
+        }
+    }
+
+    private final HoldManager holds;
+    private final PaymentProcessor payments;
+    private final OpenSeatings seatings = new OpenSeatings();
+    private final RefundEngine refunds;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public static BookingService shared() {
+        return Shared.INSTANCE;
+    }
+
+    /** Pays through a SimulatedGateway configured by the cts.gateway.* properties. */
+    public BookingService(HoldManager holds) {
+        this(holds, PaymentProcessor.create(SimulatedGateway.fromSystemProperties()));
+    }
+
+    public BookingService(HoldManager holds, PaymentProcessor payments) {
+        this.holds = holds;
+        this.payments = payments;
+        this.refunds = new RefundEngine(payments, seatings, RefundEngine.DEFAULT_MAX_IN_FLIGHT);
+        payments.onCaptureFailed(seatings::returnOrders);
+    }
+
+    // =========================================================================
+    //  BROWSE
+    // =========================================================================
+
+    public EventPage browse(EventQuery query) {
+        return EventDatabase.query(query);
+    }
+
+    /**
+     * The live seat map for an event, loaded from its seat file or generated
+     * on first use. Every caller gets the same Seating, so two sessions can
+     * never hold or sell the same seat.
+     */
+    public Seating openSeating(Event event) {
+        return seatings.open(event);
+    }
+
+    // =========================================================================
+    //  HOLD
+    // =========================================================================
+
+    /** Holds exactly these seats for userId, or returns null if any is taken. */
+    public SeatHold hold(int userId, Seating seating, List<Integer> seatNumbers) {
+        return holds.placeHold(userId, seating, seatNumbers, HoldManager.DEFAULT_HOLD_MILLIS);
+    }
+
+    /** Holds the best block of partySize adjacent seats, or returns null if no row has room. */
+    public SeatHold holdBestAvailable(int userId, Seating seating, int partySize, int sectionId, Money maxPrice) {
+        return holds.placeBestAvailableHold(userId, seating, partySize, sectionId, maxPrice,
+                HoldManager.DEFAULT_HOLD_MILLIS);
+    }
+
+    public boolean release(SeatHold hold) {
+        return holds.release(hold);
+    }
+
+    // =========================================================================
+    //  PRICE
+    // =========================================================================
+
+    /** What the held seats cost at their current prices. */
+    public Money price(List<SeatHold> seatHolds) {
+        Money total = null;
+        for (SeatHold h : seatHolds) {
+            for (int num : h.getSeatNumbers()) {
+                Seat seat = h.getSeating().getSeatByNumber(num);
+                total = (total == null) ? seat.getCurrentPrice() : total.plus(seat.getCurrentPrice());
+            }
+        }
+        if (total == null) {
+            throw new IllegalArgumentException("No seats held");
+        }
+        return total;
+    }
+
+    /** What count general-admission tickets cost. */
+    public Money priceGeneralAdmission(Event event, int count) {
+        return event.getBasePrice().times(count);
+    }
+
+    // =========================================================================
+    //  PAY + ISSUE + PERSIST
+    // =========================================================================
+
+    /**
+     * Checks out seat holds by one user: authorizes the card, sells the
+     * seats, issues one ticket per seat, makes it all durable and queues the
+     * capture. On failure nothing is sold (see BookingResult.Outcome for
+     * what happens to the holds). Blocks until done; see purchaseAsync.
+     */
+    public BookingResult purchase(List<SeatHold> seatHolds, String cardNumber) {
+        return await(purchaseAsync(seatHolds, cardNumber));
+    }
+
+    /**
+     * purchase() without blocking on the gateway: the future completes once
+     * the card is authorized and the order is durable.
+     */
+    public CompletableFuture<BookingResult> purchaseAsync(List<SeatHold> seatHolds, String cardNumber) {
+        if (seatHolds.isEmpty()) {
+            throw new IllegalArgumentException("No seats held");
+        }
+        List<SeatHold> copy = new ArrayList<>(seatHolds);
+        long start = System.nanoTime();
+        SeatHold first = copy.get(0);
+        int eventId = first.getSeating().getEventId();
+        CheckoutEvent jfr = CheckoutEvent.begin(first.getUserId(), eventId);
+
+        if (!isValidCard(cardNumber)) {
+            return done(start, jfr, BookingResult.failed(BookingResult.Outcome.PAYMENT_DECLINED));
+        }
+        Money amount = price(copy);
+        // The holds must outlive the gateway round trip
+        if (!holds.pin(copy)) {
+            return done(start, jfr, BookingResult.failed(BookingResult.Outcome.HOLD_EXPIRED));
+        }
+        return authorize(amount, cardNumber, eventId)
+                .thenApplyAsync(auth -> checkout(copy, auth), executor)
+                .whenComplete((result, error) -> holds.unpin(copy))
+                .thenApply(result -> finish(start, jfr, result));
+    }
+
+    private BookingResult checkout(List<SeatHold> seatHolds, PaymentTransaction auth) {
+        if (auth.getStatus() != PaymentStatus.SUCCESS) {
+            return BookingResult.failed(BookingResult.Outcome.PAYMENT_DECLINED);
+        }
+
+        // HELD -> SOLD and order creation in one step; fails if a hold was released meanwhile
+        Order order = holds.convertToOrder(seatHolds);
+        if (order == null) {
+            payments.voidAuthorization(auth);
+            return BookingResult.failed(BookingResult.Outcome.HOLD_EXPIRED);
+        }
+        Seating seating = seatHolds.get(0).getSeating();
+        CheckoutPhaseEvent phase = CheckoutPhaseEvent.begin(CheckoutPhaseEvent.SAVE_SEATS, seating.getEventId());
+        SeatingManager.save(seating);
+        phase.commit();
+
+        return BookingResult.confirmed(order, settle(order, auth, seating.getEventId()));
+    }
+
+    /**
+     * Books count unnumbered tickets for a general-admission event. The
+     * tickets are reserved in one step, so concurrent buyers cannot oversell.
+     * The event's sold count is saved with the event list as before.
+     */
+    public BookingResult purchaseGeneralAdmission(int userId, Event event, int count, String cardNumber) {
+        return await(purchaseGeneralAdmissionAsync(userId, event, count, cardNumber));
+    }
+
+    /** purchaseGeneralAdmission() without blocking on the gateway. */
+    public CompletableFuture<BookingResult> purchaseGeneralAdmissionAsync(int userId, Event event, int count,
+                                                                          String cardNumber) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("count must be positive");
+        }
+        long start = System.nanoTime();
+        CheckoutEvent jfr = CheckoutEvent.begin(userId, event.getEventId());
+
+        if (!isValidCard(cardNumber)) {
+            return done(start, jfr, BookingResult.failed(BookingResult.Outcome.PAYMENT_DECLINED));
+        }
+        CheckoutPhaseEvent phase = CheckoutPhaseEvent.begin(CheckoutPhaseEvent.SELL_SEATS, event.getEventId());
+        boolean reserved = event.sellTickets(count);
+        phase.commit();
+        if (!reserved) {
+            return done(start, jfr, BookingResult.failed(BookingResult.Outcome.SOLD_OUT));
+        }
+        return authorize(priceGeneralAdmission(event, count), cardNumber, event.getEventId())
+                .thenApplyAsync(auth -> checkoutGeneralAdmission(userId, event, count, auth), executor)
+                .thenApply(result -> finish(start, jfr, result));
+    }
+
+    private BookingResult checkoutGeneralAdmission(int userId, Event event, int count, PaymentTransaction auth) {
+        if (auth.getStatus() != PaymentStatus.SUCCESS) {
+            event.unSellTickets(count);
+            return BookingResult.failed(BookingResult.Outcome.PAYMENT_DECLINED);
+        }
+        Order order = OrderDatabase.createGeneralAdmissionOrder(
+                userId, event.getEventId(), event.getBasePrice(), count);
+        return BookingResult.confirmed(order, settle(order, auth, event.getEventId()));
+    }
+
+    private CompletableFuture<PaymentTransaction> authorize(Money amount, String cardNumber, int eventId) {
+        CheckoutPhaseEvent phase = CheckoutPhaseEvent.begin(CheckoutPhaseEvent.AUTHORIZE, eventId);
+        return payments.authorize(amount, cardNumber).whenComplete((auth, error) -> phase.commit());
+    }
+
+    // Records the authorization as the order's payment (which confirms it) and queues the capture
+    private PaymentTransaction settle(Order order, PaymentTransaction auth, int eventId) {
+        CheckoutPhaseEvent phase = CheckoutPhaseEvent.begin(CheckoutPhaseEvent.PAYMENT, eventId);
+        auth.setOrder(order);
+        OrderDatabase.attachPayment(order, auth);
+        payments.capture(auth, order.getTotalAmount());
+        phase.commit();
+        return auth;
+    }
+
+    private static CompletableFuture<BookingResult> done(long startNanos, CheckoutEvent jfr, BookingResult result) {
+        return CompletableFuture.completedFuture(finish(startNanos, jfr, result));
+    }
+
+    private static BookingResult finish(long startNanos, CheckoutEvent jfr, BookingResult result) {
+        PURCHASE_TIME.recordSince(startNanos);
+        OUTCOMES[result.getOutcome().ordinal()].inc();
+
+        jfr.end();
+        if (jfr.shouldCommit()) {
+            jfr.outcome = result.getOutcome().name();
+            Order order = result.getOrder();
+            if (order != null) {
+                jfr.orderId = order.getOrderId();
+                jfr.tickets = order.getTickets().size();
+                jfr.amount = order.getTotalAmount().getAmount();
+                jfr.currency = order.getTotalAmount().getCurrency();
+            }
+            jfr.commit();
+        }
+        return result;
+    }
+
+    // Blocking callers see the same exceptions as before the purchase went async
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /** Files a PENDING refund request for an order, for an admin to decide. */
+    public RefundRequest requestRefund(Order order, String reason) {
+        RefundRequest request = new RefundRequest(
+                RefundRequest.nextId(), order, new Date(), reason, RefundStatus.PENDING);
+        OrderDatabase.recordRefund(request);
+        return request;
+    }
+
+    /**
+     * Approves and pays out many PENDING refund requests in one batch (see
+     * RefundEngine): orders become REFUNDED and their seats go back on sale.
+     * Requests already decided are skipped.
+     */
+    public BulkRefundResult approveRefunds(List<RefundRequest> requests, VenueAdmin admin) {
+        return refunds.approve(requests, admin);
+    }
+
+    /** Cancels an event and refunds every confirmed order for it in one batch. */
+    public BulkRefundResult cancelEvent(Event event, VenueAdmin admin) {
+        return refunds.cancelEvent(event, admin, "Event canceled");
+    }
+
+    /** 16 digits; spaces and dashes are ignored. */
+    static boolean isValidCard(String cardNumber) {
+        if (cardNumber == null) return false;
+        int digits = 0;
+        for (int i = 0; i < cardNumber.length(); i++) {
+            char c = cardNumber.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits++;
+            } else if (c != ' ' && c != '-') {
+                return false;
+            }
+        }
+        return digits == 16;
+    }
+
+    // =========================================================================
+    //  ASYNC (one virtual thread per call)
+    // =========================================================================
+
+    public CompletableFuture<EventPage> browseAsync(EventQuery query) {
+        return submit(() -> browse(query));
+    }
+
+    public CompletableFuture<Seating> openSeatingAsync(Event event) {
+        return submit(() -> openSeating(event));
+    }
+
+    public CompletableFuture<SeatHold> holdAsync(int userId, Seating seating, List<Integer> seatNumbers) {
+        List<Integer> seats = new ArrayList<>(seatNumbers);
+        return submit(() -> hold(userId, seating, seats));
+    }
+
+    public CompletableFuture<SeatHold> holdBestAvailableAsync(int userId, Seating seating, int partySize,
+                                                              int sectionId, Money maxPrice) {
+        return submit(() -> holdBestAvailable(userId, seating, partySize, sectionId, maxPrice));
+    }
+
+    public CompletableFuture<RefundRequest> requestRefundAsync(Order order, String reason) {
+        return submit(() -> requestRefund(order, reason));
+    }
+
+    public CompletableFuture<BulkRefundResult> approveRefundsAsync(List<RefundRequest> requests, VenueAdmin admin) {
+        List<RefundRequest> copy = new ArrayList<>(requests);
+        return submit(() -> approveRefunds(copy, admin));
+    }
+
+    public CompletableFuture<BulkRefundResult> cancelEventAsync(Event event, VenueAdmin admin) {
+        return submit(() -> cancelEvent(event, admin));
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, executor);
+    }
+
+    /**
+     * Stops accepting async work (tests and tools). Running calls finish,
+     * then queued captures are sent and the gateway is shut down.
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        payments.shutdown();
+    }
+}
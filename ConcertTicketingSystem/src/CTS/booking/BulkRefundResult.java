@@ -0,0 +1,57 @@
+package CTS.booking;
+
+import java.util.Collections;
+import java.util.List;
+
+import CTS.misc.RefundRequest;
+
+/**
+ * Outcome of a bulk refund (BookingService.approveRefunds or cancelEvent):
+ * which requests were paid out, which the gateway refused, which need a
+ * manual refund, and how many were passed over because there was nothing
+ * left to refund.
+ */
+public class BulkRefundResult {
+
+    private final List<RefundRequest> refunded;
+    private final List<RefundRequest> failed;
+    private final List<RefundRequest> manual;
+    private final int skipped;
+
+    BulkRefundResult(List<RefundRequest> refunded, List<RefundRequest> failed, List<RefundRequest> manual,
+                     int skipped) {
+        this.refunded = Collections.unmodifiableList(refunded);
+        this.failed = Collections.unmodifiableList(failed);
+        this.manual = Collections.unmodifiableList(manual);
+        this.skipped = skipped;
+    }
+
+    /** Now APPROVED, with a successful refund transaction; their orders are REFUNDED. */
+    public List<RefundRequest> getRefunded() {
+        return refunded;
+    }
+
+    /** Refused by the gateway; still PENDING, so they can be tried again. */
+    public List<RefundRequest> getFailed() {
+        return failed;
+    }
+
+    /**
+     * Paid without a gateway reference, so there is nothing to refund
+     * against; still PENDING for an admin to refund by hand.
+     */
+    public List<RefundRequest> getManual() {
+        return manual;
+    }
+
+    /** Requests already decided, being refunded by another run, or whose order was not CONFIRMED. */
+    public int getSkipped() {
+        return skipped;
+    }
+
+    @Override
+    public String toString() {
+        return "refunded=" + refunded.size() + " failed=" + failed.size() + " manual=" + manual.size()
+                + " skipped=" + skipped;
+    }
+}
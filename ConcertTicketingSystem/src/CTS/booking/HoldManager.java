@@ -0,0 +1,288 @@
+package CTS.booking;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import CTS.metrics.CheckoutPhaseEvent;
+import CTS.metrics.Counter;
+import CTS.metrics.Metrics;
+import CTS.misc.Money;
+import CTS.seating.Seating;
+
+/**
+ * Creates SeatHolds and expires them when their time runs out.
+ *
+ * Expiry uses a hashed timer wheel: a ring of buckets, one per tick. A hold
+ * is dropped into the bucket of its deadline tick (O(1)), and each tick the
+ * reaper thread only looks at the one bucket that is due. Holds that end
+ * early (released or converted) are skipped lazily when their bucket comes
+ * round, so cancelling is O(1) too.
+ *
+ * Callers never touch the buckets: new holds go through a lock-free inbox
+ * that only the reaper drains.
+ */
+public class HoldManager {
+
+    /** Default time a GUI seat selection stays reserved. */
+    public static final long DEFAULT_HOLD_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private static final HoldManager SHARED = new HoldManager(100, 512);
+
+    // Totals across every HoldManager in the process
+    private static final Counter PLACED    = Metrics.counter("holds.placed");
+    private static final Counter REJECTED  = Metrics.counter("holds.rejected");
+    private static final Counter RELEASED  = Metrics.counter("holds.released");
+    private static final Counter CONVERTED = Metrics.counter("holds.converted");
+    private static final Counter EXPIRED   = Metrics.counter("holds.expired");
+
+    private final long tickNanos;
+    private final long startNanos;
+    private final int mask;
+    private final ArrayDeque<SeatHold>[] wheel;
+    private final ConcurrentLinkedQueue<SeatHold> inbox = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger nextHoldId = new AtomicInteger(1);
+    private final AtomicLong expiredCount = new AtomicLong();
+    private final Thread reaper;
+    private volatile boolean running = true;
+
+    // Only touched by the reaper thread
+    private long currentTick;
+
+    public static HoldManager shared() {
+        return SHARED;
+    }
+
+    /**
+     * @param tickMillis expiry resolution
+     * @param wheelSize  number of buckets (rounded up to a power of two)
+     */
+    @SuppressWarnings("unchecked")
+    public HoldManager(long tickMillis, int wheelSize) {
+        int size = Integer.highestOneBit(Math.max(2, wheelSize) - 1) << 1;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.startNanos = System.nanoTime();
+        this.mask = size - 1;
+        this.wheel = (ArrayDeque<SeatHold>[]) new ArrayDeque<?>[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new ArrayDeque<>();
+        }
+
+        this.reaper = new Thread(this::runReaper, "seat-hold-reaper");
+        reaper.setDaemon(true);
+        reaper.start();
+    }
+
+    // =========================================================================
+    //  PUBLIC API
+    // =========================================================================
+
+    /**
+     * Holds the given seats for userId (all or nothing) for ttlMillis.
+     * Returns null if any seat is not AVAILABLE.
+     */
+    public SeatHold placeHold(int userId, Seating seating, List<Integer> seatNumbers, long ttlMillis) {
+        if (!seating.holdSeats(seatNumbers)) {
+            REJECTED.inc();
+            return null;
+        }
+        return track(userId, seating, seatNumbers, ttlMillis);
+    }
+
+    /**
+     * Holds the best block of partySize adjacent seats for userId (see
+     * SeatAllocator), optionally within one section and price cap.
+     * Returns null if no row has room.
+     */
+    public SeatHold placeBestAvailableHold(int userId, Seating seating, int partySize,
+                                           int sectionId, Money maxPrice, long ttlMillis) {
+        List<Integer> seatNumbers = seating.getAllocator().hold(partySize, sectionId, maxPrice);
+        if (seatNumbers == null) {
+            REJECTED.inc();
+            return null;
+        }
+        return track(userId, seating, seatNumbers, ttlMillis);
+    }
+
+    // Wraps seats this manager just held in a SeatHold and schedules its expiry
+    private SeatHold track(int userId, Seating seating, List<Integer> seatNumbers, long ttlMillis) {
+        long now = System.currentTimeMillis();
+        SeatHold hold = new SeatHold(
+                nextHoldId.getAndIncrement(),
+                new Date(now),
+                new Date(now + ttlMillis),
+                userId,
+                seating,
+                seatNumbers
+        );
+        hold.deadlineTick = tickAt(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMillis));
+        inbox.add(hold);
+        PLACED.inc();
+        return hold;
+    }
+
+    /** Gives the seats back early. The wheel entry is discarded lazily. */
+    public boolean release(SeatHold hold) {
+        if (!hold.expire()) {
+            return false;
+        }
+        RELEASED.inc();
+        return true;
+    }
+
+    /**
+     * Turns several holds by the same user on the same Seating into a single
+     * Order. Returns null (and changes nothing) if any hold is no longer active.
+     * The order is created after the hold monitors are let go, so its journal
+     * wait neither pins a virtual thread's carrier nor stalls the reaper. If
+     * creating it fails, the seats go back on sale.
+     */
+    public Order convertToOrder(List<SeatHold> holds) {
+        if (holds.isEmpty()) {
+            return null;
+        }
+        List<SeatHold> ordered = new ArrayList<>(holds);
+        ordered.sort(Comparator.comparingInt(SeatHold::getHoldId)); // fixed lock order
+        List<Integer> seats = sellLocked(ordered, 0);
+        if (seats == null) {
+            return null;
+        }
+        SeatHold first = ordered.get(0);
+        try {
+            return OrderDatabase.createOrder(first.getUserId(), first.getSeating(), seats);
+        } catch (RuntimeException e) {
+            first.getSeating().returnSeats(seats);
+            throw e;
+        }
+    }
+
+    // Takes each hold's monitor in id order, then sells the seats and marks
+    // the holds converted with all of them held; returns the seats sold
+    private List<Integer> sellLocked(List<SeatHold> holds, int i) {
+        if (i < holds.size()) {
+            synchronized (holds.get(i)) {
+                return sellLocked(holds, i + 1);
+            }
+        }
+
+        SeatHold first = holds.get(0);
+        List<Integer> seats = new ArrayList<>();
+        for (SeatHold h : holds) {
+            if (!h.isActive() || h.getSeating() != first.getSeating() || h.getUserId() != first.getUserId()) {
+                return null;
+            }
+            seats.addAll(h.getSeatNumbers());
+        }
+        CheckoutPhaseEvent phase = CheckoutPhaseEvent.begin(CheckoutPhaseEvent.SELL_SEATS,
+                first.getSeating().getEventId());
+        boolean sold = first.getSeating().sellSeats(seats);
+        phase.commit();
+        if (!sold) {
+            return null;
+        }
+        for (SeatHold h : holds) {
+            h.markConverted();
+        }
+        CONVERTED.add(holds.size());
+        return seats;
+    }
+
+    /**
+     * Stops the holds from expiring while a checkout waits on the payment
+     * gateway (all or nothing). Returns false, pinning none, if any hold has
+     * already ended. A pinned hold past its deadline expires once unpinned.
+     */
+    public boolean pin(List<SeatHold> holds) {
+        for (int i = 0; i < holds.size(); i++) {
+            if (!holds.get(i).pin()) {
+                unpin(holds.subList(0, i));
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void unpin(List<SeatHold> holds) {
+        for (SeatHold h : holds) {
+            h.unpin();
+        }
+    }
+
+    /** Total holds this manager has expired so far. */
+    public long getExpiredCount() {
+        return expiredCount.get();
+    }
+
+    /** Stops the reaper thread (tests and tools). */
+    public void shutdown() {
+        running = false;
+        reaper.interrupt();
+    }
+
+    // =========================================================================
+    //  TIMER WHEEL
+    // =========================================================================
+
+    private long tickAt(long nanos) {
+        // Round up so a hold never expires before its deadline
+        return (nanos - startNanos + tickNanos - 1) / tickNanos;
+    }
+
+    private void runReaper() {
+        while (running) {
+            long target = (System.nanoTime() - startNanos) / tickNanos;
+            while (currentTick <= target) {
+                transferInbox();
+                expireBucket(currentTick);
+                currentTick++;
+            }
+            long sleepNanos = startNanos + currentTick * tickNanos - System.nanoTime();
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    if (!running) return;
+                }
+            }
+        }
+    }
+
+    private void transferInbox() {
+        SeatHold h;
+        while ((h = inbox.poll()) != null) {
+            if (!h.isActive()) continue;
+            // Deadlines already in the past land in the bucket being processed now
+            long tick = Math.max(h.deadlineTick, currentTick);
+            h.deadlineTick = tick;
+            wheel[(int) (tick & mask)].add(h);
+        }
+    }
+
+    private void expireBucket(long tick) {
+        ArrayDeque<SeatHold> bucket = wheel[(int) (tick & mask)];
+        int n = bucket.size();
+        for (int i = 0; i < n; i++) {
+            SeatHold h = bucket.poll();
+            if (!h.isActive()) {
+                continue; // released or converted earlier
+            }
+            if (h.deadlineTick > tick) {
+                bucket.add(h); // due on a later lap of the wheel
+            } else if (h.expireUnlessPinned()) {
+                expiredCount.incrementAndGet();
+                EXPIRED.inc();
+            } else if (h.isActive()) {
+                // Pinned by a checkout: look again next tick
+                h.deadlineTick = tick + 1;
+                wheel[(int) ((tick + 1) & mask)].add(h);
+            }
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package CTS.booking;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.zip.CRC32;
+
+import CTS.metrics.Counter;
+import CTS.metrics.FileIoEvent;
+import CTS.metrics.Histogram;
+import CTS.metrics.Metrics;
+
+/**
+ * Append-only, checksummed log of booking mutations.
+ *
+ * Each record is one text line:  crc32hex|TYPE|csvRow
+ * where csvRow is the entity's own toCsvRow() output. On startup the log is
+ * replayed on top of the snapshot CSVs; a line whose checksum does not
+ * match (e.g. a write torn by a crash) ends the replay.
+ *
+ * Writes use group commit: callers enqueue records and then wait until they
+ * are durable. Whichever waiter finds no flush running becomes the leader,
+ * writes everything queued so far and fsyncs once for the whole batch.
+ * Followers wait on a future for the running batch, outside the monitor,
+ * so a waiting virtual thread unmounts instead of pinning its carrier.
+ */
+public class Journal implements Closeable {
+
+    public enum RecordType { ORDER, TICKET, PAYMENT, REFUND }
+
+    /** One replayed record. */
+    public static class Entry {
+        public final RecordType type;
+        public final String row;
+
+        public Entry(RecordType type, String row) {
+            this.type = type;
+            this.row = row;
+        }
+    }
+
+    // Flush count over record count gives the average group-commit batch
+    private static final Histogram FLUSH_TIME = Metrics.histogram("journal.flush");
+    private static final Counter RECORDS = Metrics.counter("journal.records");
+
+    private final Path path;
+    private final FileChannel channel;
+    private final boolean fsync;
+
+    private final Object lock = new Object();
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private long enqueuedSeq;   // last sequence number handed out
+    private long durableSeq;    // last sequence number known to be on disk
+    private boolean flushing;
+    private CompletableFuture<Void> batchDone = new CompletableFuture<>(); // completes when the running flush ends
+    private int recordCount;    // records since the last reset()
+
+    /**
+     * Opens (or creates) the journal at path.
+     * @param fsync force each batch to the device; false only for tests/tools
+     */
+    public Journal(Path path, boolean fsync) throws IOException {
+        this.path = path;
+        this.fsync = fsync;
+        this.recordCount = replay(path).size();
+        this.channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /** Records appended since the journal was last compacted. */
+    public int size() {
+        synchronized (lock) {
+            return recordCount;
+        }
+    }
+
+    // =========================================================================
+    //  WRITING
+    // =========================================================================
+
+    /**
+     * Queues records without waiting for disk. Returns a sequence number to
+     * pass to awaitDurable(). Cheap enough to call while holding other locks,
+     * which keeps log order equal to in-memory mutation order.
+     */
+    public long enqueue(RecordType type, String row) {
+        synchronized (lock) {
+            encode(type, row);
+            recordCount++;
+            RECORDS.inc();
+            return ++enqueuedSeq;
+        }
+    }
+
+    /** Blocks until every record up to seq is written (and fsynced). */
+    public void awaitDurable(long seq) throws IOException {
+        while (true) {
+            byte[] batch;
+            long batchStart;
+            long batchEnd;
+            CompletableFuture<Void> running;
+            synchronized (lock) {
+                if (durableSeq >= seq) {
+                    return;
+                }
+                if (flushing) {
+                    running = batchDone;
+                    batch = null;
+                    batchStart = 0;
+                    batchEnd = 0;
+                } else {
+                    // Become the leader for everything queued so far
+                    flushing = true;
+                    running = null;
+                    batch = pending.toByteArray();
+                    pending = new ByteArrayOutputStream(Math.max(256, batch.length));
+                    batchStart = durableSeq;
+                    batchEnd = enqueuedSeq;
+                }
+            }
+            if (running != null) {
+                awaitBatch(running); // then look again: seq may be in the next batch
+                continue;
+            }
+
+            boolean ok = false;
+            long start = System.nanoTime();
+            FileIoEvent io = FileIoEvent.begin(FileIoEvent.FLUSH);
+            try {
+                ByteBuffer buf = ByteBuffer.wrap(batch);
+                while (buf.hasRemaining()) {
+                    channel.write(buf);
+                }
+                if (fsync) {
+                    channel.force(false);
+                }
+                ok = true;
+                FLUSH_TIME.recordSince(start);
+                io.finish(path, batchEnd - batchStart, batch.length);
+            } finally {
+                CompletableFuture<Void> done;
+                synchronized (lock) {
+                    flushing = false;
+                    if (ok) {
+                        durableSeq = batchEnd;
+                    }
+                    done = batchDone;
+                    batchDone = new CompletableFuture<>();
+                }
+                done.complete(null); // after a failed write a follower becomes leader and retries
+            }
+        }
+    }
+
+    private static void awaitBatch(CompletableFuture<Void> batch) throws IOException {
+        try {
+            batch.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for journal flush", e);
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /** Enqueue + awaitDurable for a single record. */
+    public void append(RecordType type, String row) throws IOException {
+        awaitDurable(enqueue(type, row));
+    }
+
+    /** Flushes everything queued so far. */
+    public void sync() throws IOException {
+        long seq;
+        synchronized (lock) {
+            seq = enqueuedSeq;
+        }
+        awaitDurable(seq);
+    }
+
+    /**
+     * Empties the journal after its contents were folded into snapshots.
+     * Records still queued are kept and written after the truncation.
+     */
+    public void reset() throws IOException {
+        sync();
+        synchronized (lock) {
+            channel.truncate(0);
+            if (fsync) {
+                channel.force(true);
+            }
+            recordCount = 0;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        sync();
+        channel.close();
+    }
+
+    private void encode(RecordType type, String row) {
+        String body = type.name() + "|" + row;
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        String prefix = String.format("%08x|", crc.getValue());
+        pending.writeBytes(prefix.getBytes(StandardCharsets.US_ASCII));
+        pending.writeBytes(bytes);
+        pending.write('\n');
+    }
+
+    // =========================================================================
+    //  REPLAY
+    // =========================================================================
+
+    /** Reads every valid record in order, stopping at the first corrupt line. */
+    public static List<Entry> replay(Path path) throws IOException {
+        List<Entry> result = new ArrayList<>();
+        if (!Files.exists(path)) {
+            return result;
+        }
+        try (BufferedReader br = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                Entry e = decode(line);
+                if (e == null) {
+                    System.err.println("Journal: stopping replay at corrupt record in " + path);
+                    break;
+                }
+                result.add(e);
+            }
+        }
+        return result;
+    }
+
+    private static Entry decode(String line) {
+        int bar = line.indexOf('|');
+        if (bar != 8) return null;
+        String body = line.substring(9);
+        int typeEnd = body.indexOf('|');
+        if (typeEnd < 0) return null;
+
+        CRC32 crc = new CRC32();
+        crc.update(body.getBytes(StandardCharsets.UTF_8));
+        long expected;
+        try {
+            expected = Long.parseLong(line.substring(0, 8), 16);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (crc.getValue() != expected) return null;
+
+        try {
+            RecordType type = RecordType.valueOf(body.substring(0, typeEnd));
+            return new Entry(type, body.substring(typeEnd + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
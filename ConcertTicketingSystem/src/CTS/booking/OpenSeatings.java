@@ -0,0 +1,82 @@
+package CTS.booking;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import CTS.event.Event;
+import CTS.event.EventDatabase;
+import CTS.seating.Seating;
+import CTS.seating.SeatingManager;
+
+/**
+ * A BookingService's live seat maps, one per event, so every session holds
+ * and sells against the same seats. Also hands inventory back when orders
+ * are undone: numbered seats go back on sale, general-admission tickets
+ * back to their event's count.
+ */
+class OpenSeatings {
+
+    private final Map<Integer, Seating> byEvent = new ConcurrentHashMap<>();
+
+    /** The event's seat map, loaded from its seat file or generated on first use. */
+    Seating open(Event event) {
+        return byEvent.computeIfAbsent(event.getEventId(), id -> SeatingManager.loadOrCreate(event));
+    }
+
+    /** The open seat map for an event, opening it if the event is known; else null. */
+    Seating forEvent(int eventId) {
+        Seating open = byEvent.get(eventId);
+        if (open != null) {
+            return open;
+        }
+        Event event = EventDatabase.getEventById(eventId);
+        return (event != null) ? open(event) : null;
+    }
+
+    /** Returns the inventory of every ticket on these orders. */
+    void returnOrders(List<Order> orders) {
+        List<Ticket> tickets = new ArrayList<>();
+        for (Order o : orders) {
+            tickets.addAll(OrderDatabase.getTicketsForOrder(o.getOrderId()));
+        }
+        returnTickets(tickets, null);
+    }
+
+    /**
+     * Returns the tickets' inventory, saving each seat map once. known
+     * stands in for its event's EventDatabase entry (an event being
+     * canceled, say); it may be null.
+     */
+    void returnTickets(List<Ticket> tickets, Event known) {
+        Map<Integer, List<Integer>> seatsByEvent = new HashMap<>();
+        Map<Integer, Integer> admissionsByEvent = new HashMap<>();
+        for (Ticket t : tickets) {
+            if (t.getSeatNumber() > 0) {
+                seatsByEvent.computeIfAbsent(t.getEventId(), k -> new ArrayList<>()).add(t.getSeatNumber());
+            } else {
+                admissionsByEvent.merge(t.getEventId(), 1, Integer::sum);
+            }
+        }
+
+        for (Map.Entry<Integer, List<Integer>> e : seatsByEvent.entrySet()) {
+            Seating seating = forEvent(e.getKey());
+            if (seating == null) {
+                System.err.println("No event " + e.getKey() + "; its seats were not released.");
+                continue;
+            }
+            seating.returnSeats(e.getValue());
+            SeatingManager.save(seating);
+        }
+        // General-admission counts are saved with the event list, as for purchases
+        for (Map.Entry<Integer, Integer> e : admissionsByEvent.entrySet()) {
+            Event event = (known != null && known.getEventId() == e.getKey())
+                    ? known : EventDatabase.getEventById(e.getKey());
+            if (event != null) {
+                event.unSellTickets(e.getValue());
+            }
+        }
+    }
+}
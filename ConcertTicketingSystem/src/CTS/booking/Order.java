@@ -4,9 +4,13 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
 
+import CTS.misc.CsvReader;
+import CTS.misc.CsvWriter;
 import CTS.misc.Money;
 import CTS.misc.PaymentTransaction;
 import CTS.enums.OrderStatus;
@@ -22,12 +26,17 @@ public class Order {
     // This is a temporary field, not saved to CSV.
     // It gets rebuilt by Main.java's rebuildOrdersAndTickets() method.
     private ArrayList<Ticket> shoppingCart; 
+    private List<Ticket> cartView;
+
+    // Told when the total or status changes (OrderDatabase's revenue cache)
+    private Consumer<Order> watcher;
 
     
      // Default constructor
      
     public Order() {
         this.shoppingCart = new ArrayList<>();
+        this.cartView = Collections.unmodifiableList(shoppingCart);
         this.createdAt = new Date();
         this.status = OrderStatus.PENDING; // Default status
         this.totalAmount = new Money(0.0, "USD");
@@ -53,6 +62,7 @@ public class Order {
     
     private Order(int orderId, int userId, Date createdAt, OrderStatus status) {
         this.shoppingCart = new ArrayList<>(); // Initialize empty cart
+        this.cartView = Collections.unmodifiableList(shoppingCart);
         this.orderID = orderId;
         this.userId = userId;
         this.createdAt = createdAt;
@@ -74,9 +84,8 @@ public class Order {
         return createdAt;
     }
 
+    /** Running total, kept up to date by addTicket/removeTicket/updateTicketPrice. */
     public Money getTotalAmount() {
-        // Recalculate just in case tickets were added
-        calculateTotal(); 
         return totalAmount;
     }
 
@@ -84,30 +93,42 @@ public class Order {
         return status;
     }
     
-    public ArrayList<Ticket> getTickets() {
-        return shoppingCart;
+    /** Read-only; change the cart through addTicket/removeTicket so the total stays right. */
+    public List<Ticket> getTickets() {
+        return cartView;
     }
 
     // --- Core Logic ---
 
     
-     // Recalculates the total price of all tickets in the cart.
+     // Recounts the total from the cart (exact, in minor units). Only needed
+     // as a check: the running total is maintained on every cart change.
      
     public double calculateTotal() {
-        double sum = 0.0;
+        totalAmount = Money.sum(shoppingCart, Ticket::getPrice, cartCurrency());
+        return totalAmount.getAmount();
+    }
+
+    // Currency of the first priced ticket; USD for an empty cart
+    private String cartCurrency() {
         for (Ticket t : shoppingCart) {
             if (t != null && t.getPrice() != null) {
-                sum += t.getPrice().getAmount();
+                return t.getPrice().getCurrency();
             }
         }
-        totalAmount.setAmount(sum);
-        return sum;
+        return "USD";
+    }
+
+    /** The order's payment: its capture once charged, its authorization before that. */
+    public PaymentTransaction getPayment() {
+        return payment;
     }
 
     public void setPayment(PaymentTransaction payment) {
         this.payment = payment;
         if (payment != null) {
             this.status = OrderStatus.CONFIRMED; // Update status on successful payment
+            changed();
         }
     }
     
@@ -116,7 +137,44 @@ public class Order {
     public void addTicket(Ticket ticket) {
         if (ticket != null) {
             shoppingCart.add(ticket);
-            calculateTotal(); // Update total when ticket is added
+            addToTotal(ticket.getPrice()); // O(1) update of the running total
+            changed();
+        }
+    }
+
+    /** Removes a ticket and takes its price off the total. */
+    public boolean removeTicket(Ticket ticket) {
+        if (ticket == null || !shoppingCart.remove(ticket)) {
+            return false;
+        }
+        if (ticket.getPrice() != null) {
+            totalAmount = totalAmount.minus(ticket.getPrice());
+        }
+        changed();
+        return true;
+    }
+
+    /** Changes the price of a ticket in this order, adjusting the total by the difference. */
+    public void updateTicketPrice(Ticket ticket, Money newPrice) {
+        if (!shoppingCart.contains(ticket)) {
+            throw new IllegalArgumentException("Ticket " + ticket.getTicketId() + " is not in order " + orderID);
+        }
+        Money old = ticket.getPrice();
+        ticket.setPrice(newPrice);
+        if (old != null) {
+            totalAmount = totalAmount.minus(old);
+        }
+        addToTotal(newPrice);
+        changed();
+    }
+
+    // An empty total takes the currency of the first priced ticket
+    private void addToTotal(Money price) {
+        if (price == null) return;
+        if (totalAmount.isZero() && !totalAmount.getCurrency().equals(price.getCurrency())) {
+            totalAmount = price;
+        } else {
+            totalAmount = totalAmount.plus(price);
         }
     }
 
@@ -124,10 +182,41 @@ public class Order {
 
     public void markRefunded() {
         this.status = OrderStatus.REFUNDED;
+        changed();
     }
 
     public void cancel() {
         this.status = OrderStatus.CANCELED;
+        changed();
+    }
+
+    // --- Used by OrderDatabase ---
+
+    void restoreStatus(OrderStatus status) {
+        this.status = status;
+        changed();
+    }
+
+    // Empties the cart before OrderDatabase relinks tickets
+    void clearTickets() {
+        shoppingCart.clear();
+        totalAmount = Money.zero(totalAmount.getCurrency());
+        changed();
+    }
+
+    void watch(Consumer<Order> watcher) {
+        this.watcher = watcher;
+    }
+
+    private void changed() {
+        if (watcher != null) {
+            watcher.accept(this);
+        }
+    }
+
+    // Links a payment without touching the (already persisted) status
+    void linkPayment(PaymentTransaction payment) {
+        this.payment = payment;
     }
     
     // =========================================================================
@@ -139,33 +228,45 @@ public class Order {
      * Format: orderId,userId,createdAtMillis,status
      */
     public String toCsvRow() {
+        return CsvWriter.toRow(this::writeCsv);
+    }
+
+    public void writeCsv(CsvWriter w) throws IOException {
         long millis = (createdAt != null) ? createdAt.getTime() : 0L;
-        return orderID + "," +
-               userId + "," +
-               millis + "," +
-               status.name();
+        w.field(orderID).field(userId).field(millis).field(status);
     }
 
     /**
      * Rebuilds an Order object from a CSV row.
      */
     public static Order fromCsvRow(String line) {
-        try {
-            String[] parts = line.split(",", 4);
-            int orderId = Integer.parseInt(parts[0]);
-            int userId = Integer.parseInt(parts[1]);
-            long millis = Long.parseLong(parts[2]);
-            OrderStatus status = OrderStatus.valueOf(parts[3]);
-            
-            Date createdAt = (millis == 0L) ? null : new Date(millis);
-            
-            return new Order(orderId, userId, createdAt, status);
+        try (CsvReader r = CsvReader.ofLine(line)) {
+            return r.next(FIELDS) ? fromCsv(r) : null;
         } catch (Exception e) {
             System.err.println("Skipping malformed order line: " + line);
             return null;
         }
     }
 
+    private static final int FIELDS = 4;
+
+    /** Builds an Order from the reader's current record. */
+    public static Order fromCsv(CsvReader r) {
+        int orderId = r.getInt(0);
+        int userId = r.getInt(1);
+        long millis = r.getLong(2);
+        OrderStatus status = r.getEnum(3, OrderStatus.class);
+
+        Date createdAt = (millis == 0L) ? null : new Date(millis);
+
+        return new Order(orderId, userId, createdAt, status);
+    }
+
+    /** An order as saved, for tools that build order rows without a CSV line. */
+    public static Order restore(int orderId, int userId, Date createdAt, OrderStatus status) {
+        return new Order(orderId, userId, createdAt, status);
+    }
+
     /**
      * Loads a list of all orders from orders.csv
      */
@@ -174,15 +275,14 @@ public class Order {
         if (!Files.exists(path)) {
             return orders; // Return empty list if no file
         }
-        
-        List<String> lines = Files.readAllLines(path);
-        for (String line : lines) {
-            if (line.trim().isEmpty() || line.startsWith("#")) {
-                continue;
-            }
-            Order o = fromCsvRow(line);
-            if (o != null) {
-                orders.add(o);
+
+        try (CsvReader r = CsvReader.open(path)) {
+            while (r.next(FIELDS)) {
+                try {
+                    orders.add(fromCsv(r));
+                } catch (RuntimeException e) {
+                    System.err.println("Skipping malformed order line " + r.lineNumber() + " in " + path);
+                }
             }
         }
         return orders;
@@ -192,11 +292,12 @@ public class Order {
      * Saves a list of all orders to orders.csv
      */
     public static void saveToCsv(Path path, List<Order> orders) throws IOException {
-        List<String> lines = new ArrayList<>();
-        lines.add("# orderId,userId,createdAtMillis,status");
-        for (Order o : orders) {
-            lines.add(o.toCsvRow());
+        try (CsvWriter w = CsvWriter.create(path)) {
+            w.comment("orderId,userId,createdAtMillis,status");
+            for (Order o : orders) {
+                o.writeCsv(w);
+                w.endRow();
+            }
         }
-        Files.write(path, lines);
     }
 }
\ No newline at end of file
@@ -1,102 +1,733 @@
 package CTS.booking;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntFunction;
 
+import CTS.booking.Journal.RecordType;
+import CTS.enums.PaymentStatus;
+import CTS.enums.PaymentType;
+import CTS.enums.RefundStatus;
+import CTS.metrics.CheckoutPhaseEvent;
+import CTS.metrics.Counter;
+import CTS.metrics.FileIoEvent;
+import CTS.metrics.RefundEvent;
+import CTS.metrics.Histogram;
+import CTS.metrics.Metrics;
+import CTS.misc.IntIndex;
+import CTS.misc.Money;
 import CTS.misc.PaymentTransaction;
+import CTS.misc.PaymentTransaction.RawPaymentRow;
+import CTS.misc.RefundRequest;
+import CTS.misc.RefundRequest.RawRefundRow;
+import CTS.seating.Seat;
+import CTS.seating.Seating;
 
+/**
+ * Process-wide store for orders, tickets, payments and refunds.
+ *
+ * The CSV files are snapshots. Every mutation is appended to a journal
+ * (see Journal) instead of rewriting them, so a purchase costs O(1) I/O.
+ * On startup the snapshots are loaded and the journal is replayed on top;
+ * compact() folds the journal back into fresh snapshots.
+ */
 public class OrderDatabase {
 
-    private static final Path ORDERS_FILE  = Paths.get("orders.csv");
-    private static final Path TICKETS_FILE = Paths.get("tickets.csv");
+    /** Notified (on the writer's thread) after orders, payments or refunds change. */
+    public interface Listener {
+        void ordersChanged();
+    }
+
+    /** Directory holding the CSV snapshots and the journal (-Dcts.data.dir). */
+    private static final Path DATA_DIR = Paths.get(System.getProperty("cts.data.dir", "."));
+
+    private static final Path ORDERS_FILE   = DATA_DIR.resolve("orders.csv");
+    private static final Path TICKETS_FILE  = DATA_DIR.resolve("tickets.csv");
+    private static final Path PAYMENTS_FILE = DATA_DIR.resolve("payments.csv");
+    private static final Path REFUNDS_FILE  = DATA_DIR.resolve("refunds.csv");
+    private static final Path JOURNAL_FILE  = DATA_DIR.resolve("bookings.journal");
+
+    /** The journal is compacted once it holds this many records. */
+    private static final int COMPACT_THRESHOLD = 50_000;
 
     private static List<Order> orders = new ArrayList<>();
     private static List<Ticket> tickets = new ArrayList<>();
+    private static List<PaymentTransaction> payments = new ArrayList<>();
+    private static List<RefundRequest> refunds = new ArrayList<>();
+
+    // --- Indexes (kept in sync by index(Order) / index(Ticket)) ---
+    private static IntIndex<Order> orderById = new IntIndex<>();
+    private static IntIndex<List<Ticket>> ticketsByOrder = new IntIndex<>();
+    private static IntIndex<List<Order>> ordersByUser = new IntIndex<>();
+    private static IntIndex<List<Ticket>> ticketsByEvent = new IntIndex<>();
+    private static IntIndex<PaymentTransaction> paymentById = new IntIndex<>();
+    private static Map<String, PaymentTransaction> paymentByRef = new HashMap<>(); // gateway callbacks
+    private static IntIndex<RefundRequest> refundById = new IntIndex<>();
+    private static IntIndex<List<RefundRequest>> refundsByOrder = new IntIndex<>();
+
+    // Confirmed revenue per user/event, updated by each order's watcher
+    private static RevenueCache revenue = new RevenueCache();
 
     private static int nextOrderId = 1;
     private static int nextTicketId = 1;
 
+    private static Journal journal;
+    private static volatile int compactThreshold = COMPACT_THRESHOLD;
+    private static final AtomicBoolean compacting = new AtomicBoolean();
+
+    private static final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private static final Histogram LOAD_TIME = Metrics.histogram("orders.load");
+    private static final Histogram SNAPSHOT_TIME = Metrics.histogram("orders.snapshot");
+    private static final Counter[] REFUNDS = new Counter[RefundStatus.values().length];
+
     // Load once at startup
     static {
+        for (RefundStatus s : RefundStatus.values()) {
+            REFUNDS[s.ordinal()] = Metrics.counter("refunds." + s.name().toLowerCase());
+        }
+        long start = System.nanoTime();
+        load();
+        LOAD_TIME.recordSince(start);
+
+        Metrics.gauge("orders.count", () -> {
+            synchronized (OrderDatabase.class) {
+                return orders.size();
+            }
+        });
+        Metrics.gauge("orders.journal_records", () -> journal == null ? 0 : journal.size());
+    }
+
+    // =========================================================================
+    //  STARTUP: SNAPSHOTS + JOURNAL REPLAY
+    // =========================================================================
+
+    private static void load() {
+        // Keyed by id so a later journal record replaces the snapshot row
+        Map<Integer, Order> loadedOrders = new LinkedHashMap<>();
+        Map<Integer, Ticket> loadedTickets = new LinkedHashMap<>();
+        Map<Integer, RawPaymentRow> loadedPayments = new LinkedHashMap<>();
+        Map<Integer, RawRefundRow> loadedRefunds = new LinkedHashMap<>();
+
+        FileIoEvent io = FileIoEvent.begin(FileIoEvent.LOAD);
+        try {
+            for (Order o : Order.loadFromCsv(ORDERS_FILE)) loadedOrders.put(o.getOrderId(), o);
+        } catch (IOException e) {}
+        io.finish(ORDERS_FILE, loadedOrders.size());
+
+        io = FileIoEvent.begin(FileIoEvent.LOAD);
+        try {
+            for (Ticket t : Ticket.loadFromCsv(TICKETS_FILE)) loadedTickets.put(t.getTicketId(), t);
+        } catch (IOException e) {}
+        io.finish(TICKETS_FILE, loadedTickets.size());
+
+        io = FileIoEvent.begin(FileIoEvent.LOAD);
         try {
-            orders = Order.loadFromCsv(ORDERS_FILE);
-            for (Order o : orders) {
-                nextOrderId = Math.max(nextOrderId, o.getOrderId() + 1);
+            for (RawPaymentRow p : PaymentTransaction.loadRawRows(PAYMENTS_FILE)) loadedPayments.put(p.paymentId, p);
+        } catch (Exception e) {
+            System.err.println("Could not load " + PAYMENTS_FILE + ": " + e.getMessage());
+        }
+        io.finish(PAYMENTS_FILE, loadedPayments.size());
+
+        io = FileIoEvent.begin(FileIoEvent.LOAD);
+        try {
+            for (RawRefundRow r : RefundRequest.loadRawRows(REFUNDS_FILE)) loadedRefunds.put(r.refundId, r);
+        } catch (Exception e) {
+            System.err.println("Could not load " + REFUNDS_FILE + ": " + e.getMessage());
+        }
+        io.finish(REFUNDS_FILE, loadedRefunds.size());
+
+        io = FileIoEvent.begin(FileIoEvent.LOAD);
+        int replayed = 0;
+        try {
+            for (Journal.Entry e : Journal.replay(JOURNAL_FILE)) {
+                replayed++;
+                try {
+                    switch (e.type) {
+                        case ORDER: {
+                            Order o = Order.fromCsvRow(e.row);
+                            if (o != null) loadedOrders.put(o.getOrderId(), o);
+                            break;
+                        }
+                        case TICKET: {
+                            Ticket t = Ticket.fromCsvRow(e.row);
+                            if (t != null) loadedTickets.put(t.getTicketId(), t);
+                            break;
+                        }
+                        case PAYMENT: {
+                            RawPaymentRow p = PaymentTransaction.parseRawRow(e.row);
+                            loadedPayments.put(p.paymentId, p);
+                            break;
+                        }
+                        case REFUND: {
+                            RawRefundRow r = RefundRequest.parseRawRow(e.row);
+                            loadedRefunds.put(r.refundId, r);
+                            break;
+                        }
+                    }
+                } catch (RuntimeException ex) {
+                    System.err.println("Skipping malformed journal record: " + e.row);
+                }
             }
         } catch (IOException e) {
-            orders = new ArrayList<>();
+            System.err.println("Could not replay " + JOURNAL_FILE + ": " + e.getMessage());
         }
+        io.finish(JOURNAL_FILE, replayed);
+
+        reload(new ArrayList<>(loadedOrders.values()), new ArrayList<>(loadedTickets.values()));
+        linkPayments(loadedPayments.values());
+        linkRefunds(loadedRefunds.values());
 
         try {
-            tickets = Ticket.loadFromCsv(TICKETS_FILE);
-            for (Ticket t : tickets) {
-                nextTicketId = Math.max(nextTicketId, t.getTicketId() + 1);
-            }
+            journal = new Journal(JOURNAL_FILE, true);
         } catch (IOException e) {
-            tickets = new ArrayList<>();
+            // Fall back to full snapshot writes in saveAll()
+            System.err.println("Booking journal unavailable (" + e.getMessage() + "); saving full snapshots.");
+            journal = null;
+        }
+    }
+
+    private static void linkPayments(Iterable<RawPaymentRow> raw) {
+        for (RawPaymentRow r : raw) {
+            Order o = orderById.get(r.orderId);
+            PaymentTransaction txn = PaymentTransaction.fromRawRow(r, o);
+            indexPayment(txn);
+            // A capture supersedes the authorization it settles
+            if (o != null && r.status == PaymentStatus.SUCCESS
+                    && (r.type == PaymentType.CHARGE || (r.type == PaymentType.AUTH && o.getPayment() == null))) {
+                o.linkPayment(txn);
+            }
+        }
+    }
+
+    private static void linkRefunds(Iterable<RawRefundRow> raw) {
+        for (RawRefundRow r : raw) {
+            RefundRequest rr = RefundRequest.fromRawRow(r, orderById.get(r.orderId));
+            if (r.refundTxnId > 0) {
+                rr.setRefundTxn(paymentById.get(r.refundTxnId));
+            }
+            indexRefund(rr);
+        }
+    }
+
+    /**
+     * Replaces the in-memory order/ticket tables and rebuilds every index.
+     * Payments and refunds are cleared. Used by the static loader above and
+     * by tools/benchmarks that feed synthetic data.
+     */
+    public static synchronized void reload(List<Order> newOrders, List<Ticket> newTickets) {
+        orders = new ArrayList<>(newOrders);
+        tickets = new ArrayList<>(newTickets);
+        payments = new ArrayList<>();
+        refunds = new ArrayList<>();
+        nextOrderId = 1;
+        nextTicketId = 1;
+        for (Order o : orders) {
+            nextOrderId = Math.max(nextOrderId, o.getOrderId() + 1);
+        }
+        for (Ticket t : tickets) {
+            nextTicketId = Math.max(nextTicketId, t.getTicketId() + 1);
         }
 
         // Relink tickets to orders
         rebuild();
+        fireChanged();
     }
 
+    // One pass over orders and one over tickets: O(orders + tickets)
     private static void rebuild() {
+        orderById = new IntIndex<>(orders.size());
+        ticketsByOrder = new IntIndex<>(orders.size());
+        ordersByUser = new IntIndex<>();
+        ticketsByEvent = new IntIndex<>();
+        paymentById = new IntIndex<>();
+        paymentByRef = new HashMap<>();
+        refundById = new IntIndex<>();
+        refundsByOrder = new IntIndex<>();
+        revenue = new RevenueCache();
+
         for (Order o : orders) {
-            o.getTickets().clear();
+            o.watch(null); // no per-ticket updates while relinking
+            o.clearTickets();
+            index(o);
         }
         for (Ticket t : tickets) {
-            Order parent = getOrderById(t.getOrderId());
+            Order parent = orderById.get(t.getOrderId());
             if (parent != null) {
                 parent.addTicket(t);
             }
+            index(t);
+        }
+        // Count each order once, after all its tickets are linked
+        for (Order o : orders) {
+            track(o);
         }
     }
 
-    public static Order getOrderById(int id) {
-        for (Order o : orders) {
-            if (o.getOrderId() == id) return o;
+    // Keeps the revenue cache in step with o from now on
+    private static void track(Order o) {
+        revenue.update(o);
+        o.watch(OrderDatabase::orderChanged);
+    }
+
+    private static void orderChanged(Order o) {
+        synchronized (OrderDatabase.class) {
+            // Ignore orders dropped by a reload()
+            if (orderById.get(o.getOrderId()) == o) {
+                revenue.update(o);
+            }
         }
-        return null;
     }
 
-    /** Creates a new order and generates tickets for the given seat numbers. */
-    public static Order createOrder(int userId, int eventId, List<Integer> seatNumbers) {
+    private static void index(Order o) {
+        orderById.put(o.getOrderId(), o);
+        ordersByUser.computeIfAbsent(o.getUserId(), k -> new ArrayList<>()).add(o);
+    }
+
+    private static void index(Ticket t) {
+        ticketsByOrder.computeIfAbsent(t.getOrderId(), k -> new ArrayList<>()).add(t);
+        ticketsByEvent.computeIfAbsent(t.getEventId(), k -> new ArrayList<>()).add(t);
+    }
 
-        Order order = new Order(nextOrderId++, userId);
+    // Insert or replace by paymentId; the latest transaction with a gateway reference owns it
+    private static void indexPayment(PaymentTransaction p) {
+        PaymentTransaction old = paymentById.put(p.getPaymentId(), p);
+        if (old == null) {
+            payments.add(p);
+        } else if (old != p) {
+            payments.set(payments.indexOf(old), p);
+            if (old.getGatewayRef() != null) {
+                paymentByRef.remove(old.getGatewayRef(), old);
+            }
+        }
+        if (p.getGatewayRef() != null) {
+            paymentByRef.put(p.getGatewayRef(), p);
+        }
+    }
 
-        for (int seatNum : seatNumbers) {
-            Ticket t = new Ticket(
-                nextTicketId++,
-                order.getOrderId(),
-                eventId,
-                order.getTotalAmount(), // Price updated later
-                "Seat " + seatNum
-            );
-            order.addTicket(t);
-            tickets.add(t);
+    // Insert or replace by refundId
+    private static void indexRefund(RefundRequest r) {
+        RefundRequest old = refundById.put(r.getRefundId(), r);
+        int orderId = (r.getOrder() != null) ? r.getOrder().getOrderId() : -1;
+        List<RefundRequest> forOrder = refundsByOrder.computeIfAbsent(orderId, k -> new ArrayList<>());
+        if (old == null) {
+            refunds.add(r);
+            forOrder.add(r);
+        } else if (old != r) {
+            refunds.set(refunds.indexOf(old), r);
+            forOrder.remove(old);
+            forOrder.add(r);
         }
+    }
+
+    // --- Lookups (all O(1) index hits) ---
+
+    public static synchronized Order getOrderById(int id) {
+        return orderById.get(id);
+    }
+
+    /** All orders, in creation order. */
+    public static synchronized List<Order> getAllOrders() {
+        return new ArrayList<>(orders);
+    }
+
+    public static synchronized List<Order> getOrdersForUser(int userId) {
+        return copyOf(ordersByUser.get(userId));
+    }
+
+    public static synchronized List<Ticket> getTicketsForOrder(int orderId) {
+        return copyOf(ticketsByOrder.get(orderId));
+    }
+
+    public static synchronized List<Ticket> getTicketsForEvent(int eventId) {
+        return copyOf(ticketsByEvent.get(eventId));
+    }
+
+    /** Every order holding a ticket for the event, each once. */
+    public static synchronized List<Order> getOrdersForEvent(int eventId) {
+        List<Order> result = new ArrayList<>();
+        List<Ticket> forEvent = ticketsByEvent.get(eventId);
+        if (forEvent == null) {
+            return result;
+        }
+        Set<Integer> seen = new HashSet<>();
+        for (Ticket t : forEvent) {
+            Order o = orderById.get(t.getOrderId());
+            if (o != null && seen.add(o.getOrderId())) {
+                result.add(o);
+            }
+        }
+        return result;
+    }
+
+    public static synchronized List<PaymentTransaction> getAllPayments() {
+        return new ArrayList<>(payments);
+    }
+
+    public static synchronized PaymentTransaction getPaymentById(int paymentId) {
+        return paymentById.get(paymentId);
+    }
+
+    /** The transaction the gateway knows by this reference, or null. */
+    public static synchronized PaymentTransaction getPaymentByGatewayRef(String gatewayRef) {
+        return paymentByRef.get(gatewayRef);
+    }
+
+    public static synchronized List<RefundRequest> getAllRefunds() {
+        return new ArrayList<>(refunds);
+    }
+
+    public static synchronized List<RefundRequest> getRefundsForOrder(int orderId) {
+        return copyOf(refundsByOrder.get(orderId));
+    }
+
+    // --- Revenue (cached; only CONFIRMED orders count) ---
 
-        orders.add(order);
+    public static synchronized Money getRevenueForUser(int userId, String currency) {
+        return revenue.forUser(userId, currency);
+    }
+
+    public static synchronized Money getRevenueForEvent(int eventId, String currency) {
+        return revenue.forEvent(eventId, currency);
+    }
+
+    public static synchronized Money getTotalRevenue(String currency) {
+        return revenue.overall(currency);
+    }
+
+    private static <T> List<T> copyOf(List<T> list) {
+        return (list == null) ? Collections.emptyList() : new ArrayList<>(list);
+    }
+
+    // =========================================================================
+    //  MUTATIONS
+    //  Each one changes memory and queues journal records under the class
+    //  lock, then waits for durability outside it so that concurrent
+    //  bookings share one fsync (group commit).
+    // =========================================================================
+
+    /**
+     * Creates a new order and generates tickets for the given seat numbers.
+     * The tickets are unpriced (zero); use the Seating overload to price them.
+     */
+    public static Order createOrder(int userId, int eventId, List<Integer> seatNumbers) {
+        return createOrder(userId, eventId, seatNumbers.size(),
+                i -> null, i -> Ticket.SEAT_PREFIX + seatNumbers.get(i));
+    }
+
+    /** Creates a new order with one ticket per seat, priced at the seat's current price. */
+    public static Order createOrder(int userId, Seating seating, List<Integer> seatNumbers) {
+        return createOrder(userId, seating.getEventId(), seatNumbers.size(),
+                i -> priceOf(seating, seatNumbers.get(i)), i -> Ticket.SEAT_PREFIX + seatNumbers.get(i));
+    }
+
+    /** Creates a new order of count unnumbered general-admission tickets at price each. */
+    public static Order createGeneralAdmissionOrder(int userId, int eventId, Money price, int count) {
+        return createOrder(userId, eventId, count, i -> price, i -> "General Admission");
+    }
+
+    private static Money priceOf(Seating seating, int seatNum) {
+        Seat seat = seating.getSeatByNumber(seatNum);
+        return (seat != null) ? seat.getCurrentPrice() : null;
+    }
+
+    // price(i) == null means an unpriced (zero) ticket
+    private static Order createOrder(int userId, int eventId, int count,
+                                     IntFunction<Money> price, IntFunction<String> label) {
+        Order order;
+        long seq;
+        CheckoutPhaseEvent phase = CheckoutPhaseEvent.begin(CheckoutPhaseEvent.CREATE_ORDER, eventId);
+        synchronized (OrderDatabase.class) {
+            order = new Order(nextOrderId++, userId);
+
+            for (int i = 0; i < count; i++) {
+                Money p = price.apply(i);
+                Ticket t = new Ticket(
+                    nextTicketId++,
+                    order.getOrderId(),
+                    eventId,
+                    (p != null) ? p : order.getTotalAmount(),
+                    label.apply(i)
+                );
+                order.addTicket(t);
+                tickets.add(t);
+                index(t);
+            }
+
+            orders.add(order);
+            index(order);
+            track(order);
+
+            seq = log(RecordType.ORDER, order.toCsvRow());
+            for (Ticket t : order.getTickets()) {
+                seq = log(RecordType.TICKET, t.toCsvRow());
+            }
+        }
+        phase.commit();
 
+        phase = CheckoutPhaseEvent.begin(CheckoutPhaseEvent.JOURNAL_COMMIT, eventId);
+        awaitDurable(seq);
+        phase.commit();
+        fireChanged();
         return order;
     }
 
     /** Link a payment transaction to an order */
     public static void attachPayment(Order order, PaymentTransaction txn) {
-        order.setPayment(txn);
+        long seq;
+        synchronized (OrderDatabase.class) {
+            order.setPayment(txn);
+
+            // Orders built outside createOrder (e.g. the CLI) join the indexes here
+            if (orderById.get(order.getOrderId()) == null) {
+                orders.add(order);
+                index(order);
+                for (Ticket t : order.getTickets()) {
+                    tickets.add(t);
+                    index(t);
+                    log(RecordType.TICKET, t.toCsvRow());
+                }
+                track(order);
+            }
+            indexPayment(txn);
+
+            log(RecordType.PAYMENT, txn.toCsvRow());
+            seq = log(RecordType.ORDER, order.toCsvRow());
+        }
+        awaitDurable(seq);
+        fireChanged();
+    }
+
+    /**
+     * Records payment transactions that leave order status alone (batched
+     * captures), with one journal wait for the whole list. A successful
+     * CHARGE becomes its order's payment.
+     */
+    public static void recordPayments(List<PaymentTransaction> txns) {
+        recordPayments(txns, Collections.emptyList());
+    }
+
+    /**
+     * Records new or updated payment transactions together with the orders
+     * whose status they changed (batched gateway callbacks), with one
+     * journal wait for the whole batch.
+     */
+    public static void recordPayments(Collection<PaymentTransaction> txns, Collection<Order> changedOrders) {
+        if (txns.isEmpty() && changedOrders.isEmpty()) {
+            return;
+        }
+        long seq = 0;
+        synchronized (OrderDatabase.class) {
+            for (PaymentTransaction t : txns) {
+                indexPayment(t);
+                Order o = t.getOrder();
+                if (o != null && t.getType() == PaymentType.CHARGE && t.getStatus() == PaymentStatus.SUCCESS) {
+                    o.linkPayment(t);
+                }
+                seq = log(RecordType.PAYMENT, t.toCsvRow());
+            }
+            for (Order o : changedOrders) {
+                seq = log(RecordType.ORDER, o.toCsvRow());
+            }
+        }
+        awaitDurable(seq);
+        fireChanged();
     }
 
-    /** Saves all CSV files (orders + tickets + payments) */
+    /**
+     * Records a new or decided refund request, together with its refund
+     * transaction and the order's new status.
+     */
+    public static void recordRefund(RefundRequest r) {
+        Order order = r.getOrder();
+        RefundEvent jfr = RefundEvent.begin(r.getRefundId(), (order != null) ? order.getOrderId() : 0,
+                r.getStatus().name(), (order != null) ? order.getTotalAmount() : null);
+        long seq;
+        synchronized (OrderDatabase.class) {
+            Order o = r.getOrder();
+            if (o != null) {
+                // Panels may hold their own copy of the order; keep ours in step
+                Order ours = orderById.get(o.getOrderId());
+                if (ours != null && ours != o) {
+                    ours.restoreStatus(o.getStatus());
+                }
+            }
+            if (r.getRefundTxn() != null) {
+                indexPayment(r.getRefundTxn());
+                log(RecordType.PAYMENT, r.getRefundTxn().toCsvRow());
+            }
+            indexRefund(r);
+
+            seq = log(RecordType.REFUND, r.toCsvRow());
+            if (o != null) {
+                seq = log(RecordType.ORDER, o.toCsvRow());
+            }
+        }
+        awaitDurable(seq);
+        REFUNDS[r.getStatus().ordinal()].inc();
+        jfr.commit();
+        fireChanged();
+    }
+
+    /**
+     * recordRefund() for a whole batch (bulk approvals, event cancellation):
+     * every request, refund transaction and order is journaled under one
+     * lock with a single durability wait.
+     */
+    public static void recordRefunds(List<RefundRequest> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long seq = 0;
+        synchronized (OrderDatabase.class) {
+            for (RefundRequest r : batch) {
+                Order o = r.getOrder();
+                if (o != null) {
+                    Order ours = orderById.get(o.getOrderId());
+                    if (ours != null && ours != o) {
+                        ours.restoreStatus(o.getStatus());
+                    }
+                }
+                if (r.getRefundTxn() != null) {
+                    indexPayment(r.getRefundTxn());
+                    log(RecordType.PAYMENT, r.getRefundTxn().toCsvRow());
+                }
+                indexRefund(r);
+
+                seq = log(RecordType.REFUND, r.toCsvRow());
+                if (o != null) {
+                    seq = log(RecordType.ORDER, o.toCsvRow());
+                }
+            }
+        }
+        awaitDurable(seq);
+        for (RefundRequest r : batch) {
+            REFUNDS[r.getStatus().ordinal()].inc();
+        }
+        fireChanged();
+    }
+
+    private static long log(RecordType type, String row) {
+        return (journal != null) ? journal.enqueue(type, row) : 0L;
+    }
+
+    private static void awaitDurable(long seq) {
+        if (journal == null) return;
+        try {
+            journal.awaitDurable(seq);
+        } catch (IOException e) {
+            System.err.println("Booking journal write failed: " + e.getMessage());
+        }
+        compactIfDue();
+    }
+
+    // The write that takes the journal past the threshold folds it into
+    // snapshots; writers arriving meanwhile carry on rather than queue up.
+    private static void compactIfDue() {
+        if (journal.size() >= compactThreshold && compacting.compareAndSet(false, true)) {
+            try {
+                compact();
+            } finally {
+                compacting.set(false);
+            }
+        }
+    }
+
+    // =========================================================================
+    //  LISTENERS
+    // =========================================================================
+
+    public static void addListener(Listener l) {
+        listeners.add(l);
+    }
+
+    public static void removeListener(Listener l) {
+        listeners.remove(l);
+    }
+
+    private static void fireChanged() {
+        for (Listener l : listeners) {
+            l.ordersChanged();
+        }
+    }
+
+    // =========================================================================
+    //  PERSISTENCE
+    // =========================================================================
+
+    /**
+     * Makes every mutation so far durable. This is O(1) per call: records
+     * are already journaled, and the mutations themselves compact the
+     * journal once it grows past COMPACT_THRESHOLD.
+     */
     public static void saveAll() {
+        if (journal == null) {
+            compact();
+            return;
+        }
         try {
-            Order.saveToCsv(ORDERS_FILE, orders);
-        } catch (IOException e) {}
+            journal.sync();
+        } catch (IOException e) {
+            System.err.println("Booking journal write failed: " + e.getMessage());
+        }
+        compactIfDue();
+    }
+
+    /** Records in the journal since the last compaction (0 without one). */
+    static int journalRecords() {
+        return (journal == null) ? 0 : journal.size();
+    }
 
+    /** Lowers the compaction threshold so tests need not write 50k records. */
+    static void compactAfter(int records) {
+        compactThreshold = records;
+    }
+
+    /**
+     * Writes fresh snapshot CSVs (orders, tickets, payments, refunds) and
+     * empties the journal. Each snapshot is written to a temp file and moved
+     * into place, so a crash leaves either the old or the new file; the
+     * journal is only truncated after all four are in place.
+     */
+    public static synchronized void compact() {
+        long start = System.nanoTime();
         try {
-            Ticket.saveToCsv(TICKETS_FILE, tickets);
-        } catch (IOException e) {}
+            writeSnapshot(ORDERS_FILE, orders.size(), p -> Order.saveToCsv(p, orders));
+            writeSnapshot(TICKETS_FILE, tickets.size(), p -> Ticket.saveToCsv(p, tickets));
+            writeSnapshot(PAYMENTS_FILE, payments.size(), p -> PaymentTransaction.saveToCsv(p, payments));
+            writeSnapshot(REFUNDS_FILE, refunds.size(), p -> RefundRequest.saveToCsv(p, refunds));
+            if (journal != null) {
+                journal.reset();
+            }
+            SNAPSHOT_TIME.recordSince(start);
+        } catch (IOException e) {
+            System.err.println("Booking snapshot failed: " + e.getMessage());
+        }
+    }
+
+    private interface SnapshotWriter {
+        void write(Path path) throws IOException;
+    }
+
+    private static void writeSnapshot(Path target, int records, SnapshotWriter writer) throws IOException {
+        FileIoEvent io = FileIoEvent.begin(FileIoEvent.SAVE);
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        writer.write(tmp);
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        io.finish(target, records);
     }
 }
@@ -0,0 +1,186 @@
+package CTS.booking;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+import CTS.enums.OrderStatus;
+import CTS.enums.PaymentStatus;
+import CTS.enums.RefundStatus;
+import CTS.event.Event;
+import CTS.metrics.Histogram;
+import CTS.metrics.Metrics;
+import CTS.misc.PaymentTransaction;
+import CTS.misc.RefundRequest;
+import CTS.payment.PaymentProcessor;
+import CTS.user.VenueAdmin;
+
+/**
+ * Refunds many orders at once, for BookingService: an admin approving a
+ * selection of requests, or every paid order of a canceled event.
+ *
+ * The gateway refunds go out in parallel, up to maxInFlight at a time,
+ * with no thread per call. Once all have answered, the successful ones
+ * are applied in one pass: request APPROVED, order REFUNDED, seats back
+ * on sale (one seat file save per event), and the whole batch journaled
+ * with a single durability wait. A refund the gateway refuses leaves its
+ * request PENDING so it can be tried again.
+ *
+ * Each order is claimed before its refund goes out and released only once
+ * the outcome is recorded, so runs that overlap (a double click, an event
+ * canceled during an approval) never pay the same order out twice. Orders
+ * paid without a gateway reference have nothing to refund against; their
+ * requests stay PENDING for an admin to settle by hand.
+ */
+class RefundEngine {
+
+    static final int DEFAULT_MAX_IN_FLIGHT = 500;
+
+    private static final Histogram BULK_TIME = Metrics.histogram("refunds.bulk");
+
+    // Orders some run is paying out right now, across every engine
+    private static final Set<Integer> IN_FLIGHT = ConcurrentHashMap.newKeySet();
+
+    private final PaymentProcessor payments;
+    private final OpenSeatings seatings;
+    private final int maxInFlight;
+
+    RefundEngine(PaymentProcessor payments, OpenSeatings seatings, int maxInFlight) {
+        this.payments = payments;
+        this.seatings = seatings;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /** Approves and pays out the PENDING requests among these. */
+    BulkRefundResult approve(List<RefundRequest> requests, VenueAdmin admin) {
+        return run(requests, admin, null, List.of());
+    }
+
+    /**
+     * Cancels the event and refunds every CONFIRMED order for it. An order
+     * that already has a PENDING request is refunded through it; the others
+     * get a new request with this reason.
+     */
+    BulkRefundResult cancelEvent(Event event, VenueAdmin admin, String reason) {
+        event.cancel();
+        List<RefundRequest> requests = new ArrayList<>();
+        List<RefundRequest> created = new ArrayList<>();
+        for (Order o : OrderDatabase.getOrdersForEvent(event.getEventId())) {
+            if (o.getStatus() != OrderStatus.CONFIRMED) {
+                continue;
+            }
+            RefundRequest r = pendingRequest(o);
+            if (r == null) {
+                r = new RefundRequest(RefundRequest.nextId(), o, new Date(), reason, RefundStatus.PENDING);
+                created.add(r);
+            }
+            requests.add(r);
+        }
+        return run(requests, admin, event, created);
+    }
+
+    private static RefundRequest pendingRequest(Order o) {
+        for (RefundRequest r : OrderDatabase.getRefundsForOrder(o.getOrderId())) {
+            if (r.getStatus() == RefundStatus.PENDING) {
+                return r;
+            }
+        }
+        return null;
+    }
+
+    // created: new requests that must be recorded even if their refund fails
+    private BulkRefundResult run(List<RefundRequest> requests, VenueAdmin admin, Event canceled,
+                                 List<RefundRequest> created) {
+        long start = System.nanoTime();
+        List<RefundRequest> todo = new ArrayList<>(requests.size());
+        List<RefundRequest> manual = new ArrayList<>();
+        Set<Integer> orderIds = new HashSet<>();
+        try {
+            for (RefundRequest r : requests) {
+                Order o = r.getOrder();
+                if (o == null || !orderIds.add(o.getOrderId())) { // one payout per order
+                    continue;
+                }
+                if (!IN_FLIGHT.add(o.getOrderId())) {
+                    continue; // another run is paying it out
+                }
+                // Checked after the claim: a run that just finished has recorded its outcome
+                if (r.getStatus() != RefundStatus.PENDING || o.getStatus() != OrderStatus.CONFIRMED) {
+                    IN_FLIGHT.remove(o.getOrderId());
+                } else if (o.getPayment() == null || o.getPayment().getGatewayRef() == null) {
+                    IN_FLIGHT.remove(o.getOrderId());
+                    manual.add(r);
+                } else {
+                    todo.add(r);
+                }
+            }
+            return payOut(todo, manual, requests.size() - todo.size() - manual.size(), admin, canceled,
+                    created, start);
+        } finally {
+            for (RefundRequest r : todo) {
+                IN_FLIGHT.remove(r.getOrder().getOrderId());
+            }
+        }
+    }
+
+    // Runs with every order in todo claimed
+    private BulkRefundResult payOut(List<RefundRequest> todo, List<RefundRequest> manual, int skipped,
+                                    VenueAdmin admin, Event canceled, List<RefundRequest> created, long start) {
+        if (!manual.isEmpty()) {
+            System.err.println(manual.size() + " order(s) have no gateway reference to refund against;"
+                    + " their requests stay PENDING for manual refund.");
+        }
+
+        // Queued captures go first, so each refund goes against its charge
+        payments.flushAll().join();
+
+        Semaphore window = new Semaphore(maxInFlight);
+        List<CompletableFuture<PaymentTransaction>> calls = new ArrayList<>(todo.size());
+        for (RefundRequest r : todo) {
+            calls.add(refundPayment(r.getOrder(), window));
+        }
+
+        List<RefundRequest> refunded = new ArrayList<>();
+        List<RefundRequest> failed = new ArrayList<>();
+        List<Ticket> returned = new ArrayList<>();
+        for (int i = 0; i < todo.size(); i++) {
+            RefundRequest r = todo.get(i);
+            PaymentTransaction txn = calls.get(i).join();
+            if (txn.getStatus() != PaymentStatus.SUCCESS) {
+                failed.add(r);
+                continue;
+            }
+            r.setRefundTxn(txn);
+            r.approve(admin);
+            r.getOrder().markRefunded();
+            refunded.add(r);
+            returned.addAll(OrderDatabase.getTicketsForOrder(r.getOrder().getOrderId()));
+        }
+        if (!failed.isEmpty()) {
+            System.err.println(failed.size() + " of " + todo.size() + " refunds were refused by the gateway;"
+                    + " their requests stay PENDING.");
+        }
+
+        seatings.returnTickets(returned, canceled);
+
+        List<RefundRequest> batch = new ArrayList<>(refunded);
+        for (RefundRequest r : created) {
+            if (r.getStatus() == RefundStatus.PENDING) {
+                batch.add(r); // refused, but the request must still show up
+            }
+        }
+        OrderDatabase.recordRefunds(batch);
+        BULK_TIME.recordSince(start);
+        return new BulkRefundResult(refunded, failed, manual, skipped);
+    }
+
+    private CompletableFuture<PaymentTransaction> refundPayment(Order o, Semaphore window) {
+        window.acquireUninterruptibly();
+        return payments.refund(o.getPayment(), o.getTotalAmount()).whenComplete((txn, error) -> window.release());
+    }
+}
@@ -0,0 +1,144 @@
+package CTS.booking;
+
+import java.util.Arrays;
+import java.util.List;
+
+import CTS.enums.OrderStatus;
+import CTS.misc.IntIndex;
+import CTS.misc.Money;
+
+/**
+ * Revenue of CONFIRMED orders, summed per user, per event and overall.
+ *
+ * Kept up to date incrementally: when an order changes, update() takes
+ * back what it contributed before and adds what it contributes now, so
+ * reads never re-sum ticket lists. Amounts are kept per currency.
+ * Not thread-safe; OrderDatabase calls it under its class lock.
+ */
+class RevenueCache {
+
+    // Running minor-unit sum for one currency; a key's currencies are chained
+    private static final class Total {
+        final String currency;
+        long minor;
+        Total next;
+
+        Total(String currency, Total next) {
+            this.currency = currency;
+            this.next = next;
+        }
+    }
+
+    // What one counted order added, so it can be subtracted exactly later
+    private static final class Contribution {
+        final int userId;
+        final int[] eventIds;
+        final Money[] eventAmounts;
+
+        Contribution(int userId, int[] eventIds, Money[] eventAmounts) {
+            this.userId = userId;
+            this.eventIds = eventIds;
+            this.eventAmounts = eventAmounts;
+        }
+    }
+
+    private final IntIndex<Contribution> byOrder = new IntIndex<>();
+    private final IntIndex<Total> byUser = new IntIndex<>();
+    private final IntIndex<Total> byEvent = new IntIndex<>();
+    private Total overall;
+
+    /** Re-counts one order after its tickets, prices or status changed. */
+    void update(Order o) {
+        Contribution old = byOrder.remove(o.getOrderId());
+        if (old != null) {
+            apply(old, -1);
+        }
+        if (o.getStatus() == OrderStatus.CONFIRMED) {
+            Contribution now = contributionOf(o);
+            apply(now, +1);
+            byOrder.put(o.getOrderId(), now);
+        }
+    }
+
+    Money forUser(int userId, String currency) {
+        return amount(byUser.get(userId), currency);
+    }
+
+    Money forEvent(int eventId, String currency) {
+        return amount(byEvent.get(eventId), currency);
+    }
+
+    Money overall(String currency) {
+        return amount(overall, currency);
+    }
+
+    // =========================================================================
+
+    private static Contribution contributionOf(Order o) {
+        List<Ticket> tickets = o.getTickets();
+        int[] ids = new int[tickets.size()];
+        Money[] amounts = new Money[tickets.size()];
+        int n = 0;
+
+        // Orders rarely span more than one event, so a linear scan is fine
+        for (Ticket t : tickets) {
+            if (t == null || t.getPrice() == null) continue;
+            int k = 0;
+            while (k < n && (ids[k] != t.getEventId() || !amounts[k].getCurrency().equals(t.getPrice().getCurrency()))) {
+                k++;
+            }
+            if (k == n) {
+                ids[n] = t.getEventId();
+                amounts[n++] = t.getPrice();
+            } else {
+                amounts[k] = amounts[k].plus(t.getPrice());
+            }
+        }
+        if (n < ids.length) {
+            ids = Arrays.copyOf(ids, n);
+            amounts = Arrays.copyOf(amounts, n);
+        }
+        return new Contribution(o.getUserId(), ids, amounts);
+    }
+
+    private void apply(Contribution c, int sign) {
+        // Per-event amounts add up to the order total, currency by currency
+        for (int i = 0; i < c.eventIds.length; i++) {
+            Money m = c.eventAmounts[i];
+            long delta = sign * m.getMinorUnits();
+            add(byEvent, c.eventIds[i], m.getCurrency(), delta);
+            add(byUser, c.userId, m.getCurrency(), delta);
+            overall = add(overall, m.getCurrency(), delta);
+        }
+    }
+
+    private static void add(IntIndex<Total> index, int key, String currency, long delta) {
+        Total head = index.get(key);
+        Total updated = add(head, currency, delta);
+        if (updated != head) {
+            index.put(key, updated);
+        }
+    }
+
+    // Adds delta to the currency's entry, creating it at the head if missing
+    private static Total add(Total head, String currency, long delta) {
+        for (Total t = head; t != null; t = t.next) {
+            if (t.currency.equals(currency)) {
+                t.minor += delta;
+                return head;
+            }
+        }
+        Total t = new Total(currency, head);
+        t.minor = delta;
+        return t;
+    }
+
+    private static Money amount(Total head, String currency) {
+        for (Total t = head; t != null; t = t.next) {
+            if (t.currency.equals(currency)) {
+                return Money.ofMinor(t.minor, currency);
+            }
+        }
+        return Money.zero(currency);
+    }
+}
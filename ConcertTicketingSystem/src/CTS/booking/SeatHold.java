@@ -1,20 +1,85 @@
 package CTS.booking;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 
 import CTS.enums.HoldStatus;
+import CTS.seating.Seating;
 
-class SeatHold {
+/**
+ * A time-limited claim by one user on one or more seats.
+ *
+ * While ACTIVE the seats are HELD in the Seating's inventory. The hold ends
+ * exactly once: either it expires (seats go back to AVAILABLE) or it is
+ * converted into an Order (seats become SOLD). HoldManager drives expiry.
+ */
+public class SeatHold {
     private int holdID;
     private Date createdAt;
     private Date expiresAt;
     private HoldStatus status;
 
+    private int userId;
+    private Seating seating;
+    private List<Integer> seatNumbers;
+
+    // Absolute timer-wheel tick at which HoldManager expires this hold
+    long deadlineTick;
+
+    // Set while a checkout is waiting on the payment gateway; the reaper skips it
+    private boolean pinned;
+
     public SeatHold(int holdID, Date createdAt, Date expiresAt) {
         this.holdID = holdID;
         this.createdAt = createdAt;
         this.expiresAt = expiresAt;
         this.status = HoldStatus.ACTIVE;
+        this.seatNumbers = Collections.emptyList();
+    }
+
+    /** Hold on seats that are already HELD in seating on behalf of userId. */
+    public SeatHold(int holdID, Date createdAt, Date expiresAt,
+                    int userId, Seating seating, List<Integer> seatNumbers) {
+        this(holdID, createdAt, expiresAt);
+        this.userId = userId;
+        this.seating = seating;
+        this.seatNumbers = Collections.unmodifiableList(new ArrayList<>(seatNumbers));
+    }
+
+    // --- Getters ---
+
+    public int getHoldId() {
+        return holdID;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public Date getExpiresAt() {
+        return expiresAt;
+    }
+
+    public synchronized HoldStatus getStatus() {
+        return status;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public Seating getSeating() {
+        return seating;
+    }
+
+    public List<Integer> getSeatNumbers() {
+        return seatNumbers;
+    }
+
+    public synchronized boolean isActive() {
+        return status == HoldStatus.ACTIVE;
     }
 
     public boolean isExpired(Date currentTime) {
@@ -24,13 +89,81 @@ class SeatHold {
         return currentTime.after(expiresAt);
     }
 
-    public void expire() {
+    /** Ends an ACTIVE hold and returns its seats to AVAILABLE. */
+    public synchronized boolean expire() {
+        if (status != HoldStatus.ACTIVE) {
+            return false;
+        }
+        if (seating != null) {
+            seating.releaseSeats(seatNumbers);
+        }
         this.status = HoldStatus.EXPIRED;
+        return true;
     }
 
+    /**
+     * Sells the held seats and creates the Order for them.
+     * Returns null if the hold already expired or was converted.
+     * As in HoldManager, the order is created outside the monitor.
+     */
     public Order convertToOrder() {
+        synchronized (this) {
+            if (status != HoldStatus.ACTIVE) {
+                return null;
+            }
+            if (seating == null) {
+                // Legacy hold with no seats attached
+                this.status = HoldStatus.CONVERTED;
+                return new Order();
+            }
+            if (!seating.sellSeats(seatNumbers)) {
+                return null;
+            }
+            this.status = HoldStatus.CONVERTED;
+        }
+        try {
+            return OrderDatabase.createOrder(userId, seating, seatNumbers);
+        } catch (RuntimeException e) {
+            seating.returnSeats(seatNumbers);
+            throw e;
+        }
+    }
+
+    // Keeps an ACTIVE hold from expiring until unpin(); false if it already ended
+    synchronized boolean pin() {
+        if (status != HoldStatus.ACTIVE) {
+            return false;
+        }
+        pinned = true;
+        return true;
+    }
+
+    synchronized void unpin() {
+        pinned = false;
+    }
+
+    // The reaper's expiry: leaves a pinned hold alone
+    synchronized boolean expireUnlessPinned() {
+        return !pinned && expire();
+    }
+
+    // Used by HoldManager when several holds become one order
+    synchronized boolean markConverted() {
+        if (status != HoldStatus.ACTIVE) {
+            return false;
+        }
         this.status = HoldStatus.CONVERTED;
-        // For now, just creates a bare Order. In a fuller design we would attach seats, user, etc.
-        return new Order();
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "SeatHold{" +
+                "holdID=" + holdID +
+                ", userId=" + userId +
+                ", seats=" + seatNumbers +
+                ", expiresAt=" + expiresAt +
+                ", status=" + getStatus() +
+                '}';
     }
 }
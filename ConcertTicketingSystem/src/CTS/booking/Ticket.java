@@ -1,11 +1,12 @@
 package CTS.booking;
 
+import CTS.misc.CsvReader;
+import CTS.misc.CsvWriter;
 import CTS.misc.Money;
 //  for CSV saving
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths; 
 import java.util.ArrayList;
 import java.util.List;
 
@@ -18,6 +19,9 @@ public class Ticket {
     private Money price;
     private String seatLabel; //  "Section 101, Row A, Seat 5"
 
+    // Numbered seats are labelled "Seat <number>"
+    static final String SEAT_PREFIX = "Seat ";
+
 
 //  Constructor for creating a new Ticket.
 
@@ -47,10 +51,32 @@ public class Ticket {
         return price;
     }
 
+    // Only through Order.updateTicketPrice, which keeps the order total in step
+    void setPrice(Money price) {
+        this.price = price;
+    }
+
     public String getSeatLabel() {
         return seatLabel;
     }
 
+    /**
+     * The seat number of a numbered seat ("Seat 12"), or 0 for general
+     * admission. Old general-admission tickets read "General Admission,
+     * Seat 3"; that number is a ticket count, not a seat, so only labels
+     * that start with the prefix count.
+     */
+    public int getSeatNumber() {
+        if (seatLabel == null || !seatLabel.startsWith(SEAT_PREFIX)) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(seatLabel.substring(SEAT_PREFIX.length()).trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
     // =========================================================================
     //  CSV PERSISTENCE
     // =========================================================================
@@ -59,43 +85,56 @@ public class Ticket {
      * Format: ticketId,orderId,eventId,priceAmount,priceCurrency,seatLabel
      */
     public String toCsvRow() {
-        return ticketId + "," +
-               orderId + "," +
-               eventId + "," +
-               price.getAmount() + "," +
-               escape(price.getCurrency()) + "," +
-               escape(seatLabel);
+        return CsvWriter.toRow(this::writeCsv);
+    }
+
+    public void writeCsv(CsvWriter w) throws IOException {
+        w.field(ticketId)
+         .field(orderId)
+         .field(eventId)
+         .amount(price)
+         .field(price.getCurrency())
+         .field(seatLabel);
     }
 
+    // seatLabel is last and may hold unescaped commas in old files
+    private static final int FIELDS = 6;
+
 
 //  Rebuilds a Ticket object from a CSV row.
 
     public static Ticket fromCsvRow(String line) {
-        try {
-            String[] parts = line.split(",", 6);
-            return new Ticket(
-                Integer.parseInt(parts[0]), // ticketId
-                Integer.parseInt(parts[1]), // orderId
-                Integer.parseInt(parts[2]), // eventId
-                new Money(Double.parseDouble(parts[3]), unescape(parts[4])), // price
-                unescape(parts[5]) // seatLabel
-            );
+        try (CsvReader r = CsvReader.ofLine(line)) {
+            return r.next(FIELDS) ? fromCsv(r) : null;
         } catch (Exception e) {
             System.err.println("Skipping malformed ticket line: " + line);
             return null;
         }
     }
 
+//  Builds a Ticket from the reader's current record.
+
+    public static Ticket fromCsv(CsvReader r) {
+        return new Ticket(
+            r.getInt(0), // ticketId
+            r.getInt(1), // orderId
+            r.getInt(2), // eventId
+            r.getMoney(3, 4), // price
+            r.getString(5) // seatLabel
+        );
+    }
+
 
 //  Saves a list of all tickets to tickets.csv
 
     public static void saveToCsv(Path path, List<Ticket> tickets) throws IOException {
-        List<String> lines = new ArrayList<>();
-        lines.add("# ticketId,orderId,eventId,priceAmount,priceCurrency,seatLabel");
-        for (Ticket t : tickets) {
-            lines.add(t.toCsvRow());
+        try (CsvWriter w = CsvWriter.create(path)) {
+            w.comment("ticketId,orderId,eventId,priceAmount,priceCurrency,seatLabel");
+            for (Ticket t : tickets) {
+                t.writeCsv(w);
+                w.endRow();
+            }
         }
-        Files.write(path, lines);
     }
 
 
@@ -106,28 +145,16 @@ public class Ticket {
         if (!Files.exists(path)) {
             return tickets; // Return empty list if no file
         }
-        
-        List<String> lines = Files.readAllLines(path);
-        for (String line : lines) {
-            if (line.trim().isEmpty() || line.startsWith("#")) {
-                continue;
-            }
-            Ticket t = fromCsvRow(line);
-            if (t != null) {
-                tickets.add(t);
+
+        try (CsvReader r = CsvReader.open(path)) {
+            while (r.next(FIELDS)) {
+                try {
+                    tickets.add(fromCsv(r));
+                } catch (RuntimeException e) {
+                    System.err.println("Skipping malformed ticket line " + r.lineNumber() + " in " + path);
+                }
             }
         }
         return tickets;
     }
-
-    // --- CSV Helpers ---
-    private static String escape(String s) {
-        if (s == null) return "";
-        return s.replace("\\", "\\\\").replace(",", "\\,");
-    }
-
-    private static String unescape(String s) {
-        if (s == null) return "";
-        return s.replace("\\,", ",").replace("\\\\", "\\");
-    }
-}
\ No newline at end of file
+}
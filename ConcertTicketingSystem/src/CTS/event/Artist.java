@@ -1,12 +1,16 @@
 package CTS.event;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
+import CTS.misc.CsvReader;
+import CTS.misc.CsvWriter;
+
 public class Artist {
    private int artistId;
     private String stageName;
@@ -49,17 +53,27 @@ public class Artist {
      * artistId,stageName,genre
      */
     public String toCsvRow() {
-        return artistId + "," +
-                escape(stageName) + "," +
-                escape(genre);
+        return CsvWriter.toRow(this::writeCsv);
+    }
+
+    public void writeCsv(CsvWriter w) throws IOException {
+        w.field(artistId).field(stageName).field(genre);
     }
 
     public static Artist fromCsvRow(String line) {
-        String[] parts = line.split(",", -1);
-        int id = Integer.parseInt(parts[0]);
-        String stageName = unescape(parts[1]);
-        String genre = unescape(parts[2]);
-        return new Artist(id, stageName, genre);
+        try (CsvReader r = CsvReader.ofLine(line)) {
+            if (!r.next()) {
+                throw new IllegalArgumentException("Empty artist line");
+            }
+            return fromCsv(r);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // cannot happen for a String
+        }
+    }
+
+    /** Builds an Artist from the reader's current record. */
+    public static Artist fromCsv(CsvReader r) {
+        return new Artist(r.getInt(0), r.getString(1), r.getString(2));
     }
 
     public static List<Artist> loadFromCsv(Path path) throws IOException {
@@ -67,33 +81,22 @@ public class Artist {
         if (!Files.exists(path)) {
             return result;
         }
-        for (String line : Files.readAllLines(path)) {
-            if (line.trim().isEmpty() || line.startsWith("#")) {
-                continue;
+        try (CsvReader r = CsvReader.open(path)) {
+            while (r.next()) {
+                result.add(fromCsv(r));
             }
-            result.add(fromCsvRow(line));
         }
         return result;
     }
 
     public static void saveToCsv(Path path, List<Artist> artists) throws IOException {
-        List<String> lines = new ArrayList<>();
-        lines.add("# artistId,stageName,genre");
-        for (Artist a : artists) {
-            lines.add(a.toCsvRow());
+        try (CsvWriter w = CsvWriter.create(path)) {
+            w.comment("artistId,stageName,genre");
+            for (Artist a : artists) {
+                a.writeCsv(w);
+                w.endRow();
+            }
         }
-        Files.write(path, lines);
-    }
-
-    private static String escape(String s) {
-        if (s == null) return "";
-        return s.replace("\\", "\\\\").replace(",", "\\,");
-    }
-
-    private static String unescape(String s) {
-        if (s == null) return "";
-        // Note the use of replaceAll which uses regex, sometimes necessary in complex environments
-        return s.replaceAll("\\\\\\\\", "\\\\").replaceAll("\\\\,", ","); 
     }
 
 
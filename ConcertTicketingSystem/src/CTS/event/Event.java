@@ -3,14 +3,16 @@ package CTS.event;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
 import CTS.enums.EventStatus;
 import java.util.stream.Collectors;
+import CTS.misc.CsvReader;
+import CTS.misc.CsvWriter;
 import CTS.misc.Money; // --- IMPORT ADDED ---
+import CTS.seating.GeneralAdmissionInventory;
 
 public class Event {
     private int eventId;
@@ -18,12 +20,12 @@ public class Event {
     private Date startDateTime;
     private String venueName;
     private String description;
-    private int capacity;
     private EventStatus status;
 
     // --- NEW FIELDS ---
     private Money basePrice;   // Price for a ticket ---  ADDED --- 11/26
-    private int ticketsSold; // Counter for tickets sold ---  ADDED --- 11/26
+    // Capacity and tickets sold; safe for concurrent buyers
+    private GeneralAdmissionInventory tickets;
 
     private List<LineupEntry> lineup = new ArrayList<>();
 
@@ -43,10 +45,9 @@ public class Event {
         this.startDateTime = startDateTime;
         this.venueName = venueName;
         this.description = description;
-        this.capacity = capacity;
         this.status = status;
         this.basePrice = basePrice; // --- FIELD SET --- ADDED --- 11/26
-        this.ticketsSold = 0;     // --- FIELD INITIALIZED --- ADDED --- 11/26
+        this.tickets = new GeneralAdmissionInventory(capacity, 0);
     }
 
     // --- Getters  ---
@@ -75,7 +76,7 @@ public class Event {
     }
 
     public int getCapacity() {
-        return capacity;
+        return tickets.capacity();
     }
 
     public EventStatus getStatus() {
@@ -88,24 +89,9 @@ public class Event {
     
    
     
+    // Served from EventDatabase's in-memory copy; no file I/O
     public static List<Event> getAllPublishedEvents() {
-        List<Event> list = new ArrayList<>();
-        try {
-            // Load all events from the default CSV file
-            Path path = Paths.get("events.csv");
-            List<Event> all = loadFromCsv(path);
-
-            for (Event e : all) {
-                if (e.getStatus() == EventStatus.PUBLISHED) {
-                    list.add(e);
-                }
-            }
-
-        } catch (Exception ex) {
-            System.err.println("Error loading events for GUI: " + ex.getMessage());
-        }
-
-        return list;
+        return EventDatabase.getAllPublishedEvents();
     }
 
 
@@ -120,32 +106,35 @@ public class Event {
 //  Gets the number of tickets already sold.
 
     public int getTicketsSold() {
-        return ticketsSold;
+        return tickets.sold();
     }
     
 
 //  Internal setter used only for loading from CSV.
 
     private void setTicketsSold(int count) {
-        this.ticketsSold = count;
+        this.tickets = new GeneralAdmissionInventory(tickets.capacity(), count);
     }
 
 
 //  Calculates remaining tickets based on capacity and sold count.
 
     public int getAvailableSeats() {
-        return capacity - ticketsSold;
+        return tickets.available();
     }
 
 
 //  Sells one ticket. Returns true on success, false if sold out.
 
     public boolean sellTicket() {
-        if (ticketsSold < capacity) {
-            ticketsSold++;
-            return true;
-        }
-        return false; // Sold out!
+        return tickets.reserve(1);
+    }
+
+
+//  Sells count tickets at once, or none if fewer are left.
+
+    public boolean sellTickets(int count) {
+        return tickets.reserve(count);
     }
 
     // --- Other Methods  ---
@@ -166,8 +155,14 @@ public class Event {
      // Reverses a ticket sale if payment fails or is canceled.
     
     public void unSellTicket() {
-        if (ticketsSold > 0) {
-            ticketsSold--;
+        unSellTickets(1);
+    }
+
+    // Reverses count sales at once; never below zero sold.
+    public void unSellTickets(int count) {
+        int n = Math.min(count, tickets.sold());
+        if (n > 0) {
+            tickets.release(n);
         }
     }
     
@@ -186,7 +181,7 @@ public class Event {
     }
 
     public void setCapacity(int capacity) {
-        this.capacity = capacity;
+        tickets.resize(capacity);
     }
 
     // ================= CSV SUPPORT =================
@@ -197,90 +192,93 @@ public class Event {
 
 
     public String toCsvRow() {
+        return CsvWriter.toRow(this::writeCsv);
+    }
+
+    public void writeCsv(CsvWriter w) throws IOException {
         long millis = startDateTime != null ? startDateTime.getTime() : 0L;
 
-        String priceString = (basePrice != null) ? basePrice.toInlineString() : "0.0:USD";
-        
-        return eventId + "," +
-                escape(name) + "," +
-                millis + "," +
-                escape(venueName) + "," +
-                escape(description) + "," +
-                capacity + "," +
-                status.name() + "," +
-                priceString + "," +  // --- SAVE PRICE --- ADDED --- 11/26
-                ticketsSold;                // --- SAVE SOLD COUNT --- ADDED --- 11/26
+        w.field(eventId)
+         .field(name)
+         .field(millis)
+         .field(venueName)
+         .field(description)
+         .field(getCapacity())
+         .field(status);
+        if (basePrice != null) {
+            w.field(basePrice); // --- SAVE PRICE --- ADDED --- 11/26
+        } else {
+            w.field("0.0:USD");
+        }
+        w.field(getTicketsSold());   // --- SAVE SOLD COUNT --- ADDED --- 11/26
     }
 
 
 
 
     public static Event fromCsvRow(String line) {
-        try {
-        	String[] parts = line.split("(?<!\\\\),", -1);
-        	if (parts.length < 9) {
-        	    System.err.println("Skipping malformed event line: Not enough parts (" + parts.length + ")");
-        	    return null;
-        	}
-            int id = Integer.parseInt(parts[0]);
-            String name = unescape(parts[1]);
-            long millis = Long.parseLong(parts[2]);
-            String venue = unescape(parts[3]);
-            String desc = unescape(parts[4]);
-            int capacity = Integer.parseInt(parts[5]);
-            EventStatus status = EventStatus.valueOf(parts[6]);
-            Date date = millis == 0L ? null : new Date(millis);
-            
-            // --- LOAD PRICE AND SOLD COUNT ---
-            Money price = Money.fromInlineString(unescape(parts[7]));
-            int ticketsSold = Integer.parseInt(parts[8]);
-
-            // Create the event
-            Event event = new Event(id, name, date, venue, desc, capacity, status, price);
-            event.setTicketsSold(ticketsSold); // Set the loaded sold count
-            return event;
-            
+        try (CsvReader r = CsvReader.ofLine(line)) {
+            return r.next() ? fromCsv(r) : null;
         } catch (Exception e) {
             System.err.println("Skipping malformed event line: " + line);
             return null;
         }
     }
 
+    /** Builds an Event from the reader's current record, or null if it is short. */
+    public static Event fromCsv(CsvReader r) {
+        if (r.fieldCount() < 9) {
+            System.err.println("Skipping malformed event line: Not enough parts (" + r.fieldCount() + ")");
+            return null;
+        }
+        int id = r.getInt(0);
+        String name = r.getString(1);
+        long millis = r.getLong(2);
+        String venue = r.getString(3);
+        String desc = r.getString(4);
+        int capacity = r.getInt(5);
+        EventStatus status = r.getEnum(6, EventStatus.class);
+        Date date = millis == 0L ? null : new Date(millis);
+
+        // --- LOAD PRICE AND SOLD COUNT ---
+        Money price = r.getMoney(7);
+        int ticketsSold = r.getInt(8);
+
+        // Create the event
+        Event event = new Event(id, name, date, venue, desc, capacity, status, price);
+        event.setTicketsSold(ticketsSold); // Set the loaded sold count
+        return event;
+    }
+
     public static List<Event> loadFromCsv(Path path) throws IOException {
         List<Event> result = new ArrayList<>();
         if (!Files.exists(path)) {
             return result;
         }
-        for (String line : Files.readAllLines(path)) {
-            if (line.trim().isEmpty() || line.startsWith("#")) {
-                continue;
-            }
-            Event e = fromCsvRow(line); // Call method
-            if (e != null) {            // null check
-                result.add(e);
+        try (CsvReader r = CsvReader.open(path)) {
+            while (r.next()) {
+                try {
+                    Event e = fromCsv(r);
+                    if (e != null) {            // null check
+                        result.add(e);
+                    }
+                } catch (RuntimeException ex) {
+                    System.err.println("Skipping malformed event line " + r.lineNumber() + " in " + path);
+                }
             }
         }
         return result;
     }
 
     public static void saveToCsv(Path path, List<Event> events) throws IOException {
-        List<String> lines = new ArrayList<>();
-        // --- CSV HEADER  ---
-        lines.add("# eventId,name,startDateTimeMillis,venueName,description,capacity,status,priceInline,ticketsSold");
-        for (Event e : events) {
-            lines.add(e.toCsvRow());
+        try (CsvWriter w = CsvWriter.create(path)) {
+            // --- CSV HEADER  ---
+            w.comment("eventId,name,startDateTimeMillis,venueName,description,capacity,status,priceInline,ticketsSold");
+            for (Event e : events) {
+                e.writeCsv(w);
+                w.endRow();
+            }
         }
-        Files.write(path, lines);
-    }
-
-    // --- CSV Helpers ---
-    private static String escape(String s) {
-        if (s == null) return "";
-        return s.replace("\\", "\\\\").replace(",", "\\,");
-    }
-
-    private static String unescape(String s) {
-        return s.replace("\\,", ",").replace("\\\\", "\\");
     }
 
     @Override
@@ -290,7 +288,7 @@ public class Event {
                 ", name='" + name + '\'' +
                 ", startDateTime=" + startDateTime +
                 ", venueName='" + venueName + '\'' +
-                ", capacity=" + capacity +
+                ", capacity=" + getCapacity() +
                 ", status=" + status +
                 '}';
     }
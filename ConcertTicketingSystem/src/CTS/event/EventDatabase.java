@@ -5,39 +5,311 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import CTS.enums.EventStatus;
+import CTS.event.LineupEntry.RawLineupRow;
+import CTS.metrics.FileIoEvent;
+import CTS.metrics.Histogram;
+import CTS.metrics.Metrics;
+import CTS.misc.IntIndex;
+import CTS.misc.SearchIndex;
 
+/**
+ * Process-wide store for events, artists and lineup entries.
+ *
+ * Each CSV file is parsed once at startup; after that every lookup is an
+ * in-memory index hit and screens never read the files themselves. Lineup
+ * entries live on their Event (Event.getLineup()). Writers go through the
+ * save/add methods here, which rewrite the file and notify listeners.
+ *
+ * Events are indexed by status, venue, genre, date and price for query().
+ * Events and artists are also kept in full-text SearchIndexes. An event is
+ * searchable by its name, venue, description and lineup (artist names,
+ * genres, notes); the indexes are updated by the same save/add methods.
+ */
 public class EventDatabase {
 
-    private static final Path EVENTS_FILE = Paths.get("events.csv");
+    /** Notified (on the writer's thread) after events, artists or lineup change. */
+    public interface Listener {
+        void eventDataChanged();
+    }
+
+    private static final Path DATA_DIR = Paths.get(System.getProperty("cts.data.dir", "."));
+
+    private static final Path EVENTS_FILE  = DATA_DIR.resolve("events.csv");
+    private static final Path ARTISTS_FILE = DATA_DIR.resolve("artists.csv");
+    private static final Path LINEUP_FILE  = DATA_DIR.resolve("lineup.csv");
 
     private static List<Event> events = new ArrayList<>();
+    private static List<Artist> artists = new ArrayList<>();
+
+    private static IntIndex<Event> eventById = new IntIndex<>();
+    private static IntIndex<Artist> artistById = new IntIndex<>();
+
+    private static final EventIndex eventIndex = new EventIndex();
+    private static final SearchIndex<Event> eventSearch = new SearchIndex<>();
+    private static final SearchIndex<Artist> artistSearch = new SearchIndex<>();
 
-    // Load events when class loads
+    // Field weights: a hit in a name ranks above one in a description
+    private static final int NAME_WEIGHT = 10;
+    private static final int ARTIST_WEIGHT = 8;
+    private static final int GENRE_WEIGHT = 4;
+    private static final int VENUE_WEIGHT = 4;
+    private static final int TEXT_WEIGHT = 1;
+
+    private static final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private static final Histogram LOAD_TIME = Metrics.histogram("events.load");
+    private static final Histogram SAVE_TIME = Metrics.histogram("events.save");
+
+    // Load events, artists and lineup when class loads
     static {
+        long start = System.nanoTime();
+        FileIoEvent io = FileIoEvent.begin(FileIoEvent.LOAD);
         try {
             events = Event.loadFromCsv(EVENTS_FILE);
         } catch (IOException e) {
             System.err.println("Could not load events.csv: " + e.getMessage());
             events = new ArrayList<>();
         }
+        io.finish(EVENTS_FILE, events.size());
+
+        io = FileIoEvent.begin(FileIoEvent.LOAD);
+        try {
+            artists = Artist.loadFromCsv(ARTISTS_FILE);
+        } catch (Exception e) {
+            System.err.println("Could not load artists.csv: " + e.getMessage());
+            artists = new ArrayList<>();
+        }
+        io.finish(ARTISTS_FILE, artists.size());
+
+        for (Event e : events) {
+            eventById.put(e.getEventId(), e);
+        }
+        for (Artist a : artists) {
+            artistById.put(a.getArtistId(), a);
+        }
+
+        io = FileIoEvent.begin(FileIoEvent.LOAD);
+        int lineupRows = 0;
+        try {
+            // Attach lineup entries to their events in one pass
+            for (RawLineupRow r : LineupEntry.loadRawRows(LINEUP_FILE)) {
+                lineupRows++;
+                Event owner = eventById.get(r.eventId);
+                if (owner != null) {
+                    owner.addLineupEntry(new LineupEntry(r.eventId, r.position, r.notes, artistById.get(r.artistId)));
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Could not load lineup.csv: " + e.getMessage());
+        }
+        io.finish(LINEUP_FILE, lineupRows);
+
+        reindex();
+        LOAD_TIME.recordSince(start);
+        Metrics.gauge("events.count", () -> {
+            synchronized (EventDatabase.class) {
+                return events.size();
+            }
+        });
     }
 
+    // =========================================================================
+    //  EVENTS
+    // =========================================================================
+
     /** Returns ALL events */
-    public static List<Event> getAllEvents() {
-        return events;
+    public static synchronized List<Event> getAllEvents() {
+        return new ArrayList<>(events);
     }
 
     /** Returns ONLY published events for GUIApp */
     public static List<Event> getAllPublishedEvents() {
-        List<Event> published = new ArrayList<>();
+        return eventIndex.all(EventStatus.PUBLISHED);
+    }
+
+    /**
+     * One page of events matching the query's filters, in its sort order,
+     * with venue and genre counts for the whole result.
+     */
+    public static EventPage query(EventQuery query) {
+        return eventIndex.query(query);
+    }
+
+    public static synchronized Event getEventById(int eventId) {
+        return eventById.get(eventId);
+    }
+
+    /** Next unused event id, for the event editor. */
+    public static synchronized int nextEventId() {
+        int max = 0;
         for (Event e : events) {
-            if (e.getStatus() == EventStatus.PUBLISHED) {
-                published.add(e);
+            max = Math.max(max, e.getEventId());
+        }
+        return max + 1;
+    }
+
+    /** Adds or replaces (by id) an event and writes events.csv. */
+    public static void saveEvent(Event event) throws IOException {
+        synchronized (EventDatabase.class) {
+            Event old = eventById.put(event.getEventId(), event);
+            if (old == null) {
+                events.add(event);
+            } else if (old != event) {
+                events.set(events.indexOf(old), event);
             }
+            writeEvents();
+            indexEvent(event);
         }
-        return published;
+        fireChanged();
+    }
+
+    /** Writes events.csv after events were changed in place (publish, cancel, ...). */
+    public static void saveEvents() throws IOException {
+        synchronized (EventDatabase.class) {
+            writeEvents();
+            reindex();
+        }
+        fireChanged();
+    }
+
+    // Caller holds the class lock
+    private static void writeEvents() throws IOException {
+        long start = System.nanoTime();
+        FileIoEvent io = FileIoEvent.begin(FileIoEvent.SAVE);
+        Event.saveToCsv(EVENTS_FILE, events);
+        io.finish(EVENTS_FILE, events.size());
+        SAVE_TIME.recordSince(start);
     }
 
+    // =========================================================================
+    //  ARTISTS
+    // =========================================================================
+
+    public static synchronized List<Artist> getAllArtists() {
+        return new ArrayList<>(artists);
+    }
+
+    public static synchronized Artist getArtistById(int artistId) {
+        return artistById.get(artistId);
+    }
+
+    /** Creates an artist with the next free id and writes artists.csv. */
+    public static Artist addArtist(String stageName, String genre) throws IOException {
+        Artist a;
+        synchronized (EventDatabase.class) {
+            int max = 0;
+            for (Artist x : artists) {
+                max = Math.max(max, x.getArtistId());
+            }
+            a = new Artist(max + 1, stageName, genre);
+            artists.add(a);
+            artistById.put(a.getArtistId(), a);
+            indexArtist(a);
+            Artist.saveToCsv(ARTISTS_FILE, artists);
+        }
+        fireChanged();
+        return a;
+    }
+
+    // =========================================================================
+    //  LINEUP
+    // =========================================================================
+
+    /** Every event's lineup entries, flattened. */
+    public static synchronized List<LineupEntry> getAllLineup() {
+        List<LineupEntry> all = new ArrayList<>();
+        for (Event e : events) {
+            all.addAll(e.getLineup());
+        }
+        return all;
+    }
+
+    /** Writes lineup.csv (from each event's lineup) and events.csv. */
+    public static void saveLineup() throws IOException {
+        synchronized (EventDatabase.class) {
+            LineupEntry.saveToCsv(LINEUP_FILE, getAllLineup());
+            writeEvents();
+            reindex();
+        }
+        fireChanged();
+    }
+
+    // =========================================================================
+    //  SEARCH
+    // =========================================================================
+
+    /**
+     * Events matching every word of query (case and accents ignored; the
+     * last word may be a prefix), best match first. Any status; callers
+     * showing the catalog filter to PUBLISHED.
+     */
+    public static List<Event> searchEvents(String query, int limit) {
+        return eventSearch.search(query, limit);
+    }
+
+    /** Published events matching query, best match first. */
+    public static List<Event> searchPublishedEvents(String query, int limit) {
+        return eventSearch.search(query, limit, e -> e.getStatus() == EventStatus.PUBLISHED);
+    }
+
+    /** Artists whose stage name or genre matches query, best match first. */
+    public static List<Artist> searchArtists(String query, int limit) {
+        return artistSearch.search(query, limit);
+    }
+
+    // Re-indexes whatever changed in place; unchanged events are skipped
+    // after a key comparison (query index) or fingerprint (text search)
+    private static void reindex() {
+        for (Event e : events) {
+            indexEvent(e);
+        }
+        for (Artist a : artists) {
+            indexArtist(a);
+        }
+    }
+
+    private static void indexEvent(Event e) {
+        eventIndex.put(e);
+
+        SearchIndex.Document doc = new SearchIndex.Document()
+                .add(e.getName(), NAME_WEIGHT)
+                .add(e.getVenueName(), VENUE_WEIGHT)
+                .add(e.getDescription(), TEXT_WEIGHT);
+        for (LineupEntry le : e.getLineup()) {
+            Artist a = le.getArtist();
+            if (a != null) {
+                doc.add(a.getStageName(), ARTIST_WEIGHT)
+                   .add(a.getGenre(), GENRE_WEIGHT);
+            }
+            doc.add(le.getNotes(), TEXT_WEIGHT);
+        }
+        eventSearch.put(e.getEventId(), e, doc);
+    }
+
+    private static void indexArtist(Artist a) {
+        artistSearch.put(a.getArtistId(), a, new SearchIndex.Document()
+                .add(a.getStageName(), NAME_WEIGHT)
+                .add(a.getGenre(), GENRE_WEIGHT));
+    }
+
+    // =========================================================================
+    //  LISTENERS
+    // =========================================================================
+
+    public static void addListener(Listener l) {
+        listeners.add(l);
+    }
+
+    public static void removeListener(Listener l) {
+        listeners.remove(l);
+    }
+
+    private static void fireChanged() {
+        for (Listener l : listeners) {
+            l.eventDataChanged();
+        }
+    }
 }
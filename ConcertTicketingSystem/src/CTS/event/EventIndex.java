@@ -0,0 +1,515 @@
+package CTS.event;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import CTS.enums.EventStatus;
+import CTS.misc.IntIndex;
+import CTS.misc.Money;
+
+/**
+ * Secondary indexes behind EventDatabase.query(). Each event gets a dense
+ * slot; status, venue and genre map to a BitSet of slots, and start time
+ * and base price map to slots through sorted NavigableMaps. A query ANDs
+ * the bitsets and range scans instead of filtering every event.
+ *
+ * Per-status venue and genre counts are kept up to date on every put(),
+ * so browsing a whole status needs no counting at all.
+ */
+class EventIndex {
+
+    private static final long NO_VALUE = Long.MAX_VALUE; // no date / no price: sorts last
+
+    // What an event was indexed under, so a changed event can be unlinked
+    private static final class Entry {
+        final int slot;
+        Event event;
+        EventStatus status;
+        String venue;       // folded key, null if none
+        String[] genres;    // folded keys, distinct
+        long date;
+        String currency;    // null if unpriced
+        long price;
+
+        Entry(int slot) {
+            this.slot = slot;
+        }
+    }
+
+    private final IntIndex<Entry> byId = new IntIndex<>();
+    private Entry[] slots = new Entry[16];
+    private int slotCount;
+
+    private final Map<EventStatus, BitSet> byStatus = new EnumMap<>(EventStatus.class);
+    private final Map<String, BitSet> byVenue = new HashMap<>();
+    private final Map<String, BitSet> byGenre = new HashMap<>();
+    private final NavigableMap<Long, int[]> byDate = new TreeMap<>();
+    private final Map<String, NavigableMap<Long, int[]>> byPrice = new HashMap<>();
+
+    // Display label for each folded key (first spelling seen)
+    private final Map<String, String> labels = new HashMap<>();
+
+    // Facet counts per status, maintained incrementally
+    private final Map<EventStatus, Map<String, int[]>> venueCounts = new EnumMap<>(EventStatus.class);
+    private final Map<EventStatus, Map<String, int[]>> genreCounts = new EnumMap<>(EventStatus.class);
+
+    // =========================================================================
+    //  UPDATES
+    // =========================================================================
+
+    /** Adds or re-indexes an event. Cheap when nothing indexed has changed. */
+    synchronized void put(Event e) {
+        Entry fresh = new Entry(-1);
+        describe(e, fresh);
+
+        Entry old = byId.get(e.getEventId());
+        if (old != null) {
+            old.event = e;
+            if (sameKeys(old, fresh)) {
+                return;
+            }
+            link(old, -1);
+            copyKeys(fresh, old);
+            link(old, +1);
+            return;
+        }
+
+        if (slotCount == slots.length) {
+            slots = Arrays.copyOf(slots, slotCount * 2);
+        }
+        Entry entry = new Entry(slotCount++);
+        entry.event = e;
+        copyKeys(fresh, entry);
+        slots[entry.slot] = entry;
+        byId.put(e.getEventId(), entry);
+        link(entry, +1);
+    }
+
+    private static void describe(Event e, Entry out) {
+        out.status = e.getStatus();
+        out.venue = fold(e.getVenueName());
+        List<String> genres = new ArrayList<>(2);
+        for (LineupEntry le : e.getLineup()) {
+            String g = (le.getArtist() != null) ? fold(le.getArtist().getGenre()) : null;
+            if (g != null && !genres.contains(g)) {
+                genres.add(g);
+            }
+        }
+        out.genres = genres.toArray(new String[0]);
+        out.date = (e.getStartDateTime() != null) ? e.getStartDateTime().getTime() : NO_VALUE;
+        Money price = e.getBasePrice();
+        out.currency = (price != null) ? price.getCurrency() : null;
+        out.price = (price != null) ? price.getMinorUnits() : NO_VALUE;
+    }
+
+    private static boolean sameKeys(Entry a, Entry b) {
+        return a.status == b.status && Objects.equals(a.venue, b.venue) && Arrays.equals(a.genres, b.genres)
+                && a.date == b.date && Objects.equals(a.currency, b.currency) && a.price == b.price;
+    }
+
+    private static void copyKeys(Entry from, Entry to) {
+        to.status = from.status;
+        to.venue = from.venue;
+        to.genres = from.genres;
+        to.date = from.date;
+        to.currency = from.currency;
+        to.price = from.price;
+    }
+
+    // Adds (sign = +1) or removes (sign = -1) e under every key it has
+    private void link(Entry e, int sign) {
+        String venueLabel = (e.event.getVenueName() != null) ? e.event.getVenueName().trim() : null;
+        if (e.status != null) {
+            setBit(byStatus.computeIfAbsent(e.status, k -> new BitSet()), e.slot, sign);
+        }
+        if (e.venue != null) {
+            setBit(byVenue.computeIfAbsent(e.venue, k -> new BitSet()), e.slot, sign);
+            labels.putIfAbsent(e.venue, venueLabel);
+            count(venueCounts, e.status, e.venue, sign);
+        }
+        for (String g : e.genres) {
+            setBit(byGenre.computeIfAbsent(g, k -> new BitSet()), e.slot, sign);
+            labels.putIfAbsent(g, genreLabel(e.event, g));
+            count(genreCounts, e.status, g, sign);
+        }
+        if (e.date != NO_VALUE) {
+            slotList(byDate, e.date, e.slot, sign);
+        }
+        if (e.currency != null) {
+            slotList(byPrice.computeIfAbsent(e.currency, k -> new TreeMap<>()), e.price, e.slot, sign);
+        }
+    }
+
+    private static void setBit(BitSet bits, int slot, int sign) {
+        bits.set(slot, sign > 0);
+    }
+
+    private static void count(Map<EventStatus, Map<String, int[]>> counts, EventStatus status, String key, int sign) {
+        if (status == null) return;
+        Map<String, int[]> perKey = counts.computeIfAbsent(status, k -> new HashMap<>());
+        int[] c = perKey.computeIfAbsent(key, k -> new int[1]);
+        c[0] += sign;
+        if (c[0] == 0) {
+            perKey.remove(key);
+        }
+    }
+
+    // Sorted-map values are small slot arrays; most keys hold one event
+    private static void slotList(NavigableMap<Long, int[]> map, long key, int slot, int sign) {
+        int[] list = map.get(key);
+        if (sign > 0) {
+            int[] grown = (list == null) ? new int[1] : Arrays.copyOf(list, list.length + 1);
+            grown[grown.length - 1] = slot;
+            map.put(key, grown);
+        } else if (list != null) {
+            int[] shrunk = new int[list.length - 1];
+            int n = 0;
+            for (int s : list) {
+                if (s != slot && n < shrunk.length) shrunk[n++] = s;
+            }
+            if (shrunk.length == 0) {
+                map.remove(key);
+            } else {
+                map.put(key, shrunk);
+            }
+        }
+    }
+
+    private static String genreLabel(Event e, String key) {
+        for (LineupEntry le : e.getLineup()) {
+            if (le.getArtist() != null && key.equals(fold(le.getArtist().getGenre()))) {
+                return le.getArtist().getGenre().trim();
+            }
+        }
+        return key;
+    }
+
+    private static String fold(String s) {
+        if (s == null) return null;
+        String t = s.trim();
+        return t.isEmpty() ? null : t.toLowerCase(Locale.ROOT);
+    }
+
+    // =========================================================================
+    //  QUERIES
+    // =========================================================================
+
+    /** Every event in status, in the order they were added. */
+    synchronized List<Event> all(EventStatus status) {
+        List<Event> result = new ArrayList<>();
+        BitSet bits = byStatus.get(status);
+        if (bits != null) {
+            for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+                result.add(slots[i].event);
+            }
+        }
+        return result;
+    }
+
+    synchronized EventPage query(EventQuery q) {
+        BitSet m = matches(q);
+        int total = m.cardinality();
+
+        Map<String, Integer> venues;
+        Map<String, Integer> genres;
+        if (q.status != null && onlyStatus(q)) {
+            venues = sorted(venueCounts.get(q.status));
+            genres = sorted(genreCounts.get(q.status));
+        } else {
+            Map<String, int[]> v = new HashMap<>();
+            Map<String, int[]> g = new HashMap<>();
+            for (int i = m.nextSetBit(0); i >= 0; i = m.nextSetBit(i + 1)) {
+                Entry e = slots[i];
+                if (e.venue != null) v.computeIfAbsent(e.venue, k -> new int[1])[0]++;
+                for (String genre : e.genres) g.computeIfAbsent(genre, k -> new int[1])[0]++;
+            }
+            venues = sorted(v);
+            genres = sorted(g);
+        }
+
+        return page(q, m, total, venues, genres);
+    }
+
+    private static boolean onlyStatus(EventQuery q) {
+        return q.venue == null && q.genre == null && q.from == null && q.to == null
+                && q.minPrice == null && q.maxPrice == null && !q.availableOnly;
+    }
+
+    // Slots of every event passing all filters
+    private BitSet matches(EventQuery q) {
+        BitSet m;
+        if (q.status != null) {
+            m = copy(byStatus.get(q.status));
+        } else {
+            m = new BitSet(slotCount);
+            m.set(0, slotCount);
+        }
+        if (q.venue != null) {
+            m.and(orEmpty(byVenue.get(fold(q.venue))));
+        }
+        if (q.genre != null) {
+            m.and(orEmpty(byGenre.get(fold(q.genre))));
+        }
+        if (q.from != null || q.to != null) {
+            long lo = (q.from != null) ? q.from.getTime() : Long.MIN_VALUE;
+            long hi = (q.to != null) ? q.to.getTime() : NO_VALUE;
+            m.and(range(byDate, lo, hi, false));
+        }
+        if (q.minPrice != null || q.maxPrice != null) {
+            String currency = (q.minPrice != null) ? q.minPrice.getCurrency() : q.maxPrice.getCurrency();
+            long lo = (q.minPrice != null) ? q.minPrice.getMinorUnits() : Long.MIN_VALUE;
+            long hi = (q.maxPrice != null) ? q.maxPrice.getMinorUnits() : NO_VALUE - 1;
+            NavigableMap<Long, int[]> prices = byPrice.get(currency);
+            m.and((prices != null) ? range(prices, lo, hi, true) : new BitSet());
+        }
+        if (q.availableOnly) {
+            // Seats sold change in place, so availability is read live
+            for (int i = m.nextSetBit(0); i >= 0; i = m.nextSetBit(i + 1)) {
+                if (slots[i].event.getAvailableSeats() <= 0) {
+                    m.clear(i);
+                }
+            }
+        }
+        return m;
+    }
+
+    private static BitSet range(NavigableMap<Long, int[]> map, long lo, long hi, boolean hiInclusive) {
+        BitSet bits = new BitSet();
+        if (lo > hi) return bits;
+        for (int[] list : map.subMap(lo, true, hi, hiInclusive).values()) {
+            for (int slot : list) {
+                bits.set(slot);
+            }
+        }
+        return bits;
+    }
+
+    private static BitSet copy(BitSet b) {
+        return (b == null) ? new BitSet() : (BitSet) b.clone();
+    }
+
+    private static BitSet orEmpty(BitSet b) {
+        return (b == null) ? new BitSet() : b;
+    }
+
+    // Label -> count, most first, ties by label
+    private Map<String, Integer> sorted(Map<String, int[]> counts) {
+        Map<String, Integer> out = new LinkedHashMap<>();
+        if (counts == null) return out;
+        List<Map.Entry<String, int[]>> list = new ArrayList<>(counts.entrySet());
+        list.sort((a, b) -> (a.getValue()[0] != b.getValue()[0])
+                ? Integer.compare(b.getValue()[0], a.getValue()[0])
+                : a.getKey().compareTo(b.getKey()));
+        for (Map.Entry<String, int[]> c : list) {
+            out.put(labels.getOrDefault(c.getKey(), c.getKey()), c.getValue()[0]);
+        }
+        return out;
+    }
+
+    // =========================================================================
+    //  SORTING + CURSOR PAGINATION
+    // =========================================================================
+
+    // The page after the cursor: the limit smallest matches in sort order,
+    // plus one more that tells us whether another page exists
+    private EventPage page(EventQuery q, BitSet m, int total,
+                           Map<String, Integer> venues, Map<String, Integer> genres) {
+        Cursor after = Cursor.parse(q.cursor, q.sort);
+        int k = q.limit + 1;
+        boolean byDateSort = q.sort == EventQuery.Sort.DATE || q.sort == EventQuery.Sort.DATE_DESC;
+        // Dense result sets are cheaper to read off the date index in order
+        // than to push through a heap; sparse ones the other way round
+        int[] ordered = (byDateSort && total * 8L >= slotCount)
+                ? walkByDate(q.sort, m, after, k)
+                : topK(q.sort, m, after, Math.min(k, Math.max(total, 1)));
+
+        List<Event> events = new ArrayList<>(Math.min(ordered.length, q.limit));
+        for (int n = 0; n < ordered.length && n < q.limit; n++) {
+            events.add(slots[ordered[n]].event);
+        }
+        String next = null;
+        if (ordered.length > q.limit) {
+            Entry last = slots[ordered[q.limit - 1]];
+            next = Cursor.format(q.sort, key(last, q.sort), last.event.getEventId());
+        }
+        return new EventPage(events, next, total, venues, genres);
+    }
+
+    // Bounded max-heap over every match, so only the page is ever sorted
+    private int[] topK(EventQuery.Sort sort, BitSet m, Cursor after, int k) {
+        int[] heap = new int[k];
+        int size = 0;
+        for (int i = m.nextSetBit(0); i >= 0; i = m.nextSetBit(i + 1)) {
+            if (after != null && !afterCursor(sort, i, after)) {
+                continue;
+            }
+            if (size < heap.length) {
+                heap[size] = i;
+                siftUp(sort, heap, size++);
+            } else if (before(sort, i, heap[0])) {
+                heap[0] = i;
+                siftDown(sort, heap, size);
+            }
+        }
+
+        int[] ordered = new int[size];
+        for (int n = size - 1; n >= 0; n--) {
+            ordered[n] = heap[0];
+            heap[0] = heap[--size];
+            siftDown(sort, heap, size);
+        }
+        return ordered;
+    }
+
+    // Walks byDate from the cursor and stops once k matches are found.
+    // Undated events sort last and are not in byDate, so they come from m.
+    private int[] walkByDate(EventQuery.Sort sort, BitSet m, Cursor after, int k) {
+        boolean desc = sort == EventQuery.Sort.DATE_DESC;
+        int[] out = new int[k];
+        int size = 0;
+
+        if (after == null || after.key != NO_VALUE) {
+            NavigableMap<Long, int[]> view = byDate;
+            if (after != null) {
+                view = desc ? byDate.headMap(after.key, true) : byDate.tailMap(after.key, true);
+            }
+            if (desc) {
+                view = view.descendingMap();
+            }
+            for (int[] list : view.values()) {
+                size = take(sort, list, m, after, out, size);
+                if (size == k) return out;
+            }
+        }
+
+        int count = 0;
+        for (int i = m.nextSetBit(0); i >= 0; i = m.nextSetBit(i + 1)) {
+            if (slots[i].date == NO_VALUE) count++;
+        }
+        int[] undated = new int[count];
+        count = 0;
+        for (int i = m.nextSetBit(0); i >= 0 && count < undated.length; i = m.nextSetBit(i + 1)) {
+            if (slots[i].date == NO_VALUE) undated[count++] = i;
+        }
+        size = take(sort, undated, m, after, out, size);
+        return Arrays.copyOf(out, size);
+    }
+
+    // Appends the slots of one key that match and follow the cursor, by id
+    private int take(EventQuery.Sort sort, int[] list, BitSet m, Cursor after, int[] out, int size) {
+        int[] keep = new int[list.length];
+        int n = 0;
+        for (int slot : list) {
+            if (m.get(slot) && (after == null || afterCursor(sort, slot, after))) {
+                keep[n++] = slot;
+            }
+        }
+        int[] ids = new int[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = slots[keep[i]].event.getEventId();
+        }
+        // Tiny lists (usually one slot): insertion sort by event id
+        for (int i = 1; i < n; i++) {
+            for (int j = i; j > 0 && ids[j - 1] > ids[j]; j--) {
+                swap(ids, j, j - 1);
+                swap(keep, j, j - 1);
+            }
+        }
+        for (int i = 0; i < n && size < out.length; i++) {
+            out[size++] = keep[i];
+        }
+        return size;
+    }
+
+    private boolean afterCursor(EventQuery.Sort sort, int slot, Cursor after) {
+        Entry e = slots[slot];
+        return compare(sort, key(e, sort), e.event.getEventId(), after.key, after.id) > 0;
+    }
+
+    private static long key(Entry e, EventQuery.Sort sort) {
+        return (sort == EventQuery.Sort.DATE || sort == EventQuery.Sort.DATE_DESC) ? e.date : e.price;
+    }
+
+    // Sort order: by key (descending for *_DESC, missing values last), then id
+    private static int compare(EventQuery.Sort sort, long keyA, int idA, long keyB, int idB) {
+        if (keyA != keyB) {
+            boolean desc = sort == EventQuery.Sort.DATE_DESC || sort == EventQuery.Sort.PRICE_DESC;
+            if (keyA == NO_VALUE) return 1;
+            if (keyB == NO_VALUE) return -1;
+            return desc ? Long.compare(keyB, keyA) : Long.compare(keyA, keyB);
+        }
+        return Integer.compare(idA, idB);
+    }
+
+    private boolean before(EventQuery.Sort sort, int slotA, int slotB) {
+        Entry a = slots[slotA];
+        Entry b = slots[slotB];
+        return compare(sort, key(a, sort), a.event.getEventId(), key(b, sort), b.event.getEventId()) < 0;
+    }
+
+    // Max-heap on sort order: the root is the last event still on the page
+    private void siftUp(EventQuery.Sort sort, int[] heap, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!before(sort, heap[parent], heap[i])) break;
+            swap(heap, i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(EventQuery.Sort sort, int[] heap, int size) {
+        int i = 0;
+        while (true) {
+            int l = 2 * i + 1;
+            if (l >= size) break;
+            int latest = (l + 1 < size && before(sort, heap[l], heap[l + 1])) ? l + 1 : l;
+            if (!before(sort, heap[i], heap[latest])) break;
+            swap(heap, i, latest);
+            i = latest;
+        }
+    }
+
+    private static void swap(int[] a, int i, int j) {
+        int t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+
+    // Opaque to callers: "<sort>:<key>:<eventId>" of the last event on a page
+    private static final class Cursor {
+        final long key;
+        final int id;
+
+        Cursor(long key, int id) {
+            this.key = key;
+            this.id = id;
+        }
+
+        static String format(EventQuery.Sort sort, long key, int id) {
+            return sort.name() + ":" + key + ":" + id;
+        }
+
+        static Cursor parse(String s, EventQuery.Sort sort) {
+            if (s == null) return null;
+            String[] parts = s.split(":");
+            if (parts.length != 3 || !parts[0].equals(sort.name())) {
+                throw new IllegalArgumentException("Cursor does not belong to a " + sort + " query: " + s);
+            }
+            try {
+                return new Cursor(Long.parseLong(parts[1]), Integer.parseInt(parts[2]));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Malformed cursor: " + s);
+            }
+        }
+    }
+}
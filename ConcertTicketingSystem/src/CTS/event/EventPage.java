@@ -0,0 +1,51 @@
+package CTS.event;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of EventDatabase.query() results, with the facet counts of the
+ * whole result set (not just this page).
+ */
+public class EventPage {
+
+    private final List<Event> events;
+    private final String nextCursor;
+    private final int total;
+    private final Map<String, Integer> venueCounts;
+    private final Map<String, Integer> genreCounts;
+
+    EventPage(List<Event> events, String nextCursor, int total,
+              Map<String, Integer> venueCounts, Map<String, Integer> genreCounts) {
+        this.events = Collections.unmodifiableList(events);
+        this.nextCursor = nextCursor;
+        this.total = total;
+        this.venueCounts = Collections.unmodifiableMap(venueCounts);
+        this.genreCounts = Collections.unmodifiableMap(genreCounts);
+    }
+
+    public List<Event> getEvents() {
+        return events;
+    }
+
+    /** Pass to EventQuery.after() for the next page; null on the last page. */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /** Number of events matching the query across all pages. */
+    public int getTotal() {
+        return total;
+    }
+
+    /** Matching events per venue, most first. */
+    public Map<String, Integer> getVenueCounts() {
+        return venueCounts;
+    }
+
+    /** Matching events per lineup genre, most first. An event counts once per genre. */
+    public Map<String, Integer> getGenreCounts() {
+        return genreCounts;
+    }
+}
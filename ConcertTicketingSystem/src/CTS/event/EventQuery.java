@@ -0,0 +1,100 @@
+package CTS.event;
+
+import java.util.Date;
+
+import CTS.enums.EventStatus;
+import CTS.misc.Money;
+
+/**
+ * Filters, sort order and page position for EventDatabase.query().
+ *
+ * Every filter is optional and they combine with AND. Setters return this
+ * so a query reads as one expression:
+ *
+ *   new EventQuery().venue("Red Rocks").genre("jazz").availableOnly()
+ *                   .sortBy(EventQuery.Sort.PRICE).limit(20)
+ *
+ * To fetch the next page, pass the previous page's cursor to after().
+ */
+public class EventQuery {
+
+    public enum Sort { DATE, DATE_DESC, PRICE, PRICE_DESC }
+
+    public static final int DEFAULT_LIMIT = 50;
+
+    EventStatus status = EventStatus.PUBLISHED;
+    Date from;
+    Date to;
+    String venue;
+    String genre;
+    Money minPrice;
+    Money maxPrice;
+    boolean availableOnly;
+    Sort sort = Sort.DATE;
+    int limit = DEFAULT_LIMIT;
+    String cursor;
+
+    /** Events in this status (default PUBLISHED); null for any status. */
+    public EventQuery status(EventStatus status) {
+        this.status = status;
+        return this;
+    }
+
+    /** Events starting at or after from and before to; either may be null. */
+    public EventQuery between(Date from, Date to) {
+        this.from = from;
+        this.to = to;
+        return this;
+    }
+
+    /** Events at this venue (case-insensitive). */
+    public EventQuery venue(String venue) {
+        this.venue = venue;
+        return this;
+    }
+
+    /** Events with an artist of this genre in their lineup (case-insensitive). */
+    public EventQuery genre(String genre) {
+        this.genre = genre;
+        return this;
+    }
+
+    /**
+     * Events whose base price is within [min, max]; either may be null.
+     * Only events priced in the bounds' currency match.
+     */
+    public EventQuery priceBetween(Money min, Money max) {
+        if (min != null && max != null && !min.getCurrency().equals(max.getCurrency())) {
+            throw new IllegalArgumentException("Price bounds must use one currency");
+        }
+        this.minPrice = min;
+        this.maxPrice = max;
+        return this;
+    }
+
+    /** Only events with seats left. */
+    public EventQuery availableOnly() {
+        this.availableOnly = true;
+        return this;
+    }
+
+    public EventQuery sortBy(Sort sort) {
+        this.sort = sort;
+        return this;
+    }
+
+    /** Page size. */
+    public EventQuery limit(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    /** Continues after the page that returned this cursor (null = first page). */
+    public EventQuery after(String cursor) {
+        this.cursor = cursor;
+        return this;
+    }
+}
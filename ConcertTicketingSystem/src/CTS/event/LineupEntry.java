@@ -6,6 +6,9 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
+import CTS.misc.CsvReader;
+import CTS.misc.CsvWriter;
+
 public class LineupEntry {
     private int eventId;   // owning Event's ID 
     private int position;  // running order (1 = opening act)
@@ -53,11 +56,12 @@ public class LineupEntry {
     // eventId,position,artistId,notes
 
     public String toCsvRow() {
+        return CsvWriter.toRow(this::writeCsv);
+    }
+
+    public void writeCsv(CsvWriter w) throws IOException {
         int artistId = (artist != null) ? artist.getArtistId() : -1;
-        return eventId + "," +
-                position + "," +
-                artistId + "," +
-                escape(notes);
+        w.field(eventId).field(position).field(artistId).field(notes);
     }
 
     
@@ -80,36 +84,23 @@ public class LineupEntry {
         if (!Files.exists(path)) {
             return result;
         }
-        for (String line : Files.readAllLines(path)) {
-            if (line.trim().isEmpty() || line.startsWith("#")) {
-                continue;
+        try (CsvReader r = CsvReader.open(path)) {
+            while (r.next(4)) { // notes is last and may hold old unescaped commas
+                String notes = r.fieldCount() > 3 ? r.getString(3) : "";
+                result.add(new RawLineupRow(r.getInt(0), r.getInt(1), r.getInt(2), notes));
             }
-            String[] parts = line.split(",", 4);
-            int eventId = Integer.parseInt(parts[0]);
-            int position = Integer.parseInt(parts[1]);
-            int artistId = Integer.parseInt(parts[2]);
-            String notes = parts.length > 3 ? unescape(parts[3]) : "";
-            result.add(new RawLineupRow(eventId, position, artistId, notes));
         }
         return result;
     }
 
     public static void saveToCsv(Path path, List<LineupEntry> entries) throws IOException {
-        List<String> lines = new ArrayList<>();
-        lines.add("# eventId,position,artistId,notes");
-        for (LineupEntry e : entries) {
-            lines.add(e.toCsvRow());
+        try (CsvWriter w = CsvWriter.create(path)) {
+            w.comment("eventId,position,artistId,notes");
+            for (LineupEntry e : entries) {
+                e.writeCsv(w);
+                w.endRow();
+            }
         }
-        Files.write(path, lines);
-    }
-
-    private static String escape(String s) {
-        if (s == null) return "";
-        return s.replace("\\", "\\\\").replace(",", "\\,");
-    }
-
-    private static String unescape(String s) {
-        return s.replace("\\,", ",").replace("\\\\", "\\");
     }
 
     @Override
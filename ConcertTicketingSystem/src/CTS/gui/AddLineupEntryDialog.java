@@ -2,12 +2,11 @@ package CTS.gui;
 
 import CTS.event.Artist;
 import CTS.event.Event;
+import CTS.event.EventDatabase;
 import CTS.event.LineupEntry;
 
 import javax.swing.*;
 import java.awt.*;
-import java.nio.file.Paths;
-import java.util.ArrayList;
 import java.util.List;
 
 public class AddLineupEntryDialog extends JDialog {
@@ -20,16 +19,7 @@ public class AddLineupEntryDialog extends JDialog {
         setLayout(new GridLayout(0,1));
 
         /* ---------------- LOAD ARTISTS ---------------- */
-        final List<Artist> artists;
-        try {
-            artists = Artist.loadFromCsv(Paths.get("artists.csv"));
-        } catch (Exception e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this,
-                    "Failed to load artists.csv\n" + e.getMessage());
-            dispose();
-            return;
-        }
+        final List<Artist> artists = EventDatabase.getAllArtists();
 
         if (artists.isEmpty()) {
             JOptionPane.showMessageDialog(this,
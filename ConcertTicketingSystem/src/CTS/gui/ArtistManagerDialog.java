@@ -1,11 +1,10 @@
 package CTS.gui;
 
 import CTS.event.Artist;
+import CTS.event.EventDatabase;
 
 import javax.swing.*;
 import java.awt.*;
-import java.nio.file.Paths;
-import java.util.List;
 
 public class ArtistManagerDialog extends JDialog {
 
@@ -28,12 +27,7 @@ public class ArtistManagerDialog extends JDialog {
         JButton save = new JButton("Save");
         save.addActionListener(ev -> {
             try {
-                int newId = generateArtistId();
-                Artist a = new Artist(newId, name.getText(), genre.getText());
-
-                var list = Artist.loadFromCsv(Paths.get("artists.csv"));
-                list.add(a);
-                Artist.saveToCsv(Paths.get("artists.csv"), list);
+                EventDatabase.addArtist(name.getText(), genre.getText());
 
                 dispose();
             } catch (Exception e) {
@@ -46,25 +40,6 @@ public class ArtistManagerDialog extends JDialog {
     }
     
     public static Artist findArtistById(int id) {
-        try {
-            var all = Artist.loadFromCsv(Paths.get("artists.csv"));
-            for (Artist a : all) {
-                if (a.getArtistId() == id) {
-                    return a;
-                }
-            }
-        } catch (Exception ignored) {}
-
-        return null;  // artist not found
-    }
-
-
-    private int generateArtistId() {
-        try {
-            var list = Artist.loadFromCsv(Paths.get("artists.csv"));
-            return list.stream().mapToInt(Artist::getArtistId).max().orElse(0) + 1;
-        } catch (Exception e) {
-            return 1;
-        }
+        return EventDatabase.getArtistById(id);  // null if not found
     }
 }
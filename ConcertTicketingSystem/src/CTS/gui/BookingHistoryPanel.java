@@ -1,6 +1,7 @@
 package CTS.gui;
 
 import CTS.booking.Order;
+import CTS.booking.OrderDatabase;
 import CTS.booking.Ticket;
 import CTS.event.Event;
 import CTS.user.User;
@@ -15,6 +16,10 @@ public class BookingHistoryPanel extends JPanel {
 
     private final User user;
 
+    // Redraw when an order or refund changes elsewhere (e.g. an admin decision)
+    private final OrderDatabase.Listener ordersListener =
+            () -> SwingUtilities.invokeLater(this::refresh);
+
     public BookingHistoryPanel(User user) {
         this.user = user;
 
@@ -22,6 +27,25 @@ public class BookingHistoryPanel extends JPanel {
         buildUI();
     }
 
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        OrderDatabase.addListener(ordersListener);
+    }
+
+    @Override
+    public void removeNotify() {
+        OrderDatabase.removeListener(ordersListener);
+        super.removeNotify();
+    }
+
+    private void refresh() {
+        removeAll();
+        buildUI();
+        revalidate();
+        repaint();
+    }
+
     private void buildUI() {
 
         List<Order> myOrders = UserOrderHelper.getOrdersFor(user);
@@ -61,16 +85,13 @@ public class BookingHistoryPanel extends JPanel {
                     CTS.enums.RefundStatus.PENDING
             );
 
-            // Append to CSV
-            RefundRequest.append(java.nio.file.Paths.get("refunds.csv"), rr);
+            // Journal the new refund request
+            CTS.booking.OrderDatabase.recordRefund(rr);
 
             JOptionPane.showMessageDialog(this, "Refund request submitted.");
 
             // Refresh UI
-            removeAll();
-            buildUI();
-            revalidate();
-            repaint();
+            refresh();
 
         } catch (Exception ex) {
             JOptionPane.showMessageDialog(this, "Error submitting refund: " + ex.getMessage());
@@ -1,31 +1,21 @@
 package CTS.gui;
 
 import CTS.booking.Order;
-import CTS.event.Event;
+import CTS.booking.OrderDatabase;
 import CTS.misc.RefundRequest;
 import CTS.misc.PaymentTransaction;
 import CTS.user.ConcertGoer;
 import CTS.user.User;
 import CTS.user.VenueAdmin;
-import CTS.event.LineupEntry;
-import CTS.event.Artist;
-import CTS.gui.ArtistManagerDialog;
 
 
 import javax.swing.*;
 import java.awt.*;
-import java.nio.file.Paths;
-import java.util.ArrayList;
 import java.util.List;
 
 public class DashboardGUI extends JFrame {
 
     private final User loggedUser;
-    
- // Admin data
-    private List<Event> events;
-    private List<LineupEntry> lineup;
-
 
     // Local storage
     private List<Order> orders;
@@ -41,8 +31,6 @@ public class DashboardGUI extends JFrame {
         loadOrders();
         loadRefunds();
         loadPayments();
-        loadEvents();
-        loadLineup();
 
         setTitle("CTS Dashboard - Welcome " + user.getName());
         setSize(600, 450);
@@ -57,52 +45,15 @@ public class DashboardGUI extends JFrame {
        ========================================== */
 
     private void loadOrders() {
-        try {
-            orders = Order.loadFromCsv(Paths.get("orders.csv"));
-        } catch (Exception e) {
-            orders = new ArrayList<>();
-        }
+        orders = OrderDatabase.getAllOrders();
     }
     
-    private void loadEvents() {
-        try {
-            events = Event.loadFromCsv(Paths.get("events.csv"));
-        } catch (Exception e) {
-            events = new ArrayList<>();
-        }
-    }
-
-
     private void loadRefunds() {
-        try {
-            var raw = RefundRequest.loadRawRows(Paths.get("refunds.csv"));
-            refunds = new ArrayList<>();
-
-            for (var r : raw) {
-                Order o = Order.findById(r.orderId, orders);
-                refunds.add(new RefundRequest(
-                        r.refundId,
-                        o,
-                        r.createdAt,
-                        r.reason,
-                        r.status
-                ));
-            }
-        } catch (Exception e) {
-            refunds = new ArrayList<>();
-        }
+        refunds = OrderDatabase.getAllRefunds();
     }
 
     private void loadPayments() {
-        try {
-        	payments = PaymentTransaction.loadAll(
-        	        Paths.get("payments.csv"),
-        	        orders   // required to link each payment to its order
-        	);
-
-        } catch (Exception e) {
-            payments = new ArrayList<>();
-        }
+        payments = OrderDatabase.getAllPayments();
     }
 
     /* ==========================================
@@ -178,7 +129,7 @@ public class DashboardGUI extends JFrame {
         JFrame f = new JFrame("Manage Events");
         f.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
         f.setSize(650, 550);
-        f.add(new EventManagerPanel());
+        f.add(new EventManagerPanel((VenueAdmin) loggedUser));
         f.setLocationRelativeTo(null);
         f.setVisible(true);
     }
@@ -187,30 +138,19 @@ public class DashboardGUI extends JFrame {
         JFrame f = new JFrame("Manage Lineup");
         f.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
         f.setSize(650, 550);
-        f.add(new ManageLineupPanel(events, lineup));
+        f.add(new ManageLineupPanel());
         f.setLocationRelativeTo(null);
         f.setVisible(true);
     }
 
-    
-    private void loadLineup() {
-        try {
-            var raw = LineupEntry.loadRawRows(Paths.get("lineup.csv"));
-            lineup = new ArrayList<>();
-
-            for (var r : raw) {
-                Artist a = ArtistManagerDialog.findArtistById(r.artistId);
-                lineup.add(new LineupEntry(r.eventId, r.position, r.notes, a));
-            }
-        } catch (Exception e) {
-            lineup = new ArrayList<>();
-        }
-    }
-
-
 
     private void openRefundProcessor() {
 
+        // Cheap in-memory copies; picks up refunds filed since login
+        loadOrders();
+        loadRefunds();
+        loadPayments();
+
         JFrame f = new JFrame("Process Refund Requests");
         f.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
         f.setSize(650, 550);
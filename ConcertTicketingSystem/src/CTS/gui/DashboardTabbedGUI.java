@@ -5,15 +5,12 @@ import CTS.user.User;
 import CTS.user.VenueAdmin;
 
 import CTS.booking.Order;
-import CTS.event.Event;
-import CTS.event.LineupEntry;
+import CTS.booking.OrderDatabase;
 import CTS.misc.PaymentTransaction;
 import CTS.misc.RefundRequest;
 
 import javax.swing.*;
 import java.awt.*;
-import java.nio.file.Paths;
-import java.util.ArrayList;
 import java.util.List;
 
 public class DashboardTabbedGUI extends JFrame {
@@ -22,8 +19,6 @@ public class DashboardTabbedGUI extends JFrame {
     private final JTabbedPane tabs = new JTabbedPane();
 
     // Shared admin data
-    private List<Event> events;
-    private List<LineupEntry> lineup;
     private List<Order> orders;
     private List<RefundRequest> refunds;
     private List<PaymentTransaction> payments;
@@ -36,7 +31,7 @@ public class DashboardTabbedGUI extends JFrame {
         setLocationRelativeTo(null);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 
-        loadAllData();     // <-- load all CSVs
+        loadAllData();     // <-- shared in-memory stores, no CSV reads
 
         buildTabs();
         add(tabs);
@@ -49,56 +44,10 @@ public class DashboardTabbedGUI extends JFrame {
        ============================================================ */
     private void loadAllData() {
 
-        // ---------- Load events ----------
-        try {
-            events = Event.loadFromCsv(Paths.get("events.csv"));
-        } catch (Exception e) {
-            events = new ArrayList<>();
-        }
-
-        // ---------- Load lineup ----------
-        try {
-            var raw = LineupEntry.loadRawRows(Paths.get("lineup.csv"));
-            lineup = new ArrayList<>();
-
-            for (var r : raw) {
-                var a = ArtistManagerDialog.findArtistById(r.artistId);
-                lineup.add(new LineupEntry(r.eventId, r.position, r.notes, a));
-            }
-
-            // Attach lineup entries to their event objects
-            for (Event e : events) {
-                for (LineupEntry le : lineup) {
-                    if (le.getEventId() == e.getEventId()) {
-                        e.getLineup().add(le);
-                    }
-                }
-            }
-
-        } catch (Exception e) {
-            lineup = new ArrayList<>();
-        }
-
-        // ---------- Load orders ----------
-        try {
-            orders = Order.loadFromCsv(Paths.get("orders.csv"));
-        } catch (Exception e) {
-            orders = new ArrayList<>();
-        }
-
-        // ---------- Load refund requests ----------
-        try {
-            refunds = RefundRequest.loadAll(Paths.get("refunds.csv"), orders);
-        } catch (Exception e) {
-            refunds = new ArrayList<>();
-        }
-
-        // ---------- Load payments ----------
-        try {
-            payments = PaymentTransaction.loadAll(Paths.get("payments.csv"), orders);
-        } catch (Exception e) {
-            payments = new ArrayList<>();
-        }
+        // ---------- Orders, refunds, payments (snapshots + journal) ----------
+        orders = OrderDatabase.getAllOrders();
+        refunds = OrderDatabase.getAllRefunds();
+        payments = OrderDatabase.getAllPayments();
     }
 
 
@@ -119,10 +68,10 @@ public class DashboardTabbedGUI extends JFrame {
         /* ========================= ADMIN ============================ */
         else if (currentUser instanceof VenueAdmin admin) {
 
-            tabs.addTab("Manage Events", new EventManagerPanel());
+            tabs.addTab("Manage Events", new EventManagerPanel(admin));
 
             tabs.addTab("Manage Lineup",
-                    new ManageLineupPanel(events, lineup));
+                    new ManageLineupPanel());
 
             tabs.addTab("Process Refunds",
                     new RefundProcessPanel(admin, orders, refunds, payments));
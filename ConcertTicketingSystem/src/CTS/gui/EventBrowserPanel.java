@@ -1,21 +1,40 @@
 package CTS.gui;
 
 import CTS.event.Event;
+import CTS.event.EventDatabase;
 import CTS.user.User;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.util.List;
 
 public class EventBrowserPanel extends JPanel {
 
+    /** Most search hits shown at once. */
+    private static final int MAX_RESULTS = 200;
+
+    private final DefaultListModel<Event> model = new DefaultListModel<>();
+
     public EventBrowserPanel(User user) {
         setLayout(new BorderLayout());
 
-        List<Event> events = Event.getAllPublishedEvents();
+        showEvents(Event.getAllPublishedEvents());
 
-        DefaultListModel<Event> model = new DefaultListModel<>();
-        for (Event e : events) model.addElement(e);
+        // Search as you type: events, venues, artists and genres
+        JTextField search = new JTextField();
+        search.setToolTipText("Search events, venues, artists or genres");
+        search.getDocument().addDocumentListener(new DocumentListener() {
+            @Override public void insertUpdate(DocumentEvent e)  { runSearch(search.getText()); }
+            @Override public void removeUpdate(DocumentEvent e)  { runSearch(search.getText()); }
+            @Override public void changedUpdate(DocumentEvent e) { runSearch(search.getText()); }
+        });
+
+        JPanel top = new JPanel(new BorderLayout(5, 5));
+        top.add(new JLabel("Search:"), BorderLayout.WEST);
+        top.add(search, BorderLayout.CENTER);
+        add(top, BorderLayout.NORTH);
 
         JList<Event> list = new JList<>(model);
         list.setCellRenderer(new EventListRenderer());
@@ -38,6 +57,19 @@ public class EventBrowserPanel extends JPanel {
         add(bottom, BorderLayout.SOUTH);
     }
 
+    private void runSearch(String query) {
+        if (query.isBlank()) {
+            showEvents(Event.getAllPublishedEvents());
+        } else {
+            showEvents(EventDatabase.searchPublishedEvents(query, MAX_RESULTS));
+        }
+    }
+
+    private void showEvents(List<Event> events) {
+        model.clear();
+        for (Event e : events) model.addElement(e);
+    }
+
     private static class EventListRenderer extends DefaultListCellRenderer {
         @Override
         public Component getListCellRendererComponent(
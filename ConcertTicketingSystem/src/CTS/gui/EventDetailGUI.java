@@ -3,7 +3,7 @@ package CTS.gui;
 import CTS.event.Event;
 import CTS.event.LineupEntry;
 import CTS.seating.Seating;
-import CTS.seating.SeatingManager;
+import CTS.booking.BookingService;
 import CTS.user.User;
 
 import javax.swing.*;
@@ -96,7 +96,7 @@ public class EventDetailGUI extends JFrame {
             return;
         }
 
-        Seating seating = SeatingManager.loadOrCreate(event);
+        Seating seating = BookingService.shared().openSeating(event);
 
         GUIApp app = new GUIApp(currentUser);
 
@@ -2,24 +2,15 @@ package CTS.gui;
 
 import CTS.booking.Order;
 import CTS.event.Event;
-
-import java.nio.file.Paths;
-import java.util.List;
+import CTS.event.EventDatabase;
 
 public class EventDetailsHelper {
 
+    // Index hit in EventDatabase; called once per rendered order card
     public static Event getEvent(Order order) {
-
-        try {
-            List<Event> all = Event.loadFromCsv(Paths.get("events.csv"));
-
-            for (Event e : all) {
-                if (e.getEventId() == order.getTickets().get(0).getEventId()) {
-                    return e;
-                }
-            }
-        } catch (Exception ignored) {}
-
-        return null;
+        if (order.getTickets().isEmpty()) {
+            return null;
+        }
+        return EventDatabase.getEventById(order.getTickets().get(0).getEventId());
     }
 }
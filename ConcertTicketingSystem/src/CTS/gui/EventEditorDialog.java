@@ -1,15 +1,14 @@
 package CTS.gui;
 
 import CTS.event.Event;
+import CTS.event.EventDatabase;
 import CTS.enums.EventStatus;
 import CTS.misc.Money;
 
 import javax.swing.*;
 import java.awt.*;
-import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.List;
 
 public class EventEditorDialog extends JDialog {
 
@@ -22,7 +21,7 @@ public class EventEditorDialog extends JDialog {
         boolean creating = (event == null);
         if (creating) {
             event = new Event(
-                    generateId(),
+                    EventDatabase.nextEventId(),
                     "",
                     null,
                     "",
@@ -78,15 +77,8 @@ public class EventEditorDialog extends JDialog {
                 }
                 // ----------------------------------------------------------------
 
-                // Load all events
-                List<Event> list = Event.loadFromCsv(Paths.get("events.csv"));
-
-                // Replace existing event
-                list.removeIf(e -> e.getEventId() == finalEvent.getEventId());
-                list.add(finalEvent);
-
-                // Save back to CSV
-                Event.saveToCsv(Paths.get("events.csv"), list);
+                // Add or replace the event and save events.csv
+                EventDatabase.saveEvent(finalEvent);
 
                 onSave.run();
                 dispose();
@@ -100,13 +92,4 @@ public class EventEditorDialog extends JDialog {
 
         setVisible(true);
     }
-
-    private int generateId() {
-        try {
-            var events = Event.loadFromCsv(Paths.get("events.csv"));
-            return events.stream().mapToInt(Event::getEventId).max().orElse(0) + 1;
-        } catch (Exception e) {
-            return 1;
-        }
-    }
 }
@@ -1,25 +1,29 @@
 package CTS.gui;
 
+import CTS.booking.BookingService;
 import CTS.event.Event;
+import CTS.event.EventDatabase;
 import CTS.enums.EventStatus;
 import CTS.misc.Money;
+import CTS.user.VenueAdmin;
 
 import javax.swing.*;
 import java.awt.*;
-import java.nio.file.Paths;
 import java.util.List;
 
 public class EventManagerPanel extends JPanel {
 
+    private final VenueAdmin admin; // recorded on refunds issued by a cancellation
+
     public EventManagerPanel() {
+        this(null);
+    }
+
+    public EventManagerPanel(VenueAdmin admin) {
+        this.admin = admin;
         setLayout(new BorderLayout());
 
-        List<Event> events;
-        try {
-            events = Event.loadFromCsv(Paths.get("events.csv"));
-        } catch (Exception e) {
-            events = List.of();
-        }
+        List<Event> events = EventDatabase.getAllEvents();
 
         JPanel list = new JPanel();
         list.setLayout(new BoxLayout(list, BoxLayout.Y_AXIS));
@@ -63,10 +67,7 @@ public class EventManagerPanel extends JPanel {
 
         JButton cancel = new JButton("Cancel Event");
         cancel.setEnabled(event.getStatus() == EventStatus.PUBLISHED);
-        cancel.addActionListener(ev -> {
-            event.cancel();
-            saveChanges();
-        });
+        cancel.addActionListener(ev -> cancelEvent(event, cancel));
 
         actions.add(edit);
         actions.add(publish);
@@ -77,13 +78,36 @@ public class EventManagerPanel extends JPanel {
         return card;
     }
 
+    // Cancels and refunds every paid order for the event off the EDT, then saves the event list
+    // The button stays off until the refunds have answered, so a second click cannot start another run
+    private void cancelEvent(Event event, JButton button) {
+        int ok = JOptionPane.showConfirmDialog(this,
+                "Cancel " + event.getName() + " and refund all " + event.getTicketsSold() + " tickets sold?",
+                "Cancel Event", JOptionPane.YES_NO_OPTION);
+        if (ok != JOptionPane.YES_OPTION) return;
+
+        button.setEnabled(false);
+        BookingService.shared().cancelEventAsync(event, admin).whenComplete((result, error) ->
+                SwingUtilities.invokeLater(() -> {
+                    if (error != null) {
+                        button.setEnabled(event.getStatus() == EventStatus.PUBLISHED);
+                        JOptionPane.showMessageDialog(this, "Cancel failed: " + error.getMessage());
+                        return;
+                    }
+                    JOptionPane.showMessageDialog(this, "Event canceled.\n" + result.getRefunded().size()
+                            + " order(s) refunded, " + result.getFailed().size() + " still pending, "
+                            + result.getManual().size() + " to refund by hand.");
+                    saveChanges();
+                }));
+    }
+
     private void openEventEditor(Event event) {
         new EventEditorDialog(SwingUtilities.getWindowAncestor(this), event, this::saveChanges);
     }
 
     private void saveChanges() {
         try {
-            Event.saveToCsv(Paths.get("events.csv"), Event.loadFromCsv(Paths.get("events.csv")));
+            EventDatabase.saveEvents();
             SwingUtilities.getWindowAncestor(this).dispose();
         } catch (Exception ex) {
             JOptionPane.showMessageDialog(this, "Error saving events: " + ex.getMessage());
@@ -1,9 +1,10 @@
 package CTS.gui;
 
+import CTS.booking.BookingService;
+import CTS.booking.SeatHold;
 import CTS.event.Event;
 import CTS.event.EventDatabase;
 import CTS.seating.Seating;
-import CTS.seating.SeatingManager;
 import CTS.user.User;
 
 import javax.swing.*;
@@ -33,6 +34,10 @@ public class GUIApp {
         this.currentUser = user;
     }
 
+    public User getCurrentUser() {
+        return currentUser;
+    }
+
 
     public void showMainMenu() {
         JPanel panel = new JPanel();
@@ -67,14 +72,14 @@ public class GUIApp {
     }
 
     private void showSeating(Event event) {
-    	Seating seating = SeatingManager.loadOrCreate(event);
+    	Seating seating = BookingService.shared().openSeating(event);
         SeatingScreen ss = new SeatingScreen(this, event, seating);
         frame.setContentPane(ss);
         frame.revalidate();
     }
 
-    public void beginPurchase(Event event, Seating seating, List<Integer> seatNumbers) {
-        new GUIBookingFlow(this).purchaseSeats(event, seating, seatNumbers, currentUser);
+    public void beginPurchase(Event event, Seating seating, List<SeatHold> holds) {
+        new GUIBookingFlow(this).purchaseSeats(event, seating, holds, currentUser);
     }
 
 }
@@ -1,18 +1,15 @@
 package CTS.gui;
 
 import CTS.event.Event;
-import CTS.booking.Order;
-import CTS.booking.OrderDatabase;
+import CTS.booking.BookingResult;
+import CTS.booking.BookingService;
+import CTS.booking.SeatHold;
 import CTS.misc.Money;
-import CTS.misc.PaymentTransaction;
-import CTS.enums.PaymentType;
-import CTS.enums.PaymentStatus;
-import CTS.enums.SeatStatus; 
 import CTS.seating.*;
 import CTS.user.User;
 
 import javax.swing.*;
-import java.util.Date;
+import java.util.ArrayList;
 import java.util.List;
 
 public class GUIBookingFlow {
@@ -23,48 +20,47 @@ public class GUIBookingFlow {
         this.app = app;
     }
 
-    public void purchaseSeats(Event event, Seating seating, List<Integer> seatNumbers, User user) {
+    public void purchaseSeats(Event event, Seating seating, List<SeatHold> holds, User user) {
 
-        Money base = event.getBasePrice();
-        double totalDouble = base.getAmount() * seatNumbers.size();
-        Money total = new Money(totalDouble, base.getCurrency());
+        List<Integer> seatNumbers = new ArrayList<>();
+        for (SeatHold h : holds) {
+            seatNumbers.addAll(h.getSeatNumbers());
+        }
+
+        BookingService service = BookingService.shared();
+        Money total = service.price(holds);
 
-        String card = JOptionPane.showInputDialog("Enter fake 16-digit card number:");
+        String card = JOptionPane.showInputDialog("Total: " + total + "\nEnter fake 16-digit card number:");
         if (card == null) return;
 
-        Order order = OrderDatabase.createOrder(
-                user.getUserId(),
-                event.getEventId(),
-                seatNumbers
-        );
+        // Checkout writes files, so it runs off the EDT; results come back on it
+        service.purchaseAsync(holds, card).whenComplete((result, error) ->
+                SwingUtilities.invokeLater(() -> showResult(result, error, holds, seatNumbers)));
+    }
 
-        for (int num : seatNumbers) {
-            Seat s = seating.getSeatByNumber(num);
-            if (s != null) {
-                s.markSold();  
+    private void showResult(BookingResult result, Throwable error, List<SeatHold> holds, List<Integer> seatNumbers) {
+        if (error != null) {
+            JOptionPane.showMessageDialog(null, "Purchase failed: " + error.getMessage());
+            return;
+        }
+        switch (result.getOutcome()) {
+            case CONFIRMED -> {
+                JOptionPane.showMessageDialog(null,
+                        "Purchase complete!\nSeats: " + seatNumbers);
+                app.showMainMenu();
+            }
+            case HOLD_EXPIRED -> JOptionPane.showMessageDialog(null,
+                    "Your seat hold expired. Please reselect your seats.");
+            case PAYMENT_DECLINED -> {
+                // The seating screen has already let go of these holds
+                for (SeatHold h : holds) {
+                    BookingService.shared().release(h);
+                }
+                JOptionPane.showMessageDialog(null,
+                        "Card declined. Your seats were released.");
             }
+            case SOLD_OUT -> JOptionPane.showMessageDialog(null,
+                    "Sorry, those seats are no longer available.");
         }
-
-        SeatingManager.save(seating);
-
-        PaymentTransaction payment = new PaymentTransaction(
-                PaymentTransaction.nextId(),
-                "GUI-PAY-" + System.currentTimeMillis(),
-                PaymentType.CHARGE,            // <-- your real enum value
-                total,
-                new Date(),
-                PaymentStatus.SUCCESS,
-                order
-        );
-
-        order.setPayment(payment);
-
-        OrderDatabase.attachPayment(order, payment);
-        OrderDatabase.saveAll();
-
-        JOptionPane.showMessageDialog(null,
-                "Purchase complete!\nSeats: " + seatNumbers);
-
-        app.showMainMenu();
     }
 }
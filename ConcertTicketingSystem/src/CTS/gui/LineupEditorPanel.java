@@ -1,29 +1,21 @@
 package CTS.gui;
 
 import CTS.event.Event;
+import CTS.event.EventDatabase;
 import CTS.event.LineupEntry;
 
 import javax.swing.*;
 import java.awt.*;
-import java.nio.file.Paths;
-import java.util.List;
 
 public class LineupEditorPanel extends JDialog {
 
     private final Event event;
-    private final List<Event> events;
-    private final List<LineupEntry> lineupEntries;
 
-    public LineupEditorPanel(Window parent,
-                             Event event,
-                             List<Event> events,
-                             List<LineupEntry> lineupEntries) {
+    public LineupEditorPanel(Window parent, Event event) {
 
         super(parent, "Edit Lineup – " + event.getName(), ModalityType.APPLICATION_MODAL);
 
         this.event = event;
-        this.events = events;
-        this.lineupEntries = lineupEntries;
 
         setSize(500, 600);
         setLocationRelativeTo(parent);
@@ -105,14 +97,13 @@ public class LineupEditorPanel extends JDialog {
 
     private void removeEntry(LineupEntry entry) {
         event.getLineup().remove(entry);
-        lineupEntries.remove(entry);
         saveAndRefresh();
     }
 
     private void saveAndRefresh() {
         try {
-            LineupEntry.saveToCsv(Paths.get("lineup.csv"), lineupEntries);
-            Event.saveToCsv(Paths.get("events.csv"), events);
+            // lineup.csv is rebuilt from every event's lineup
+            EventDatabase.saveLineup();
         } catch (Exception e) {
             JOptionPane.showMessageDialog(this, "Save failed: " + e.getMessage());
         }
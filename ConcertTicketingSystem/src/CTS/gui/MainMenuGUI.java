@@ -3,7 +3,7 @@ package CTS.gui;
 import CTS.event.Event;
 import CTS.enums.EventStatus;
 import CTS.seating.Seating;
-import CTS.seating.SeatingManager;
+import CTS.booking.BookingService;
 import CTS.user.User;
 import CTS.user.userDatabase;
 
@@ -144,7 +144,7 @@ public class MainMenuGUI extends JFrame {
 
     /* ----------------------- SEATING ------------------------- */
     private void openEvent(Event event) {
-        Seating seating = SeatingManager.loadOrCreate(event);
+        Seating seating = BookingService.shared().openSeating(event);
 
         GUIApp app = new GUIApp(currentUser);
 
@@ -1,47 +1,23 @@
 package CTS.gui;
 
 import CTS.event.Event;
-import CTS.event.LineupEntry;
-import CTS.event.Artist;
+import CTS.event.EventDatabase;
 
 import javax.swing.*;
 import java.awt.*;
-import java.nio.file.Paths;
-import java.util.ArrayList;
 import java.util.List;
 
 public class ManageLineupPanel extends JPanel {
 
     private final List<Event> events;
-    private final List<LineupEntry> lineupEntries;
 
-    public ManageLineupPanel(List<Event> events, List<LineupEntry> lineupEntries) {
-        this.events = events;
-        this.lineupEntries = lineupEntries;
-
-        // Link lineup entries into event objects 
-        rebuildEventLineups();
+    public ManageLineupPanel() {
+        // EventDatabase already attached each event's lineup entries
+        this.events = EventDatabase.getAllEvents();
 
         buildUI();
     }
 
-    /** Attach lineup entries to their correct events */
-    private void rebuildEventLineups() {
-        // Clear existing lineups
-        for (Event e : events) {
-            e.getLineup().clear();
-        }
-
-        // Reassign lineup entries
-        for (LineupEntry le : lineupEntries) {
-            for (Event e : events) {
-                if (e.getEventId() == le.getEventId()) {
-                    e.addLineupEntry(le);
-                }
-            }
-        }
-    }
-
     private void buildUI() {
         setLayout(new BorderLayout());
 
@@ -73,9 +49,7 @@ public class ManageLineupPanel extends JPanel {
     private void openLineupEditor(Event event) {
         new LineupEditorPanel(
                 SwingUtilities.getWindowAncestor(this),
-                event,
-                events,
-                lineupEntries
+                event
         );
     }
 }
@@ -3,17 +3,18 @@ package CTS.gui;
 import CTS.misc.RefundRequest;
 import CTS.misc.PaymentTransaction;
 import CTS.enums.RefundStatus;
-import CTS.enums.PaymentStatus;
-import CTS.enums.PaymentType;
-import CTS.user.User;
 import CTS.user.VenueAdmin;
+import CTS.booking.BookingService;
+import CTS.booking.BulkRefundResult;
 import CTS.booking.Order;
+import CTS.booking.OrderDatabase;
 
 import javax.swing.*;
 import java.awt.*;
-import java.nio.file.Paths;
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 public class RefundProcessPanel extends JPanel {
 
@@ -23,6 +24,12 @@ public class RefundProcessPanel extends JPanel {
     private final List<RefundRequest> refunds;
     private final List<PaymentTransaction> payments;
 
+    // Ticked for "Approve Selected"
+    private final Set<RefundRequest> selected = new LinkedHashSet<>();
+
+    // An approval is running; every action button stays off until it answers
+    private boolean busy;
+
     public RefundProcessPanel(VenueAdmin admin,
                               List<Order> orders,
                               List<RefundRequest> refunds,
@@ -40,17 +47,32 @@ public class RefundProcessPanel extends JPanel {
     private void rebuildUI() {
 
         removeAll();
+        selected.removeIf(r -> r.getStatus() != RefundStatus.PENDING);
 
         JPanel list = new JPanel();
         list.setLayout(new BoxLayout(list, BoxLayout.Y_AXIS));
 
+        List<RefundRequest> pending = new ArrayList<>();
         for (RefundRequest r : refunds) {
             if (r.getStatus() == RefundStatus.PENDING) {
+                pending.add(r);
                 list.add(buildRefundCard(r));
                 list.add(Box.createVerticalStrut(10));
             }
         }
 
+        JButton approveSelected = new JButton("Approve Selected");
+        approveSelected.setEnabled(!busy);
+        approveSelected.addActionListener(ev -> approveRefunds(new ArrayList<>(selected)));
+        JButton approveAll = new JButton("Approve All (" + pending.size() + ")");
+        approveAll.setEnabled(!busy && !pending.isEmpty());
+        approveAll.addActionListener(ev -> approveRefunds(pending));
+
+        JPanel top = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        top.add(approveSelected);
+        top.add(approveAll);
+
+        add(top, BorderLayout.NORTH);
         add(new JScrollPane(list), BorderLayout.CENTER);
         revalidate();
         repaint();
@@ -67,13 +89,20 @@ public class RefundProcessPanel extends JPanel {
         card.add(new JLabel("Amount: " + o.getTotalAmount()));
         card.add(new JLabel("Reason: " + r.getReason()));
 
+        JCheckBox pick = new JCheckBox("Select", selected.contains(r));
         JButton approve = new JButton("Approve");
         JButton deny = new JButton("Deny");
 
-        approve.addActionListener(ev -> approveRefund(r));
+        pick.addActionListener(ev -> {
+            if (pick.isSelected()) selected.add(r); else selected.remove(r);
+        });
+        approve.setEnabled(!busy);
+        deny.setEnabled(!busy);
+        approve.addActionListener(ev -> approveRefunds(List.of(r)));
         deny.addActionListener(ev -> denyRefund(r));
 
         JPanel buttons = new JPanel();
+        buttons.add(pick);
         buttons.add(approve);
         buttons.add(deny);
 
@@ -82,32 +111,38 @@ public class RefundProcessPanel extends JPanel {
         return card;
     }
 
-    private void approveRefund(RefundRequest r) {
-
-        Order o = r.getOrder();
+    // Gateway refunds, seat releases and the journal write run off the EDT, as one batch
+    private void approveRefunds(List<RefundRequest> batch) {
+        if (batch.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Select at least one refund request.");
+            return;
+        }
+        busy = true;
+        rebuildUI();
+        BookingService.shared().approveRefundsAsync(batch, adminUser).whenComplete((result, error) ->
+                SwingUtilities.invokeLater(() -> showResult(result, error)));
+    }
 
-        // Create a refund transaction
-        PaymentTransaction txn = new PaymentTransaction(
-                PaymentTransaction.nextId(),
-                "refund_" + r.getRefundId(),
-                PaymentType.REFUND,
-                o.getTotalAmount(),
-                new Date(),
-                PaymentStatus.SUCCESS,
-                o
-        );
-
-        payments.add(txn);
-        r.setRefundTxn(txn);
-
-        r.approve(adminUser);
-        o.markRefunded();
-
-        saveRefunds();
-        savePayments();
+    private void showResult(BulkRefundResult result, Throwable error) {
+        busy = false;
+        if (error != null) {
+            rebuildUI();
+            JOptionPane.showMessageDialog(this, "Refund failed: " + error.getMessage());
+            return;
+        }
+        for (RefundRequest r : result.getRefunded()) {
+            payments.add(r.getRefundTxn());
+        }
         rebuildUI();
 
-        JOptionPane.showMessageDialog(this, "Refund approved.");
+        String msg = result.getRefunded().size() + " refund(s) approved.";
+        if (!result.getFailed().isEmpty()) {
+            msg += "\n" + result.getFailed().size() + " refused by the payment gateway; still pending.";
+        }
+        if (!result.getManual().isEmpty()) {
+            msg += "\n" + result.getManual().size() + " paid without a gateway reference; refund by hand.";
+        }
+        JOptionPane.showMessageDialog(this, msg);
     }
 
     private void denyRefund(RefundRequest r) {
@@ -118,25 +153,9 @@ public class RefundProcessPanel extends JPanel {
 
         r.deny(adminUser, reason);
 
-        saveRefunds();
+        OrderDatabase.recordRefund(r);
         rebuildUI();
 
         JOptionPane.showMessageDialog(this, "Refund denied.");
     }
-
-    private void saveRefunds() {
-        try {
-            RefundRequest.saveToCsv(Paths.get("refunds.csv"), refunds);
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Error saving refunds: " + e.getMessage());
-        }
-    }
-
-    private void savePayments() {
-        try {
-            PaymentTransaction.saveToCsv(Paths.get("payments.csv"), payments);
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Error saving payments: " + e.getMessage());
-        }
-    }
 }
@@ -1,6 +1,8 @@
 package CTS.gui;
 
+import CTS.booking.BookingService;
 import CTS.booking.Order;
+import CTS.booking.OrderDatabase;
 import CTS.enums.OrderStatus;
 import CTS.enums.RefundStatus;
 import CTS.misc.RefundRequest;
@@ -9,8 +11,6 @@ import CTS.gui.UserOrderHelper;
 
 import javax.swing.*;
 import java.awt.*;
-import java.nio.file.Paths;
-import java.util.Date;
 import java.util.List;
 
 public class RefundRequestPanel extends JPanel {
@@ -131,21 +131,11 @@ public class RefundRequestPanel extends JPanel {
 
     private void submitRefund(Order order, String reason) {
         try {
-            int nextId = RefundRequest.nextId();
-
-            RefundRequest rr = new RefundRequest(
-                    nextId,
-                    order,
-                    new Date(),
-                    reason,
-                    RefundStatus.PENDING
-            );
-
-            // Save new refund request to CSV
-            RefundRequest.append(Paths.get("refunds.csv"), rr);
+            // Journals the new refund request
+            RefundRequest rr = BookingService.shared().requestRefund(order, reason);
 
             JOptionPane.showMessageDialog(this,
-                    "Refund request submitted!\nRefund ID: " + nextId);
+                    "Refund request submitted!\nRefund ID: " + rr.getRefundId());
 
             // Refresh UI so button becomes disabled
             buildUI();
@@ -157,25 +147,10 @@ public class RefundRequestPanel extends JPanel {
     }
 
     private boolean hasPendingRefund(Order order) {
-        try {
-            // Load ALL orders directly from CSV
-            List<Order> allOrders = Order.loadFromCsv(Paths.get("orders.csv"));
-
-            // Load all refunds, linking each to its Order
-            List<RefundRequest> all =
-                    RefundRequest.loadAll(
-                            Paths.get("refunds.csv"),
-                            allOrders
-                    );
-
-            for (RefundRequest rr : all) {
-                if (rr.getOrder() != null &&
-                    rr.getOrder().getOrderId() == order.getOrderId() &&
-                    rr.getStatus() == RefundStatus.PENDING) {
-                    return true;
-                }
+        for (RefundRequest rr : OrderDatabase.getRefundsForOrder(order.getOrderId())) {
+            if (rr.getStatus() == RefundStatus.PENDING) {
+                return true;
             }
-        } catch (Exception ignored) {
         }
 
         return false;
@@ -1,5 +1,7 @@
 package CTS.gui;
 
+import CTS.booking.BookingService;
+import CTS.booking.SeatHold;
 import CTS.event.Event;
 import CTS.seating.*;
 import CTS.enums.SeatStatus;
@@ -7,13 +9,21 @@ import CTS.enums.SeatStatus;
 import javax.swing.*;
 import java.awt.*;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 public class SeatingScreen extends BaseScreen {
 
     private final Event event;
     private final Seating seating;
 
+    // Seats this user is currently holding, by seat number
+    private final Map<Integer, SeatHold> myHolds = new LinkedHashMap<>();
+    private final Map<Seat, JButton> buttons = new LinkedHashMap<>();
+    private final Timer refreshTimer;
+
     public SeatingScreen(GUIApp app, Event event, Seating seating) {
         super(app);
         this.event = event;
@@ -22,6 +32,16 @@ public class SeatingScreen extends BaseScreen {
         add(topBar(event.getName()), BorderLayout.NORTH);
         add(buildGrid(), BorderLayout.CENTER);
         add(buildActions(), BorderLayout.SOUTH);
+
+        // Repaint once a second so expired holds (ours or others') show up
+        refreshTimer = new Timer(1000, e -> refreshAll());
+        refreshTimer.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        refreshTimer.stop();
+        super.removeNotify();
     }
 
     private JPanel buildGrid() {
@@ -44,28 +64,76 @@ public class SeatingScreen extends BaseScreen {
             b.addActionListener(e -> {
                 switch (seat.getStatus()) {
 
-                    case AVAILABLE -> {
-                        seat.markHeld();
-                        refreshColor(b, seat);
-                    }
+                    case AVAILABLE -> holdSeat(seat);
 
                     case HELD -> {
-                        seat.markAvailable();
-                        refreshColor(b, seat);
+                        // Only our own holds can be released from here
+                        SeatHold mine = myHolds.remove(seat.getSeatNumber());
+                        if (mine != null) {
+                            BookingService.shared().release(mine);
+                            refreshAll(); // the hold may cover other seats too
+                        }
                     }
 
                     case ADMIN_HELD, SOLD -> {
                         // Do nothing, these seats are locked
                     }
                 }
+                refreshColor(b, seat);
             });
 
+            buttons.put(seat, b);
             grid.add(b);
         }
 
         return grid;
     }
 
+    private void holdSeat(Seat seat) {
+        int userId = (app.getCurrentUser() != null) ? app.getCurrentUser().getUserId() : -1;
+
+        SeatHold hold = BookingService.shared().hold(
+                userId,
+                seating,
+                List.of(seat.getSeatNumber())
+        );
+
+        if (hold == null) {
+            JOptionPane.showMessageDialog(this, "Sorry, that seat was just taken.");
+        } else {
+            myHolds.put(seat.getSeatNumber(), hold);
+        }
+    }
+
+    // Lets the allocator pick adjacent seats instead of clicking them one by one
+    private void holdBestAvailable(int partySize) {
+        int userId = (app.getCurrentUser() != null) ? app.getCurrentUser().getUserId() : -1;
+
+        SeatHold hold = BookingService.shared().holdBestAvailable(
+                userId,
+                seating,
+                partySize,
+                SeatAllocator.ANY_SECTION,
+                null
+        );
+
+        if (hold == null) {
+            JOptionPane.showMessageDialog(this, "Sorry, no row has " + partySize + " seats together.");
+            return;
+        }
+        for (int num : hold.getSeatNumbers()) {
+            myHolds.put(num, hold);
+        }
+        refreshAll();
+    }
+
+    private void refreshAll() {
+        myHolds.values().removeIf(h -> !h.isActive());
+        for (Map.Entry<Seat, JButton> e : buttons.entrySet()) {
+            refreshColor(e.getValue(), e.getKey());
+        }
+    }
+
     private void refreshColor(JButton b, Seat seat) {
         switch (seat.getStatus()) {
             case AVAILABLE -> b.setBackground(Color.GREEN);
@@ -86,18 +154,26 @@ public class SeatingScreen extends BaseScreen {
         JButton purchase = new JButton("Purchase Selected Seats");
 
         purchase.addActionListener(e -> {
-            List<Integer> nums = new ArrayList<>();
-            for (Seat s : seating.getHeldSeats()) {
-                nums.add(s.getSeatNumber());
-            }
-            if (nums.isEmpty()) {
+            myHolds.values().removeIf(h -> !h.isActive());
+            if (myHolds.isEmpty()) {
                 JOptionPane.showMessageDialog(this, "No seats selected.");
                 return;
             }
 
-            app.beginPurchase(event, seating, nums);
+            // A best-available hold covers several seat numbers; buy it once
+            List<SeatHold> holds = new ArrayList<>(new LinkedHashSet<>(myHolds.values()));
+            myHolds.clear();
+            app.beginPurchase(event, seating, holds);
+            refreshAll();
         });
 
+        JSpinner partySize = new JSpinner(new SpinnerNumberModel(2, 1, 10, 1));
+        JButton best = new JButton("Best Available");
+        best.addActionListener(e -> holdBestAvailable((Integer) partySize.getValue()));
+
+        p.add(new JLabel("Party size:"));
+        p.add(partySize);
+        p.add(best);
         p.add(purchase);
         return p;
     }
@@ -0,0 +1,46 @@
+package CTS.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** JFR event spanning one BookingService purchase, card check to payment. */
+@Name("CTS.Checkout")
+@Label("Checkout")
+@Category({ "CTS", "Booking" })
+@Description("One purchase from card check to confirmed payment (or failure)")
+@StackTrace(false)
+public class CheckoutEvent extends jdk.jfr.Event {
+
+    @Label("User Id")
+    public int userId;
+
+    @Label("Event Id")
+    public int eventId;
+
+    @Label("Tickets")
+    public int tickets;
+
+    @Label("Outcome")
+    public String outcome;
+
+    @Label("Order Id")
+    public int orderId;
+
+    @Label("Amount")
+    public double amount;
+
+    @Label("Currency")
+    public String currency;
+
+    /** Starts timing a purchase; fill in the result and commit() when it ends. */
+    public static CheckoutEvent begin(int userId, int eventId) {
+        CheckoutEvent e = new CheckoutEvent();
+        e.userId = userId;
+        e.eventId = eventId;
+        e.begin();
+        return e;
+    }
+}
@@ -0,0 +1,43 @@
+package CTS.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one step inside a checkout, so a slow purchase can be
+ * split into where the time went. Nested inside a CTS.Checkout; the
+ * authorize phase spans the gateway round trip and is committed on the
+ * thread that receives the answer.
+ */
+@Name("CTS.CheckoutPhase")
+@Label("Checkout Phase")
+@Category({ "CTS", "Booking" })
+@Description("One step of a purchase: card authorization, selling the held seats, creating the order, journal commit, seat save, payment")
+@StackTrace(false)
+public class CheckoutPhaseEvent extends jdk.jfr.Event {
+
+    public static final String AUTHORIZE      = "authorize";
+    public static final String SELL_SEATS     = "sell seats";
+    public static final String CREATE_ORDER   = "create order";
+    public static final String JOURNAL_COMMIT = "journal commit";
+    public static final String SAVE_SEATS     = "save seats";
+    public static final String PAYMENT        = "payment";
+
+    @Label("Phase")
+    public String phase;
+
+    @Label("Event Id")
+    public int eventId;
+
+    /** Starts timing a phase; end it with commit(). */
+    public static CheckoutPhaseEvent begin(String phase, int eventId) {
+        CheckoutPhaseEvent e = new CheckoutPhaseEvent();
+        e.phase = phase;
+        e.eventId = eventId;
+        e.begin();
+        return e;
+    }
+}
@@ -0,0 +1,6 @@
+package CTS.metrics;
+
+/** JMX view of a Counter. */
+public interface CounterMBean {
+    long getCount();
+}
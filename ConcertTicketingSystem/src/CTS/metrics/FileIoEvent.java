@@ -0,0 +1,79 @@
+package CTS.metrics;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for loading or saving one data file (CSV snapshot, journal,
+ * seat map). The byte count is only looked up when the event is
+ * actually being recorded.
+ */
+@Name("CTS.FileIO")
+@Label("Data File Load/Save")
+@Category({ "CTS", "Persistence" })
+@Description("Loading or writing a CTS data file, with its size and record count")
+@StackTrace(false)
+public class FileIoEvent extends jdk.jfr.Event {
+
+    public static final String LOAD  = "load";
+    public static final String SAVE  = "save";
+    public static final String FLUSH = "flush";
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("File")
+    public String path;
+
+    @Label("Records")
+    public long records;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+
+    /** Starts timing an operation; end it with one of the finish methods. */
+    public static FileIoEvent begin(String operation) {
+        FileIoEvent e = new FileIoEvent();
+        e.operation = operation;
+        e.begin();
+        return e;
+    }
+
+    /** Ends the event; bytes is the file's size afterwards. */
+    public void finish(Path file, long records) {
+        end();
+        if (shouldCommit()) {
+            long size;
+            try {
+                size = Files.size(file);
+            } catch (IOException e) {
+                size = 0; // nothing was written
+            }
+            record(file, records, size);
+        }
+    }
+
+    /** Ends the event when the byte count is already known (e.g. a journal batch). */
+    public void finish(Path file, long records, long bytes) {
+        end();
+        if (shouldCommit()) {
+            record(file, records, bytes);
+        }
+    }
+
+    private void record(Path file, long records, long bytes) {
+        this.path = file.toString();
+        this.records = records;
+        this.bytes = bytes;
+        commit();
+    }
+}
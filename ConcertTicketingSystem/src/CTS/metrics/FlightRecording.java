@@ -0,0 +1,61 @@
+package CTS.metrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+/**
+ * Starts a JDK Flight Recorder recording with the bundled cts.jfc profile.
+ *
+ * Run with -Dcts.jfr=recording.jfr and the recording is written to that
+ * file when the JVM exits. While nothing records them, the CTS events
+ * cost next to nothing.
+ */
+public class FlightRecording {
+
+    public static final String PROFILE = "cts.jfc";
+
+    private FlightRecording() {}
+
+    /** The bundled profile (CTS events plus JDK lock, I/O and GC context). */
+    public static Configuration profile() throws IOException, ParseException {
+        try (InputStream in = FlightRecording.class.getResourceAsStream(PROFILE)) {
+            if (in == null) {
+                throw new IOException(PROFILE + " not found");
+            }
+            return Configuration.create(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+    }
+
+    /** Starts recording with the bundled profile; dumped to destination on stop or exit. */
+    public static Recording start(Path destination) throws IOException, ParseException {
+        Recording recording = new Recording(profile());
+        recording.setName("CTS");
+        recording.setToDisk(true);
+        recording.setDestination(destination);
+        recording.setDumpOnExit(true);
+        recording.start();
+        return recording;
+    }
+
+    /** Starts a recording if -Dcts.jfr is set; returns null otherwise or on failure. */
+    public static Recording startFromProperty() {
+        String file = System.getProperty("cts.jfr");
+        if (file == null || file.isEmpty()) {
+            return null;
+        }
+        try {
+            return start(Paths.get(file));
+        } catch (IOException | ParseException | RuntimeException e) {
+            System.err.println("Could not start flight recording: " + e.getMessage());
+            return null;
+        }
+    }
+}
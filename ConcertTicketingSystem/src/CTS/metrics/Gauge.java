@@ -0,0 +1,29 @@
+package CTS.metrics;
+
+import java.util.function.LongSupplier;
+
+/** A value read on demand (a size, a queue length), not recorded. */
+public class Gauge implements GaugeMBean {
+
+    private final String name;
+    private final LongSupplier source;
+
+    Gauge(String name, LongSupplier source) {
+        this.name = name;
+        this.source = source;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getValue() {
+        return source.getAsLong();
+    }
+
+    @Override
+    public String toString() {
+        return "value=" + getValue();
+    }
+}
@@ -0,0 +1,6 @@
+package CTS.metrics;
+
+/** JMX view of a Gauge. */
+public interface GaugeMBean {
+    long getValue();
+}
@@ -0,0 +1,11 @@
+package CTS.metrics;
+
+/** JMX view of a Histogram; times in milliseconds. */
+public interface HistogramMBean {
+    long getCount();
+    double getMeanMillis();
+    double getP50Millis();
+    double getP99Millis();
+    double getP999Millis();
+    double getMaxMillis();
+}
@@ -0,0 +1,144 @@
+package CTS.metrics;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Process-wide registry of counters, latency histograms and gauges.
+ *
+ * Callers look a metric up once (into a static final field) and record
+ * into it directly; the registry is only touched at registration and
+ * when reporting. Every metric is also registered as a JMX MBean named
+ * "CTS:type=Counter|Histogram|Gauge,name=...", so jconsole or any JMX
+ * client can read it live.
+ *
+ * Setting -Dcts.metrics.dumpSeconds=N prints all metrics every N seconds.
+ */
+public class Metrics {
+
+    public static final String JMX_DOMAIN = "CTS";
+
+    private static final Map<String, Object> metrics = new ConcurrentSkipListMap<>();
+
+    private static ScheduledExecutorService dumper;
+    private static ScheduledFuture<?> dumpTask;
+
+    static {
+        long seconds = Long.getLong("cts.metrics.dumpSeconds", 0);
+        if (seconds > 0) {
+            startDump(seconds, TimeUnit.SECONDS, System.out);
+        }
+    }
+
+    private Metrics() {}
+
+    // =========================================================================
+    //  REGISTRATION
+    // =========================================================================
+
+    /** Returns the counter called name, creating it on first use. */
+    public static Counter counter(String name) {
+        return lookup(name, Counter.class);
+    }
+
+    /** Returns the histogram called name, creating it on first use. */
+    public static Histogram histogram(String name) {
+        return lookup(name, Histogram.class);
+    }
+
+    /** Registers (or replaces) a gauge that reads its value from source. */
+    public static synchronized Gauge gauge(String name, LongSupplier source) {
+        Gauge g = new Gauge(name, source);
+        Object old = metrics.put(name, g);
+        if (old != null && !(old instanceof Gauge)) {
+            metrics.put(name, old);
+            throw new IllegalArgumentException(name + " is already a " + old.getClass().getSimpleName());
+        }
+        register("Gauge", name, g);
+        return g;
+    }
+
+    private static <T> T lookup(String name, Class<T> type) {
+        Object m = metrics.get(name);
+        if (m == null) {
+            m = create(name, type);
+        }
+        if (!type.isInstance(m)) {
+            throw new IllegalArgumentException(name + " is already a " + m.getClass().getSimpleName());
+        }
+        return type.cast(m);
+    }
+
+    private static synchronized Object create(String name, Class<?> type) {
+        Object m = metrics.get(name);
+        if (m != null) return m;
+        m = (type == Counter.class) ? new Counter(name) : new Histogram(name);
+        metrics.put(name, m);
+        register(type.getSimpleName(), name, m);
+        return m;
+    }
+
+    // Best effort: metrics still work (and dump) if the platform server refuses
+    private static void register(String type, String name, Object mbean) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName on = new ObjectName(JMX_DOMAIN + ":type=" + type + ",name=" + name);
+            if (server.isRegistered(on)) {
+                server.unregisterMBean(on);
+            }
+            server.registerMBean(mbean, on);
+        } catch (Exception | LinkageError e) {
+            System.err.println("Could not register metric " + name + " with JMX: " + e);
+        }
+    }
+
+    // =========================================================================
+    //  REPORTING
+    // =========================================================================
+
+    /** All metrics, one per line, sorted by name. */
+    public static String dump() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("-- metrics ")
+          .append(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()))
+          .append(" --")
+          .append(System.lineSeparator());
+        for (Map.Entry<String, Object> e : metrics.entrySet()) {
+            sb.append(String.format("%-32s %s", e.getKey(), e.getValue()))
+              .append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    /** Prints dump() to out every period, on a daemon thread, until stopDump(). */
+    public static synchronized void startDump(long period, TimeUnit unit, PrintStream out) {
+        stopDump();
+        if (dumper == null) {
+            dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "metrics-dump");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        dumpTask = dumper.scheduleAtFixedRate(() -> out.print(dump()), period, period, unit);
+    }
+
+    public static synchronized void stopDump() {
+        if (dumpTask != null) {
+            dumpTask.cancel(false);
+            dumpTask = null;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package CTS.metrics;
+
+import CTS.misc.Money;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** JFR event for recording a refund request or decision (including its journal commit). */
+@Name("CTS.Refund")
+@Label("Refund")
+@Category({ "CTS", "Booking" })
+@Description("A refund request filed, approved or denied, until it is durable")
+@StackTrace(false)
+public class RefundEvent extends jdk.jfr.Event {
+
+    @Label("Refund Id")
+    public int refundId;
+
+    @Label("Order Id")
+    public int orderId;
+
+    @Label("Status")
+    public String status;
+
+    @Label("Amount")
+    public double amount;
+
+    @Label("Currency")
+    public String currency;
+
+    /** Starts timing one refund record; commit() once it is durable. */
+    public static RefundEvent begin(int refundId, int orderId, String status, Money amount) {
+        RefundEvent e = new RefundEvent();
+        e.refundId = refundId;
+        e.orderId = orderId;
+        e.status = status;
+        if (amount != null) {
+            e.amount = amount.getAmount();
+            e.currency = amount.getCurrency();
+        }
+        e.begin();
+        return e;
+    }
+}
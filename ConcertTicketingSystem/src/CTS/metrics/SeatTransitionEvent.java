@@ -0,0 +1,51 @@
+package CTS.metrics;
+
+import CTS.enums.SeatStatus;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** JFR event for one all-or-nothing group move of seats (hold, sell, release). */
+@Name("CTS.SeatTransition")
+@Label("Seat Transition")
+@Category({ "CTS", "Seating" })
+@Description("A group of seats moved between states in one step")
+@StackTrace(false)
+public class SeatTransitionEvent extends jdk.jfr.Event {
+
+    @Label("Event Id")
+    public int eventId;
+
+    @Label("From")
+    public String from;
+
+    @Label("To")
+    public String to;
+
+    @Label("Seats")
+    public int seats;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+
+    /** Starts timing a group move; end it with finish(). */
+    public static SeatTransitionEvent begin(int eventId, SeatStatus from, SeatStatus to, int seats) {
+        SeatTransitionEvent e = new SeatTransitionEvent();
+        e.eventId = eventId;
+        e.from = from.name();
+        e.to = to.name();
+        e.seats = seats;
+        e.begin();
+        return e;
+    }
+
+    public void finish(boolean succeeded) {
+        end();
+        if (shouldCommit()) {
+            this.succeeded = succeeded;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,427 @@
+package CTS.misc;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Streaming reader for the CSV dialect used by every entity file:
+ *  - one record per line, fields separated by ','
+ *  - "\," is a literal comma and "\\" a literal backslash
+ *  - "\n" and "\r" stand for a line feed and carriage return, so outside
+ *    text (a gateway's decline message, say) cannot split a record
+ *  - blank lines and lines starting with '#' are skipped
+ *
+ * next() reads one record into a reusable char buffer and splits and
+ * unescapes it in a single pass, in place. Numbers and enums are parsed
+ * straight from that buffer, so walking a file allocates nothing per row
+ * unless the caller asks for a String.
+ */
+public final class CsvReader implements Closeable {
+
+    // Enum constants per class; getEnumConstants() would clone on every call
+    private static final ClassValue<Object[]> ENUM_CONSTANTS = new ClassValue<>() {
+        @Override
+        protected Object[] computeValue(Class<?> type) {
+            return type.getEnumConstants();
+        }
+    };
+
+    private final Reader in;
+    private final char[] buf = new char[16 * 1024];
+    private int pos;
+    private int limit;
+
+    private char[] line = new char[256];
+    private int lineLen;
+    private long lineNumber;
+
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private int fieldCount;
+
+    // Last currency string handed out by getMoney, reused while it matches
+    private String lastCurrency = "";
+    private int lastDigits = Money.fractionDigits("");
+
+    public CsvReader(Reader in) {
+        this.in = in;
+    }
+
+    /** Opens a UTF-8 file for streaming. */
+    public static CsvReader open(Path path) throws IOException {
+        return new CsvReader(new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8));
+    }
+
+    /** Reader over a single row, for the fromCsvRow(String) entry points. */
+    public static CsvReader ofLine(String line) {
+        return new CsvReader(new StringReader(line));
+    }
+
+    // =========================================================================
+    //  RECORDS
+    // =========================================================================
+
+    /** Advances to the next record. Returns false at end of input. */
+    public boolean next() throws IOException {
+        return next(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Advances to the next record, splitting into at most maxFields fields;
+     * the last one keeps any further commas (like String.split's limit).
+     */
+    public boolean next(int maxFields) throws IOException {
+        while (readLine()) {
+            if (isBlankOrComment()) {
+                continue;
+            }
+            split(maxFields);
+            return true;
+        }
+        return false;
+    }
+
+    /** 1-based number of the current line in the input. */
+    public long lineNumber() {
+        return lineNumber;
+    }
+
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    private boolean readLine() throws IOException {
+        lineLen = 0;
+        boolean any = false;
+        while (true) {
+            if (pos == limit) {
+                limit = in.read(buf, 0, buf.length);
+                pos = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    if (any) lineNumber++;
+                    return any;
+                }
+            }
+            any = true;
+            // Copy up to the next '\n' in one go
+            int start = pos;
+            while (pos < limit && buf[pos] != '\n') {
+                pos++;
+            }
+            append(start, pos - start);
+            if (pos < limit) {
+                pos++; // consume '\n'
+                if (lineLen > 0 && line[lineLen - 1] == '\r') {
+                    lineLen--;
+                }
+                lineNumber++;
+                return true;
+            }
+        }
+    }
+
+    private void append(int from, int len) {
+        if (lineLen + len > line.length) {
+            char[] bigger = new char[Math.max(line.length * 2, lineLen + len)];
+            System.arraycopy(line, 0, bigger, 0, lineLen);
+            line = bigger;
+        }
+        System.arraycopy(buf, from, line, lineLen, len);
+        lineLen += len;
+    }
+
+    private boolean isBlankOrComment() {
+        if (lineLen > 0 && line[0] == '#') {
+            return true;
+        }
+        for (int i = 0; i < lineLen; i++) {
+            if (line[i] > ' ') return false;
+        }
+        return true;
+    }
+
+    // Splits and unescapes in place; the write index never passes the read index
+    private void split(int maxFields) {
+        fieldCount = 0;
+        starts[0] = 0;
+        int w = 0;
+        for (int r = 0; r < lineLen; r++) {
+            char c = line[r];
+            if (c == '\\' && r + 1 < lineLen && (line[r + 1] == ',' || line[r + 1] == '\\')) {
+                line[w++] = line[++r];
+            } else if (c == '\\' && r + 1 < lineLen && (line[r + 1] == 'n' || line[r + 1] == 'r')) {
+                line[w++] = (line[++r] == 'n') ? '\n' : '\r';
+            } else if (c == ',' && fieldCount + 1 < maxFields) {
+                ends[fieldCount++] = w;
+                if (fieldCount == starts.length) {
+                    grow();
+                }
+                starts[fieldCount] = w;
+            } else {
+                line[w++] = c;
+            }
+        }
+        ends[fieldCount++] = w;
+    }
+
+    private void grow() {
+        starts = Arrays.copyOf(starts, starts.length * 2);
+        ends = Arrays.copyOf(ends, ends.length * 2);
+    }
+
+    // =========================================================================
+    //  FIELDS
+    // =========================================================================
+
+    private void check(int i) {
+        if (i < 0 || i >= fieldCount) {
+            throw new IllegalArgumentException(
+                    "Line " + lineNumber + ": expected field " + i + " but only " + fieldCount + " present");
+        }
+    }
+
+    public boolean isEmpty(int i) {
+        check(i);
+        return starts[i] == ends[i];
+    }
+
+    /** The unescaped field text. */
+    public String getString(int i) {
+        check(i);
+        return new String(line, starts[i], ends[i] - starts[i]);
+    }
+
+    /** True if field i equals s, without allocating. */
+    public boolean fieldEquals(int i, String s) {
+        check(i);
+        int len = ends[i] - starts[i];
+        if (len != s.length()) return false;
+        for (int k = 0; k < len; k++) {
+            if (line[starts[i] + k] != s.charAt(k)) return false;
+        }
+        return true;
+    }
+
+    public int getInt(int i) {
+        long v = getLong(i);
+        if (v < Integer.MIN_VALUE || v > Integer.MAX_VALUE) {
+            throw badNumber(i);
+        }
+        return (int) v;
+    }
+
+    public long getLong(int i) {
+        check(i);
+        return parseLong(i, starts[i], ends[i]);
+    }
+
+    private long parseLong(int field, int from, int to) {
+        if (from == to) throw badNumber(field);
+        boolean neg = false;
+        int p = from;
+        if (line[p] == '-' || line[p] == '+') {
+            neg = line[p] == '-';
+            if (++p == to) throw badNumber(field);
+        }
+        // Accumulate negatively so Long.MIN_VALUE parses too
+        long limit = neg ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long v = 0;
+        for (; p < to; p++) {
+            int d = line[p] - '0';
+            if (d < 0 || d > 9 || v < (limit + d) / 10) {
+                throw badNumber(field);
+            }
+            v = v * 10 - d;
+        }
+        return neg ? v : -v;
+    }
+
+    /**
+     * Parses a decimal such as 20.0 or -1234.5678. Plain decimals with up to
+     * 15 significant digits take a fast exact path; anything else (exponents,
+     * NaN, longer mantissas) falls back to Double.parseDouble.
+     */
+    public double getDouble(int i) {
+        check(i);
+        return parseDouble(i, starts[i], ends[i]);
+    }
+
+    private double parseDouble(int field, int from, int to) {
+        int p = from;
+        boolean neg = false;
+        if (p < to && (line[p] == '-' || line[p] == '+')) {
+            neg = line[p] == '-';
+            p++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean dot = false;
+        boolean sawDigit = false;
+        boolean simple = true;
+        for (; p < to; p++) {
+            char c = line[p];
+            if (c >= '0' && c <= '9') {
+                sawDigit = true;
+                if (digits > 0 || c != '0') digits++;
+                mantissa = mantissa * 10 + (c - '0');
+                if (dot) scale++;
+            } else if (c == '.' && !dot) {
+                dot = true;
+            } else {
+                simple = false;
+                break;
+            }
+        }
+        if (simple && sawDigit && digits <= 15 && scale < POW10.length) {
+            // Both operands are exact doubles, so one division is correctly rounded
+            double v = mantissa / POW10[scale];
+            return neg ? -v : v;
+        }
+        try {
+            return Double.parseDouble(new String(line, from, to - from));
+        } catch (NumberFormatException e) {
+            throw badNumber(field);
+        }
+    }
+
+    private static final double[] POW10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /** Matches field i against the constant names of type without allocating. */
+    @SuppressWarnings("unchecked")
+    public <E extends Enum<E>> E getEnum(int i, Class<E> type) {
+        check(i);
+        for (Object o : ENUM_CONSTANTS.get(type)) {
+            E e = (E) o;
+            if (fieldEquals(i, e.name())) {
+                return e;
+            }
+        }
+        throw new IllegalArgumentException(
+                "Line " + lineNumber + ": no " + type.getSimpleName() + " named '" + getString(i) + "'");
+    }
+
+    /**
+     * Parses an inline Money column ("50.0:USD"), with the same leniency as
+     * Money.fromInlineString: empty gives 0.0 with no currency, and a bad
+     * amount gives 0.0.
+     */
+    public Money getMoney(int i) {
+        check(i);
+        int from = starts[i];
+        int to = ends[i];
+        if (from == to) {
+            return Money.zero("");
+        }
+        int colon = from;
+        while (colon < to && line[colon] != ':') {
+            colon++;
+        }
+        currency(colon < to ? colon + 1 : to, to);
+        return money(from, colon, true);
+    }
+
+    /** Money from an amount column plus a separate currency column (tickets). */
+    public Money getMoney(int amountField, int currencyField) {
+        check(amountField);
+        check(currencyField);
+        currency(starts[currencyField], ends[currencyField]);
+        Money m = money(starts[amountField], ends[amountField], false);
+        if (m == null) {
+            throw badNumber(amountField);
+        }
+        return m;
+    }
+
+    // Amount chars straight to minor units of lastCurrency. Plain decimals
+    // take the fast path; others go through Money(double). A bad amount is
+    // 0 when lenient (inline columns), otherwise null.
+    private Money money(int from, int to, boolean lenient) {
+        int p = from;
+        boolean neg = false;
+        if (p < to && (line[p] == '-' || line[p] == '+')) {
+            neg = line[p] == '-';
+            p++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean dot = false;
+        boolean sawDigit = false;
+        boolean simple = true;
+        for (; p < to; p++) {
+            char c = line[p];
+            if (c >= '0' && c <= '9') {
+                sawDigit = true;
+                if (digits > 0 || c != '0') digits++;
+                mantissa = mantissa * 10 + (c - '0');
+                if (dot) scale++;
+            } else if (c == '.' && !dot) {
+                dot = true;
+            } else {
+                simple = false;
+                break;
+            }
+        }
+        // Past POW10_LONG the extra digits only round; Money(double) does that
+        if (simple && sawDigit && digits <= 15 && scale - lastDigits < POW10_LONG.length) {
+            int target = lastDigits;
+            long minor;
+            if (scale <= target) {
+                minor = Math.multiplyExact(mantissa, POW10_LONG[target - scale]);
+            } else {
+                long div = POW10_LONG[scale - target];
+                minor = mantissa / div;
+                if ((mantissa % div) * 2 >= div) minor++; // half-up
+            }
+            return Money.ofMinor(neg ? -minor : minor, lastCurrency);
+        }
+        try {
+            return new Money(Double.parseDouble(new String(line, from, to - from)), lastCurrency);
+        } catch (NumberFormatException e) {
+            return lenient ? Money.zero(lastCurrency) : null;
+        }
+    }
+
+    private static final long[] POW10_LONG = {
+        1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+        1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L,
+        10_000_000_000_000L, 100_000_000_000_000L, 1_000_000_000_000_000L
+    };
+
+    // Sets lastCurrency/lastDigits to the given chars, reusing them while they match
+    private void currency(int from, int to) {
+        String last = lastCurrency;
+        int len = to - from;
+        if (len == last.length()) {
+            boolean same = true;
+            for (int k = 0; k < len && same; k++) {
+                same = line[from + k] == last.charAt(k);
+            }
+            if (same) return;
+        }
+        lastCurrency = new String(line, from, len);
+        lastDigits = Money.fractionDigits(lastCurrency);
+    }
+
+    private NumberFormatException badNumber(int i) {
+        return new NumberFormatException(
+                "Line " + lineNumber + ": bad number '" + new String(line, starts[i], ends[i] - starts[i]) + "'");
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,160 @@
+package CTS.misc;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writer for the same CSV dialect CsvReader reads. Fields are escaped
+ * char by char straight into the underlying Writer, and ints/longs are
+ * formatted into a scratch buffer, so rows are written without building
+ * intermediate Strings.
+ */
+public final class CsvWriter implements Closeable, Flushable {
+
+    /** Writes one entity as a row; implemented by each entity's writeCsv. */
+    public interface RowWriter {
+        void write(CsvWriter w) throws IOException;
+    }
+
+    private static final String NEWLINE = System.lineSeparator();
+
+    private final Writer out;
+    private final char[] digits = new char[20];
+    private final StringBuilder scratch = new StringBuilder(24);
+    private boolean midRow;
+
+    public CsvWriter(Writer out) {
+        this.out = out;
+    }
+
+    /** Creates (or truncates) a UTF-8 file. */
+    public static CsvWriter create(Path path) throws IOException {
+        return new CsvWriter(new BufferedWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8), 64 * 1024));
+    }
+
+    /** Formats a single row without a line terminator (toCsvRow()). */
+    public static String toRow(RowWriter row) {
+        StringWriter sw = new StringWriter(64);
+        try {
+            row.write(new CsvWriter(sw));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringWriter never throws
+        }
+        return sw.toString();
+    }
+
+    // =========================================================================
+    //  FIELDS
+    // =========================================================================
+
+    public CsvWriter field(String s) throws IOException {
+        separator();
+        if (s != null) {
+            for (int i = 0, n = s.length(); i < n; i++) {
+                char c = s.charAt(i);
+                if (c == '\n' || c == '\r') {
+                    out.write(c == '\n' ? "\\n" : "\\r"); // a raw line break would end the record
+                    continue;
+                }
+                if (c == ',' || c == '\\') {
+                    out.write('\\');
+                }
+                out.write(c);
+            }
+        }
+        return this;
+    }
+
+    public CsvWriter field(int v) throws IOException {
+        return field((long) v);
+    }
+
+    public CsvWriter field(long v) throws IOException {
+        separator();
+        if (v == Long.MIN_VALUE) {
+            out.write(Long.toString(v));
+            return this;
+        }
+        int p = digits.length;
+        long x = Math.abs(v);
+        do {
+            digits[--p] = (char) ('0' + (x % 10));
+            x /= 10;
+        } while (x != 0);
+        if (v < 0) {
+            digits[--p] = '-';
+        }
+        out.write(digits, p, digits.length - p);
+        return this;
+    }
+
+    /** Same text as Double.toString, which every parser accepts. */
+    public CsvWriter field(double v) throws IOException {
+        separator();
+        out.write(Double.toString(v));
+        return this;
+    }
+
+    public CsvWriter field(Enum<?> e) throws IOException {
+        separator();
+        out.write(e.name());
+        return this;
+    }
+
+    /** Inline Money column ("50.0:USD"); the inline form never needs escaping. */
+    public CsvWriter field(Money m) throws IOException {
+        separator();
+        out.write(m.toInlineString());
+        return this;
+    }
+
+    /** Just the amount of m ("40.5"), for files that keep currency in its own column. */
+    public CsvWriter amount(Money m) throws IOException {
+        separator();
+        scratch.setLength(0);
+        m.appendAmount(scratch);
+        out.append(scratch);
+        return this;
+    }
+
+    private void separator() throws IOException {
+        if (midRow) {
+            out.write(',');
+        }
+        midRow = true;
+    }
+
+    // =========================================================================
+    //  ROWS
+    // =========================================================================
+
+    public void endRow() throws IOException {
+        out.write(NEWLINE);
+        midRow = false;
+    }
+
+    /** Writes a "# ..." header line. */
+    public void comment(String text) throws IOException {
+        out.write("# ");
+        out.write(text);
+        out.write(NEWLINE);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -1,52 +1,195 @@
 package CTS.misc;
 
-import java.util.Objects;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
-public class Money {
-    private double amount;
-    private String currency;
+/**
+ * Immutable amount of money, held as a long count of the currency's minor
+ * units (cents for USD, yen for JPY). Arithmetic is exact integer math and
+ * currency codes are interned, so a Money is one long and one reference.
+ *
+ * Inline format ("50.0:USD") is unchanged: the amount is written as a plain
+ * decimal with at least one fraction digit, which is what Double.toString
+ * gave for ordinary prices, so files stay readable by older builds. Older
+ * files holding more decimals than the currency allows (e.g. "1234.5678")
+ * are rounded half-up to the minor unit when read.
+ */
+public final class Money implements Comparable<Money> {
+
+    // Interned currency code and its minor-unit scale
+    private static final class Unit {
+        final String code;
+        final int digits;
+        final long factor;
+
+        Unit(String code, int digits) {
+            this.code = code;
+            this.digits = digits;
+            this.factor = POW10[digits];
+        }
+    }
+
+    private static final long[] POW10 = {
+        1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L
+    };
+
+    private static final Map<String, Unit> UNITS = new ConcurrentHashMap<>();
+
+    private final long minor;
+    private final Unit unit;
 
     public Money() {
-        // Safe initialization for no-arg constructor
-        this.amount = 0.0; 
-        this.currency = "USD"; 
+        this(0L, unit("USD"));
     }
 
+    /** Rounds amount half-up to the currency's minor unit. */
     public Money(double amount, String currency) {
-        this.amount = amount;
-        this.currency = currency;
+        this.unit = unit(currency);
+        this.minor = toMinor(amount, unit.digits);
+    }
+
+    private Money(long minor, Unit unit) {
+        this.minor = minor;
+        this.unit = unit;
     }
 
+    /** Money from a count of minor units (e.g. 4050 cents = 40.50 USD). */
+    public static Money ofMinor(long minorUnits, String currency) {
+        return new Money(minorUnits, unit(currency));
+    }
+
+    public static Money zero(String currency) {
+        return new Money(0L, unit(currency));
+    }
+
+    // =========================================================================
+    //  ACCESS
+    // =========================================================================
+
     public double getAmount() {
-        return amount;
+        return (double) minor / unit.factor;
+    }
+
+    public long getMinorUnits() {
+        return minor;
     }
 
     public String getCurrency() {
-        return currency;
+        return unit.code;
+    }
+
+    /** Fraction digits of this currency (2 for USD, 0 for JPY). */
+    public int getScale() {
+        return unit.digits;
+    }
+
+    public boolean isZero() {
+        return minor == 0L;
+    }
+
+    /** Fraction digits of a currency code; 2 for codes that are not ISO 4217. */
+    public static int fractionDigits(String currency) {
+        return unit(currency).digits;
+    }
+
+    // =========================================================================
+    //  ARITHMETIC
+    // =========================================================================
+
+    public Money plus(Money other) {
+        checkSameCurrency(other);
+        return new Money(Math.addExact(minor, other.minor), unit);
+    }
+
+    public Money minus(Money other) {
+        checkSameCurrency(other);
+        return new Money(Math.subtractExact(minor, other.minor), unit);
+    }
+
+    public Money times(long quantity) {
+        return new Money(Math.multiplyExact(minor, quantity), unit);
+    }
+
+    public Money negate() {
+        return new Money(Math.negateExact(minor), unit);
+    }
+
+    /** Sum of amounts (nulls skipped), accumulated as a long. */
+    public static Money sum(Iterable<Money> amounts, String currency) {
+        Unit u = unit(currency);
+        long total = 0L;
+        for (Money m : amounts) {
+            if (m != null) {
+                total = add(total, m, u);
+            }
+        }
+        return new Money(total, u);
+    }
+
+    /**
+     * Sums price(item) over items, skipping null items and prices. Only the
+     * result is allocated; every price must be in currency.
+     */
+    public static <T> Money sum(List<T> items, Function<? super T, Money> price, String currency) {
+        Unit u = unit(currency);
+        long total = 0L;
+        if (items instanceof RandomAccess) {
+            for (int i = 0, n = items.size(); i < n; i++) {
+                T item = items.get(i);
+                Money m = (item == null) ? null : price.apply(item);
+                if (m != null) {
+                    total = add(total, m, u);
+                }
+            }
+        } else {
+            for (T item : items) {
+                Money m = (item == null) ? null : price.apply(item);
+                if (m != null) {
+                    total = add(total, m, u);
+                }
+            }
+        }
+        return new Money(total, u);
     }
 
-    public void setCurrency(String cur) {
-        this.currency = cur;
+    private static long add(long total, Money m, Unit u) {
+        if (m.unit != u) {
+            throw new IllegalArgumentException("Cannot add " + m.unit.code + " to " + u.code);
+        }
+        return Math.addExact(total, m.minor);
     }
 
-    public void setAmount(Double amount) {
-        this.amount = amount;
+    private void checkSameCurrency(Money other) {
+        if (other.unit != unit) {
+            throw new IllegalArgumentException("Cannot combine " + unit.code + " and " + other.unit.code);
+        }
     }
 
-    
+    // =========================================================================
+    //  INLINE FORMAT
+    // =========================================================================
+
      // Inline serialization for CSV columns,  "50.0:USD"
-     
+
     public String toInlineString() {
-        // Use Double.toString for locale-safe amount output!
-        String amountStr = Double.toString(amount);
-        
+        StringBuilder sb = new StringBuilder(16);
+        appendAmount(sb);
+
         // Clean the currency string of separators
-        String cur = (currency == null) ? "" : currency.replace(":", "").replace(",", ""); 
-        
-        return amountStr + ":" + cur;
+        String cur = unit.code;
+        if (cur.indexOf(':') >= 0 || cur.indexOf(',') >= 0) {
+            cur = cur.replace(":", "").replace(",", "");
+        }
+        return sb.append(':').append(cur).toString();
     }
 
-    
+
     public static Money fromInlineString(String s) {
         if (s == null || s.isEmpty()) {
             return new Money(0.0, "");
@@ -58,39 +201,97 @@ public class Money {
                 amt = Double.parseDouble(parts[0]);
             }
         } catch (NumberFormatException ignored) {
-            
+
         }
         String cur = parts.length > 1 ? parts[1] : "";
         return new Money(amt, cur);
     }
 
-    
-    
+    /** Plain decimal amount, at least one fraction digit, no exponent: 40.5, 1234.57, 100.0 */
+    public void appendAmount(StringBuilder sb) {
+        long abs = Math.abs(minor);
+        if (minor < 0) sb.append('-');
+        sb.append(abs / unit.factor).append('.');
+        if (unit.digits == 0) {
+            sb.append('0');
+            return;
+        }
+        long frac = abs % unit.factor;
+        // Fraction digits without trailing zeros (but keep one)
+        int digits = unit.digits;
+        while (digits > 1 && frac % 10 == 0) {
+            frac /= 10;
+            digits--;
+        }
+        String f = Long.toString(frac);
+        for (int i = f.length(); i < digits; i++) {
+            sb.append('0');
+        }
+        sb.append(f);
+    }
+
+    // =========================================================================
+    //  CONVERSION HELPERS
+    // =========================================================================
+
+    private static Unit unit(String currency) {
+        String code = (currency == null) ? "" : currency;
+        Unit u = UNITS.get(code);
+        if (u == null) {
+            u = UNITS.computeIfAbsent(code, c -> new Unit(c, isoDigits(c)));
+        }
+        return u;
+    }
+
+    private static int isoDigits(String code) {
+        try {
+            int d = Currency.getInstance(code).getDefaultFractionDigits();
+            return (d >= 0 && d < POW10.length) ? d : 2;
+        } catch (IllegalArgumentException e) {
+            return 2; // not an ISO 4217 code
+        }
+    }
+
+    static long toMinor(double amount, int digits) {
+        double scaled = amount * POW10[digits];
+        long r = Math.round(scaled);
+        // Exact (or float noise around an exact value): the common case
+        if (Math.abs(scaled - r) < 1e-6 && Math.abs(scaled) < 1e15) {
+            return r;
+        }
+        // Near a half or very large: round the decimal the double stands for
+        return BigDecimal.valueOf(amount).setScale(digits, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    // ===============================================
+
+    @Override
+    public int compareTo(Money other) {
+        checkSameCurrency(other);
+        return Long.compare(minor, other.minor);
+    }
+
     @Override  // need to override because Object class uses equals()
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
-        
+
         Money money = (Money) o;
-        
-        // Use Double.compare for safe comparison of floating-point numbers
-        boolean amountMatches = Double.compare(money.amount, amount) == 0;
-        // Use Objects.equals for safe comparison of Strings 
-        boolean currencyMatches = Objects.equals(currency, money.currency);
-        
-        return amountMatches && currencyMatches;
+
+        // Units are interned, so comparing references compares currencies
+        return minor == money.minor && unit == money.unit;
     }
 
     @Override   // need to override because Object class uses hashCode()
     public int hashCode() {
         // Generates a hash code based on the two core fields
-        return Objects.hash(amount, currency);
+        return Long.hashCode(minor) * 31 + unit.code.hashCode();
     }
-    
-    // ===============================================
 
     @Override
     public String toString() {
-        return amount + " " + (currency == null ? "" : currency);
+        StringBuilder sb = new StringBuilder(16);
+        appendAmount(sb);
+        return sb.append(' ').append(unit.code).toString();
     }
-}
\ No newline at end of file
+}
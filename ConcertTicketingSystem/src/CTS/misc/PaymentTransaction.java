@@ -5,11 +5,13 @@ import CTS.enums.PaymentStatus;
 //import CTS.enums.RefundStatus;
 import CTS.booking.Order;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 //import CTS.enums.OrderStatus;
 /**
  * Payment transaction for an Order.
@@ -20,16 +22,18 @@ import java.util.List;
  *  - amount : Money
  *  - timestamp : Date
  *  - status : PaymentStatus
+ *  - failureReason : String (why the gateway said no; FAILED only)
  *
  */
 public class PaymentTransaction {
 
     private int paymentId;
     
-    private static int NEXT_ID = 1;
+    // Bookings run concurrently (BookingService), so ids come from a counter
+    private static final AtomicInteger NEXT_ID = new AtomicInteger(1);
 
     public static int nextId() {
-        return NEXT_ID++;
+        return NEXT_ID.getAndIncrement();
     }
 
     private String gatewayRef;
@@ -37,7 +41,7 @@ public class PaymentTransaction {
     private Money amount;
     private Date timestamp;
     private PaymentStatus status;
-    
+    private String failureReason;
     
 
     
@@ -95,14 +99,19 @@ public class PaymentTransaction {
         this.timestamp = timestamp;
     }
 
-    public PaymentStatus getStatus() {
+    public synchronized PaymentStatus getStatus() {
         return status;
     }
 
-    public void setStatus(PaymentStatus status) {
+    public synchronized void setStatus(PaymentStatus status) {
         this.status = status;
     }
 
+    /** The gateway's reason for a FAILED transaction, or null if it gave none. */
+    public synchronized String getFailureReason() {
+        return failureReason;
+    }
+
     public Order getOrder() {
         return order;
     }
@@ -112,27 +121,48 @@ public class PaymentTransaction {
     }
 
 
-    public void markSuccess() {
+    /**
+     * Settles a PENDING transaction as SUCCESS. A decided transaction is
+     * left alone, so a repeated gateway report is harmless. Returns whether
+     * the status changed.
+     */
+    public synchronized boolean markSuccess() {
+        if (status != PaymentStatus.PENDING) {
+            return false;
+        }
         this.status = PaymentStatus.SUCCESS;
+        return true;
     }
 
-    public void markFailed(String reason) {
+    /** Settles a PENDING transaction as FAILED; see markSuccess(). */
+    public synchronized boolean markFailed(String reason) {
+        if (status != PaymentStatus.PENDING) {
+            return false;
+        }
         this.status = PaymentStatus.FAILED;
+        this.failureReason = reason;
+        return true;
     }
     // ===== CSV SUPPORT =====
     // CSV format:
-    // paymentId,orderId,gatewayRef,type,amountInline,timestampMillis,status
+    // paymentId,orderId,gatewayRef,type,amountInline,timestampMillis,status,failureReason
+    // (failureReason is last, so older 7-field rows still load)
 
     public String toCsvRow() {
+        return CsvWriter.toRow(this::writeCsv);
+    }
+
+    public void writeCsv(CsvWriter w) throws IOException {
         long millis = timestamp != null ? timestamp.getTime() : 0L;
         int orderId = (order != null) ? order.getOrderId() : -1;
-        return paymentId + "," +
-                orderId + "," +
-                escape(gatewayRef) + "," +
-                type.name() + "," +
-                amount.toInlineString() + "," +
-                millis + "," +
-                status.name();
+        w.field(paymentId)
+         .field(orderId)
+         .field(gatewayRef)
+         .field(type)
+         .field(amount)
+         .field(millis)
+         .field(status)
+         .field(failureReason);
     }
 
     
@@ -144,6 +174,7 @@ public class PaymentTransaction {
         public final Money amount;
         public final Date timestamp;
         public final PaymentStatus status;
+        public final String failureReason;
 
         public RawPaymentRow(int paymentId,
                              int orderId,
@@ -151,7 +182,8 @@ public class PaymentTransaction {
                              PaymentType type,
                              Money amount,
                              Date timestamp,
-                             PaymentStatus status) {
+                             PaymentStatus status,
+                             String failureReason) {
             this.paymentId = paymentId;
             this.orderId = orderId;
             this.gatewayRef = gatewayRef;
@@ -159,6 +191,7 @@ public class PaymentTransaction {
             this.amount = amount;
             this.timestamp = timestamp;
             this.status = status;
+            this.failureReason = failureReason;
         }
     }
 
@@ -167,60 +200,66 @@ public class PaymentTransaction {
         if (!Files.exists(path)) {
             return result;
         }
-        for (String line : Files.readAllLines(path)) {
-            if (line.trim().isEmpty() || line.startsWith("#")) {
-                continue;
-            }
-            String[] parts = line.split(",", 7);
-            int paymentId = Integer.parseInt(parts[0]);
-            int orderId = Integer.parseInt(parts[1]);
-            String gatewayRef = unescape(parts[2]);
-            PaymentType type = PaymentType.valueOf(parts[3]);
-            Money amount = Money.fromInlineString(parts[4]);
-            long millis = Long.parseLong(parts[5]);
-            Date timestamp = millis == 0L ? null : new Date(millis);
-            PaymentStatus status = PaymentStatus.valueOf(parts[6]);
-
-            // Create row object
-            RawPaymentRow row = new RawPaymentRow(
-                    paymentId, orderId, gatewayRef, type, amount, timestamp, status);
-
-            result.add(row);
-
-            // ⭐ UPDATE NEXT_ID HERE
-            if (paymentId >= NEXT_ID) {
-                NEXT_ID = paymentId + 1;
+        try (CsvReader r = CsvReader.open(path)) {
+            while (r.next(FIELDS)) {
+                result.add(fromCsv(r));
             }
         }
         return result;
     }
+
+    private static final int FIELDS = 8;
+
+    /** Parses one toCsvRow() line (also used when replaying the booking journal). */
+    public static RawPaymentRow parseRawRow(String line) {
+        try (CsvReader r = CsvReader.ofLine(line)) {
+            if (!r.next(FIELDS)) {
+                throw new IllegalArgumentException("Empty payment line");
+            }
+            return fromCsv(r);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // cannot happen for a String
+        }
+    }
+
+    /** Reads the reader's current record as a raw payment row. */
+    public static RawPaymentRow fromCsv(CsvReader r) {
+        int paymentId = r.getInt(0);
+        int orderId = r.getInt(1);
+        String gatewayRef = r.getString(2);
+        PaymentType type = r.getEnum(3, PaymentType.class);
+        Money amount = r.getMoney(4);
+        long millis = r.getLong(5);
+        Date timestamp = millis == 0L ? null : new Date(millis);
+        PaymentStatus status = r.getEnum(6, PaymentStatus.class);
+        String failureReason = (r.fieldCount() > 7 && !r.isEmpty(7)) ? r.getString(7) : null;
+
+        // ⭐ UPDATE NEXT_ID HERE
+        NEXT_ID.accumulateAndGet(paymentId + 1, Math::max);
+        return new RawPaymentRow(
+                paymentId, orderId, gatewayRef, type, amount, timestamp, status, failureReason);
+    }
+
+    /** Rebuilds a transaction from a raw row, linked to its order (null if missing). */
+    public static PaymentTransaction fromRawRow(RawPaymentRow r, Order order) {
+        PaymentTransaction txn = new PaymentTransaction(
+                r.paymentId, r.gatewayRef, r.type, r.amount, r.timestamp, r.status, order);
+        txn.failureReason = r.failureReason;
+        return txn;
+    }
     
     public static List<PaymentTransaction> loadAll(Path path, List<Order> orders) throws IOException {
-        List<PaymentTransaction> result = new ArrayList<>();
-
         List<RawPaymentRow> raw = loadRawRows(path);
+        List<PaymentTransaction> result = new ArrayList<>(raw.size());
 
-        for (RawPaymentRow r : raw) {
-            // Find matching order (may be null if missing)
-            Order o = null;
-            for (Order ord : orders) {
-                if (ord.getOrderId() == r.orderId) {
-                    o = ord;
-                    break;
-                }
-            }
+        IntIndex<Order> byId = new IntIndex<>(orders.size());
+        for (Order o : orders) {
+            byId.put(o.getOrderId(), o);
+        }
 
-            PaymentTransaction txn = new PaymentTransaction(
-                    r.paymentId,
-                    r.gatewayRef,
-                    r.type,
-                    r.amount,
-                    r.timestamp,
-                    r.status,
-                    o
-            );
-
-            result.add(txn);
+        for (RawPaymentRow r : raw) {
+            Order o = byId.get(r.orderId); // null if the order is missing
+            result.add(fromRawRow(r, o));
         }
 
         return result;
@@ -228,21 +267,13 @@ public class PaymentTransaction {
 
 
     public static void saveToCsv(Path path, List<PaymentTransaction> txns) throws IOException {
-        List<String> lines = new ArrayList<>();
-        lines.add("# paymentId,orderId,gatewayRef,type,amountInline,timestampMillis,status");
-        for (PaymentTransaction t : txns) {
-            lines.add(t.toCsvRow());
+        try (CsvWriter w = CsvWriter.create(path)) {
+            w.comment("paymentId,orderId,gatewayRef,type,amountInline,timestampMillis,status,failureReason");
+            for (PaymentTransaction t : txns) {
+                t.writeCsv(w);
+                w.endRow();
+            }
         }
-        Files.write(path, lines);
-    }
-
-    private static String escape(String s) {
-        if (s == null) return "";
-        return s.replace("\\", "\\\\").replace(",", "\\,");
-    }
-
-    private static String unescape(String s) {
-        return s.replace("\\,", ",").replace("\\\\", "\\");
     }
 
     @Override
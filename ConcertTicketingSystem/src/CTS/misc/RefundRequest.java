@@ -1,11 +1,15 @@
 package CTS.misc;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import CTS.user.VenueAdmin;
 import CTS.user.User;
 //import CTS.enums.PaymentType;
@@ -35,11 +39,12 @@ public class RefundRequest {
     private Order order;
     private PaymentTransaction refundTxn;
     private VenueAdmin processedBy;
+    private int processedByUserId = -1; // kept when loaded without the admin object
     
-    private static int NEXT_ID = 1;
+    private static final AtomicInteger NEXT_ID = new AtomicInteger(1);
 
     public static int nextId() {
-        return NEXT_ID++;
+        return NEXT_ID.getAndIncrement();
     }
 
 
@@ -117,20 +122,24 @@ public class RefundRequest {
     // refundId,orderId,reason,createdAtMillis,processedAtMillis,status,adminUserId,refundTxnId
 
     public String toCsvRow() {
+        return CsvWriter.toRow(this::writeCsv);
+    }
+
+    public void writeCsv(CsvWriter w) throws IOException {
         int orderId = (order != null) ? order.getOrderId() : -1;
         long createdMillis = createdAt != null ? createdAt.getTime() : 0L;
         long processedMillis = processedAt != null ? processedAt.getTime() : 0L;
-        int adminId = (processedBy != null) ? processedBy.getUserId() : -1;
+        int adminId = (processedBy != null) ? processedBy.getUserId() : processedByUserId;
         int refundTxnId = (refundTxn != null) ? refundTxn.getPaymentId() : -1;
 
-        return refundId + "," +
-                orderId + "," +
-                escape(reason) + "," +
-                createdMillis + "," +
-                processedMillis + "," +
-                status.name() + "," +
-                adminId + "," +
-                refundTxnId;
+        w.field(refundId)
+         .field(orderId)
+         .field(reason)
+         .field(createdMillis)
+         .field(processedMillis)
+         .field(status)
+         .field(adminId)
+         .field(refundTxnId);
     }
 
    
@@ -172,18 +181,7 @@ public class RefundRequest {
             
             Order order = Order.findById(r.orderId, allOrders);
 
-            RefundRequest rr = new RefundRequest(
-                    r.refundId,
-                    order,
-                    r.createdAt,
-                    r.reason,
-                    r.status
-            );
-
-            // If adminUserId > 0, attach it
-            if (r.adminUserId > 0 && order != null) {
-                
-            }
+            RefundRequest rr = fromRawRow(r, order);
 
             list.add(rr);
         }
@@ -191,109 +189,90 @@ public class RefundRequest {
         return list;
     }
     
+    /**
+     * Rebuilds a request from a raw row, including the processed state.
+     * The admin is kept as an id; the refund txn is linked by the caller.
+     */
+    public static RefundRequest fromRawRow(RawRefundRow r, Order order) {
+        RefundRequest rr = new RefundRequest(r.refundId, order, r.createdAt, r.reason, r.status);
+        rr.processedAt = r.processedAt;
+        rr.processedByUserId = r.adminUserId;
+        return rr;
+    }
+
     public static void append(Path path, RefundRequest r) throws IOException {
-        List<String> lines = new ArrayList<>();
-
-        // If file exists, read current lines
-        if (Files.exists(path)) {
-            lines.addAll(Files.readAllLines(path));
-        } else {
-            // Add header if file is new
-            lines.add("# refundId,orderId,createdAtMillis,reason,status,adminUserId,refundTxnId");
+        boolean isNew = !Files.exists(path);
+        try (CsvWriter w = new CsvWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+            if (isNew) {
+                w.comment("refundId,orderId,reason,createdAtMillis,processedAtMillis,status,adminUserId,refundTxnId");
+            }
+            // Same column layout as toCsvRow()/loadRawRows()
+            r.writeCsv(w);
+            w.endRow();
         }
-
-        long millis = (r.createdAt != null) ? r.createdAt.getTime() : 0L;
-        int adminId = (r.processedBy != null) ? r.processedBy.getUserId() : -1;
-        int refundTxnId = (r.refundTxn != null) ? r.refundTxn.getPaymentId() : -1;
-
-        String row = r.refundId + "," +
-                r.order.getOrderId() + "," +
-                millis + "," +
-                escape(r.reason) + "," +
-                r.status.name() + "," +
-                adminId + "," +
-                refundTxnId;
-
-        lines.add(row);
-        Files.write(path, lines);
     }
     
     public static void saveAll(Path path, List<RefundRequest> list) throws IOException {
-        List<String> lines = new ArrayList<>();
-        lines.add("# refundId,orderId,createdAtMillis,reason,status,adminUserId,refundTxnId");
-
-        for (RefundRequest r : list) {
-            long millis = (r.createdAt != null) ? r.createdAt.getTime() : 0L;
-            int adminId = (r.processedBy != null) ? r.processedBy.getUserId() : -1;
-            int refundTxnId = (r.refundTxn != null) ? r.refundTxn.getPaymentId() : -1;
-
-            lines.add(
-                    r.refundId + "," +
-                    r.order.getOrderId() + "," +
-                    millis + "," +
-                    escape(r.reason) + "," +
-                    r.status.name() + "," +
-                    adminId + "," +
-                    refundTxnId
-            );
-        }
-
-        Files.write(path, lines);
+        saveToCsv(path, list);
     }
 
-
-
-
-
     public static List<RawRefundRow> loadRawRows(Path path) throws IOException {
         List<RawRefundRow> result = new ArrayList<>();
         if (!Files.exists(path)) {
             return result;
         }
-        for (String line : Files.readAllLines(path)) {
-            if (line.trim().isEmpty() || line.startsWith("#")) {
-                continue;
-            }
-            String[] parts = line.split(",", 8);
-            int refundId = Integer.parseInt(parts[0]);
-            if (refundId >= NEXT_ID) {
-                NEXT_ID = refundId + 1;
+        try (CsvReader r = CsvReader.open(path)) {
+            while (r.next(FIELDS)) {
+                result.add(fromCsv(r));
             }
-            int orderId = Integer.parseInt(parts[1]);
-            String reason = unescape(parts[2]);
-            long createdMillis = Long.parseLong(parts[3]);
-            long processedMillis = Long.parseLong(parts[4]);
-            RefundStatus status = RefundStatus.valueOf(parts[5]);
-            int adminUserId = Integer.parseInt(parts[6]);
-            int refundTxnId = Integer.parseInt(parts[7]);
-
-            Date createdAt = createdMillis == 0L ? null : new Date(createdMillis);
-            Date processedAt = processedMillis == 0L ? null : new Date(processedMillis);
-
-            result.add(new RawRefundRow(
-                    refundId, orderId, reason,
-                    createdAt, processedAt, status,
-                    adminUserId, refundTxnId));
         }
         return result;
     }
 
-    public static void saveToCsv(Path path, List<RefundRequest> requests) throws IOException {
-        List<String> lines = new ArrayList<>();
-        lines.add("# refundId,orderId,reason,createdAtMillis,processedAtMillis,status,adminUserId,refundTxnId");
-        for (RefundRequest r : requests) {
-            lines.add(r.toCsvRow());
+    private static final int FIELDS = 8;
+
+    /** Parses one toCsvRow() line (also used when replaying the booking journal). */
+    public static RawRefundRow parseRawRow(String line) {
+        try (CsvReader r = CsvReader.ofLine(line)) {
+            if (!r.next(FIELDS)) {
+                throw new IllegalArgumentException("Empty refund line");
+            }
+            return fromCsv(r);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // cannot happen for a String
         }
-        Files.write(path, lines);
     }
 
-    private static String escape(String s) {
-        if (s == null) return "";
-        return s.replace("\\", "\\\\").replace(",", "\\,");
+    /** Reads the reader's current record as a raw refund row. */
+    public static RawRefundRow fromCsv(CsvReader r) {
+        int refundId = r.getInt(0);
+        NEXT_ID.accumulateAndGet(refundId + 1, Math::max);
+        int orderId = r.getInt(1);
+        String reason = r.getString(2);
+        long createdMillis = r.getLong(3);
+        long processedMillis = r.getLong(4);
+        RefundStatus status = r.getEnum(5, RefundStatus.class);
+        int adminUserId = r.getInt(6);
+        int refundTxnId = r.getInt(7);
+
+        Date createdAt = createdMillis == 0L ? null : new Date(createdMillis);
+        Date processedAt = processedMillis == 0L ? null : new Date(processedMillis);
+
+        return new RawRefundRow(
+                refundId, orderId, reason,
+                createdAt, processedAt, status,
+                adminUserId, refundTxnId);
     }
 
-    private static String unescape(String s) {
-        return s.replace("\\,", ",").replace("\\\\", "\\");
+    public static void saveToCsv(Path path, List<RefundRequest> requests) throws IOException {
+        try (CsvWriter w = CsvWriter.create(path)) {
+            w.comment("refundId,orderId,reason,createdAtMillis,processedAtMillis,status,adminUserId,refundTxnId");
+            for (RefundRequest r : requests) {
+                r.writeCsv(w);
+                w.endRow();
+            }
+        }
     }
 
     @Override
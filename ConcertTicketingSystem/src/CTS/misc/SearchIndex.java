@@ -0,0 +1,415 @@
+package CTS.misc;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * In-memory full-text index over items with an int id (events, artists...).
+ *
+ * Each item is described by a Document: a few text fields, each with a
+ * weight (a name counts more than a description). Text is folded to
+ * lowercase without diacritics ("Beyoncé" matches "beyonce") and split
+ * into letter/digit tokens. Every term keeps a posting list of the items
+ * containing it, so a query touches only the items that can match.
+ *
+ * A query matches items containing every query token; the last token
+ * also matches as a prefix ("metal" finds "metallica") so results work
+ * while the user is typing. Hits are ranked by the summed field weights
+ * of the matched terms, scaled by how rare each term is.
+ *
+ * put() and remove() update the postings of one item in place. All
+ * methods are thread-safe.
+ */
+public class SearchIndex<T> {
+
+    /** Fields and weights describing one item. Built by the caller for put(). */
+    public static class Document {
+        private final List<String> texts = new ArrayList<>(8);
+        private final List<Integer> weights = new ArrayList<>(8);
+
+        /** Adds a field; null or empty text is ignored. */
+        public Document add(String text, int weight) {
+            if (text != null && !text.isEmpty()) {
+                texts.add(text);
+                weights.add(weight);
+            }
+            return this;
+        }
+
+        // Changes whenever any field text or weight changes (String caches its hash)
+        int fingerprint() {
+            int h = 1;
+            for (int i = 0; i < texts.size(); i++) {
+                h = 31 * h + texts.get(i).hashCode();
+                h = 31 * h + weights.get(i);
+            }
+            return h;
+        }
+    }
+
+    /** Prefix matches score this fraction of an exact match. */
+    private static final float PREFIX_FACTOR = 0.6f;
+
+    /** Shorter last tokens only match exactly (a one-letter prefix hits everything). */
+    private static final int MIN_PREFIX = 2;
+
+    // Posting list: slots of the items holding a term, with the term's weight
+    private static final class Postings {
+        int[] slots = new int[2];
+        int[] weights = new int[2];
+        int size;
+
+        void add(int slot, int weight) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            slots[size] = slot;
+            weights[size++] = weight;
+        }
+
+        // Order within a posting list does not matter, so swap in the last entry
+        void remove(int slot) {
+            for (int i = 0; i < size; i++) {
+                if (slots[i] == slot) {
+                    size--;
+                    slots[i] = slots[size];
+                    weights[i] = weights[size];
+                    return;
+                }
+            }
+        }
+    }
+
+    // One indexed item
+    private static final class Entry<T> {
+        final int id;
+        final int slot;
+        T item;
+        int fingerprint;
+        String[] terms;
+
+        Entry(int id, int slot) {
+            this.id = id;
+            this.slot = slot;
+        }
+    }
+
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final IntIndex<Entry<T>> byId = new IntIndex<>();
+
+    // Items live in dense slots so a query can score them in plain arrays
+    private Entry<T>[] slots = newEntries(16);
+    private int slotCount;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+
+    // Per-query scratch, indexed by slot (stamped by query so never cleared)
+    private int query;
+    private int[] hitQuery = new int[16];
+    private int[] hitTokens = new int[16];
+    private float[] score = new float[16];
+    private float[] tokenBest = new float[16];
+    private int[] candidates = new int[16];
+
+    // =========================================================================
+    //  UPDATES
+    // =========================================================================
+
+    /** Adds or re-indexes an item. Does nothing if the document did not change. */
+    public synchronized void put(int id, T item, Document doc) {
+        int fingerprint = doc.fingerprint();
+        Entry<T> e = byId.get(id);
+        if (e != null) {
+            e.item = item;
+            if (e.fingerprint == fingerprint) {
+                return;
+            }
+            unlink(e);
+        } else {
+            e = new Entry<>(id, allocateSlot());
+            byId.put(id, e);
+            slots[e.slot] = e;
+        }
+        e.item = item;
+        e.fingerprint = fingerprint;
+        link(e, doc);
+    }
+
+    /** Drops an item from the index. */
+    public synchronized void remove(int id) {
+        Entry<T> e = byId.remove(id);
+        if (e == null) {
+            return;
+        }
+        unlink(e);
+        slots[e.slot] = null;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = e.slot;
+    }
+
+    public synchronized int size() {
+        return byId.size();
+    }
+
+    /** Number of distinct terms in the index. */
+    public synchronized int termCount() {
+        return terms.size();
+    }
+
+    private void link(Entry<T> e, Document doc) {
+        // Fold every field, summing the weights of the fields each term occurs in
+        Map<String, int[]> weights = new HashMap<>();
+        List<String> tokens = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (int f = 0; f < doc.texts.size(); f++) {
+            tokens.clear();
+            seen.clear();
+            tokenize(doc.texts.get(f), tokens);
+            int w = doc.weights.get(f);
+            for (String t : tokens) {
+                if (seen.add(t)) { // count a field once per term
+                    weights.computeIfAbsent(t, k -> new int[1])[0] += w;
+                }
+            }
+        }
+        e.terms = weights.keySet().toArray(new String[0]);
+        for (Map.Entry<String, int[]> t : weights.entrySet()) {
+            terms.computeIfAbsent(t.getKey(), k -> new Postings()).add(e.slot, t.getValue()[0]);
+        }
+    }
+
+    private void unlink(Entry<T> e) {
+        for (String t : e.terms) {
+            Postings p = terms.get(t);
+            p.remove(e.slot);
+            if (p.size == 0) {
+                terms.remove(t);
+            }
+        }
+        e.terms = null;
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (slotCount == slots.length) {
+            int cap = slotCount * 2;
+            slots = Arrays.copyOf(slots, cap);
+            hitQuery = Arrays.copyOf(hitQuery, cap);
+            hitTokens = Arrays.copyOf(hitTokens, cap);
+            score = Arrays.copyOf(score, cap);
+            tokenBest = Arrays.copyOf(tokenBest, cap);
+        }
+        return slotCount++;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Entry<T>[] newEntries(int n) {
+        return (Entry<T>[]) new Entry<?>[n];
+    }
+
+    // =========================================================================
+    //  QUERIES
+    // =========================================================================
+
+    /** Items matching every token of query, best first; at most limit of them. */
+    public List<T> search(String query, int limit) {
+        return search(query, limit, null);
+    }
+
+    /** As search(query, limit), keeping only items accepted by filter (null = all). */
+    public synchronized List<T> search(String query, int limit, Predicate<? super T> filter) {
+        List<String> tokens = new ArrayList<>();
+        tokenize(query, tokens);
+        List<T> result = new ArrayList<>();
+        if (tokens.isEmpty() || limit <= 0) {
+            return result;
+        }
+        dedupe(tokens);
+
+        this.query++;
+        int q = this.query;
+        int found = 0;
+
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            Postings exact = terms.get(token);
+            if (exact != null) {
+                found = score(exact, i, q, 1f, found);
+            }
+            if (i == tokens.size() - 1 && token.length() >= MIN_PREFIX) {
+                for (Postings p : terms.subMap(token, false, token + Character.MAX_VALUE, false).values()) {
+                    found = score(p, i, q, PREFIX_FACTOR, found);
+                }
+            }
+        }
+
+        // Keep the candidates that matched every token, then rank them
+        int n = 0;
+        for (int c = 0; c < found; c++) {
+            int slot = candidates[c];
+            if (hitTokens[slot] == tokens.size() && (filter == null || filter.test(slots[slot].item))) {
+                candidates[n++] = slot;
+            }
+        }
+        int[] top = topSlots(n, limit);
+        for (int slot : top) {
+            result.add(slots[slot].item);
+        }
+        return result;
+    }
+
+    // Adds one term's postings to the scores for query token i
+    private int score(Postings p, int i, int q, float factor, int found) {
+        float idf = (float) Math.log(1.0 + (double) byId.size() / p.size);
+        for (int k = 0; k < p.size; k++) {
+            int slot = p.slots[k];
+            float s = p.weights[k] * idf * factor;
+            if (hitQuery[slot] != q) {
+                if (i > 0) continue; // missed an earlier token
+                hitQuery[slot] = q;
+                hitTokens[slot] = 1;
+                score[slot] = s;
+                tokenBest[slot] = s;
+                if (found == candidates.length) {
+                    candidates = Arrays.copyOf(candidates, found * 2);
+                }
+                candidates[found++] = slot;
+            } else if (hitTokens[slot] == i) {
+                // First term of this token for an item that matched all earlier ones
+                hitTokens[slot] = i + 1;
+                score[slot] += s;
+                tokenBest[slot] = s;
+            } else if (hitTokens[slot] == i + 1 && s > tokenBest[slot]) {
+                // A token counts once, through its best-scoring term
+                score[slot] += s - tokenBest[slot];
+                tokenBest[slot] = s;
+            }
+        }
+        return found;
+    }
+
+    // Best limit of candidates[0..n), best first; a bounded heap avoids sorting them all
+    private int[] topSlots(int n, int limit) {
+        int k = Math.min(n, limit);
+        int[] heap = new int[k]; // min-heap: the worst kept hit is at the root
+        int size = 0;
+        for (int c = 0; c < n; c++) {
+            int slot = candidates[c];
+            if (size < k) {
+                heap[size] = slot;
+                siftUp(heap, size++);
+            } else if (better(slot, heap[0])) {
+                heap[0] = slot;
+                siftDown(heap, size);
+            }
+        }
+        // Pop worst-first into the tail
+        int[] out = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            out[i] = heap[0];
+            heap[0] = heap[--size];
+            siftDown(heap, size);
+        }
+        return out;
+    }
+
+    // Higher score first; ties go to the lower id so results are stable
+    private boolean better(int a, int b) {
+        if (score[a] != score[b]) return score[a] > score[b];
+        return slots[a].id < slots[b].id;
+    }
+
+    private void siftUp(int[] heap, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!better(heap[parent], heap[i])) break;
+            swap(heap, i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int[] heap, int size) {
+        int i = 0;
+        while (true) {
+            int l = 2 * i + 1;
+            if (l >= size) break;
+            int worst = (l + 1 < size && better(heap[l], heap[l + 1])) ? l + 1 : l;
+            if (!better(heap[i], heap[worst])) break;
+            swap(heap, i, worst);
+            i = worst;
+        }
+    }
+
+    private static void swap(int[] a, int i, int j) {
+        int t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+
+    private static void dedupe(List<String> tokens) {
+        for (int i = tokens.size() - 1; i > 0; i--) {
+            if (tokens.indexOf(tokens.get(i)) < i) {
+                tokens.remove(i);
+            }
+        }
+    }
+
+    // =========================================================================
+    //  TOKENIZING
+    // =========================================================================
+
+    /** Splits text into folded tokens (lowercase, no diacritics) and adds them to out. */
+    public static void tokenize(String text, List<String> out) {
+        if (text == null) {
+            return;
+        }
+        if (!isAscii(text)) {
+            text = stripMarks(Normalizer.normalize(text, Normalizer.Form.NFD));
+        }
+        StringBuilder sb = new StringBuilder(16);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toLowerCase(c));
+            } else if (sb.length() > 0) {
+                out.add(sb.toString());
+                sb.setLength(0);
+            }
+        }
+        if (sb.length() > 0) {
+            out.add(sb.toString());
+        }
+    }
+
+    private static boolean isAscii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) >= 0x80) return false;
+        }
+        return true;
+    }
+
+    // Drops combining marks left by NFD ("e" + U+0301 -> "e")
+    private static String stripMarks(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,13 @@
+package CTS.payment;
+
+import java.io.IOException;
+
+/** The gateway could not be reached or did not answer in time; the request may be retried. */
+public class GatewayException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public GatewayException(String message) {
+        super(message);
+    }
+}
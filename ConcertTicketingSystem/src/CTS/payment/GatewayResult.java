@@ -0,0 +1,42 @@
+package CTS.payment;
+
+/** A gateway's answer to one request: approved with a reference, or declined with a reason. */
+public class GatewayResult {
+
+    private final boolean approved;
+    private final String gatewayRef;
+    private final String declineReason;
+
+    private GatewayResult(boolean approved, String gatewayRef, String declineReason) {
+        this.approved = approved;
+        this.gatewayRef = gatewayRef;
+        this.declineReason = declineReason;
+    }
+
+    public static GatewayResult approved(String gatewayRef) {
+        return new GatewayResult(true, gatewayRef, null);
+    }
+
+    public static GatewayResult declined(String reason) {
+        return new GatewayResult(false, null, reason);
+    }
+
+    public boolean isApproved() {
+        return approved;
+    }
+
+    /** The gateway's id for this transaction; null if declined. */
+    public String getGatewayRef() {
+        return gatewayRef;
+    }
+
+    /** Why the gateway said no; null if approved. */
+    public String getDeclineReason() {
+        return declineReason;
+    }
+
+    @Override
+    public String toString() {
+        return approved ? "approved " + gatewayRef : "declined: " + declineReason;
+    }
+}
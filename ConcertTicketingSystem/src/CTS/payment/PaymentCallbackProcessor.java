@@ -0,0 +1,229 @@
+package CTS.payment;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import CTS.booking.Order;
+import CTS.booking.OrderDatabase;
+import CTS.enums.OrderStatus;
+import CTS.enums.PaymentStatus;
+import CTS.enums.PaymentType;
+import CTS.metrics.Counter;
+import CTS.metrics.Histogram;
+import CTS.metrics.Metrics;
+import CTS.misc.PaymentTransaction;
+
+/**
+ * Applies the gateway's asynchronous status reports ("callbacks") to
+ * payment transactions.
+ *
+ * submit() only queues a report, so the caller (a webhook handler, say)
+ * never waits. One worker thread drains the queue in batches: each report
+ * is matched to its transaction through OrderDatabase's gatewayRef or
+ * paymentId index, applied, and the whole batch is journaled with a
+ * single durability wait. While a batch is being written the next one
+ * builds up, so a burst is persisted in a few large writes.
+ *
+ * Reports are idempotent. A repeat of the status a transaction already
+ * has is counted and dropped, and a decided transaction is never flipped
+ * by a later, conflicting report. Reports for one transaction are applied
+ * in the order they were submitted.
+ */
+public class PaymentCallbackProcessor {
+
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    public static final long DEFAULT_DRAIN_INTERVAL_MILLIS = 50;
+
+    private static final Counter RECEIVED = Metrics.counter("payment.callbacks");
+    private static final Counter APPLIED = Metrics.counter("payment.callbacks_applied");
+    private static final Counter DUPLICATE = Metrics.counter("payment.callbacks_duplicate");
+    private static final Counter CONFLICT = Metrics.counter("payment.callbacks_conflict");
+    private static final Counter UNKNOWN = Metrics.counter("payment.callbacks_unknown");
+    private static final Histogram BATCH_TIME = Metrics.histogram("payment.callback_batch");
+
+    private final int batchSize;
+    private final Queue<Callback> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final ScheduledExecutorService worker;
+
+    // One status report; found by gatewayRef, or by paymentId when the ref is null
+    private static class Callback {
+        final String gatewayRef;
+        final int paymentId;
+        final PaymentStatus status;
+        final String reason;
+
+        Callback(String gatewayRef, int paymentId, PaymentStatus status, String reason) {
+            this.gatewayRef = gatewayRef;
+            this.paymentId = paymentId;
+            this.status = status;
+            this.reason = reason;
+        }
+
+        @Override
+        public String toString() {
+            return (gatewayRef != null ? gatewayRef : "payment " + paymentId) + " -> " + status;
+        }
+    }
+
+    public PaymentCallbackProcessor() {
+        this(DEFAULT_BATCH_SIZE, DEFAULT_DRAIN_INTERVAL_MILLIS);
+    }
+
+    public PaymentCallbackProcessor(int batchSize, long drainIntervalMillis) {
+        if (batchSize <= 0 || drainIntervalMillis <= 0) {
+            throw new IllegalArgumentException("batchSize and drainIntervalMillis must be positive");
+        }
+        this.batchSize = batchSize;
+        this.worker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "payment-callbacks");
+            t.setDaemon(true);
+            return t;
+        });
+        worker.scheduleWithFixedDelay(this::drain, drainIntervalMillis, drainIntervalMillis,
+                TimeUnit.MILLISECONDS);
+        Metrics.gauge("payment.callbacks_queued", queued::get);
+    }
+
+    // =========================================================================
+    //  INGEST
+    // =========================================================================
+
+    /** Queues the gateway's report that the transaction it knows as gatewayRef is now status. */
+    public void submit(String gatewayRef, PaymentStatus status, String reason) {
+        if (gatewayRef == null) {
+            throw new IllegalArgumentException("gatewayRef is required");
+        }
+        enqueue(new Callback(gatewayRef, 0, status, reason));
+    }
+
+    /** Queues a status report for a transaction identified by our own paymentId. */
+    public void submit(int paymentId, PaymentStatus status, String reason) {
+        enqueue(new Callback(null, paymentId, status, reason));
+    }
+
+    private void enqueue(Callback c) {
+        if (c.status != PaymentStatus.SUCCESS && c.status != PaymentStatus.FAILED) {
+            throw new IllegalArgumentException("A callback must report SUCCESS or FAILED, not " + c.status);
+        }
+        RECEIVED.inc();
+        queue.add(c);
+        if (queued.incrementAndGet() == batchSize) {
+            try {
+                worker.execute(this::drain); // a full batch goes now
+            } catch (RejectedExecutionException e) {
+                // Shutting down: shutdown() drains the queue
+            }
+        }
+    }
+
+    /** Reports queued and not yet applied. */
+    public int pending() {
+        return queued.get();
+    }
+
+    /** Completes once every report submitted before this call is applied and durable. */
+    public CompletableFuture<Void> flush() {
+        return CompletableFuture.runAsync(this::drain, worker);
+    }
+
+    // =========================================================================
+    //  APPLY (worker thread only)
+    // =========================================================================
+
+    // Applies and persists everything queued, one batch at a time
+    private void drain() {
+        try {
+            while (drainBatch()) {
+                // keep going until the queue is empty
+            }
+        } catch (RuntimeException e) {
+            // Keep the scheduled drain alive; the rest stays queued for next time
+            System.err.println("Applying payment callbacks failed: " + e);
+        }
+    }
+
+    private boolean drainBatch() {
+        List<Callback> batch = new ArrayList<>();
+        Callback c;
+        while (batch.size() < batchSize && (c = queue.poll()) != null) {
+            batch.add(c);
+        }
+        if (batch.isEmpty()) {
+            return false;
+        }
+        queued.addAndGet(-batch.size());
+
+        long start = System.nanoTime();
+        Set<PaymentTransaction> changed = new LinkedHashSet<>();
+        Set<Order> orders = new LinkedHashSet<>();
+        for (Callback cb : batch) {
+            apply(cb, changed, orders);
+        }
+        OrderDatabase.recordPayments(changed, orders);
+        BATCH_TIME.recordSince(start);
+        return true;
+    }
+
+    private static void apply(Callback c, Set<PaymentTransaction> changed, Set<Order> orders) {
+        PaymentTransaction t = (c.gatewayRef != null)
+                ? OrderDatabase.getPaymentByGatewayRef(c.gatewayRef)
+                : OrderDatabase.getPaymentById(c.paymentId);
+        if (t == null) {
+            UNKNOWN.inc();
+            System.err.println("Payment callback for an unknown transaction: " + c);
+            return;
+        }
+
+        boolean applied = (c.status == PaymentStatus.SUCCESS) ? t.markSuccess() : t.markFailed(c.reason);
+        if (!applied) {
+            if (t.getStatus() == c.status) {
+                DUPLICATE.inc();
+            } else {
+                CONFLICT.inc();
+                System.err.println("Ignoring payment callback " + c + ": already " + t.getStatus());
+            }
+            return;
+        }
+        APPLIED.inc();
+        changed.add(t);
+
+        // The order follows its payment while it is still waiting on it
+        Order o = t.getOrder();
+        if (o == null || o.getStatus() != OrderStatus.PENDING || t.getType() == PaymentType.REFUND) {
+            return;
+        }
+        if (c.status == PaymentStatus.SUCCESS) {
+            o.setPayment(t);
+        } else {
+            o.cancel();
+        }
+        orders.add(o);
+    }
+
+    // =========================================================================
+    //  LIFECYCLE
+    // =========================================================================
+
+    /** Applies whatever is still queued, then stops the worker. */
+    public void shutdown() {
+        worker.execute(this::drain);
+        worker.shutdown();
+        try {
+            worker.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
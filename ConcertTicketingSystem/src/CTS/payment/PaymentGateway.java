@@ -0,0 +1,42 @@
+package CTS.payment;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import CTS.misc.Money;
+
+/**
+ * A card payment provider. Every call is one network round trip and
+ * returns at once; the future completes when the gateway answers. A
+ * decline completes normally with an unapproved GatewayResult; a
+ * transport failure (timeout, gateway down) completes exceptionally with
+ * a GatewayException.
+ */
+public interface PaymentGateway {
+
+    /** One authorization to settle, as part of a capture batch. */
+    class Capture {
+        public final String authRef;
+        public final Money amount;
+
+        public Capture(String authRef, Money amount) {
+            this.authRef = authRef;
+            this.amount = amount;
+        }
+    }
+
+    /** Reserves amount on the card without moving money. */
+    CompletableFuture<GatewayResult> authorize(String cardNumber, Money amount);
+
+    /** Settles several authorizations in one call; results are in the same order. */
+    CompletableFuture<List<GatewayResult>> capture(List<Capture> captures);
+
+    /** Drops an authorization that will never be captured. */
+    CompletableFuture<GatewayResult> voidAuthorization(String authRef);
+
+    /** Pays amount back against a captured charge (or its authorization). */
+    CompletableFuture<GatewayResult> refund(String gatewayRef, Money amount);
+
+    /** Releases the client's threads and connections. */
+    default void shutdown() {}
+}
@@ -0,0 +1,366 @@
+package CTS.payment;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import CTS.booking.Order;
+import CTS.booking.OrderDatabase;
+import CTS.enums.OrderStatus;
+import CTS.enums.PaymentStatus;
+import CTS.enums.PaymentType;
+import CTS.metrics.Counter;
+import CTS.metrics.Histogram;
+import CTS.metrics.Metrics;
+import CTS.misc.Money;
+import CTS.misc.PaymentTransaction;
+
+/**
+ * The payment pipeline between BookingService and a PaymentGateway.
+ *
+ * Checkout only authorizes (AUTH): one round trip checks the card and
+ * reserves the amount. Captures (CHARGE) are queued and sent in batches,
+ * every capture interval or as soon as a batch fills, and each batch's
+ * results are journaled together. A capture the gateway refuses is
+ * retried with later batches, up to MAX_CAPTURE_ATTEMPTS times. After
+ * that no money will ever move, so the sale is undone: the order is
+ * canceled, its authorization voided, and the onCaptureFailed handler
+ * gives back the seats.
+ *
+ * No thread waits on the gateway: calls return futures that complete
+ * when it answers, and batch results are recorded on virtual threads.
+ */
+public class PaymentProcessor {
+
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    public static final long DEFAULT_CAPTURE_INTERVAL_MILLIS = 200;
+
+    /** Gateway refusals before a capture is recorded as FAILED. */
+    public static final int MAX_CAPTURE_ATTEMPTS = 3;
+
+    private static final Histogram AUTH_TIME = Metrics.histogram("payment.authorize");
+    private static final Histogram CAPTURE_TIME = Metrics.histogram("payment.capture_batch");
+    private static final Counter AUTH_DECLINED = Metrics.counter("payment.auth_declined");
+    private static final Counter AUTH_ERRORS = Metrics.counter("payment.auth_errors");
+    private static final Counter CAPTURED = Metrics.counter("payment.captured");
+    private static final Counter CAPTURE_RETRIES = Metrics.counter("payment.capture_retries");
+    private static final Counter CAPTURE_FAILED = Metrics.counter("payment.capture_failed");
+    private static final Counter VOID_FAILED = Metrics.counter("payment.void_failed");
+    private static final Histogram REFUND_TIME = Metrics.histogram("payment.refund");
+    private static final Counter REFUND_FAILED = Metrics.counter("payment.refund_failed");
+
+    private final PaymentGateway gateway;
+    private final int batchSize;
+
+    private final Queue<PendingCapture> captureQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Set<CompletableFuture<Void>> batches = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService recorder = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile Consumer<List<Order>> captureFailed = orders -> {};
+
+    // One authorized order waiting for its CHARGE
+    private static class PendingCapture {
+        final PaymentTransaction auth;
+        final Money amount;
+        int attempts;
+
+        PendingCapture(PaymentTransaction auth, Money amount) {
+            this.auth = auth;
+            this.amount = amount;
+        }
+    }
+
+    private PaymentProcessor(PaymentGateway gateway, int batchSize) {
+        this.gateway = gateway;
+        this.batchSize = batchSize;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "payment-capture");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** A running processor with the default batch size and capture interval. */
+    public static PaymentProcessor create(PaymentGateway gateway) {
+        return create(gateway, DEFAULT_BATCH_SIZE, DEFAULT_CAPTURE_INTERVAL_MILLIS);
+    }
+
+    /** A running processor: its capture timer starts once it is fully built. */
+    public static PaymentProcessor create(PaymentGateway gateway, int batchSize, long captureIntervalMillis) {
+        if (batchSize <= 0 || captureIntervalMillis <= 0) {
+            throw new IllegalArgumentException("batchSize and captureIntervalMillis must be positive");
+        }
+        PaymentProcessor p = new PaymentProcessor(gateway, batchSize);
+        p.scheduler.scheduleWithFixedDelay(p::flushAll, captureIntervalMillis, captureIntervalMillis,
+                TimeUnit.MILLISECONDS);
+        Metrics.gauge("payment.pending_captures", p::pendingCaptures);
+        return p;
+    }
+
+    // =========================================================================
+    //  AUTHORIZE
+    // =========================================================================
+
+    /**
+     * Authorizes amount on the card. The future completes (on the gateway's
+     * thread) with an AUTH transaction: SUCCESS with the gateway reference,
+     * or FAILED if declined or the gateway could not be reached. It has no
+     * order yet and is not recorded; the caller links and records it.
+     */
+    public CompletableFuture<PaymentTransaction> authorize(Money amount, String cardNumber) {
+        long start = System.nanoTime();
+        PaymentTransaction auth = new PaymentTransaction(PaymentTransaction.nextId(), null,
+                PaymentType.AUTH, amount, new Date(), PaymentStatus.PENDING, null);
+        return call(() -> gateway.authorize(cardNumber, amount)).handle((result, error) -> {
+            AUTH_TIME.recordSince(start);
+            auth.setTimestamp(new Date());
+            if (error == null && result.isApproved()) {
+                auth.setGatewayRef(result.getGatewayRef());
+                auth.markSuccess();
+            } else if (error == null) {
+                AUTH_DECLINED.inc();
+                auth.markFailed(result.getDeclineReason());
+            } else {
+                AUTH_ERRORS.inc();
+                auth.markFailed(unwrap(error).getMessage());
+            }
+            return auth;
+        });
+    }
+
+    /**
+     * Sets who is told about orders canceled because their capture failed
+     * for good, once the cancellation is durable. It runs on a recording
+     * thread, before the flush that gave up completes.
+     */
+    public void onCaptureFailed(Consumer<List<Order>> handler) {
+        this.captureFailed = handler;
+    }
+
+    /** Releases an authorization that will not be captured (the booking fell through). */
+    public CompletableFuture<GatewayResult> voidAuthorization(PaymentTransaction auth) {
+        return call(() -> gateway.voidAuthorization(auth.getGatewayRef()));
+    }
+
+    // =========================================================================
+    //  CAPTURE
+    // =========================================================================
+
+    /** Queues the CHARGE of amount against a successful AUTH linked to its order. */
+    public void capture(PaymentTransaction auth, Money amount) {
+        if (auth.getStatus() != PaymentStatus.SUCCESS || auth.getOrder() == null) {
+            throw new IllegalArgumentException("Only a successful, linked authorization can be captured");
+        }
+        captureQueue.add(new PendingCapture(auth, amount));
+        if (queued.incrementAndGet() >= batchSize) {
+            try {
+                scheduler.execute(this::flush); // a full batch goes now
+            } catch (RejectedExecutionException e) {
+                // Shutting down: shutdown() drains the queue
+            }
+        }
+    }
+
+    /** Captures queued or in flight. */
+    public int pendingCaptures() {
+        return queued.get() + inFlight.get();
+    }
+
+    /**
+     * Sends every queued capture now, in batches; completes when all are
+     * recorded. Captures refused meanwhile wait for the next round.
+     */
+    public CompletableFuture<Void> flushAll() {
+        List<CompletableFuture<Void>> sent = new ArrayList<>();
+        for (int left = queued.get(); left > 0; left -= batchSize) {
+            sent.add(flush());
+        }
+        return CompletableFuture.allOf(sent.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /** Sends up to one batch of queued captures; completes when its results are recorded. */
+    public CompletableFuture<Void> flush() {
+        List<PendingCapture> batch = new ArrayList<>();
+        PendingCapture p;
+        while (batch.size() < batchSize && (p = captureQueue.poll()) != null) {
+            batch.add(p);
+        }
+        if (batch.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        inFlight.addAndGet(batch.size());
+        queued.addAndGet(-batch.size());
+
+        List<PaymentGateway.Capture> calls = new ArrayList<>(batch.size());
+        for (PendingCapture c : batch) {
+            calls.add(new PaymentGateway.Capture(c.auth.getGatewayRef(), c.amount));
+        }
+        long start = System.nanoTime();
+        CompletableFuture<Void> done = call(() -> gateway.capture(calls)).handleAsync((results, error) -> {
+            CAPTURE_TIME.recordSince(start);
+            try {
+                settle(batch, results, error);
+            } finally {
+                inFlight.addAndGet(-batch.size());
+            }
+            return null;
+        }, recorder);
+        batches.add(done);
+        done.whenComplete((v, e) -> batches.remove(done));
+        return done;
+    }
+
+    // Records one batch's CHARGE transactions (and the orders given up on) with a single journal wait
+    private void settle(List<PendingCapture> batch, List<GatewayResult> results, Throwable error) {
+        if (error == null && results.size() != batch.size()) {
+            error = new GatewayException("Capture answered " + results.size() + " of " + batch.size());
+        }
+        List<PaymentTransaction> charges = new ArrayList<>(batch.size());
+        List<Order> canceled = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            PendingCapture p = batch.get(i);
+            GatewayResult r = (error == null) ? results.get(i) : null;
+            Order order = p.auth.getOrder();
+            if (r != null && r.isApproved()) {
+                CAPTURED.inc();
+                charges.add(new PaymentTransaction(PaymentTransaction.nextId(), r.getGatewayRef(),
+                        PaymentType.CHARGE, p.amount, new Date(), PaymentStatus.SUCCESS, order));
+            } else if (++p.attempts < MAX_CAPTURE_ATTEMPTS) {
+                CAPTURE_RETRIES.inc();
+                captureQueue.add(p); // picked up by the next scheduled flush
+                queued.incrementAndGet();
+            } else {
+                CAPTURE_FAILED.inc();
+                String why = (r != null) ? r.getDeclineReason() : unwrap(error).getMessage();
+                System.err.println("Capture for order " + order.getOrderId() + " failed after "
+                        + p.attempts + " attempts: " + why);
+                PaymentTransaction failed = new PaymentTransaction(PaymentTransaction.nextId(), null,
+                        PaymentType.CHARGE, p.amount, new Date(), PaymentStatus.PENDING, order);
+                failed.markFailed(why);
+                charges.add(failed);
+                if (order.getStatus() == OrderStatus.CONFIRMED) {
+                    order.cancel();
+                    canceled.add(order);
+                }
+                release(p.auth);
+            }
+        }
+        OrderDatabase.recordPayments(charges, canceled);
+        if (!canceled.isEmpty()) {
+            captureFailed.accept(canceled);
+        }
+    }
+
+    // Voids an authorization given up on; the gateway drops it on its own if this fails too
+    private void release(PaymentTransaction auth) {
+        voidAuthorization(auth).whenComplete((result, error) -> {
+            if (error != null || !result.isApproved()) {
+                VOID_FAILED.inc();
+                System.err.println("Could not void authorization " + auth.getGatewayRef() + ": "
+                        + ((error != null) ? unwrap(error).getMessage() : result.getDeclineReason()));
+            }
+        });
+    }
+
+    /**
+     * Re-queues captures for confirmed orders that were authorized but never
+     * charged, e.g. because the process stopped with captures queued.
+     * Returns how many were queued.
+     */
+    public int recoverPendingCaptures() {
+        List<PaymentTransaction> all = OrderDatabase.getAllPayments();
+        Set<Integer> settled = new HashSet<>();
+        for (PaymentTransaction t : all) {
+            if (t.getType() == PaymentType.CHARGE && t.getOrder() != null) {
+                settled.add(t.getOrder().getOrderId()); // captured, or given up on
+            }
+        }
+        int n = 0;
+        for (PaymentTransaction t : all) {
+            Order o = t.getOrder();
+            if (t.getType() == PaymentType.AUTH && t.getStatus() == PaymentStatus.SUCCESS && o != null
+                    && o.getStatus() == OrderStatus.CONFIRMED && settled.add(o.getOrderId())) {
+                capture(t, o.getTotalAmount());
+                n++;
+            }
+        }
+        return n;
+    }
+
+    // =========================================================================
+    //  REFUND
+    // =========================================================================
+
+    /**
+     * Refunds amount of a payment (a captured CHARGE, or an AUTH not yet
+     * captured). Like authorize(), the future completes with a REFUND
+     * transaction, SUCCESS or FAILED, that is not recorded yet.
+     */
+    public CompletableFuture<PaymentTransaction> refund(PaymentTransaction original, Money amount) {
+        long start = System.nanoTime();
+        PaymentTransaction refund = new PaymentTransaction(PaymentTransaction.nextId(), null,
+                PaymentType.REFUND, amount, new Date(), PaymentStatus.PENDING, original.getOrder());
+        return call(() -> gateway.refund(original.getGatewayRef(), amount)).handle((result, error) -> {
+            REFUND_TIME.recordSince(start);
+            refund.setTimestamp(new Date());
+            if (error == null && result.isApproved()) {
+                refund.setGatewayRef(result.getGatewayRef());
+                refund.markSuccess();
+            } else {
+                REFUND_FAILED.inc();
+                refund.markFailed((error == null) ? result.getDeclineReason() : unwrap(error).getMessage());
+            }
+            return refund;
+        });
+    }
+
+    // =========================================================================
+    //  LIFECYCLE
+    // =========================================================================
+
+    /** Stops the capture timer, sends whatever is still queued, then shuts the gateway down. */
+    public void shutdown() {
+        scheduler.shutdown();
+        // Retries go back on the queue, so go round once per allowed attempt
+        for (int i = 0; i <= MAX_CAPTURE_ATTEMPTS && pendingCaptures() > 0; i++) {
+            flushAll();
+            try {
+                CompletableFuture.allOf(batches.toArray(new CompletableFuture<?>[0])).join();
+            } catch (CompletionException e) {
+                System.err.println("Recording captures failed: " + unwrap(e).getMessage());
+            }
+        }
+        recorder.shutdown();
+        gateway.shutdown();
+    }
+
+    // A gateway that throws instead of returning a failed future is treated the same
+    private static <T> CompletableFuture<T> call(Supplier<CompletableFuture<T>> request) {
+        try {
+            return request.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static Throwable unwrap(Throwable t) {
+        return (t instanceof CompletionException && t.getCause() != null) ? t.getCause() : t;
+    }
+}
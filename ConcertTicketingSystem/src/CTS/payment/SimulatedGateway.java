@@ -0,0 +1,199 @@
+package CTS.payment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import CTS.misc.Money;
+
+/**
+ * In-process stand-in for a card gateway. Each call answers after a
+ * simulated round trip (latency plus or minus jitter) on a timer thread,
+ * so callers never block waiting for it.
+ *
+ * declineRate is the share of authorizations refused (like insufficient
+ * funds); errorRate is the share of calls that fail outright with a
+ * GatewayException, as a timeout would. A card ending in 0002 is always
+ * declined, so a decline can be tested on purpose.
+ *
+ * It also keeps the gateway's side of the books: a capture needs a live
+ * authorization for at least the amount, and refunds cannot exceed what
+ * was captured. Payments it never saw (taken before this run) are refunded
+ * as asked, since it has nothing to check them against.
+ */
+public class SimulatedGateway implements PaymentGateway {
+
+    public static final String DECLINED_CARD_SUFFIX = "0002";
+
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final double declineRate;
+    private final double errorRate;
+
+    private final SplittableRandom random;
+    private final ScheduledExecutorService timer;
+    private final AtomicLong nextRef = new AtomicLong(1);
+    private final String tag; // keeps references unique across simulator instances
+
+    // Open authorizations and captured charges, in minor units still available
+    private final Map<String, Long> authorized = new ConcurrentHashMap<>();
+    private final Map<String, Long> captured = new ConcurrentHashMap<>();
+
+    public SimulatedGateway(long latencyMillis, long jitterMillis, double declineRate, double errorRate, long seed) {
+        if (latencyMillis < 0 || jitterMillis < 0 || jitterMillis > latencyMillis) {
+            throw new IllegalArgumentException("Need 0 <= jitter <= latency");
+        }
+        if (declineRate < 0 || declineRate > 1 || errorRate < 0 || errorRate > 1) {
+            throw new IllegalArgumentException("Rates must be between 0 and 1");
+        }
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        this.declineRate = declineRate;
+        this.errorRate = errorRate;
+        this.random = new SplittableRandom(seed);
+        this.tag = Integer.toString(random.nextInt(1 << 30), 36);
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "gateway-simulator");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Simulator configured from system properties: cts.gateway.latencyMillis
+     * (default 30), cts.gateway.jitterMillis (10), cts.gateway.declineRate (0)
+     * and cts.gateway.errorRate (0).
+     */
+    public static SimulatedGateway fromSystemProperties() {
+        long latency = Long.getLong("cts.gateway.latencyMillis", 30);
+        long jitter = Math.min(latency, Long.getLong("cts.gateway.jitterMillis", 10));
+        double decline = Double.parseDouble(System.getProperty("cts.gateway.declineRate", "0"));
+        double error = Double.parseDouble(System.getProperty("cts.gateway.errorRate", "0"));
+        return new SimulatedGateway(latency, jitter, decline, error, System.nanoTime());
+    }
+
+    // =========================================================================
+    //  GATEWAY CALLS
+    // =========================================================================
+
+    @Override
+    public CompletableFuture<GatewayResult> authorize(String cardNumber, Money amount) {
+        return respond(() -> {
+            String digits = cardNumber.replaceAll("[ -]", "");
+            if (digits.endsWith(DECLINED_CARD_SUFFIX)) {
+                return GatewayResult.declined("card declined");
+            }
+            if (chance(declineRate)) {
+                return GatewayResult.declined("insufficient funds");
+            }
+            String ref = newRef("auth_");
+            authorized.put(ref, amount.getMinorUnits());
+            return GatewayResult.approved(ref);
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<GatewayResult>> capture(List<Capture> captures) {
+        List<Capture> batch = new ArrayList<>(captures);
+        return respond(() -> {
+            List<GatewayResult> results = new ArrayList<>(batch.size());
+            for (Capture c : batch) {
+                results.add(captureOne(c));
+            }
+            return results;
+        });
+    }
+
+    private GatewayResult captureOne(Capture c) {
+        if (chance(errorRate)) {
+            return GatewayResult.declined("processor unavailable"); // this item only; retry later
+        }
+        Long open = authorized.remove(c.authRef);
+        if (open == null) {
+            return GatewayResult.declined("no open authorization " + c.authRef);
+        }
+        if (c.amount.getMinorUnits() > open) {
+            authorized.put(c.authRef, open);
+            return GatewayResult.declined("capture exceeds authorization");
+        }
+        String ref = newRef("ch_");
+        captured.put(ref, c.amount.getMinorUnits());
+        return GatewayResult.approved(ref);
+    }
+
+    @Override
+    public CompletableFuture<GatewayResult> voidAuthorization(String authRef) {
+        return respond(() -> (authorized.remove(authRef) != null)
+                ? GatewayResult.approved(authRef)
+                : GatewayResult.declined("no open authorization " + authRef));
+    }
+
+    @Override
+    public CompletableFuture<GatewayResult> refund(String gatewayRef, Money amount) {
+        return respond(() -> {
+            long want = amount.getMinorUnits();
+            // An uncaptured authorization is refunded by shrinking it
+            Map<String, Long> book = captured.containsKey(gatewayRef) ? captured : authorized;
+            Long left = book.get(gatewayRef);
+            if (left == null) {
+                return GatewayResult.approved(newRef("re_"));
+            }
+            if (want > left || !book.replace(gatewayRef, left, left - want)) {
+                return GatewayResult.declined("refund exceeds amount left");
+            }
+            return GatewayResult.approved(newRef("re_"));
+        });
+    }
+
+    /** Stops the timer thread; calls made afterwards never complete. */
+    @Override
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    // =========================================================================
+    //  SIMULATION
+    // =========================================================================
+
+    // Answers after one simulated round trip, or fails it with errorRate
+    private <T> CompletableFuture<T> respond(Supplier<T> answer) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        long delay;
+        boolean fail;
+        synchronized (random) {
+            delay = latencyMillis + (jitterMillis > 0 ? random.nextLong(-jitterMillis, jitterMillis + 1) : 0);
+            fail = errorRate > 0 && random.nextDouble() < errorRate;
+        }
+        timer.schedule(() -> {
+            if (fail) {
+                future.completeExceptionally(new GatewayException("gateway timed out"));
+                return;
+            }
+            try {
+                future.complete(answer.get());
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+        return future;
+    }
+
+    private boolean chance(double rate) {
+        if (rate <= 0) return false;
+        synchronized (random) {
+            return random.nextDouble() < rate;
+        }
+    }
+
+    private String newRef(String prefix) {
+        return prefix + tag + "_" + nextRef.getAndIncrement();
+    }
+}
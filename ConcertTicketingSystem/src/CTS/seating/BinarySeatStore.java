@@ -0,0 +1,234 @@
+package CTS.seating;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+import CTS.enums.SeatStatus;
+
+/**
+ * Fixed-width binary seat map, memory-mapped read/write.
+ *
+ * Layout (little-endian):
+ *   header  32 bytes: magic "CTSS", version, record size, eventId,
+ *                     seat count, currency (8 ASCII bytes), reserved
+ *   record  24 bytes per seat, slot i at HEADER + i * RECORD:
+ *                     seatId, sectionId, seatNumber, price in minor units,
+ *                     row label (4 ASCII bytes), status byte, reserved
+ *
+ * Only the status byte changes after the file is created. A Seating
+ * loaded from the store writes each seat's state change straight through
+ * to that byte, so a sale is a single in-place write and saving has
+ * nothing left to do; there is no rewrite and no scan. Like the CSV path,
+ * writes reach the OS page cache and are flushed by the OS; call force()
+ * for an explicit sync.
+ */
+public class BinarySeatStore {
+
+    private static final int MAGIC = 0x53535443; // "CTSS" little-endian
+    private static final short VERSION = 1;
+
+    static final int HEADER = 32;
+    static final int RECORD = 24;
+
+    private static final int CURRENCY_BYTES = 8;
+    private static final int ROW_BYTES = 4;
+
+    // Field offsets within a record
+    private static final int SEAT_ID = 0;
+    private static final int SECTION_ID = 4;
+    private static final int SEAT_NUMBER = 8;
+    private static final int PRICE_MINOR = 12;
+    private static final int ROW_LABEL = 16;
+    private static final int STATUS = 20;
+
+    private static final SeatStatus[] STATUSES = SeatStatus.values();
+
+    private final Path path;
+    private final MappedByteBuffer map;
+    private final int eventId;
+    private final int seatCount;
+    private final String currency;
+    private Seating loaded; // the one Seating over this mapping, once built
+
+    private BinarySeatStore(Path path, MappedByteBuffer map) {
+        this.path = path;
+        this.map = map;
+        map.order(ByteOrder.LITTLE_ENDIAN);
+        if (map.capacity() < HEADER || map.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException(path + " is not a binary seat file");
+        }
+        if (map.getShort(4) != VERSION || map.getShort(6) != RECORD) {
+            throw new IllegalArgumentException(path + ": unsupported seat file version");
+        }
+        this.eventId = map.getInt(8);
+        this.seatCount = map.getInt(12);
+        if ((long) HEADER + (long) seatCount * RECORD != map.capacity()) {
+            throw new IllegalArgumentException(path + ": truncated seat file");
+        }
+        byte[] cur = new byte[CURRENCY_BYTES];
+        map.get(16, cur);
+        this.currency = ascii(cur, 0, CURRENCY_BYTES);
+    }
+
+    // =========================================================================
+    //  CREATE / OPEN
+    // =========================================================================
+
+    /**
+     * Writes a new store (replacing any existing file) holding seats in
+     * order, with their current status, and returns it mapped.
+     * All seats must share one currency.
+     */
+    public static BinarySeatStore create(Path path, int eventId, List<Seat> seats) throws IOException {
+        String currency = seats.isEmpty() ? "" : seats.get(0).getCurrentPrice().getCurrency();
+        byte[] cur = currency.getBytes(StandardCharsets.US_ASCII);
+        if (cur.length > CURRENCY_BYTES) {
+            throw new IllegalArgumentException("Currency code too long: " + currency);
+        }
+
+        long size = (long) HEADER + (long) seats.size() * RECORD;
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            map.order(ByteOrder.LITTLE_ENDIAN);
+            map.putInt(0, MAGIC);
+            map.putShort(4, VERSION);
+            map.putShort(6, (short) RECORD);
+            map.putInt(8, eventId);
+            map.putInt(12, seats.size());
+            map.put(16, cur);
+
+            for (int i = 0; i < seats.size(); i++) {
+                Seat s = seats.get(i);
+                if (!currency.equals(s.getCurrentPrice().getCurrency())) {
+                    throw new IllegalArgumentException("Seat " + s.getSeatId() + " is priced in "
+                            + s.getCurrentPrice().getCurrency() + ", expected " + currency);
+                }
+                byte[] row = s.getRowLabel().getBytes(StandardCharsets.US_ASCII);
+                if (row.length > ROW_BYTES) {
+                    throw new IllegalArgumentException("Row label too long: " + s.getRowLabel());
+                }
+                int at = HEADER + i * RECORD;
+                map.putInt(at + SEAT_ID, s.getSeatId());
+                map.putInt(at + SECTION_ID, s.getSectionId());
+                map.putInt(at + SEAT_NUMBER, s.getSeatNumber());
+                map.putInt(at + PRICE_MINOR, Math.toIntExact(s.getCurrentPrice().getMinorUnits()));
+                map.put(at + ROW_LABEL, row);
+                map.put(at + STATUS, (byte) s.getStatus().ordinal());
+            }
+            map.force();
+            return new BinarySeatStore(path, map);
+        }
+    }
+
+    /** Maps an existing store. The mapping stays valid after the channel closes. */
+    public static BinarySeatStore open(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return new BinarySeatStore(path, ch.map(FileChannel.MapMode.READ_WRITE, 0, ch.size()));
+        }
+    }
+
+    /** Converts a seats_event_<id>.csv file into a binary store at binFile. */
+    public static BinarySeatStore convertCsv(Path csvFile, Path binFile, int eventId) throws IOException {
+        return create(binFile, eventId, SeatingManager.readCsv(csvFile, eventId));
+    }
+
+    // =========================================================================
+    //  ACCESS
+    // =========================================================================
+
+    public Path getPath() {
+        return path;
+    }
+
+    public int getEventId() {
+        return eventId;
+    }
+
+    public int size() {
+        return seatCount;
+    }
+
+    public SeatStatus getStatus(int slot) {
+        return STATUSES[map.get(offset(slot) + STATUS)];
+    }
+
+    /** Records a status change: one byte written in place. */
+    public void setStatus(int slot, SeatStatus status) {
+        map.put(offset(slot) + STATUS, (byte) status.ordinal());
+    }
+
+    /**
+     * The Seating over this file, bound to this store: each seat state
+     * change is written through to its status byte. Built on the first
+     * call; later calls return the same Seating, so every caller sells
+     * against one inventory.
+     */
+    public synchronized Seating load() {
+        if (loaded != null) {
+            return loaded;
+        }
+        Seating seating = new Seating(eventId, seatCount, currency);
+        byte[] row = new byte[ROW_BYTES];
+        byte[] lastRow = new byte[ROW_BYTES];
+        int rowIndex = 0;
+
+        for (int i = 0; i < seatCount; i++) {
+            int at = HEADER + i * RECORD;
+            // Consecutive seats usually share a row; only decode label changes
+            map.get(at + ROW_LABEL, row);
+            if (i == 0 || !Arrays.equals(row, lastRow)) {
+                rowIndex = seating.rowIndex(ascii(row, 0, ROW_BYTES));
+                System.arraycopy(row, 0, lastRow, 0, ROW_BYTES);
+            }
+            seating.set(i,
+                    map.getInt(at + SEAT_ID),
+                    map.getInt(at + SECTION_ID),
+                    rowIndex,
+                    map.getInt(at + PRICE_MINOR),
+                    SeatingManager.restored(STATUSES[map.get(at + STATUS)]));
+        }
+
+        SeatInventory inventory = seating.getInventory();
+        inventory.watch(slot -> writeThrough(inventory, slot));
+        seating.attachStore(this);
+        loaded = seating;
+        return seating;
+    }
+
+    // Runs after every change to a slot. The state is re-read under the
+    // lock, so however changes race, the last write carries the latest state.
+    private synchronized void writeThrough(SeatInventory inventory, int slot) {
+        if (slot < seatCount) {
+            map.put(HEADER + slot * RECORD + STATUS, (byte) inventory.get(slot).ordinal());
+        }
+    }
+
+    /** Flushes written status bytes to disk. */
+    public void force() {
+        map.force();
+    }
+
+    private int offset(int slot) {
+        if (slot < 0 || slot >= seatCount) {
+            throw new IndexOutOfBoundsException("Seat slot " + slot + " of " + seatCount);
+        }
+        return HEADER + slot * RECORD;
+    }
+
+    // Zero-padded ASCII field to String
+    private static String ascii(byte[] b, int from, int max) {
+        int len = 0;
+        while (len < max && b[from + len] != 0) {
+            len++;
+        }
+        return new String(b, from, len, StandardCharsets.US_ASCII);
+    }
+}
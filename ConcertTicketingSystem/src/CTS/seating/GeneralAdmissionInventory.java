@@ -0,0 +1,168 @@
+package CTS.seating;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe ticket counter for general-admission (unnumbered) capacity.
+ *
+ * reserve(n) takes n units at once or none, and never oversells. Units
+ * start in a central pool. While plenty are left, each thread sells from
+ * its own stripe: a small block of units moved out of the pool, so
+ * concurrent buyers CAS different cache lines instead of one hot counter.
+ *
+ * When the pool can no longer cover a request, the inventory collapses for
+ * good: every stripe is closed and its units go back to the pool, and from
+ * then on reserve() is a single CAS on the pool. Units are never in transit
+ * at that point, so "sold out" is only ever reported when it is true.
+ */
+public class GeneralAdmissionInventory {
+
+    private static final int MAX_CHUNK = 64;
+    private static final int PAD = 16;          // 16 longs = 128 bytes between stripes
+    private static final long CLOSED = Long.MIN_VALUE;
+
+    private final int stripes;
+    private final AtomicLongArray stripeUnits;  // stripe i at index i * PAD
+    private final AtomicLong pool;
+
+    // Refills between taking from the pool and depositing into a stripe
+    private final AtomicInteger refilling = new AtomicInteger();
+    private volatile boolean closing;
+    private volatile boolean centralOnly;
+
+    private volatile int capacity;
+
+    /** Inventory of capacity units of which sold are already gone. */
+    public GeneralAdmissionInventory(int capacity, int sold) {
+        if (sold < 0 || sold > capacity) {
+            throw new IllegalArgumentException("sold must be between 0 and capacity");
+        }
+        int n = 1;
+        while (n < Math.min(64, Runtime.getRuntime().availableProcessors() * 2)) n <<= 1;
+        this.stripes = n;
+        this.stripeUnits = new AtomicLongArray(n * PAD);
+        this.pool = new AtomicLong(capacity - sold);
+        this.capacity = capacity;
+    }
+
+    // =========================================================================
+    //  PUBLIC API
+    // =========================================================================
+
+    /** Takes n units, or none if fewer than n are left. */
+    public boolean reserve(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n must be positive");
+        }
+        if (!centralOnly) {
+            int i = stripe();
+            while (true) {
+                long v = stripeUnits.get(i);
+                if (v == CLOSED) break;
+                if (v < n) {
+                    if (refill(i, n)) return true;
+                    break;
+                }
+                if (stripeUnits.compareAndSet(i, v, v - n)) return true;
+            }
+            collapse();
+        }
+        while (true) {
+            long p = pool.get();
+            if (p < n) return false;
+            if (pool.compareAndSet(p, p - n)) return true;
+        }
+    }
+
+    /** Gives back n units that an earlier reserve() took. */
+    public void release(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n must be positive");
+        }
+        if (!centralOnly) {
+            int i = stripe();
+            while (true) {
+                long v = stripeUnits.get(i);
+                if (v == CLOSED) break;
+                if (stripeUnits.compareAndSet(i, v, v + n)) return;
+            }
+        }
+        pool.addAndGet(n);
+    }
+
+    /** Units left. Exact once collapsed; a close snapshot before that. */
+    public int available() {
+        long total = pool.get();
+        if (!centralOnly) {
+            for (int s = 0; s < stripes; s++) {
+                long v = stripeUnits.get(s * PAD);
+                if (v > 0) total += v;
+            }
+        }
+        return (int) Math.max(0, total);
+    }
+
+    public int sold() {
+        return capacity - available();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /** Changes capacity; shrinking below what is sold leaves nothing to reserve. */
+    public synchronized void resize(int newCapacity) {
+        collapse();
+        pool.addAndGet(newCapacity - capacity);
+        capacity = newCapacity;
+    }
+
+    // =========================================================================
+    //  STRIPES
+    // =========================================================================
+
+    private int stripe() {
+        long id = Thread.currentThread().threadId();
+        int h = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return ((h >>> 16) & (stripes - 1)) * PAD;
+    }
+
+    // Moves a block of at least n units from the pool into stripe i and
+    // keeps n of them. False if the pool is too low or a collapse started.
+    private boolean refill(int i, int n) {
+        refilling.incrementAndGet();
+        try {
+            if (closing) return false;
+            while (true) {
+                long p = pool.get();
+                if (p < n) return false;
+                // Smaller blocks as the pool drains, so stripes hoard little
+                long chunk = Math.max(n, Math.min(MAX_CHUNK, p / (stripes * 2L)));
+                if (pool.compareAndSet(p, p - chunk)) {
+                    if (chunk > n) {
+                        stripeUnits.getAndAdd(i, chunk - n); // cannot be CLOSED while refilling
+                    }
+                    return true;
+                }
+            }
+        } finally {
+            refilling.decrementAndGet();
+        }
+    }
+
+    // Closes every stripe and returns its units to the pool, once
+    private synchronized void collapse() {
+        if (centralOnly) return;
+        closing = true;
+        while (refilling.get() != 0) {
+            Thread.onSpinWait();
+        }
+        for (int s = 0; s < stripes; s++) {
+            long v = stripeUnits.getAndSet(s * PAD, CLOSED);
+            pool.addAndGet(v);
+        }
+        centralOnly = true;
+    }
+}
@@ -1,19 +1,26 @@
 package CTS.seating;
 
 import CTS.enums.SeatStatus;
-import CTS.misc.Money; 
+import CTS.misc.Money;
 
 public class Seat {
 
     // --- Attributes ---
-    private final int seatId; // Unique ID
-    private final String rowLabel;
-    private final int seatNumber;
-    private SeatStatus status;
+    // A standalone seat keeps its own values. Once it belongs to a Seating
+    // (or was created by one) it is a view and reads the Seating's arrays.
+    private Seating owner;
+    private int seatId; // Unique ID
+    private String rowLabel;
+    private int seatNumber;
     private Money currentPrice;
-    
+
+    // Status lives in a SeatInventory slot so transitions are atomic.
+    // A standalone seat owns a one-slot inventory until Seating binds it.
+    private SeatInventory inventory;
+    private int slot;
+
     // Relationship IDs
-    private final int sectionId;
+    private int sectionId;
     private final int eventId;
 
     /**
@@ -26,65 +33,92 @@ public class Seat {
         this.rowLabel = rowLabel;
         this.seatNumber = seatNumber;
         this.currentPrice = price;
-        this.status = SeatStatus.AVAILABLE; // Initial state
+        this.inventory = new SeatInventory(1); // Initial state: AVAILABLE
+        this.slot = 0;
+    }
+
+    // View of one slot of a Seating (created by Seating)
+    Seat(Seating owner, int slot) {
+        this.eventId = owner.getEventId();
+        bindView(owner, slot);
+    }
+
+    // Turns this seat into a view of a Seating that already holds its values
+    void bind(Seating shared, int sharedSlot) {
+        bindView(shared, sharedSlot);
+        this.rowLabel = null;
+        this.currentPrice = null;
     }
 
-    
+    private void bindView(Seating shared, int sharedSlot) {
+        this.owner = shared;
+        this.inventory = shared.getInventory();
+        this.slot = sharedSlot;
+    }
+
+    // Sets the loaded state unconditionally (used by the seat file loaders)
+    void restoreStatus(SeatStatus status) {
+        inventory.set(slot, status);
+    }
+
+
     // Marks the seat as AVAILABLE.
     public boolean markAvailable() {
-        if (this.status != SeatStatus.AVAILABLE) {
-            this.status = SeatStatus.AVAILABLE;
-            return true;
-        }
-        return false;
+        return inventory.release(slot);
     }
 
     // Marks the seat as HELD (AVAILABLE -> HELD).
     public boolean markHeld() {
-        if (this.status == SeatStatus.AVAILABLE) { // Can only hold if available
-            this.status = SeatStatus.HELD;
-            return true;
-        }
-        return false;
+        return inventory.transition(slot, SeatStatus.AVAILABLE, SeatStatus.HELD);
     }
 
     // Marks the seat as SOLD (HELD -> SOLD).
     public boolean markSold() {
-        if (this.status == SeatStatus.HELD) { // Can only sell if held
-            this.status = SeatStatus.SOLD;
-            return true;
-        }
-        return false;
+        return inventory.transition(slot, SeatStatus.HELD, SeatStatus.SOLD);
     }
 
     // Marks the seat as ADMIN_HELD (reserved by venue).
     public boolean markAdminHeld() {
-        if (this.status == SeatStatus.AVAILABLE) {
-            this.status = SeatStatus.ADMIN_HELD;
-            return true;
-        }
-        return false;
+        return inventory.transition(slot, SeatStatus.AVAILABLE, SeatStatus.ADMIN_HELD);
     }
 
 
     // --- Getters & Setters ---
 
-    public int getSeatId() { return seatId; }
-    public String getRowLabel() { return rowLabel; }
-    public int getSeatNumber() { return seatNumber; }
-    public SeatStatus getStatus() { return status; }
-    public Money getCurrentPrice() { return currentPrice; }
-    public int getSectionId() { return sectionId; }
+    public int getSeatId() { return owner != null ? owner.seatId(slot) : seatId; }
+    public String getRowLabel() { return owner != null ? owner.rowLabel(slot) : rowLabel; }
+    public int getSeatNumber() { return owner != null ? slot + 1 : seatNumber; }
+    public SeatStatus getStatus() { return inventory.get(slot); }
+    public Money getCurrentPrice() { return owner != null ? owner.price(slot) : currentPrice; }
+    public int getSectionId() { return owner != null ? owner.sectionId(slot) : sectionId; }
     public int getEventId() { return eventId; }
 
     // Allows admin to change price (UC-12)
-    public void setCurrentPrice(Money newPrice) { 
-        this.currentPrice = newPrice; 
+    public void setCurrentPrice(Money newPrice) {
+        if (owner != null) {
+            owner.setPrice(slot, newPrice);
+        } else {
+            this.currentPrice = newPrice;
+        }
+    }
+
+    // Two views of the same slot are the same seat
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (owner == null || !(o instanceof Seat)) return false;
+        Seat other = (Seat) o;
+        return other.owner == owner && other.slot == slot;
+    }
+
+    @Override
+    public int hashCode() {
+        return owner != null ? System.identityHashCode(owner) * 31 + slot : System.identityHashCode(this);
     }
 
     @Override
     public String toString() {
-        return String.format("%s%d (Sec: %d) - %s - Price: %s", 
-            rowLabel, seatNumber, sectionId, status.toString(), currentPrice.toString());
+        return String.format("%s%d (Sec: %d) - %s - Price: %s",
+            getRowLabel(), getSeatNumber(), getSectionId(), getStatus().toString(), getCurrentPrice().toString());
     }
-}
\ No newline at end of file
+}
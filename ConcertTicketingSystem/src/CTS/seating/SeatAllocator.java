@@ -0,0 +1,288 @@
+package CTS.seating;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongBinaryOperator;
+
+import CTS.enums.SeatStatus;
+import CTS.metrics.SeatTransitionEvent;
+import CTS.misc.IntIndex;
+import CTS.misc.Money;
+
+/**
+ * Finds and holds the best contiguous block of seats for a party.
+ *
+ * A row is a run of consecutive slots with the same section and row label,
+ * which is how SeatFactory and the seat files lay seats out. The allocator
+ * keeps a free-seat bitmap, the longest free run of every row, and a max
+ * segment tree over those runs, so rows that cannot fit the party are
+ * skipped a subtree at a time instead of seat by seat.
+ *
+ * "Best" means the first row in seat-map order (front rows first) that has
+ * room, and within it the block closest to the middle of the row.
+ *
+ * SeatInventory stays the source of truth. It tells the allocator which
+ * slots changed through a lock-free dirty bitmap, and the allocator re-reads
+ * just those before each search. The hold itself is a transitionAll() CAS,
+ * so a seat taken by a concurrent click or hold can never be handed out twice.
+ */
+public class SeatAllocator {
+
+    /** sectionId meaning "any section". */
+    public static final int ANY_SECTION = 0;
+
+    private static final LongBinaryOperator OR = (a, b) -> a | b;
+
+    private final Seating seating;
+    private final SeatInventory inventory;
+
+    private final int[] rowStart;     // row r is slots [rowStart[r], rowStart[r + 1])
+    private final int[] rowSection;
+    private final IntIndex<int[]> sectionRows = new IntIndex<>(); // sectionId -> {firstRow, lastRow + 1}
+
+    // Guarded by this
+    private final long[] free;        // bit per slot: AVAILABLE as of the last drain
+    private final int[] longest;      // segment tree leaves start at leaves; node = max of children
+    private final int leaves;
+
+    // Written by any thread that changes a seat, drained under the lock.
+    // A summary bit per dirty word keeps a drain from scanning every word.
+    private final AtomicLongArray dirty;
+    private final AtomicLongArray dirtyWords;
+
+    SeatAllocator(Seating seating) {
+        this.seating = seating;
+        this.inventory = seating.getInventory();
+        int size = seating.size();
+
+        List<int[]> rows = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || seating.sectionId(i) != seating.sectionId(i - 1) || seating.rowKey(i) != seating.rowKey(i - 1)) {
+                rows.add(new int[] { i, seating.sectionId(i) });
+            }
+        }
+        int rowCount = rows.size();
+        this.rowStart = new int[rowCount + 1];
+        this.rowSection = new int[rowCount];
+        for (int r = 0; r < rowCount; r++) {
+            rowStart[r] = rows.get(r)[0];
+            rowSection[r] = rows.get(r)[1];
+            int[] range = sectionRows.get(rowSection[r]);
+            if (range == null) {
+                sectionRows.put(rowSection[r], new int[] { r, r + 1 });
+            } else {
+                range[1] = r + 1;
+            }
+        }
+        rowStart[rowCount] = size;
+
+        int n = 1;
+        while (n < Math.max(rowCount, 1)) n <<= 1;
+        this.leaves = n;
+        this.longest = new int[2 * n];
+        this.free = new long[(size + 63) >>> 6];
+        this.dirty = new AtomicLongArray(free.length);
+        this.dirtyWords = new AtomicLongArray((free.length + 63) >>> 6);
+
+        // Watch first so nothing that changes during the initial read is lost
+        inventory.watch(this::markDirty);
+        for (int i = 0; i < size; i++) {
+            if (inventory.get(i) == SeatStatus.AVAILABLE) {
+                free[i >>> 6] |= 1L << i;
+            }
+        }
+        for (int r = 0; r < rowCount; r++) {
+            longest[n + r] = longestRun(r);
+        }
+        for (int i = n - 1; i > 0; i--) {
+            longest[i] = Math.max(longest[2 * i], longest[2 * i + 1]);
+        }
+    }
+
+    // =========================================================================
+    //  PUBLIC API
+    // =========================================================================
+
+    /** Holds the best block of partySize seats anywhere. See hold(int, int, Money). */
+    public List<Integer> hold(int partySize) {
+        return hold(partySize, ANY_SECTION, null);
+    }
+
+    /**
+     * Holds (AVAILABLE -> HELD) the best block of partySize adjacent seats in
+     * one row, optionally limited to a section and to seats priced at most
+     * maxPrice each. Returns the seat numbers, or null if no row has room.
+     */
+    public synchronized List<Integer> hold(int partySize, int sectionId, Money maxPrice) {
+        if (partySize <= 0) {
+            throw new IllegalArgumentException("partySize must be positive");
+        }
+        SeatTransitionEvent jfr = SeatTransitionEvent.begin(seating.getEventId(),
+                SeatStatus.AVAILABLE, SeatStatus.HELD, partySize);
+        List<Integer> seatNumbers = holdBlock(partySize, sectionId, maxPrice);
+        jfr.finish(seatNumbers != null);
+        return seatNumbers;
+    }
+
+    private List<Integer> holdBlock(int partySize, int sectionId, Money maxPrice) {
+        long cap = (maxPrice != null) ? seating.toMinor(maxPrice) : Long.MAX_VALUE;
+        int lo = 0;
+        int hi = rowSection.length;
+        if (sectionId != ANY_SECTION) {
+            int[] range = sectionRows.get(sectionId);
+            if (range == null) return null;
+            lo = range[0];
+            hi = range[1];
+        }
+
+        while (true) {
+            drain();
+            int start = -1;
+            int row = lo;
+            while (row < hi && start < 0) {
+                row = firstRow(partySize, row, hi);
+                if (row < 0) return null;
+                if (sectionId == ANY_SECTION || rowSection[row] == sectionId) {
+                    start = bestBlock(row, partySize, cap);
+                }
+                if (start < 0) row++;
+            }
+            if (start < 0) return null;
+
+            int[] slots = new int[partySize];
+            for (int i = 0; i < partySize; i++) {
+                slots[i] = start + i;
+            }
+            if (inventory.transitionAll(slots, SeatStatus.AVAILABLE, SeatStatus.HELD)) {
+                List<Integer> seatNumbers = new ArrayList<>(partySize);
+                for (int slot : slots) {
+                    seatNumbers.add(slot + 1);
+                }
+                return seatNumbers;
+            }
+            // Lost a race for one of these seats: re-read the row so the
+            // next pass cannot pick the same block
+            resync(row);
+        }
+    }
+
+    // =========================================================================
+    //  ROWS
+    // =========================================================================
+
+    // Leftmost row in [from, to) whose longest free run fits n, or -1
+    private int firstRow(int n, int from, int to) {
+        return firstRow(1, 0, leaves, n, from, to);
+    }
+
+    private int firstRow(int node, int nodeLo, int nodeHi, int n, int from, int to) {
+        if (nodeHi <= from || nodeLo >= to || longest[node] < n) return -1;
+        if (node >= leaves) return nodeLo;
+        int mid = (nodeLo + nodeHi) >>> 1;
+        int r = firstRow(2 * node, nodeLo, mid, n, from, to);
+        return (r >= 0) ? r : firstRow(2 * node + 1, mid, nodeHi, n, from, to);
+    }
+
+    // Start slot of the most central block of n free seats priced <= cap, or -1
+    private int bestBlock(int row, int n, long cap) {
+        int s = rowStart[row];
+        int e = rowStart[row + 1];
+        int len = e - s;
+        int best = -1;
+        int bestDistance = Integer.MAX_VALUE;
+        int run = 0;
+        for (int i = s; i < e; i++) {
+            run = (isFree(i) && seating.priceMinor(i) <= cap) ? run + 1 : 0;
+            if (run >= n) {
+                int offset = i - n + 1 - s;
+                int distance = Math.abs(2 * offset + n - len); // twice the distance between centers
+                if (distance < bestDistance) {
+                    best = i - n + 1;
+                    bestDistance = distance;
+                }
+            }
+        }
+        return best;
+    }
+
+    private int longestRun(int row) {
+        int longestRun = 0;
+        int run = 0;
+        for (int i = rowStart[row]; i < rowStart[row + 1]; i++) {
+            run = isFree(i) ? run + 1 : 0;
+            longestRun = Math.max(longestRun, run);
+        }
+        return longestRun;
+    }
+
+    private boolean isFree(int slot) {
+        return (free[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    private void updateRow(int row) {
+        int node = leaves + row;
+        longest[node] = longestRun(row);
+        for (node >>>= 1; node > 0; node >>>= 1) {
+            longest[node] = Math.max(longest[2 * node], longest[2 * node + 1]);
+        }
+    }
+
+    private int rowOf(int slot) {
+        int r = Arrays.binarySearch(rowStart, slot);
+        return (r >= 0) ? r : -r - 2;
+    }
+
+    // =========================================================================
+    //  CHANGE TRACKING
+    // =========================================================================
+
+    // Slot bit first, then its summary bit, so a drain that clears the
+    // summary before reading the word can never lose a change
+    private void markDirty(int slot) {
+        int w = slot >>> 6;
+        dirty.getAndAccumulate(w, 1L << slot, OR);
+        dirtyWords.getAndAccumulate(w >>> 6, 1L << w, OR);
+    }
+
+    // Re-reads every slot that changed since the last drain
+    private void drain() {
+        int lastRow = -1;
+        for (int sw = 0; sw < dirtyWords.length(); sw++) {
+            if (dirtyWords.get(sw) == 0) continue;
+            long words = dirtyWords.getAndSet(sw, 0);
+            while (words != 0) {
+                int w = (sw << 6) + Long.numberOfTrailingZeros(words);
+                words &= words - 1;
+                long bits = dirty.getAndSet(w, 0);
+                while (bits != 0) {
+                    int slot = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    read(slot);
+                    int row = rowOf(slot);
+                    if (row != lastRow) {
+                        if (lastRow >= 0) updateRow(lastRow);
+                        lastRow = row;
+                    }
+                }
+            }
+        }
+        if (lastRow >= 0) updateRow(lastRow);
+    }
+
+    private void resync(int row) {
+        for (int i = rowStart[row]; i < rowStart[row + 1]; i++) {
+            read(i);
+        }
+        updateRow(row);
+    }
+
+    private void read(int slot) {
+        if (inventory.get(slot) == SeatStatus.AVAILABLE) {
+            free[slot >>> 6] |= 1L << slot;
+        } else {
+            free[slot >>> 6] &= ~(1L << slot);
+        }
+    }
+}
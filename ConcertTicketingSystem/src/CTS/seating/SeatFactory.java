@@ -1,5 +1,6 @@
 package CTS.seating;
 
+import CTS.enums.SeatStatus;
 import CTS.misc.Money;
 import CTS.event.Event;
 import java.util.ArrayList;
@@ -39,7 +40,7 @@ public class SeatFactory {
                     sectionId,           // sectionId
                     rowLabel,            // rowLabel (A, B, C…)
                     seatNumber,          // seatNumber (1..capacity)
-                    new Money(price.getAmount(), price.getCurrency()) // copy price
+                    price                // Money is immutable, so seats can share it
             );
 
             seats.add(seat);
@@ -48,8 +49,25 @@ public class SeatFactory {
         return seats;
     }
 
+    /**
+     * Same layout as generate(), built straight into a compact Seating
+     * without creating a Seat per seat.
+     */
+    public static Seating generateSeating(Event event) {
+        int capacity = event.getCapacity();
+        Money price = event.getBasePrice();
+        Seating seating = new Seating(event.getEventId(), capacity, price.getCurrency());
+
+        int minor = seating.toMinor(price);
+        int seatsPerRow = 10;
+        for (int i = 0; i < capacity; i++) {
+            seating.set(i, i + 1, 1, i / seatsPerRow, minor, SeatStatus.AVAILABLE);
+        }
+        return seating;
+    }
+
     /** Converts 0 -> A, 1 -> B, ... 25 -> Z, 26 -> AA, 27 -> AB, etc. */
-    private static String getRowLabel(int index) {
+    static String getRowLabel(int index) {
         StringBuilder sb = new StringBuilder();
         while (index >= 0) {
             sb.insert(0, (char) ('A' + index % 26));
@@ -57,4 +75,16 @@ public class SeatFactory {
         }
         return sb.toString();
     }
+
+    /** Inverse of getRowLabel; -1 if label is not in that form. */
+    static int rowIndex(String label) {
+        if (label == null || label.isEmpty() || label.length() > 6) return -1;
+        int index = 0;
+        for (int i = 0; i < label.length(); i++) {
+            char c = label.charAt(i);
+            if (c < 'A' || c > 'Z') return -1;
+            index = index * 26 + (c - 'A' + 1);
+        }
+        return index - 1;
+    }
 }
@@ -0,0 +1,123 @@
+package CTS.seating;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+
+import CTS.enums.SeatStatus;
+
+/**
+ * Thread-safe seat state table for one event.
+ *
+ * Each slot holds a SeatStatus ordinal and every state change is a
+ * compare-and-set, so two buyers racing for the same seat can never both
+ * win. Multi-seat operations are all-or-nothing: if any seat fails its CAS,
+ * the seats already flipped are rolled back.
+ */
+public class SeatInventory {
+
+    private static final SeatStatus[] STATUSES = SeatStatus.values();
+
+    private final AtomicIntegerArray states;
+
+    // Told about every slot that changed state (SeatAllocator, BinarySeatStore)
+    private volatile IntConsumer watcher;
+
+    /** Creates an inventory of size slots, all AVAILABLE. */
+    public SeatInventory(int size) {
+        this.states = new AtomicIntegerArray(size);
+        if (SeatStatus.AVAILABLE.ordinal() != 0) {
+            for (int i = 0; i < size; i++) {
+                states.set(i, SeatStatus.AVAILABLE.ordinal());
+            }
+        }
+    }
+
+    public int size() {
+        return states.length();
+    }
+
+    public SeatStatus get(int slot) {
+        return STATUSES[states.get(slot)];
+    }
+
+    // Unconditional write, only used while loading a layout
+    void set(int slot, SeatStatus status) {
+        states.set(slot, status.ordinal());
+        changed(slot);
+    }
+
+    // Adds a watcher; each is called after the change, from the changing thread
+    synchronized void watch(IntConsumer watcher) {
+        IntConsumer current = this.watcher;
+        this.watcher = (current == null) ? watcher : current.andThen(watcher);
+    }
+
+    private void changed(int slot) {
+        IntConsumer w = watcher;
+        if (w != null) w.accept(slot);
+    }
+
+    /** Atomically moves slot from -> to. Returns false if it was not in from. */
+    public boolean transition(int slot, SeatStatus from, SeatStatus to) {
+        if (!states.compareAndSet(slot, from.ordinal(), to.ordinal())) return false;
+        changed(slot);
+        return true;
+    }
+
+    /** Moves slot to AVAILABLE from whatever it is. Returns false if already AVAILABLE. */
+    public boolean release(int slot) {
+        int available = SeatStatus.AVAILABLE.ordinal();
+        while (true) {
+            int cur = states.get(slot);
+            if (cur == available) return false;
+            if (states.compareAndSet(slot, cur, available)) {
+                changed(slot);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Moves every slot from -> to, or none of them.
+     *
+     * Slots are processed in ascending order so competing multi-seat
+     * requests meet on the same seat first instead of undoing each other.
+     */
+    public boolean transitionAll(int[] slots, SeatStatus from, SeatStatus to) {
+        int[] ordered = slots.clone();
+        Arrays.sort(ordered);
+
+        int f = from.ordinal();
+        int t = to.ordinal();
+        for (int i = 0; i < ordered.length; i++) {
+            if (i > 0 && ordered[i] == ordered[i - 1]) continue; // duplicate seat
+            if (!states.compareAndSet(ordered[i], f, t)) {
+                // Roll back what we already took
+                for (int j = i - 1; j >= 0; j--) {
+                    if (j > 0 && ordered[j] == ordered[j - 1]) continue;
+                    if (states.compareAndSet(ordered[j], t, f)) {
+                        changed(ordered[j]); // a watcher may have seen it taken
+                    }
+                }
+                return false;
+            }
+        }
+        if (watcher != null) {
+            for (int i = 0; i < ordered.length; i++) {
+                changed(ordered[i]);
+            }
+        }
+        return true;
+    }
+
+    /** Number of slots currently in the given status. */
+    public int count(SeatStatus status) {
+        int n = 0;
+        int s = status.ordinal();
+        for (int i = 0; i < states.length(); i++) {
+            if (states.get(i) == s) n++;
+        }
+        return n;
+    }
+}
@@ -1,39 +1,257 @@
 package CTS.seating;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.List;
-import CTS.enums.SeatStatus;   
+import CTS.enums.SeatStatus;
+import CTS.metrics.SeatTransitionEvent;
+import CTS.misc.Money;
 
+/**
+ * Seat map for one event, stored as parallel primitive arrays indexed by
+ * slot (slot i is seat number i + 1): section, row index and price in
+ * minor units, with status in the shared SeatInventory. That is about 16 bytes
+ * per seat instead of a Seat, Money and row label String each.
+ *
+ * Seat objects are lightweight views created on demand by getSeats() and
+ * getSeatByNumber(); they read and write through to these arrays.
+ */
 public class Seating {
 
     private final int eventId;
-    private final List<Seat> seats;
+    private final int size;
 
-    public Seating(int eventId, List<Seat> seats) {
+    // Shared, CAS-guarded status table; slot i belongs to seat number i + 1
+    private final SeatInventory inventory;
+
+    private final int[] sectionIds;
+    private final int[] rowIndexes;   // see SeatFactory.rowIndex; < 0 = rowLabels entry
+    private final int[] priceMinor;
+    private final String currency;    // one currency per event
+
+    // Only allocated when some seat's id is not its seat number
+    private int[] seatIds;
+
+    // Row labels that are not spreadsheet-style (A, B, ... AA); rarely used
+    private final List<String> rowLabels = new ArrayList<>(0);
+
+    // Set when the seats came from a binary seat file; save() writes through it
+    private BinarySeatStore store;
+
+    // Created on first best-available request
+    private SeatAllocator allocator;
+
+    /**
+     * Copies the given seats into the compact layout. The Seat objects
+     * become views of the new Seating, so they keep reflecting its state.
+     */
+    public static Seating of(int eventId, List<Seat> seats) {
+        Seating seating = new Seating(eventId, seats.size(),
+                seats.isEmpty() ? "" : seats.get(0).getCurrentPrice().getCurrency());
+        for (int i = 0; i < seating.size; i++) {
+            Seat s = seats.get(i);
+            seating.set(i, s.getSeatId(), s.getSectionId(), seating.rowIndex(s.getRowLabel()),
+                    seating.toMinor(s.getCurrentPrice()), s.getStatus());
+            s.bind(seating, i);
+        }
+        return seating;
+    }
+
+    // Empty layout of size AVAILABLE seats, filled in with set()
+    Seating(int eventId, int size, String currency) {
         this.eventId = eventId;
-        this.seats = seats;
+        this.size = size;
+        this.currency = currency;
+        this.inventory = new SeatInventory(size);
+        this.sectionIds = new int[size];
+        this.rowIndexes = new int[size];
+        this.priceMinor = new int[size];
+    }
+
+    void set(int slot, int seatId, int sectionId, int rowIndex, int minor, SeatStatus status) {
+        setSeatId(slot, seatId);
+        sectionIds[slot] = sectionId;
+        rowIndexes[slot] = rowIndex;
+        priceMinor[slot] = minor;
+        inventory.set(slot, status);
     }
 
     public int getEventId() {
         return eventId;
     }
 
+    public int size() {
+        return size;
+    }
+
+    /** All seats as views, in seat-number order. Views are created as the list is read. */
     public List<Seat> getSeats() {
-        return seats;
+        return new AbstractList<>() {
+            @Override
+            public Seat get(int i) {
+                if (i < 0 || i >= size) throw new IndexOutOfBoundsException(i);
+                return new Seat(Seating.this, i);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    public SeatInventory getInventory() {
+        return inventory;
+    }
+
+    /** Best-available block finder for this seat map, created on first use. */
+    public synchronized SeatAllocator getAllocator() {
+        if (allocator == null) {
+            allocator = new SeatAllocator(this);
+        }
+        return allocator;
+    }
+
+    BinarySeatStore getStore() {
+        return store;
+    }
+
+    void attachStore(BinarySeatStore store) {
+        this.store = store;
     }
 
     public Seat getSeatByNumber(int num) {
-        if (num <= 0 || num > seats.size()) return null;
-        return seats.get(num - 1);
+        if (num <= 0 || num > size) return null;
+        return new Seat(this, num - 1);
     }
 
     public List<Seat> getHeldSeats() {
         List<Seat> held = new ArrayList<>();
-        for (Seat s : seats) {
-            if (s.getStatus() == SeatStatus.HELD) {
-                held.add(s);
+        for (int i = 0; i < size; i++) {
+            if (inventory.get(i) == SeatStatus.HELD) {
+                held.add(new Seat(this, i));
             }
         }
         return held;
     }
+
+    // --- Per-slot fields (used by Seat views) ---
+
+    int seatId(int slot) {
+        return seatIds == null ? slot + 1 : seatIds[slot];
+    }
+
+    int sectionId(int slot) {
+        return sectionIds[slot];
+    }
+
+    // Raw row key: equal for seats in the same row
+    int rowKey(int slot) {
+        return rowIndexes[slot];
+    }
+
+    int priceMinor(int slot) {
+        return priceMinor[slot];
+    }
+
+    String rowLabel(int slot) {
+        int r = rowIndexes[slot];
+        return r >= 0 ? SeatFactory.getRowLabel(r) : rowLabels.get(-r - 1);
+    }
+
+    Money price(int slot) {
+        return Money.ofMinor(priceMinor[slot], currency);
+    }
+
+    void setPrice(int slot, Money price) {
+        priceMinor[slot] = toMinor(price);
+    }
+
+    int toMinor(Money price) {
+        if (!currency.equals(price.getCurrency())) {
+            throw new IllegalArgumentException("Seat priced in " + price.getCurrency()
+                    + ", but event " + eventId + " uses " + currency);
+        }
+        return Math.toIntExact(price.getMinorUnits());
+    }
+
+    private void setSeatId(int slot, int seatId) {
+        if (seatIds == null) {
+            if (seatId == slot + 1) return;
+            seatIds = new int[size];
+            for (int i = 0; i < size; i++) {
+                seatIds[i] = i + 1;
+            }
+        }
+        seatIds[slot] = seatId;
+    }
+
+    // Spreadsheet-style labels are computed; anything else goes in rowLabels
+    int rowIndex(String label) {
+        int r = SeatFactory.rowIndex(label);
+        if (r >= 0) return r;
+        int known = rowLabels.indexOf(label);
+        if (known < 0) {
+            rowLabels.add(label);
+            known = rowLabels.size() - 1;
+        }
+        return -known - 1;
+    }
+
+    // --- Multi-seat operations (all-or-nothing) ---
+
+    /** Holds every seat (AVAILABLE -> HELD) or none of them. */
+    public boolean holdSeats(List<Integer> seatNumbers) {
+        return transitionAll(seatNumbers, SeatStatus.AVAILABLE, SeatStatus.HELD);
+    }
+
+    /** Sells every seat (HELD -> SOLD) or none of them. */
+    public boolean sellSeats(List<Integer> seatNumbers) {
+        return transitionAll(seatNumbers, SeatStatus.HELD, SeatStatus.SOLD);
+    }
+
+    /** Returns held seats to AVAILABLE. Seats in any other state are left alone. */
+    public void releaseSeats(List<Integer> seatNumbers) {
+        SeatTransitionEvent jfr = SeatTransitionEvent.begin(eventId, SeatStatus.HELD, SeatStatus.AVAILABLE,
+                seatNumbers.size());
+        for (int num : seatNumbers) {
+            if (num > 0 && num <= size) {
+                inventory.transition(num - 1, SeatStatus.HELD, SeatStatus.AVAILABLE);
+            }
+        }
+        jfr.finish(true);
+    }
+
+    /** Puts sold seats back on sale (refunds). Seats in any other state are left alone. Returns how many moved. */
+    public int returnSeats(List<Integer> seatNumbers) {
+        SeatTransitionEvent jfr = SeatTransitionEvent.begin(eventId, SeatStatus.SOLD, SeatStatus.AVAILABLE,
+                seatNumbers.size());
+        int moved = 0;
+        for (int num : seatNumbers) {
+            if (num > 0 && num <= size && inventory.transition(num - 1, SeatStatus.SOLD, SeatStatus.AVAILABLE)) {
+                moved++;
+            }
+        }
+        jfr.finish(moved == seatNumbers.size());
+        return moved;
+    }
+
+    private boolean transitionAll(List<Integer> seatNumbers, SeatStatus from, SeatStatus to) {
+        SeatTransitionEvent jfr = SeatTransitionEvent.begin(eventId, from, to, seatNumbers.size());
+        int[] slots = toSlots(seatNumbers);
+        boolean ok = slots != null && inventory.transitionAll(slots, from, to);
+        jfr.finish(ok);
+        return ok;
+    }
+
+    // Seat numbers are 1-based; returns null if any number is out of range
+    private int[] toSlots(List<Integer> seatNumbers) {
+        int[] slots = new int[seatNumbers.size()];
+        for (int i = 0; i < slots.length; i++) {
+            int num = seatNumbers.get(i);
+            if (num <= 0 || num > size) return null;
+            slots[i] = num - 1;
+        }
+        return slots;
+    }
 }
@@ -2,117 +2,208 @@ package CTS.seating;
 
 import CTS.event.Event;
 import CTS.enums.SeatStatus;
-import CTS.misc.Money;
-
-import java.io.*;
+import CTS.metrics.FileIoEvent;
+import CTS.metrics.Histogram;
+import CTS.metrics.Metrics;
+import CTS.misc.CsvReader;
+import CTS.misc.CsvWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class SeatingManager {
 
     private static final String PREFIX = "seats_event_";
     private static final String EXT = ".csv";
+    private static final String BINARY_EXT = ".bin";
+
+    /**
+     * Events with at least this many seats are kept in a memory-mapped
+     * BinarySeatStore instead of CSV, so a sale does not rewrite the file.
+     */
+    public static final int BINARY_THRESHOLD = 10_000;
+
+    /** Directory holding the seat files (-Dcts.data.dir). */
+    private static final Path DATA_DIR = Paths.get(System.getProperty("cts.data.dir", "."));
+
+    // One mapping per event; its one Seating is shared by every caller
+    private static final Map<Integer, BinarySeatStore> stores = new ConcurrentHashMap<>();
+
+    // One lock per seats CSV file
+    private static final Map<Integer, Object> csvLocks = new ConcurrentHashMap<>();
+
+    private static final Histogram LOAD_TIME = Metrics.histogram("seats.load");
+    private static final Histogram SAVE_TIME = Metrics.histogram("seats.save");
 
     /**
      * Loads seating for an event.
      * If no file exists, generates a new layout using SeatFactory.
+     * A binary seat file takes precedence over CSV; a large event still
+     * on CSV is converted to binary on first load.
      */
     public static Seating loadOrCreate(Event event) {
+        long start = System.nanoTime();
+        FileIoEvent io = FileIoEvent.begin(FileIoEvent.LOAD);
+        Seating seating = open(event);
+        io.finish(fileFor(seating), seating.size());
+        LOAD_TIME.recordSince(start);
+        return seating;
+    }
+
+    private static Seating open(Event event) {
         int eventId = event.getEventId();
-        File file = new File(PREFIX + eventId + EXT);
+        Path csv = csvFile(eventId);
+        Path bin = binaryFile(eventId);
+        boolean large = event.getCapacity() >= BINARY_THRESHOLD;
+
+        if (Files.exists(bin) || large) {
+            try {
+                // Atomic, so two first loads cannot both create (and truncate) the file
+                return stores.computeIfAbsent(eventId, id -> openStore(event, csv, bin)).load();
+            } catch (Exception e) {
+                System.err.println("Error loading binary seat file — using CSV: " + e.getMessage());
+            }
+        }
 
-        if (!file.exists()) {
+        if (!Files.exists(csv)) {
             // Create fresh seating
-            return new Seating(eventId, SeatFactory.generate(event));
+            return SeatFactory.generateSeating(event);
         }
 
         return load(event);
     }
 
+    private static BinarySeatStore openStore(Event event, Path csv, Path bin) {
+        int eventId = event.getEventId();
+        try {
+            if (Files.exists(bin)) {
+                return BinarySeatStore.open(bin);
+            } else if (Files.exists(csv)) {
+                return BinarySeatStore.create(bin, eventId, load(event).getSeats());
+            }
+            return BinarySeatStore.create(bin, eventId, SeatFactory.generateSeating(event).getSeats());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     /**
      * Loads seats from CSV for this event.
      */
     private static Seating load(Event event) {
         int eventId = event.getEventId();
         int capacity = event.getCapacity();
-        List<Seat> seats = new ArrayList<>();
+        List<Seat> seats;
 
-        File file = new File(PREFIX + eventId + EXT);
-
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line;
-
-            while ((line = br.readLine()) != null) {
+        try {
+            seats = readCsv(csvFile(eventId), eventId);
+        } catch (Exception e) {
+            System.err.println("Error loading seat CSV — regenerating seating: " + e.getMessage());
+            return SeatFactory.generateSeating(event);
+        }
 
-                if (line.trim().isEmpty() || line.startsWith("#"))
-                    continue;
+        // Ensure we have full capacity
+        if (seats.size() < capacity) {
+            // Fill missing seats
+            seats.addAll(SeatFactory.generate(event).subList(seats.size(), capacity));
+        }
 
-                String[] p = line.split(",", -1);
+        return Seating.of(eventId, seats);
+    }
 
-                int seatId     = Integer.parseInt(p[0]);
-                String rowLabel = p[1];
-                int seatNumber = Integer.parseInt(p[2]);
-                int sectionId = Integer.parseInt(p[3]);
-                SeatStatus status = SeatStatus.valueOf(p[4]);
-                Money price = Money.fromInlineString(p[5]);
+    /**
+     * Reads a seats CSV file
+     * (seatId,rowLabel,seatNumber,sectionId,status,priceInline).
+     */
+    public static List<Seat> readCsv(Path file, int eventId) throws IOException {
+        List<Seat> seats = new ArrayList<>();
 
+        try (CsvReader r = CsvReader.open(file)) {
+            while (r.next()) {
                 Seat s = new Seat(
                         eventId,
-                        seatId,
-                        sectionId,
-                        rowLabel,
-                        seatNumber,
-                        price
+                        r.getInt(0),     // seatId
+                        r.getInt(3),     // sectionId
+                        r.getString(1),  // rowLabel
+                        r.getInt(2),     // seatNumber
+                        r.getMoney(5)    // price
                 );
-
-                // Apply state
-                switch (status) {
-                    case AVAILABLE -> s.markAvailable();
-                    case HELD -> s.markHeld();
-                    case SOLD -> { s.markHeld(); s.markSold(); }
-                    case ADMIN_HELD -> s.markAdminHeld();
-                }
-
+                s.restoreStatus(restored(r.getEnum(4, SeatStatus.class)));
                 seats.add(s);
             }
-
-        } catch (Exception e) {
-            System.err.println("Error loading seat CSV — regenerating seating: " + e.getMessage());
-            return new Seating(eventId, SeatFactory.generate(event));
-        }
-
-        // Ensure we have full capacity
-        while (seats.size() < capacity) {
-            // Fill missing seats
-            seats.addAll(SeatFactory.generate(event).subList(seats.size(), capacity));
         }
+        return seats;
+    }
 
-        return new Seating(eventId, seats);
+    /**
+     * The status a saved seat comes back with. Holds live only in
+     * HoldManager's memory, so after a restart nothing would ever expire a
+     * seat saved as HELD; it goes back on sale instead.
+     */
+    static SeatStatus restored(SeatStatus saved) {
+        return (saved == SeatStatus.HELD) ? SeatStatus.AVAILABLE : saved;
     }
 
     /**
-     * Saves seating to CSV.
+     * Saves seating. Binary-backed seating has already written each change
+     * through to its file, so there is nothing to do; everything else is
+     * rewritten to CSV.
      */
     public static void save(Seating seating) {
-        File file = new File(PREFIX + seating.getEventId() + EXT);
+        if (seating.getStore() != null) {
+            return;
+        }
+        long start = System.nanoTime();
+        FileIoEvent io = FileIoEvent.begin(FileIoEvent.SAVE);
+
+        // Concurrent checkouts on one event must not interleave rewrites
+        synchronized (csvLocks.computeIfAbsent(seating.getEventId(), k -> new Object())) {
+            try {
+                writeCsv(csvFile(seating.getEventId()), seating);
+            } catch (IOException ignored) { }
+        }
+        io.finish(fileFor(seating), seating.size());
+        SAVE_TIME.recordSince(start);
+    }
 
-        try (PrintWriter pw = new PrintWriter(new FileWriter(file))) {
+    /** Writes the whole seating to a seats CSV file. */
+    public static void writeCsv(Path file, Seating seating) throws IOException {
+        try (CsvWriter w = CsvWriter.create(file)) {
 
-            pw.println("# seatId,rowLabel,seatNumber,sectionId,status,priceInline");
+            w.comment("seatId,rowLabel,seatNumber,sectionId,status,priceInline");
 
             for (Seat s : seating.getSeats()) {
-                pw.println(
-                        s.getSeatId() + "," +
-                        s.getRowLabel() + "," +
-                        s.getSeatNumber() + "," +
-                        s.getSectionId() + "," +
-                        s.getStatus().name() + "," +
-                        s.getCurrentPrice().toInlineString()
-                );
+                w.field(s.getSeatId())
+                 .field(s.getRowLabel())
+                 .field(s.getSeatNumber())
+                 .field(s.getSectionId())
+                 .field(s.getStatus())
+                 .field(s.getCurrentPrice());
+                w.endRow();
             }
+        }
+    }
+
+    /** The seats CSV for an event, in the data dir. */
+    public static Path csvFile(int eventId) {
+        return DATA_DIR.resolve(PREFIX + eventId + EXT);
+    }
 
-        } catch (IOException ignored) { }
+    /** The binary seat file for an event, in the data dir. */
+    public static Path binaryFile(int eventId) {
+        return DATA_DIR.resolve(PREFIX + eventId + BINARY_EXT);
+    }
 
-    } 
+    // The file a seating is loaded from / saved to
+    private static Path fileFor(Seating seating) {
+        return (seating.getStore() != null) ? binaryFile(seating.getEventId()) : csvFile(seating.getEventId());
+    }
 
-} 
+}
@@ -0,0 +1,128 @@
+package CTS.user;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory login sessions. open() issues an opaque random token for a
+ * user who has just passed the password check; resolve() turns the token
+ * back into the user without hashing anything.
+ *
+ * Expiry slides: every successful resolve() pushes the deadline out by
+ * the time-to-live again. The store holds at most maxSessions; when full,
+ * the least recently used session is dropped. All methods are
+ * thread-safe.
+ */
+public class SessionStore {
+
+    public static final long DEFAULT_TTL_MILLIS = 30 * 60 * 1000L;   // 30 minutes
+    public static final int DEFAULT_MAX_SESSIONS = 100_000;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Base64.Encoder TOKEN_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final class Session {
+        final User user;
+        long expiresAt;
+
+        Session(User user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final long ttlMillis;
+    private final int maxSessions;
+    private final LongSupplier clock;
+
+    // Access order: the head is the session touched longest ago. With a
+    // sliding TTL that is also the one that expires first.
+    private final LinkedHashMap<String, Session> sessions;
+
+    public SessionStore() {
+        this(DEFAULT_TTL_MILLIS, DEFAULT_MAX_SESSIONS);
+    }
+
+    public SessionStore(long ttlMillis, int maxSessions) {
+        this(ttlMillis, maxSessions, System::currentTimeMillis);
+    }
+
+    // Tests pass a fake clock
+    SessionStore(long ttlMillis, int maxSessions, LongSupplier clock) {
+        if (ttlMillis <= 0 || maxSessions <= 0) {
+            throw new IllegalArgumentException("ttl and maxSessions must be positive");
+        }
+        this.ttlMillis = ttlMillis;
+        this.maxSessions = maxSessions;
+        this.clock = clock;
+        this.sessions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Session> eldest) {
+                return size() > SessionStore.this.maxSessions;
+            }
+        };
+    }
+
+    /** Starts a session for user and returns its token. */
+    public synchronized String open(User user) {
+        long now = clock.getAsLong();
+        purgeExpired(now);
+
+        String token = newToken();
+        sessions.put(token, new Session(user, now + ttlMillis));
+        return token;
+    }
+
+    /**
+     * The user a token belongs to, or null if the token is unknown or has
+     * expired. A hit extends the session by another time-to-live.
+     */
+    public synchronized User resolve(String token) {
+        if (token == null) {
+            return null;
+        }
+        Session s = sessions.get(token); // moves it to the tail
+        if (s == null) {
+            return null;
+        }
+        long now = clock.getAsLong();
+        if (s.expiresAt <= now) {
+            sessions.remove(token);
+            return null;
+        }
+        s.expiresAt = now + ttlMillis;
+        return s.user;
+    }
+
+    /** Ends a session (logout). Returns false if it was not open. */
+    public synchronized boolean close(String token) {
+        return token != null && sessions.remove(token) != null;
+    }
+
+    /** Ends every session of a user, e.g. after a password change. */
+    public synchronized void closeAll(User user) {
+        sessions.values().removeIf(s -> s.user == user);
+    }
+
+    public synchronized int size() {
+        return sessions.size();
+    }
+
+    // Expired sessions sit at the head, so this stops at the first live one
+    private void purgeExpired(long now) {
+        Iterator<Session> it = sessions.values().iterator();
+        while (it.hasNext() && it.next().expiresAt <= now) {
+            it.remove();
+        }
+    }
+
+    private static String newToken() {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        return TOKEN_ENCODER.encodeToString(bytes);
+    }
+}
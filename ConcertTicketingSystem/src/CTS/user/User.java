@@ -3,12 +3,15 @@ package CTS.user;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.List;
 import java.nio.charset.StandardCharsets;
-import java.util.stream.Collectors;
+
+import CTS.misc.CsvReader;
+import CTS.misc.CsvWriter;
 
 /**
  * Abstract base class for all user types.
@@ -65,19 +68,27 @@ public abstract class User {
         return hashPassword(plainPassword).equals(this.passwordHash);
     }
 
-    // Computes SHA-256 using java libraries 
-    private String hashPassword(String password) {
+    // SHA-256 is stateless between digest() calls, so each thread keeps one
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
         try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(password.getBytes(StandardCharsets.UTF_8));
-
-            StringBuilder sb = new StringBuilder();
-            for (byte b : hash) sb.append(String.format("%02x", b));
-            return sb.toString();
-
+            return MessageDigest.getInstance("SHA-256");
         } catch (NoSuchAlgorithmException e) {
             throw new IllegalStateException("SHA-256 not available", e);
         }
+    });
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    // Computes SHA-256 using java libraries, as lowercase hex
+    private static String hashPassword(String password) {
+        byte[] hash = SHA256.get().digest(password.getBytes(StandardCharsets.UTF_8));
+
+        char[] out = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            out[2 * i] = HEX[(hash[i] >> 4) & 0xf];
+            out[2 * i + 1] = HEX[hash[i] & 0xf];
+        }
+        return new String(out);
     }
 
 
@@ -98,39 +109,50 @@ public abstract class User {
 
     /** Converts user to a single CSV row */
     public String toCsvRow() {
-        return userId + "," +
-               escape(name) + "," +
-               escape(email) + "," +
-               passwordHash + "," +
-               role;
+        return CsvWriter.toRow(this::writeCsv);
+    }
+
+    public void writeCsv(CsvWriter w) throws IOException {
+        w.field(userId)
+         .field(name)
+         .field(email)
+         .field(passwordHash)
+         .field(role);
     }
 
     
     
      // Creates a User subclass (ConcertGoer or VenueAdmin) from a CSV row.
     public static User fromCsvRow(String line) {
-        // Split into exactly 5 parts, ignoring escaped commas
-        String[] parts = line.split("(?<!\\\\),", 5);
-        if (parts.length < 5) {
-            throw new IllegalArgumentException("Malformed CSV line: " + line);
+        try (CsvReader r = CsvReader.ofLine(line)) {
+            if (!r.next(FIELDS)) {
+                throw new IllegalArgumentException("Malformed CSV line: " + line);
+            }
+            return fromCsv(r);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // cannot happen for a String
         }
+    }
 
-        int id = Integer.parseInt(parts[0]);
-        String name = unescape(parts[1]);
-        String email = unescape(parts[2]);
-        String passwordHash = parts[3];
-        String role = parts[4];
+    private static final int FIELDS = 5;
+
+    // Builds the User subclass from the reader's current record.
+    public static User fromCsv(CsvReader r) {
+        if (r.fieldCount() < FIELDS) {
+            throw new IllegalArgumentException("Malformed CSV line " + r.lineNumber());
+        }
+        int id = r.getInt(0);
+        String name = r.getString(1);
+        String email = r.getString(2);
+        String passwordHash = r.getString(3);
 
         //  pass this tag to the subclass constructors
         LoadFrom tag = LoadFrom.CSV_ROW; // 
 
-        switch (role) {
-            // These constructors now accept the 'tag'!
-            case "USER":  return new ConcertGoer(id, name, email, passwordHash, tag); 
-            case "ADMIN": return new VenueAdmin(id, name, email, passwordHash, tag); 
-            default:
-                throw new IllegalArgumentException("Unknown role: " + role);
-        }
+        // These constructors now accept the 'tag'!
+        if (r.fieldEquals(4, "USER"))  return new ConcertGoer(id, name, email, passwordHash, tag);
+        if (r.fieldEquals(4, "ADMIN")) return new VenueAdmin(id, name, email, passwordHash, tag);
+        throw new IllegalArgumentException("Unknown role: " + r.getString(4));
     }
 
 
@@ -147,16 +169,13 @@ public abstract class User {
             return result;
         }
 
-        List<String> lines = Files.readAllLines(path);
-
-        for (String line : lines.stream()
-                                .filter(l -> !l.trim().isEmpty() && !l.startsWith("#"))
-                                .collect(Collectors.toList())) {
-
-            try {
-                result.add(fromCsvRow(line));
-            } catch (Exception e) {
-                System.err.println("Error reading user: " + line + " — " + e.getMessage());
+        try (CsvReader r = CsvReader.open(path)) {
+            while (r.next(FIELDS)) {
+                try {
+                    result.add(fromCsv(r));
+                } catch (Exception e) {
+                    System.err.println("Error reading user on line " + r.lineNumber() + " — " + e.getMessage());
+                }
             }
         }
 
@@ -167,30 +186,13 @@ public abstract class User {
 
     // Writes all users to a CSV file
     public static void saveToCsv(Path path, List<User> users) throws IOException {
-        List<String> lines = new ArrayList<>();
-        lines.add("# userId,name,email,passwordHash,role");
-
-        for (User u : users) {
-            lines.add(u.toCsvRow());
+        try (CsvWriter w = CsvWriter.create(path)) {
+            w.comment("userId,name,email,passwordHash,role");
+            for (User u : users) {
+                u.writeCsv(w);
+                w.endRow();
+            }
         }
-
-        Files.write(path, lines);
         System.out.println("INFO: Saved " + users.size() + " users.");
     }
-
-
-    // =========================================================================
-    //  CSV UTILITY METHODS
-    // =========================================================================
-
-    // Escapes commas and backslashes so CSV parsing is safe 
-    private static String escape(String s) {
-        if (s == null) return "";
-        return s.replace("\\", "\\\\").replace(",", "\\,");
-    }
-
-    // Reverses the escaping rules 
-    private static String unescape(String s) {
-        return s.replace("\\\\", "\\").replace("\\,", ",");
-    }
 }
@@ -0,0 +1,85 @@
+package CTS.user;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import CTS.misc.CsvWriter;
+
+/**
+ * The append handle on one users journal, owned by that file's UserStore,
+ * so every userDatabase on the file writes through the same channel. A
+ * compaction closes and removes the journal under the same lock appends
+ * take, so nothing is ever written to an unlinked file. Each append is
+ * forced to the device before returning, as in CTS.booking.Journal.
+ */
+final class UserJournal {
+
+    /** Snapshot step run by compact() before the journal is removed. */
+    interface Snapshot {
+        void write() throws IOException;
+    }
+
+    private static final String HEADER = "userId,name,email,passwordHash,role";
+
+    private final Path path;
+    private FileChannel channel; // null until the first append after a compaction
+    private int rows;
+
+    /** The journal at path, which already holds rows records. */
+    UserJournal(Path path, int rows) {
+        this.path = path;
+        this.rows = rows;
+    }
+
+    /** Users appended since the last compaction. */
+    synchronized int rows() {
+        return rows;
+    }
+
+    /** Appends one user; the row is on disk when this returns. */
+    synchronized void append(User user) throws IOException {
+        StringWriter text = new StringWriter(128);
+        CsvWriter w = new CsvWriter(text);
+        if (channel == null) {
+            boolean isNew = !Files.exists(path);
+            channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            if (isNew) {
+                w.comment(HEADER);
+            }
+        }
+        user.writeCsv(w);
+        w.endRow();
+        ByteBuffer buf = StandardCharsets.UTF_8.encode(text.toString());
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+        channel.force(false);
+        rows++;
+    }
+
+    /**
+     * Runs snapshot, then closes and deletes the journal. No append can
+     * slip in between, so every row lands in the snapshot or after it.
+     */
+    synchronized void compact(Snapshot snapshot) throws IOException {
+        snapshot.write();
+        close();
+        Files.deleteIfExists(path);
+        rows = 0;
+    }
+
+    /** Closes the append handle; the next append reopens it. */
+    synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package CTS.user;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import CTS.metrics.FileIoEvent;
+import CTS.metrics.Histogram;
+import CTS.metrics.Metrics;
+import CTS.misc.CsvReader;
+import CTS.misc.IntIndex;
+
+/**
+ * The users of one users.csv: the in-memory list, its indexes, the login
+ * sessions and the journal. There is one per file, shared by every
+ * userDatabase opened on it, so a registration made through one database
+ * is seen (and its email refused again) by all of them, and no compaction
+ * can write out a stale copy of the list.
+ */
+final class UserStore {
+
+    private static final Histogram LOAD_TIME = Metrics.histogram("users.load");
+    private static final Histogram SAVE_TIME = Metrics.histogram("users.save");
+
+    private static final Map<Path, UserStore> OPEN = new ConcurrentHashMap<>();
+
+    private final ArrayList<User> users = new ArrayList<>();
+    private final Path filePath;
+    private final Path journalPath;
+    private int nextUserId = 1;
+
+    // --- Indexes (kept in sync by index(User)) ---
+    private final Map<String, User> usersByEmail = new HashMap<>();
+    private final IntIndex<User> usersById = new IntIndex<>();
+
+    // Logged-in users by token, so repeat requests skip the password hash
+    private final SessionStore sessions = new SessionStore();
+
+    private final UserJournal journal;
+    private int journalRowsLoaded;
+
+    private UserStore(Path filePath) {
+        this.filePath = filePath;
+        this.journalPath = filePath.resolveSibling(baseName(filePath) + ".journal");
+        loadFromFile(); // Load all users from the file on first use
+        this.journal = new UserJournal(journalPath, journalRowsLoaded);
+    }
+
+    /** The store for filePath, loaded on first use; the journal sits next to it. */
+    static UserStore forPath(Path filePath) {
+        return OPEN.computeIfAbsent(filePath.toAbsolutePath().normalize(), UserStore::new);
+    }
+
+    /**
+     * Drops the store for filePath so the next database reads the files
+     * again, as after a restart (tests and tools).
+     */
+    static void close(Path filePath) throws IOException {
+        UserStore store = OPEN.remove(filePath.toAbsolutePath().normalize());
+        if (store != null) {
+            store.journal.close();
+        }
+    }
+
+    private static String baseName(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return (dot > 0) ? name.substring(0, dot) : name;
+    }
+
+    SessionStore sessions() {
+        return sessions;
+    }
+
+    //  I/O  Methods  ---
+
+    private void loadFromFile() {
+        if (!Files.exists(filePath) && !Files.exists(journalPath)) {
+            System.out.println("UserDatabase: No users.csv found. Starting with a fresh database.");
+            return; // No file to load, just start with an empty list
+        }
+
+        // Snapshot first, then the users registered since it was written
+        long start = System.nanoTime();
+        int maxId = Math.max(load(filePath), load(journalPath));
+        LOAD_TIME.recordSince(start);
+
+        // Set the next user ID to be one higher than the max
+        this.nextUserId = maxId + 1;
+    }
+
+    // Reads one users file into the indexes; returns the highest id seen
+    private int load(Path path) {
+        int maxId = 0;
+        if (!Files.exists(path)) {
+            return maxId;
+        }
+        FileIoEvent io = FileIoEvent.begin(FileIoEvent.LOAD);
+        int rows = 0;
+        try (CsvReader r = CsvReader.open(path)) {
+            while (r.next()) {
+                User user;
+                try {
+                    user = User.fromCsv(r);
+                } catch (RuntimeException e) {
+                    // Handle bad rows (wrong field count, number formats, role)
+                    System.err.println("UserDatabase Error: Skipping line " + r.lineNumber()
+                            + " of " + path + ": " + e.getMessage());
+                    continue;
+                }
+                index(user);
+                rows++;
+                if (path == journalPath) {
+                    journalRowsLoaded++;
+                }
+                // Update maxId to ensure the next ID is unique
+                maxId = Math.max(maxId, user.getUserId());
+            }
+        } catch (IOException e) {
+            System.err.println("UserDatabase Error: Failed to load from file: " + e.getMessage());
+        }
+        io.finish(path, rows);
+        return maxId;
+    }
+
+    // Adds or replaces (by id) a user in the list and both indexes
+    private void index(User user) {
+        User old = usersById.put(user.getUserId(), user);
+        if (old == null) {
+            users.add(user);
+        } else {
+            users.set(users.indexOf(old), user);
+            usersByEmail.remove(emailKey(old.getEmail()));
+        }
+        usersByEmail.put(emailKey(user.getEmail()), user);
+    }
+
+    private static String emailKey(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Writes a fresh users.csv snapshot and empties the journal. The snapshot
+     * goes to a temp file that is moved into place, so a crash leaves either
+     * the old or the new file; the journal is only removed after the move.
+     */
+    synchronized void compact() {
+        long start = System.nanoTime();
+        FileIoEvent io = FileIoEvent.begin(FileIoEvent.SAVE);
+        try {
+            journal.compact(() -> {
+                Path tmp = filePath.resolveSibling(filePath.getFileName() + ".tmp");
+                User.saveToCsv(tmp, users);
+                Files.move(tmp, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            });
+            io.finish(filePath, users.size());
+            SAVE_TIME.recordSince(start);
+        } catch (IOException e) {
+            System.err.println("UserDatabase Error: Failed to save to file: " + e.getMessage());
+        }
+    }
+
+    synchronized User registerUser(String name, String email, String password, String role) {
+        // check for duplicate email ---
+        if (getUserByEmail(email) != null) {
+            System.err.println("UserDatabase Error: User with email " + email + " already exists.");
+            return null;
+        }
+
+
+        User newUser;
+        int newId = this.nextUserId; // Get the next available unique ID
+
+        if (role.equalsIgnoreCase("ADMIN")) {
+            newUser = new VenueAdmin(newId, name, email, password);
+        } else {
+            // Default to ConcertGoer
+            newUser = new ConcertGoer(newId, name, email, password);
+        }
+
+        // --- Update state
+        this.nextUserId++; // Increment the ID for the next registration
+        index(newUser); // Add to the in-memory list and indexes
+
+        // --- Persistence ---
+        try {
+            journal.append(newUser); // One row, not a rewrite of users.csv
+        } catch (IOException e) {
+            System.err.println("UserDatabase Error: Failed to append to journal: " + e.getMessage());
+            compact(); // Fall back to a full snapshot
+        }
+        int journalRows = journal.rows();
+        if (journalRows >= Math.max(userDatabase.COMPACT_THRESHOLD, users.size() - journalRows)) {
+            compact();
+        }
+
+        return newUser;
+    }
+
+    //  Helper Methods
+
+    /** Case-insensitive email lookup. */
+    synchronized User getUserByEmail(String email) {
+        if (email == null) {
+            return null;
+        }
+        return usersByEmail.get(emailKey(email)); // null if not found
+    }
+
+    synchronized User getUserById(int userId) {
+        return usersById.get(userId); // null if not found
+    }
+
+    synchronized int size() {
+        return users.size();
+    }
+}
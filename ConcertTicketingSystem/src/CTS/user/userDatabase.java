@@ -1,153 +1,133 @@
 package CTS.user;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import CTS.metrics.Counter;
+import CTS.metrics.Histogram;
+import CTS.metrics.Metrics;
 
 /**
  * Manages all User objects (ConcertGoer, VenueAdmin) and handles all
  * persistence logic by reading from and writing to the users.csv file.
  * * This class acts as the "engine"/"controller" for the user module,
  * hiding all data logic from the Main/GUI classes.
+ *
+ * Users are indexed by id and by case-folded email, so login is a hash
+ * lookup. users.csv is a snapshot: a registration appends one row to
+ * users.journal instead of rewriting it, and the journal is folded back
+ * into the snapshot (compact()) once it is as long as the snapshot (and
+ * at least COMPACT_THRESHOLD rows), so each user is rewritten O(1) times
+ * on average however large the database grows. Every database on the same
+ * file works on one shared UserStore, so the GUI panels that each open
+ * their own database see the same users, sessions and journal.
  */
 public class userDatabase {
 
+    /** registerUser() never compacts a journal shorter than this. */
+    static final int COMPACT_THRESHOLD = 10_000;
+
+    private static final Histogram LOGIN_TIME = Metrics.histogram("login");
+    private static final Counter LOGIN_OK = Metrics.counter("login.success");
+    private static final Counter LOGIN_FAILED = Metrics.counter("login.failure");
+
     // --- Attributes ---
-    
-    private ArrayList<User> users;
-    private String filePath = "users.csv";
-    private int nextUserId = 1;
+
+    // Shared with every other database on this file
+    private final UserStore store;
 
     // --- Constructor ---
 
     public userDatabase() {
-        this.users = new ArrayList<>();
-        loadFromFile(); // Load all users from the file on startup
+        this(Paths.get("users.csv"));
     }
 
-    //  I/O  Methods  ---
-
- 
-    private void loadFromFile() {
-        File file = new File(filePath);
-        if (!file.exists()) {
-            System.out.println("UserDatabase: No users.csv found. Starting with a fresh database.");
-            return; // No file to load, just start with an empty list
-        }
+    /** Database backed by the given snapshot file; the journal sits next to it. */
+    public userDatabase(Path filePath) {
+        this.store = UserStore.forPath(filePath); // Loads the file the first time it is opened
+    }
 
-        // try-with-resources block to auto-close the reader
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            int maxId = 0; // Keep track of the highest ID found
-            
-            while ((line = reader.readLine()) != null) {
-                if (line.isEmpty() || line.startsWith("//")) {
-                    continue; // Skip empty lines or comments
-                }
-                
-                //  static helper from User.java to parse the line
-                User user = User.fromCsvRow(line);
-                
-                if (user != null) {
-                    this.users.add(user);
-                    // Update maxId to ensure the next ID is unique
-                    if (user.getUserId() > maxId) {
-                        maxId = user.getUserId();
-                    }
-                }
-            }
-            
-            // Set the next user ID to be one higher than the max
-            this.nextUserId = maxId + 1;
-            
-        } catch (IOException | NumberFormatException e) {
-            // Handle errors related to file reading or bad number formats in the CSV
-            System.err.println("UserDatabase Error: Failed to load from file: " + e.getMessage());
-        }
+    /**
+     * Forgets the users loaded from filePath, so the next database opened
+     * on it reads the files again, as after a restart (tests and tools).
+     */
+    public static void unload(Path filePath) throws IOException {
+        UserStore.close(filePath);
     }
 
-    
+    /** Rewrites users.csv with every user and empties the journal (same as compact()). */
     public void saveToFile() {
-        // try-with-resources block to auto-close the writer same as above!
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
-            for (User user : this.users) {
-                // Use the helper method from ConcertGoer/VenueAdmin
-            	writer.write(user.toCsvRow());
-                writer.newLine(); // Add a new line for the next user
-            }
-        } catch (IOException e) {
-            System.err.println("UserDatabase Error: Failed to save to file: " + e.getMessage());
-        }
+        compact();
+    }
+
+    /**
+     * Writes a fresh users.csv snapshot and empties the journal. The snapshot
+     * goes to a temp file that is moved into place, so a crash leaves either
+     * the old or the new file; the journal is only removed after the move.
+     */
+    public void compact() {
+        store.compact();
     }
 
- 
     public User login(String email, String password) {
+        long start = System.nanoTime();
         //  find the user by their email
         User userToFind = getUserByEmail(email);
-        
+
         // Check if user exists AND password is correct
         if (userToFind != null && userToFind.checkPassword(password)) {
             // Success!
-            return userToFind; 
+            LOGIN_TIME.recordSince(start);
+            LOGIN_OK.inc();
+            return userToFind;
         }
-        
+
         // failure
-        return null; 
+        LOGIN_TIME.recordSince(start);
+        LOGIN_FAILED.inc();
+        return null;
     }
 
 
-    public User registerUser(String name, String email, String password, String role) {
-        // check for duplicate email ---
-        if (getUserByEmail(email) != null) {
-            System.err.println("UserDatabase Error: User with email " + email + " already exists.");
-            return null;
-        }
+    /**
+     * Logs in and opens a session. Returns the session token, or null if
+     * the credentials are wrong. Later requests use getSessionUser(token).
+     */
+    public String openSession(String email, String password) {
+        User user = login(email, password);
+        return (user != null) ? store.sessions().open(user) : null;
+    }
 
-        
-        User newUser;
-        int newId = this.nextUserId; // Get the next available unique ID
-        
-        if (role.equalsIgnoreCase("ADMIN")) {
-            newUser = new VenueAdmin(newId, name, email, password);
-        } else {
-            // Default to ConcertGoer
-            newUser = new ConcertGoer(newId, name, email, password);
-        }
-        
-        // --- Update state 
-        this.nextUserId++; // Increment the ID for the next registration
-        this.users.add(newUser); // Add to the in-memory list
-        
-        // --- Persistence ---
-        saveToFile(); // Save the new user to the users.csv file
-        
-        System.out.println("UserDatabase: New user registered and saved: " + newUser.getName());
-        return newUser;
+    /** The logged-in user for a session token, or null if it is unknown or expired. */
+    public User getSessionUser(String token) {
+        return store.sessions().resolve(token);
+    }
+
+    /** Logs a session out. */
+    public void closeSession(String token) {
+        store.sessions().close(token);
+    }
+
+
+    public User registerUser(String name, String email, String password, String role) {
+        return store.registerUser(name, email, password, role);
     }
 
-    //  Helper Methods 
+    //  Helper Methods
 
 
+    /** Case-insensitive email lookup. */
     public User getUserByEmail(String email) {
-        for (User user : this.users) {
-            if (user.getEmail().equalsIgnoreCase(email)) {
-                return user;
-            }
-        }
-        return null; // Not found
+        return store.getUserByEmail(email);
     }
-    
- 
+
+
     public User getUserById(int userId) {
-        for (User user : this.users) {
-            if (user.getUserId() == userId) {
-                return user;
-            }
-        }
-        return null; // Not found
+        return store.getUserById(userId);
+    }
+
+    public int size() {
+        return store.size();
     }
-}
\ No newline at end of file
+}
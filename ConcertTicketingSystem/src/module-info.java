@@ -7,5 +7,8 @@
 module ConcertTicketingSystem {
 	requires org.junit.jupiter.api;
 	requires java.desktop;
+	requires java.management;
+	requires jdk.jfr;
+	exports CTS.metrics;
 	
 }
\ No newline at end of file
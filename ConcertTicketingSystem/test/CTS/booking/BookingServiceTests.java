@@ -0,0 +1,372 @@
+package CTS.booking;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import CTS.enums.EventStatus;
+import CTS.enums.OrderStatus;
+import CTS.enums.PaymentStatus;
+import CTS.enums.PaymentType;
+import CTS.enums.RefundStatus;
+import CTS.enums.SeatStatus;
+import CTS.event.Event;
+import CTS.misc.Money;
+import CTS.misc.PaymentTransaction;
+import CTS.misc.RefundRequest;
+import CTS.payment.GatewayResult;
+import CTS.payment.PaymentProcessor;
+import CTS.payment.SimulatedGateway;
+import CTS.seating.Seat;
+import CTS.seating.Seating;
+import CTS.seating.SeatingManager;
+
+class BookingServiceTests {
+
+    static {
+        // Purchases journal orders; keep that out of the project folder
+        try {
+            System.setProperty("cts.data.dir", Files.createTempDirectory("cts-test").toString());
+        } catch (java.io.IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static final String CARD = "4111 1111 1111 1111";
+    private static final int EVENT_ID = 9_017;
+
+    private HoldManager manager;
+    private BookingService service;
+    private Seating seating;
+
+    @BeforeEach
+    void setUp() {
+        manager = new HoldManager(5, 64);
+        service = new BookingService(manager);
+        List<Seat> seats = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            seats.add(new Seat(EVENT_ID, i, 1, "A", i, new Money(i <= 10 ? 30.0 : 20.0, "USD")));
+        }
+        seating = Seating.of(EVENT_ID, seats);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        service.shutdown();
+        manager.shutdown();
+        Files.deleteIfExists(SeatingManager.csvFile(EVENT_ID)); // written by purchase()
+    }
+
+    @Test
+    void testPurchaseSellsSeatsAndRecordsPayment() {
+        SeatHold hold = service.hold(5, seating, List.of(10, 11));
+        assertEquals(new Money(50.0, "USD"), service.price(List.of(hold)), "Seats keep their own prices.");
+
+        BookingResult result = service.purchase(List.of(hold), CARD);
+        assertTrue(result.isConfirmed(), "Purchase should succeed: " + result);
+        assertEquals(SeatStatus.SOLD, seating.getSeatByNumber(10).getStatus());
+        assertEquals(2, result.getOrder().getTickets().size());
+        assertEquals(new Money(50.0, "USD"), result.getOrder().getTotalAmount());
+        assertEquals(PaymentStatus.SUCCESS, result.getPayment().getStatus());
+        assertEquals(OrderStatus.CONFIRMED, result.getOrder().getStatus());
+        assertSame(result.getOrder(), OrderDatabase.getOrderById(result.getOrder().getOrderId()),
+                "The order is in the database.");
+    }
+
+    @Test
+    void testDeclinedCardKeepsHolds() {
+        SeatHold hold = service.holdBestAvailable(5, seating, 3, 0, null);
+        assertNotNull(hold);
+
+        BookingResult result = service.purchase(List.of(hold), "1234");
+        assertEquals(BookingResult.Outcome.PAYMENT_DECLINED, result.getOutcome());
+        assertTrue(hold.isActive(), "The buyer can retry with another card.");
+        assertEquals(SeatStatus.HELD, seating.getSeatByNumber(hold.getSeatNumbers().get(0)).getStatus());
+    }
+
+    @Test
+    void testGatewayDeclineKeepsHolds() {
+        SeatHold hold = service.hold(5, seating, List.of(4, 5));
+
+        BookingResult result = service.purchase(List.of(hold), "4000 0000 0000 0002");
+        assertEquals(BookingResult.Outcome.PAYMENT_DECLINED, result.getOutcome());
+        assertTrue(hold.isActive(), "The buyer can retry with another card.");
+        assertTrue(service.purchase(List.of(hold), CARD).isConfirmed());
+    }
+
+    @Test
+    void testHoldSurvivesSlowGateway() {
+        // The round trip takes longer than the whole hold
+        BookingService slow = new BookingService(manager,
+                PaymentProcessor.create(new SimulatedGateway(150, 0, 0, 0, 1)));
+        try {
+            SeatHold hold = manager.placeHold(5, seating, List.of(6), 20);
+            BookingResult result = slow.purchase(List.of(hold), CARD);
+            assertTrue(result.isConfirmed(), "A pinned hold must not expire mid-payment: " + result);
+            assertEquals(SeatStatus.SOLD, seating.getSeatByNumber(6).getStatus());
+        } finally {
+            slow.shutdown();
+        }
+    }
+
+    @Test
+    void testExpiredHoldIsReported() throws Exception {
+        SeatHold hold = manager.placeHold(5, seating, List.of(1), 10);
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (hold.isActive() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(BookingResult.Outcome.HOLD_EXPIRED, service.purchase(List.of(hold), CARD).getOutcome());
+        assertEquals(SeatStatus.AVAILABLE, seating.getSeatByNumber(1).getStatus());
+    }
+
+    @Test
+    void testGeneralAdmission() {
+        Event gig = new Event(EVENT_ID, "Gig", new Date(), "Hall", "", 5,
+                EventStatus.PUBLISHED, new Money(12.5, "USD"));
+
+        assertEquals(BookingResult.Outcome.PAYMENT_DECLINED,
+                service.purchaseGeneralAdmission(1, gig, 2, "").getOutcome());
+        assertEquals(0, gig.getTicketsSold(), "A declined card reserves nothing.");
+
+        BookingResult ok = service.purchaseGeneralAdmission(1, gig, 4, CARD);
+        assertTrue(ok.isConfirmed());
+        assertEquals(new Money(50.0, "USD"), ok.getOrder().getTotalAmount());
+        assertEquals(BookingResult.Outcome.SOLD_OUT, service.purchaseGeneralAdmission(1, gig, 2, CARD).getOutcome());
+        assertEquals(4, gig.getTicketsSold());
+    }
+
+    @Test
+    void testSessionsShareOneSeatMap() {
+        Event gig = new Event(EVENT_ID, "Gig", new Date(), "Hall", "", 20,
+                EventStatus.PUBLISHED, new Money(10.0, "USD"));
+        Seating first = service.openSeating(gig);
+        assertSame(first, service.openSeating(gig), "A second session must see the first one's holds.");
+
+        assertNotNull(service.hold(1, first, List.of(3)));
+        assertNull(service.hold(2, service.openSeating(gig), List.of(3)));
+    }
+
+    @Test
+    void testRefundRequestIsRecorded() {
+        BookingResult result = service.purchase(List.of(service.hold(5, seating, List.of(2))), CARD);
+        RefundRequest request = service.requestRefund(result.getOrder(), "Sick");
+
+        assertEquals(RefundStatus.PENDING, request.getStatus());
+        assertTrue(OrderDatabase.getRefundsForOrder(result.getOrder().getOrderId()).contains(request));
+        assertNotEquals(request.getRefundId(), service.requestRefund(result.getOrder(), "Still sick").getRefundId());
+    }
+
+    @Test
+    void testBulkApprovalRefundsAndReleasesSeats() throws Exception {
+        // Refunds find seats through the service's open seat maps
+        Event show = new Event(EVENT_ID + 2, "Show", new Date(), "Hall", "", 20,
+                EventStatus.PUBLISHED, new Money(10.0, "USD"));
+        Seating open = service.openSeating(show);
+        try {
+            List<RefundRequest> requests = new ArrayList<>();
+            for (int seat = 12; seat <= 16; seat += 2) {
+                BookingResult r = service.purchase(List.of(service.hold(5, open, List.of(seat, seat + 1))), CARD);
+                requests.add(service.requestRefund(r.getOrder(), "Can't make it"));
+            }
+            requests.add(requests.get(0)); // selected twice: still one payout
+
+            BulkRefundResult result = service.approveRefunds(requests, null);
+            assertEquals(3, result.getRefunded().size());
+            assertEquals(1, result.getSkipped());
+            for (RefundRequest r : result.getRefunded()) {
+                assertEquals(RefundStatus.APPROVED, r.getStatus());
+                assertEquals(OrderStatus.REFUNDED, r.getOrder().getStatus());
+                assertEquals(PaymentStatus.SUCCESS, r.getRefundTxn().getStatus());
+            }
+            for (int seat = 12; seat <= 17; seat++) {
+                assertEquals(SeatStatus.AVAILABLE, open.getSeatByNumber(seat).getStatus(), "Seat " + seat);
+            }
+            assertEquals(0, service.approveRefunds(requests, null).getRefunded().size(), "Already refunded.");
+        } finally {
+            Files.deleteIfExists(SeatingManager.csvFile(show.getEventId()));
+        }
+    }
+
+    @Test
+    void testCancelEventRefundsEveryOrder() {
+        // Its own event id, so no other test's orders are canceled with it
+        Event gig = new Event(EVENT_ID + 1, "Gig", new Date(), "Hall", "", 10,
+                EventStatus.PUBLISHED, new Money(12.5, "USD"));
+        List<Order> sold = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            sold.add(service.purchaseGeneralAdmission(i, gig, 2, CARD).getOrder());
+        }
+        RefundRequest filed = service.requestRefund(sold.get(0), "Sick");
+
+        BulkRefundResult result = service.cancelEvent(gig, null);
+        assertEquals(EventStatus.CANCELED, gig.getStatus());
+        assertEquals(5, result.getRefunded().size());
+        assertTrue(result.getRefunded().contains(filed), "A pending request is reused.");
+        for (Order o : sold) {
+            assertEquals(OrderStatus.REFUNDED, o.getStatus());
+            assertEquals(1, OrderDatabase.getRefundsForOrder(o.getOrderId()).size());
+        }
+        assertEquals(0, gig.getTicketsSold(), "General admission is handed back.");
+    }
+
+    @Test
+    void testLegacyGeneralAdmissionRefundLeavesSeatMapAlone() throws Exception {
+        Event gig = new Event(EVENT_ID + 3, "Gig", new Date(), "Hall", "", 10,
+                EventStatus.PUBLISHED, new Money(20.0, "USD"));
+        Seating open = service.openSeating(gig);
+        try {
+            // Seat 3 belongs to someone else
+            assertTrue(open.holdSeats(List.of(3)) && open.sellSeats(List.of(3)));
+
+            // Sold by the old console flow: "General Admission, Seat <count>"
+            Money price = new Money(20.0, "USD");
+            Order legacy = new Order(990_001, 7);
+            legacy.addTicket(new Ticket(990_001, legacy.getOrderId(), gig.getEventId(), price,
+                    "General Admission, Seat 3"));
+            gig.sellTickets(1);
+            OrderDatabase.attachPayment(legacy, new PaymentTransaction(PaymentTransaction.nextId(), "ch_legacy",
+                    PaymentType.CHARGE, price, new Date(), PaymentStatus.SUCCESS, legacy));
+
+            BulkRefundResult result = service.cancelEvent(gig, null);
+            assertEquals(1, result.getRefunded().size());
+            assertEquals(OrderStatus.REFUNDED, legacy.getStatus());
+            assertEquals(SeatStatus.SOLD, open.getSeatByNumber(3).getStatus(), "Not this order's seat.");
+            assertEquals(0, gig.getTicketsSold(), "The ticket goes back as general admission.");
+        } finally {
+            Files.deleteIfExists(SeatingManager.csvFile(gig.getEventId()));
+        }
+    }
+
+    @Test
+    void testPaymentWithoutGatewayRefIsLeftForManualRefund() {
+        Money price = new Money(20.0, "USD");
+        Order old = OrderDatabase.createGeneralAdmissionOrder(7, EVENT_ID + 5, price, 1);
+        OrderDatabase.attachPayment(old, new PaymentTransaction(PaymentTransaction.nextId(), null,
+                PaymentType.CHARGE, price, new Date(), PaymentStatus.SUCCESS, old));
+        RefundRequest request = service.requestRefund(old, "Moving away");
+        int paymentsBefore = OrderDatabase.getAllPayments().size();
+
+        BulkRefundResult result = service.approveRefunds(List.of(request), null);
+        assertEquals(List.of(request), result.getManual());
+        assertTrue(result.getRefunded().isEmpty(), "No money moved, so nothing was refunded.");
+        assertEquals(RefundStatus.PENDING, request.getStatus());
+        assertEquals(OrderStatus.CONFIRMED, old.getStatus());
+        assertEquals(paymentsBefore, OrderDatabase.getAllPayments().size(), "No refund transaction is made up.");
+    }
+
+    @Test
+    void testOverlappingApprovalsPayOutOnce() throws Exception {
+        // The first refund call waits at the gate while a second approval runs
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch gate = new CountDownLatch(1);
+        AtomicInteger refundCalls = new AtomicInteger();
+        PaymentProcessor processor = PaymentProcessor.create(new SimulatedGateway(0, 0, 0, 0, 1) {
+            @Override
+            public CompletableFuture<GatewayResult> refund(String gatewayRef, Money amount) {
+                if (refundCalls.incrementAndGet() > 1) {
+                    return super.refund(gatewayRef, amount);
+                }
+                entered.countDown();
+                return CompletableFuture.runAsync(() -> {
+                    try {
+                        gate.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }).thenCompose(v -> super.refund(gatewayRef, amount));
+            }
+        }, 10, 60_000);
+        BookingService shared = new BookingService(manager, processor);
+        Event show = new Event(EVENT_ID + 6, "Show", new Date(), "Hall", "", 20,
+                EventStatus.PUBLISHED, new Money(10.0, "USD"));
+        try {
+            Order order = shared.purchaseGeneralAdmission(5, show, 2, CARD).getOrder();
+            RefundRequest request = shared.requestRefund(order, "Double click");
+
+            CompletableFuture<BulkRefundResult> first = shared.approveRefundsAsync(List.of(request), null);
+            assertTrue(entered.await(10, TimeUnit.SECONDS), "The first approval should reach the gateway.");
+            BulkRefundResult second = shared.approveRefunds(List.of(request), null);
+            gate.countDown();
+
+            assertTrue(second.getRefunded().isEmpty(), "The order is already being refunded.");
+            assertEquals(1, second.getSkipped());
+            assertEquals(1, first.join().getRefunded().size());
+            assertEquals(1, refundCalls.get(), "The customer is paid back once.");
+            assertEquals(OrderStatus.REFUNDED, order.getStatus());
+        } finally {
+            gate.countDown();
+            shared.shutdown();
+        }
+    }
+
+    @Test
+    void testFailedCaptureUndoesTheSale() throws Exception {
+        // Checkout authorizes fine; then the gateway goes down for every capture
+        SimulatedGateway healthy = new SimulatedGateway(0, 0, 0, 0, 1);
+        PaymentProcessor processor = PaymentProcessor.create(new SimulatedGateway(0, 0, 0, 1, 1) {
+            @Override
+            public CompletableFuture<GatewayResult> authorize(String cardNumber, Money amount) {
+                return healthy.authorize(cardNumber, amount);
+            }
+        }, 10, 60_000);
+        BookingService flaky = new BookingService(manager, processor);
+        Event show = new Event(EVENT_ID + 4, "Show", new Date(), "Hall", "", 20,
+                EventStatus.PUBLISHED, new Money(10.0, "USD"));
+        Seating open = flaky.openSeating(show);
+        try {
+            BookingResult result = flaky.purchase(List.of(flaky.hold(5, open, List.of(7, 8))), CARD);
+            assertTrue(result.isConfirmed(), "Purchase should succeed: " + result);
+
+            for (int i = 0; i < PaymentProcessor.MAX_CAPTURE_ATTEMPTS; i++) {
+                processor.flushAll().join();
+            }
+            assertEquals(OrderStatus.CANCELED, result.getOrder().getStatus(), "Nothing was ever charged.");
+            assertEquals(SeatStatus.AVAILABLE, open.getSeatByNumber(7).getStatus());
+            assertEquals(SeatStatus.AVAILABLE, open.getSeatByNumber(8).getStatus());
+        } finally {
+            flaky.shutdown();
+            healthy.shutdown();
+            Files.deleteIfExists(SeatingManager.csvFile(show.getEventId()));
+        }
+    }
+
+    @Test
+    void testConcurrentAsyncPurchasesNeverOversell() {
+        Event gig = new Event(EVENT_ID, "Gig", new Date(), "Hall", "", 150,
+                EventStatus.PUBLISHED, new Money(10.0, "USD"));
+
+        List<CompletableFuture<BookingResult>> futures = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            futures.add(service.purchaseGeneralAdmissionAsync(i, gig, 1, CARD));
+        }
+        Set<Integer> orderIds = new HashSet<>();
+        Set<Integer> paymentIds = new HashSet<>();
+        int confirmed = 0;
+        for (CompletableFuture<BookingResult> f : futures) {
+            BookingResult r = f.join();
+            if (r.isConfirmed()) {
+                confirmed++;
+                assertTrue(orderIds.add(r.getOrder().getOrderId()), "Duplicate order id.");
+                assertTrue(paymentIds.add(r.getPayment().getPaymentId()), "Duplicate payment id.");
+            } else {
+                assertEquals(BookingResult.Outcome.SOLD_OUT, r.getOutcome());
+            }
+        }
+        assertEquals(150, confirmed, "Exactly capacity tickets are sold.");
+        assertEquals(0, gig.getAvailableSeats());
+    }
+}
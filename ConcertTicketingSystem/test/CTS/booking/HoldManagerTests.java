@@ -0,0 +1,136 @@
+package CTS.booking;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import CTS.enums.HoldStatus;
+import CTS.enums.SeatStatus;
+import CTS.misc.Money;
+import CTS.seating.Seat;
+import CTS.seating.Seating;
+
+class HoldManagerTests {
+
+    static {
+        // Converting holds journals orders; keep that out of the project folder
+        try {
+            System.setProperty("cts.data.dir",
+                    java.nio.file.Files.createTempDirectory("cts-test").toString());
+        } catch (java.io.IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private HoldManager manager;
+    private Seating seating;
+
+    @BeforeEach
+    void setUp() {
+        manager = new HoldManager(5, 64); // 5 ms ticks for fast tests
+        List<Seat> seats = new ArrayList<>();
+        for (int i = 1; i <= 50; i++) {
+            seats.add(new Seat(7, i, 1, "A", i, new Money(20.0, "USD")));
+        }
+        seating = Seating.of(7, seats);
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.shutdown();
+    }
+
+    @Test
+    void testPlaceHoldMarksSeatsHeld() {
+        SeatHold hold = manager.placeHold(3, seating, List.of(1, 2), 60_000);
+        assertNotNull(hold, "Hold on free seats should succeed.");
+        assertEquals(SeatStatus.HELD, seating.getSeatByNumber(1).getStatus(), "Seat 1 should be HELD.");
+        assertEquals(SeatStatus.HELD, seating.getSeatByNumber(2).getStatus(), "Seat 2 should be HELD.");
+        assertNull(manager.placeHold(4, seating, List.of(2, 3), 60_000), "Overlapping hold must be refused.");
+        assertEquals(SeatStatus.AVAILABLE, seating.getSeatByNumber(3).getStatus(), "Refused hold must not keep seat 3.");
+    }
+
+    @Test
+    void testHoldsExpireBackToAvailable() throws Exception {
+        for (int i = 1; i <= 50; i++) {
+            assertNotNull(manager.placeHold(1, seating, List.of(i), 20), "Each seat should be holdable.");
+        }
+        waitFor(() -> manager.getExpiredCount() == 50, 2_000);
+
+        assertEquals(50, manager.getExpiredCount(), "All holds should have expired.");
+        assertEquals(50, seating.getInventory().count(SeatStatus.AVAILABLE), "Every seat should be AVAILABLE again.");
+    }
+
+    @Test
+    void testHoldSurvivesUntilDeadlineAcrossWheelLaps() throws Exception {
+        // 64 buckets * 5 ms = 320 ms per lap; this hold needs several laps
+        SeatHold hold = manager.placeHold(1, seating, List.of(9), 1_000);
+        Thread.sleep(500);
+        assertTrue(hold.isActive(), "Hold must not expire early on an earlier lap.");
+        waitFor(() -> !hold.isActive(), 2_000);
+        assertEquals(HoldStatus.EXPIRED, hold.getStatus(), "Hold should expire after its deadline.");
+    }
+
+    @Test
+    void testReleaseEndsHoldImmediately() {
+        SeatHold hold = manager.placeHold(1, seating, List.of(4), 60_000);
+        assertTrue(manager.release(hold), "Releasing an active hold should succeed.");
+        assertEquals(SeatStatus.AVAILABLE, seating.getSeatByNumber(4).getStatus(), "Released seat should be AVAILABLE.");
+        assertFalse(manager.release(hold), "A hold can only end once.");
+    }
+
+    @Test
+    void testConvertToOrderSellsSeatsAndIssuesTickets() throws Exception {
+        SeatHold a = manager.placeHold(3, seating, List.of(10, 11), 30);
+        SeatHold b = manager.placeHold(3, seating, List.of(12), 30);
+
+        Order order = manager.convertToOrder(List.of(a, b));
+        assertNotNull(order, "Active holds should convert.");
+        assertEquals(3, order.getUserId(), "Order should belong to the holding user.");
+        assertEquals(3, order.getTickets().size(), "One ticket per held seat.");
+        assertEquals(HoldStatus.CONVERTED, a.getStatus(), "Hold a should be CONVERTED.");
+        assertEquals(HoldStatus.CONVERTED, b.getStatus(), "Hold b should be CONVERTED.");
+
+        // The reaper must leave converted seats alone after the deadline passes
+        Thread.sleep(150);
+        assertEquals(SeatStatus.SOLD, seating.getSeatByNumber(10).getStatus(), "Seat 10 should stay SOLD.");
+        assertNull(manager.convertToOrder(List.of(a)), "A converted hold cannot convert twice.");
+    }
+
+    @Test
+    void testOrderIsCreatedWithNoHoldMonitorHeld() {
+        SeatHold a = manager.placeHold(3, seating, List.of(30), 60_000);
+        SeatHold b = manager.placeHold(3, seating, List.of(31), 60_000);
+        List<Boolean> locked = new ArrayList<>();
+        // Listeners run inside createOrder, after its journal wait
+        OrderDatabase.Listener probe = () -> locked.add(Thread.holdsLock(a) || Thread.holdsLock(b));
+        OrderDatabase.addListener(probe);
+        try {
+            assertNotNull(manager.convertToOrder(List.of(a, b)));
+        } finally {
+            OrderDatabase.removeListener(probe);
+        }
+        assertEquals(List.of(false), locked, "The journal wait must not happen under a hold's monitor.");
+    }
+
+    @Test
+    void testSingleHoldConvertToOrder() {
+        SeatHold hold = manager.placeHold(5, seating, List.of(20), 60_000);
+        Order order = hold.convertToOrder();
+        assertNotNull(order, "convertToOrder should produce an Order.");
+        assertEquals(1, order.getTickets().size(), "Order should hold the seat's ticket.");
+        assertEquals(SeatStatus.SOLD, seating.getSeatByNumber(20).getStatus(), "Seat should be SOLD.");
+    }
+
+    private static void waitFor(java.util.function.BooleanSupplier cond, long timeoutMillis) throws InterruptedException {
+        long end = System.currentTimeMillis() + timeoutMillis;
+        while (!cond.getAsBoolean() && System.currentTimeMillis() < end) {
+            Thread.sleep(5);
+        }
+    }
+}
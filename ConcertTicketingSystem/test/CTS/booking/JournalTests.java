@@ -0,0 +1,177 @@
+package CTS.booking;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import CTS.booking.Journal.RecordType;
+import CTS.enums.PaymentStatus;
+import CTS.enums.PaymentType;
+import CTS.misc.Money;
+import CTS.misc.PaymentTransaction;
+
+class JournalTests {
+
+    static {
+        // OrderDatabase journals into the data dir; keep that out of the project folder
+        try {
+            System.setProperty("cts.data.dir", Files.createTempDirectory("cts-test").toString());
+        } catch (java.io.IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @TempDir
+    Path dir;
+
+    // ===============================================
+    //  APPEND + REPLAY
+    // ===============================================
+
+    @Test
+    void testReplayReturnsRecordsInOrder() throws Exception {
+        Path file = dir.resolve("test.journal");
+        try (Journal j = new Journal(file, true)) {
+            j.append(RecordType.ORDER, "1,5,1000,PENDING");
+            j.append(RecordType.TICKET, "1,1,9,25.0,USD,Seat 3");
+            j.append(RecordType.ORDER, "1,5,1000,CONFIRMED");
+        }
+
+        List<Journal.Entry> entries = Journal.replay(file);
+        assertEquals(3, entries.size(), "All records should replay.");
+        assertEquals(RecordType.TICKET, entries.get(1).type, "Types should round-trip.");
+        assertEquals("1,5,1000,CONFIRMED", entries.get(2).row, "Rows should round-trip unchanged.");
+    }
+
+    @Test
+    void testReopenCountsExistingRecords() throws Exception {
+        Path file = dir.resolve("test.journal");
+        try (Journal j = new Journal(file, false)) {
+            j.append(RecordType.ORDER, "1,5,1000,PENDING");
+        }
+        try (Journal j = new Journal(file, false)) {
+            assertEquals(1, j.size(), "Reopened journal should see the old record.");
+            j.append(RecordType.ORDER, "2,5,1000,PENDING");
+        }
+        assertEquals(2, Journal.replay(file).size(), "Reopening must append, not overwrite.");
+    }
+
+    @Test
+    void testCorruptRecordEndsReplay() throws Exception {
+        Path file = dir.resolve("test.journal");
+        try (Journal j = new Journal(file, false)) {
+            j.append(RecordType.ORDER, "1,5,1000,PENDING");
+            j.append(RecordType.ORDER, "2,5,1000,PENDING");
+        }
+
+        // Flip one character in the second record, then add a torn write
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        lines.set(1, lines.get(1).replace("2,5", "3,5"));
+        lines.add("0000");
+        Files.write(file, lines, StandardCharsets.UTF_8);
+
+        List<Journal.Entry> entries = Journal.replay(file);
+        assertEquals(1, entries.size(), "Replay must stop at the first bad checksum.");
+        assertEquals("1,5,1000,PENDING", entries.get(0).row, "Records before the damage survive.");
+    }
+
+    @Test
+    void testResetEmptiesJournal() throws Exception {
+        Path file = dir.resolve("test.journal");
+        try (Journal j = new Journal(file, false)) {
+            j.append(RecordType.PAYMENT, "1,1,ref,CHARGE,25.0:USD,0,SUCCESS");
+            j.reset();
+            assertEquals(0, j.size(), "Reset should clear the record count.");
+            j.append(RecordType.REFUND, "1,1,why,0,0,PENDING,-1,-1");
+        }
+        List<Journal.Entry> entries = Journal.replay(file);
+        assertEquals(1, entries.size(), "Only the record after reset should remain.");
+        assertEquals(RecordType.REFUND, entries.get(0).type, "Wrong record survived the reset.");
+    }
+
+    @Test
+    void testBookingsCompactTheJournalWithoutSaveAll() throws Exception {
+        OrderDatabase.compactAfter(OrderDatabase.journalRecords() + 10);
+        try {
+            Money price = new Money(15.0, "USD");
+            int before = 0;
+            List<Order> placed = new ArrayList<>();
+            for (int i = 0; i < 6; i++) { // an order and its ticket are two records
+                before = Math.max(before, OrderDatabase.journalRecords());
+                placed.add(OrderDatabase.createGeneralAdmissionOrder(3, 9_004, price, 1));
+            }
+            assertTrue(OrderDatabase.journalRecords() < before,
+                    "Crossing the threshold should fold the journal into the snapshots.");
+            for (Order o : placed) {
+                assertSame(o, OrderDatabase.getOrderById(o.getOrderId()), "Compaction keeps every order.");
+            }
+        } finally {
+            OrderDatabase.compactAfter(50_000);
+        }
+    }
+
+    @Test
+    void testLineBreakInFailureReasonKeepsLaterRecords() throws Exception {
+        Path file = dir.resolve("test.journal");
+        PaymentTransaction declined = new PaymentTransaction(41, "ch_41", PaymentType.CHARGE,
+                new Money(30.0, "USD"), new Date(), PaymentStatus.PENDING, null);
+        declined.markFailed("Do not honor\nContact issuer");
+        try (Journal j = new Journal(file, false)) {
+            j.append(RecordType.PAYMENT, declined.toCsvRow());
+            j.append(RecordType.ORDER, "42,5,1000,CONFIRMED");
+        }
+        List<Journal.Entry> entries = Journal.replay(file);
+        assertEquals(2, entries.size(), "A decline message must not end the replay.");
+        assertEquals("Do not honor\nContact issuer",
+                PaymentTransaction.parseRawRow(entries.get(0).row).failureReason);
+        assertEquals("42,5,1000,CONFIRMED", entries.get(1).row);
+    }
+
+    // ===============================================
+    //  GROUP COMMIT UNDER CONCURRENCY
+    // ===============================================
+
+    @Test
+    void testConcurrentAppendsAreAllDurable() throws Exception {
+        Path file = dir.resolve("test.journal");
+        int threads = 16;
+        int perThread = 200;
+
+        try (Journal j = new Journal(file, true)) {
+            List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int id = t;
+                Thread th = new Thread(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        try {
+                            j.append(RecordType.ORDER, id + "," + i);
+                        } catch (Exception e) {
+                            throw new RuntimeException(e);
+                        }
+                    }
+                });
+                workers.add(th);
+                th.start();
+            }
+            for (Thread th : workers) {
+                th.join();
+            }
+        }
+
+        Set<String> rows = new HashSet<>();
+        for (Journal.Entry e : Journal.replay(file)) {
+            rows.add(e.row);
+        }
+        assertEquals(threads * perThread, rows.size(), "Every acknowledged append must be on disk exactly once.");
+    }
+}
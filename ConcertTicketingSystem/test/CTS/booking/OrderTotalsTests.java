@@ -0,0 +1,200 @@
+package CTS.booking;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import CTS.enums.OrderStatus;
+import CTS.enums.PaymentStatus;
+import CTS.enums.PaymentType;
+import CTS.misc.Money;
+import CTS.misc.PaymentTransaction;
+import CTS.seating.Seat;
+import CTS.seating.Seating;
+
+class OrderTotalsTests {
+
+    static {
+        // createOrder journals orders; keep that out of the project folder
+        try {
+            System.setProperty("cts.data.dir",
+                    java.nio.file.Files.createTempDirectory("cts-test").toString());
+        } catch (java.io.IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private RevenueCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new RevenueCache();
+    }
+
+    private static Money usd(double amount) {
+        return new Money(amount, "USD");
+    }
+
+    private Order watchedOrder(int orderId, int userId) {
+        Order o = new Order(orderId, userId);
+        o.watch(cache::update);
+        return o;
+    }
+
+    private static void confirm(Order o) {
+        o.setPayment(new PaymentTransaction(o.getOrderId(), "ref", PaymentType.CHARGE,
+                o.getTotalAmount(), new Date(), PaymentStatus.SUCCESS, o));
+    }
+
+    // --- Running total ---
+
+    @Test
+    void testTotalFollowsAddRemoveAndPriceChange() {
+        Order o = new Order(1, 1);
+        Ticket a = new Ticket(1, 1, 10, usd(40.50), "Seat 1");
+        Ticket b = new Ticket(2, 1, 10, usd(19.99), "Seat 2");
+
+        o.addTicket(a);
+        o.addTicket(b);
+        assertEquals(usd(60.49), o.getTotalAmount(), "Total should be the sum of both tickets.");
+
+        o.updateTicketPrice(a, usd(45.00));
+        assertEquals(usd(64.99), o.getTotalAmount(), "Total should move by the price difference.");
+        assertEquals(usd(45.00), a.getPrice(), "Ticket should carry its new price.");
+
+        assertTrue(o.removeTicket(b), "Ticket in the cart should be removable.");
+        assertFalse(o.removeTicket(b), "Removing twice should report false.");
+        assertEquals(usd(45.00), o.getTotalAmount(), "Removed ticket's price should come off the total.");
+
+        o.calculateTotal();
+        assertEquals(usd(45.00), o.getTotalAmount(), "Recount should agree with the running total.");
+    }
+
+    @Test
+    void testTotalTakesCurrencyOfFirstTicket() {
+        Order o = new Order(1, 1);
+        o.addTicket(new Ticket(1, 1, 10, new Money(1500, "JPY"), "Seat 1"));
+        o.addTicket(new Ticket(2, 1, 10, new Money(500, "JPY"), "Seat 2"));
+        assertEquals(new Money(2000, "JPY"), o.getTotalAmount(), "Empty USD total should switch to JPY.");
+    }
+
+    @Test
+    void testPriceChangeForForeignTicketIsRejected() {
+        Order o = new Order(1, 1);
+        Ticket stranger = new Ticket(9, 2, 10, usd(10.0), "Seat 9");
+        assertThrows(IllegalArgumentException.class, () -> o.updateTicketPrice(stranger, usd(5.0)),
+                "Only tickets in the order can be repriced through it.");
+    }
+
+    @Test
+    void testTicketListIsReadOnly() {
+        Order o = new Order(1, 1);
+        assertThrows(UnsupportedOperationException.class,
+                () -> o.getTickets().add(new Ticket(1, 1, 10, usd(10.0), "Seat 1")),
+                "Direct cart edits would bypass the running total.");
+    }
+
+    // --- Revenue cache ---
+
+    @Test
+    void testOnlyConfirmedOrdersCount() {
+        Order o = watchedOrder(1, 5);
+        o.addTicket(new Ticket(1, 1, 10, usd(30.0), "Seat 1"));
+        assertEquals(usd(0.0), cache.forUser(5, "USD"), "Pending order should not count.");
+
+        confirm(o);
+        assertEquals(usd(30.0), cache.forUser(5, "USD"), "Confirmed order should count for its user.");
+        assertEquals(usd(30.0), cache.forEvent(10, "USD"), "Confirmed order should count for its event.");
+        assertEquals(usd(30.0), cache.overall("USD"), "Confirmed order should count overall.");
+    }
+
+    @Test
+    void testRefundAndCancelTakeRevenueBack() {
+        Order a = watchedOrder(1, 5);
+        a.addTicket(new Ticket(1, 1, 10, usd(30.0), "Seat 1"));
+        Order b = watchedOrder(2, 5);
+        b.addTicket(new Ticket(2, 2, 10, usd(20.0), "Seat 2"));
+        confirm(a);
+        confirm(b);
+        assertEquals(usd(50.0), cache.forUser(5, "USD"), "Both orders should count.");
+
+        a.markRefunded();
+        assertEquals(usd(20.0), cache.forUser(5, "USD"), "Refunded order should drop out.");
+        assertEquals(usd(20.0), cache.forEvent(10, "USD"), "Refunded order should drop out of its event.");
+
+        b.cancel();
+        assertEquals(usd(0.0), cache.forUser(5, "USD"), "Canceled order should drop out.");
+        assertEquals(usd(0.0), cache.overall("USD"), "Nothing confirmed should be left.");
+    }
+
+    @Test
+    void testRepricingConfirmedOrderMovesRevenue() {
+        Order o = watchedOrder(1, 5);
+        Ticket t1 = new Ticket(1, 1, 10, usd(30.0), "Seat 1");
+        Ticket t2 = new Ticket(2, 1, 11, usd(12.5), "Seat 2");
+        o.addTicket(t1);
+        o.addTicket(t2);
+        confirm(o);
+
+        o.updateTicketPrice(t1, usd(25.0));
+        o.removeTicket(t2);
+
+        assertEquals(usd(25.0), cache.forUser(5, "USD"), "User revenue should follow the new total.");
+        assertEquals(usd(25.0), cache.forEvent(10, "USD"), "Event 10 should reflect the new price.");
+        assertEquals(usd(0.0), cache.forEvent(11, "USD"), "Event 11 lost its only ticket.");
+    }
+
+    @Test
+    void testCacheMatchesFullRecount() {
+        List<Order> orders = new ArrayList<>();
+        int ticketId = 1;
+        for (int id = 1; id <= 200; id++) {
+            Order o = watchedOrder(id, id % 7);
+            for (int k = 0; k < 3; k++) {
+                o.addTicket(new Ticket(ticketId++, id, id % 4, usd(10.0 + (ticketId % 13) * 0.25), "Seat " + k));
+            }
+            confirm(o);
+            if (id % 5 == 0) o.markRefunded();
+            if (id % 11 == 0) o.cancel();
+            orders.add(o);
+        }
+
+        for (int user = 0; user < 7; user++) {
+            long expected = 0;
+            for (Order o : orders) {
+                if (o.getUserId() == user && o.getStatus() == OrderStatus.CONFIRMED) {
+                    expected += o.getTotalAmount().getMinorUnits();
+                }
+            }
+            assertEquals(Money.ofMinor(expected, "USD"), cache.forUser(user, "USD"), "User " + user + " revenue.");
+        }
+    }
+
+    // --- OrderDatabase ---
+
+    @Test
+    void testCreateOrderPricesTicketsFromSeating() {
+        List<Seat> seats = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            seats.add(new Seat(901, i, 1, "A", i, usd(20.0 + i)));
+        }
+        Seating seating = Seating.of(901, seats);
+
+        Order o = OrderDatabase.createOrder(9001, seating, List.of(1, 3));
+        assertEquals(usd(44.0), o.getTotalAmount(), "Tickets should carry the seats' prices.");
+        assertEquals(usd(0.0), OrderDatabase.getRevenueForEvent(901, "USD"), "Unpaid order is not revenue.");
+
+        OrderDatabase.attachPayment(o, new PaymentTransaction(90_001, "ref", PaymentType.CHARGE,
+                o.getTotalAmount(), new Date(), PaymentStatus.SUCCESS, o));
+        assertEquals(usd(44.0), OrderDatabase.getRevenueForEvent(901, "USD"), "Paid order should count.");
+        assertEquals(usd(44.0), OrderDatabase.getRevenueForUser(9001, "USD"), "Paid order should count for its user.");
+
+        o.markRefunded();
+        assertEquals(usd(0.0), OrderDatabase.getRevenueForEvent(901, "USD"), "Refund should take it back.");
+    }
+}
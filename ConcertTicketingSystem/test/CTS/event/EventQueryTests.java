@@ -0,0 +1,166 @@
+package CTS.event;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import CTS.enums.EventStatus;
+import CTS.misc.Money;
+
+class EventQueryTests {
+
+    private static final long DAY = 24L * 60 * 60 * 1000;
+
+    private EventIndex index;
+    private List<Event> events;
+    private final Artist jazzTrio = new Artist(1, "Jazz Trio", "Jazz");
+    private final Artist rockBand = new Artist(2, "Rock Band", "rock");
+
+    @BeforeEach
+    void setUp() {
+        index = new EventIndex();
+        events = new ArrayList<>();
+        // id, day, venue, price, capacity, artist
+        add(1, 1, "Blue Note", 30.0, 100, jazzTrio);
+        add(2, 2, "Red Rocks", 80.0, 100, rockBand);
+        add(3, 3, "Blue Note", 45.0, 100, jazzTrio);
+        add(4, 4, "blue note", 60.0, 0, rockBand);     // sold out (capacity 0)
+        add(5, 5, "Red Rocks", 20.0, 100, jazzTrio);
+        Event draft = new Event(6, "Draft", new Date(6 * DAY), "Blue Note", "", 100,
+                EventStatus.DRAFT, new Money(10.0, "USD"));
+        index.put(draft);
+    }
+
+    private void add(int id, int day, String venue, double price, int capacity, Artist artist) {
+        Event e = new Event(id, "Event " + id, new Date(day * DAY), venue, "", capacity,
+                EventStatus.PUBLISHED, new Money(price, "USD"));
+        e.addLineupEntry(new LineupEntry(id, 1, "", artist));
+        events.add(e);
+        index.put(e);
+    }
+
+    private static List<Integer> ids(EventPage page) {
+        List<Integer> ids = new ArrayList<>();
+        for (Event e : page.getEvents()) ids.add(e.getEventId());
+        return ids;
+    }
+
+    @Test
+    void testDefaultQueryIsPublishedByDate() {
+        EventPage page = index.query(new EventQuery());
+        assertEquals(List.of(1, 2, 3, 4, 5), ids(page), "Drafts are excluded; date order.");
+        assertEquals(5, page.getTotal());
+        assertNull(page.getNextCursor(), "Everything fits on one page.");
+    }
+
+    @Test
+    void testFiltersCombine() {
+        EventPage page = index.query(new EventQuery().venue("BLUE NOTE").genre("jazz"));
+        assertEquals(List.of(1, 3), ids(page), "Venue and genre are case-insensitive and ANDed.");
+
+        page = index.query(new EventQuery().between(new Date(2 * DAY), new Date(5 * DAY)));
+        assertEquals(List.of(2, 3, 4), ids(page), "Date range includes from and excludes to.");
+
+        page = index.query(new EventQuery().priceBetween(new Money(30.0, "USD"), new Money(60.0, "USD")));
+        assertEquals(List.of(1, 3, 4), ids(page), "Price range is inclusive.");
+
+        page = index.query(new EventQuery().priceBetween(null, new Money(60.0, "EUR")));
+        assertTrue(page.getEvents().isEmpty(), "Other-currency bounds match nothing.");
+
+        page = index.query(new EventQuery().venue("Blue Note").availableOnly());
+        assertEquals(List.of(1, 3), ids(page), "Sold-out event 4 is left out.");
+    }
+
+    @Test
+    void testSortByPrice() {
+        assertEquals(List.of(5, 1, 3, 4, 2), ids(index.query(new EventQuery().sortBy(EventQuery.Sort.PRICE))));
+        assertEquals(List.of(2, 4, 3, 1, 5), ids(index.query(new EventQuery().sortBy(EventQuery.Sort.PRICE_DESC))));
+        assertEquals(List.of(5, 4, 3, 2, 1), ids(index.query(new EventQuery().sortBy(EventQuery.Sort.DATE_DESC))));
+    }
+
+    @Test
+    void testCursorPagination() {
+        EventQuery q = new EventQuery().sortBy(EventQuery.Sort.PRICE).limit(2);
+        EventPage first = index.query(q);
+        assertEquals(List.of(5, 1), ids(first));
+        assertNotNull(first.getNextCursor());
+
+        EventPage second = index.query(q.after(first.getNextCursor()));
+        assertEquals(List.of(3, 4), ids(second));
+
+        EventPage third = index.query(q.after(second.getNextCursor()));
+        assertEquals(List.of(2), ids(third));
+        assertNull(third.getNextCursor(), "Last page has no cursor.");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> index.query(new EventQuery().after(first.getNextCursor())),
+                "A PRICE cursor cannot page a DATE query.");
+    }
+
+    @Test
+    void testDatePagingPutsUndatedLast() {
+        Event undated = new Event(7, "TBA", null, "Red Rocks", "", 100,
+                EventStatus.PUBLISHED, new Money(25.0, "USD"));
+        index.put(undated);
+
+        for (EventQuery.Sort sort : new EventQuery.Sort[] { EventQuery.Sort.DATE, EventQuery.Sort.DATE_DESC }) {
+            EventQuery q = new EventQuery().sortBy(sort).limit(2);
+            List<Integer> seen = new ArrayList<>();
+            EventPage p;
+            do {
+                p = index.query(q);
+                seen.addAll(ids(p));
+                q.after(p.getNextCursor());
+            } while (p.getNextCursor() != null);
+            List<Integer> expected = (sort == EventQuery.Sort.DATE)
+                    ? List.of(1, 2, 3, 4, 5, 7) : List.of(5, 4, 3, 2, 1, 7);
+            assertEquals(expected, seen, sort + " pages should cover every event once, undated last.");
+        }
+    }
+
+    @Test
+    void testFacetCounts() {
+        EventPage all = index.query(new EventQuery());
+        assertEquals(Integer.valueOf(3), all.getVenueCounts().get("Blue Note"), "Venue spellings fold together.");
+        assertEquals(Integer.valueOf(2), all.getVenueCounts().get("Red Rocks"));
+        assertEquals(Integer.valueOf(3), all.getGenreCounts().get("Jazz"));
+        assertEquals(Integer.valueOf(2), all.getGenreCounts().get("rock"));
+
+        EventPage cheap = index.query(new EventQuery().priceBetween(null, new Money(45.0, "USD")));
+        assertEquals(Integer.valueOf(3), cheap.getGenreCounts().get("Jazz"));
+        assertNull(cheap.getGenreCounts().get("rock"), "No rock event is that cheap.");
+    }
+
+    @Test
+    void testReindexMovesEventBetweenFacets() {
+        Event e2 = events.get(1);
+        e2.cancel();
+        e2.setVenue("Blue Note");
+        index.put(e2);
+
+        EventPage page = index.query(new EventQuery());
+        assertEquals(List.of(1, 3, 4, 5), ids(page), "Canceled event leaves the published set.");
+        assertEquals(Integer.valueOf(1), page.getVenueCounts().get("Red Rocks"), "Incremental count drops.");
+        assertEquals(Integer.valueOf(1), page.getGenreCounts().get("rock"));
+
+        EventPage canceled = index.query(new EventQuery().status(EventStatus.CANCELED).venue("blue note"));
+        assertEquals(List.of(2), ids(canceled), "It is now indexed under its new status and venue.");
+
+        e2.setPrice(new Money(5.0, "USD"));
+        index.put(e2);
+        assertEquals(List.of(2), ids(index.query(new EventQuery().status(null)
+                .priceBetween(null, new Money(5.0, "USD")))), "Price index should follow the new price.");
+    }
+
+    @Test
+    void testAllReturnsInsertionOrder() {
+        List<Integer> ids = new ArrayList<>();
+        for (Event e : index.all(EventStatus.PUBLISHED)) ids.add(e.getEventId());
+        assertEquals(List.of(1, 2, 3, 4, 5), ids);
+    }
+}
@@ -83,6 +83,16 @@ class EventTests {
         assertEquals(0, testEvent.getAvailableSeats(), "Available seats should be 0 when sold out.");
     }
     
+    @Test
+    void testSellTicketsIsAllOrNothing() {
+        assertTrue(testEvent.sellTickets(INITIAL_CAPACITY - 1), "Should sell all but one ticket at once.");
+        assertFalse(testEvent.sellTickets(2), "Should refuse a request larger than what is left.");
+        assertEquals(1, testEvent.getAvailableSeats(), "A refused request should sell nothing.");
+
+        testEvent.unSellTickets(INITIAL_CAPACITY + 5);
+        assertEquals(0, testEvent.getTicketsSold(), "Unselling should stop at zero.");
+    }
+
     @Test
     void testUnSellTicket() {
         // Sell a ticket first
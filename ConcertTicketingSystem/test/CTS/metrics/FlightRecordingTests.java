@@ -0,0 +1,71 @@
+package CTS.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import CTS.misc.Money;
+import CTS.seating.Seat;
+import CTS.seating.Seating;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+class FlightRecordingTests {
+
+    @Test
+    void testProfileEnablesCtsEvents() throws Exception {
+        String settings = FlightRecording.profile().getSettings().toString();
+        assertTrue(settings.contains("CTS.Checkout#enabled=true"));
+        assertTrue(settings.contains("CTS.FileIO#enabled=true"));
+        assertTrue(settings.contains("CTS.SeatTransition#enabled=true"));
+    }
+
+    @Test
+    void testEventsAreRecorded() throws Exception {
+        List<Seat> list = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            list.add(new Seat(77, i, 1, "A", i, new Money(50.0, "USD")));
+        }
+        Seating seating = Seating.of(77, list);
+        Path data = Files.createTempFile("cts-jfr", ".csv");
+        Files.write(data, new byte[123]);
+        Path out = Files.createTempFile("cts-test", ".jfr");
+
+        try (Recording recording = new Recording(FlightRecording.profile())) {
+            recording.start();
+            assertTrue(seating.holdSeats(List.of(1, 2, 3)));
+            assertFalse(seating.holdSeats(List.of(3, 4)));
+            FileIoEvent.begin(FileIoEvent.SAVE).finish(data, 5);
+            recording.stop();
+            recording.dump(out);
+        }
+
+        List<RecordedEvent> transitions = new ArrayList<>();
+        RecordedEvent io = null;
+        for (RecordedEvent e : RecordingFile.readAllEvents(out)) {
+            String name = e.getEventType().getName();
+            if (name.equals("CTS.SeatTransition") && e.getInt("eventId") == 77) transitions.add(e);
+            if (name.equals("CTS.FileIO") && e.getString("path").equals(data.toString())) io = e;
+        }
+        assertEquals(2, transitions.size());
+        assertEquals("AVAILABLE", transitions.get(0).getString("from"));
+        assertEquals("HELD", transitions.get(0).getString("to"));
+        assertEquals(3, transitions.get(0).getInt("seats"));
+        assertTrue(transitions.get(0).getBoolean("succeeded"));
+        assertFalse(transitions.get(1).getBoolean("succeeded"));
+
+        assertNotNull(io);
+        assertEquals("save", io.getString("operation"));
+        assertEquals(5, io.getLong("records"));
+        assertEquals(123, io.getLong("bytes"));
+
+        Files.deleteIfExists(data);
+        Files.deleteIfExists(out);
+    }
+}
@@ -0,0 +1,90 @@
+package CTS.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.Test;
+
+class MetricsTests {
+
+    @Test
+    void testCounterSumsAcrossThreads() throws Exception {
+        Counter c = Metrics.counter("test.threads");
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread th = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) c.inc();
+            });
+            threads.add(th);
+            th.start();
+        }
+        for (Thread th : threads) th.join();
+        assertEquals(80_000, c.get());
+    }
+
+    @Test
+    void testSameNameSameMetric() {
+        assertSame(Metrics.counter("test.same"), Metrics.counter("test.same"));
+        assertSame(Metrics.histogram("test.same.h"), Metrics.histogram("test.same.h"));
+    }
+
+    @Test
+    void testNameCannotChangeType() {
+        Metrics.counter("test.clash");
+        assertThrows(IllegalArgumentException.class, () -> Metrics.histogram("test.clash"));
+        assertThrows(IllegalArgumentException.class, () -> Metrics.gauge("test.clash", () -> 1));
+    }
+
+    @Test
+    void testHistogramPercentiles() {
+        Histogram h = new Histogram();
+        for (long v = 1; v <= 100_000; v++) {
+            h.record(v * 1_000); // 1 us .. 100 ms
+        }
+        assertEquals(100_000, h.count());
+        assertEquals(100_000_000L, h.max());
+        // Buckets are about 6% wide
+        assertEquals(50_000_000, h.percentile(0.50), 50_000_000 * 0.07);
+        assertEquals(99_000_000, h.percentile(0.99), 99_000_000 * 0.07);
+        assertEquals(50_000_500, h.mean(), 1);
+    }
+
+    @Test
+    void testEmptyHistogram() {
+        Histogram h = new Histogram();
+        assertEquals(0, h.count());
+        assertEquals(0, h.percentile(0.99));
+        assertEquals(0.0, h.mean());
+    }
+
+    @Test
+    void testExportedOverJmx() throws Exception {
+        Metrics.counter("test.jmx").add(42);
+        long[] value = { 7 };
+        Metrics.gauge("test.jmx.gauge", () -> value[0]);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        assertEquals(42L, server.getAttribute(new ObjectName("CTS:type=Counter,name=test.jmx"), "Count"));
+        ObjectName gauge = new ObjectName("CTS:type=Gauge,name=test.jmx.gauge");
+        assertEquals(7L, server.getAttribute(gauge, "Value"));
+        value[0] = 8;
+        assertEquals(8L, server.getAttribute(gauge, "Value"));
+    }
+
+    @Test
+    void testDumpListsMetrics() {
+        Metrics.counter("test.dump").inc();
+        Metrics.histogram("test.dump.time").record(2_000_000);
+        String dump = Metrics.dump();
+        assertTrue(dump.contains("test.dump "));
+        assertTrue(dump.contains("count=1"));
+        assertTrue(dump.contains("test.dump.time"));
+        assertTrue(dump.contains("p99=2."));
+    }
+}
@@ -0,0 +1,167 @@
+package CTS.misc;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import CTS.enums.EventStatus;
+
+class CsvReaderTests {
+
+    private static CsvReader reader(String text) {
+        return new CsvReader(new StringReader(text));
+    }
+
+    // ===============================================
+    //  RECORD SPLITTING TESTS
+    // ===============================================
+
+    @Test
+    void testSplitAndUnescape() throws IOException {
+        CsvReader r = reader("1,Pop\\, Rock,Folk\\\\Acoustic,\n");
+        assertTrue(r.next());
+        assertEquals(4, r.fieldCount());
+        assertEquals("Pop, Rock", r.getString(1), "Escaped comma should stay in the field.");
+        assertEquals("Folk\\Acoustic", r.getString(2), "Escaped backslash should unescape.");
+        assertTrue(r.isEmpty(3), "Trailing comma gives an empty last field.");
+        assertFalse(r.next());
+    }
+
+    @Test
+    void testSkipsBlankAndCommentLines() throws IOException {
+        CsvReader r = reader("# header\n\n   \n7,a\r\n8,b");
+        assertTrue(r.next());
+        assertEquals(7, r.getInt(0));
+        assertEquals("a", r.getString(1), "CR of a CRLF line ending should be dropped.");
+        assertEquals(4, r.lineNumber());
+        assertTrue(r.next());
+        assertEquals("b", r.getString(1), "Last line without a newline should still be read.");
+        assertFalse(r.next());
+    }
+
+    @Test
+    void testFieldLimitKeepsRemainder() throws IOException {
+        CsvReader r = reader("1,2,notes, with, commas\n");
+        assertTrue(r.next(3));
+        assertEquals(3, r.fieldCount());
+        assertEquals("notes, with, commas", r.getString(2));
+    }
+
+    @Test
+    void testLongLineGrowsBuffers() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            sb.append(i).append(',');
+        }
+        sb.append("end\n");
+        CsvReader r = reader(sb.toString());
+        assertTrue(r.next());
+        assertEquals(5001, r.fieldCount());
+        assertEquals(4999, r.getInt(4999));
+        assertEquals("end", r.getString(5000));
+    }
+
+    // ===============================================
+    //  TYPED FIELD TESTS
+    // ===============================================
+
+    @Test
+    void testNumbers() throws IOException {
+        CsvReader r = reader("-42,+7,9223372036854775807,20.0,-1234.5678,1e3,0.1\n");
+        assertTrue(r.next());
+        assertEquals(-42, r.getInt(0));
+        assertEquals(7, r.getInt(1));
+        assertEquals(Long.MAX_VALUE, r.getLong(2));
+        assertEquals(20.0, r.getDouble(3));
+        assertEquals(-1234.5678, r.getDouble(4));
+        assertEquals(1000.0, r.getDouble(5), "Exponents should fall back to Double.parseDouble.");
+        assertEquals(0.1, r.getDouble(6), "Fast path must round like Double.parseDouble.");
+    }
+
+    @Test
+    void testMalformedNumbersReportLine() throws IOException {
+        CsvReader r = reader("# header\nabc,,2147483648,-\n");
+        assertTrue(r.next());
+        NumberFormatException e = assertThrows(NumberFormatException.class, () -> r.getInt(0));
+        assertTrue(e.getMessage().contains("Line 2"), "Message should carry the line number.");
+        assertThrows(NumberFormatException.class, () -> r.getInt(1));
+        assertThrows(NumberFormatException.class, () -> r.getInt(2));
+        assertThrows(NumberFormatException.class, () -> r.getLong(3));
+        assertThrows(IllegalArgumentException.class, () -> r.getString(4));
+    }
+
+    @Test
+    void testEnumsAndMoney() throws IOException {
+        CsvReader r = reader("PUBLISHED,120.00:EUR,,BOGUS\n");
+        assertTrue(r.next());
+        assertEquals(EventStatus.PUBLISHED, r.getEnum(0, EventStatus.class));
+        Money m = r.getMoney(1);
+        assertEquals(120.0, m.getAmount(), 0.001);
+        assertEquals("EUR", m.getCurrency());
+        assertEquals(0.0, r.getMoney(2).getAmount(), 0.001, "Empty money column should be zero.");
+        assertThrows(IllegalArgumentException.class, () -> r.getEnum(3, EventStatus.class));
+    }
+
+    @Test
+    void testMoneyParsesToMinorUnits() throws IOException {
+        CsvReader r = reader("1234.5678:EUR,40.5,USD,1e2:JPY,x,USD\n");
+        assertTrue(r.next());
+        assertEquals(123457L, r.getMoney(0).getMinorUnits(), "Extra decimals round half-up.");
+        assertEquals(Money.ofMinor(4050, "USD"), r.getMoney(1, 2));
+        assertEquals(100L, r.getMoney(3).getMinorUnits(), "Exponent form falls back to parseDouble.");
+        assertThrows(NumberFormatException.class, () -> r.getMoney(4, 5));
+    }
+
+    @Test
+    void testMoneyWithManyDecimalsRounds() throws IOException {
+        CsvReader r = reader("0.0000000000000000001:USD,2.0000000000000000006:USD,0.00000000000000000:USD\n");
+        assertTrue(r.next());
+        assertEquals(0L, r.getMoney(0).getMinorUnits(), "Far past the cents it rounds to zero.");
+        assertEquals(200L, r.getMoney(1).getMinorUnits());
+        assertEquals(0L, r.getMoney(2).getMinorUnits());
+    }
+
+    // ===============================================
+    //  WRITER ROUND TRIP TESTS
+    // ===============================================
+
+    @Test
+    void testWriterRoundTrip() throws IOException {
+        StringWriter out = new StringWriter();
+        try (CsvWriter w = new CsvWriter(out)) {
+            w.comment("id,name,count,price,status,total");
+            w.field(-5).field("a,b\\c").field(Long.MIN_VALUE).field(19.99)
+             .field(EventStatus.CANCELED).field(new Money(50.0, "USD"));
+            w.endRow();
+        }
+        CsvReader r = reader(out.toString());
+        assertTrue(r.next());
+        assertEquals(-5, r.getInt(0));
+        assertEquals("a,b\\c", r.getString(1));
+        assertEquals(Long.MIN_VALUE, r.getLong(2));
+        assertEquals(19.99, r.getDouble(3));
+        assertEquals(EventStatus.CANCELED, r.getEnum(4, EventStatus.class));
+        assertEquals("USD", r.getMoney(5).getCurrency());
+        assertFalse(r.next());
+    }
+
+    @Test
+    void testLineBreaksInFieldsStayInOneRecord() throws IOException {
+        StringWriter out = new StringWriter();
+        try (CsvWriter w = new CsvWriter(out)) {
+            w.field(1).field("card declined\r\ncall your bank\\n");
+            w.endRow();
+            w.field(2).field("next");
+            w.endRow();
+        }
+        CsvReader r = reader(out.toString());
+        assertTrue(r.next());
+        assertEquals("card declined\r\ncall your bank\\n", r.getString(1), "Line breaks should round-trip.");
+        assertTrue(r.next());
+        assertEquals(2, r.getInt(0), "The next record must not be split off the first.");
+        assertFalse(r.next());
+    }
+}
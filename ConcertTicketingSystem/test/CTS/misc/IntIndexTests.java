@@ -0,0 +1,65 @@
+package CTS.misc;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class IntIndexTests {
+
+    @Test
+    void testPutGetAndOverwrite() {
+        IntIndex<String> idx = new IntIndex<>();
+        assertNull(idx.put(7, "seven"), "First put should return null.");
+        assertEquals("seven", idx.get(7), "Value should be retrievable by key.");
+        assertEquals("seven", idx.put(7, "SEVEN"), "Overwrite should return the old value.");
+        assertEquals("SEVEN", idx.get(7), "Overwrite should replace the value.");
+        assertEquals(1, idx.size(), "Overwriting must not grow the index.");
+        assertNull(idx.get(8), "Missing key should return null.");
+    }
+
+    @Test
+    void testGrowsPastInitialCapacity() {
+        IntIndex<Integer> idx = new IntIndex<>();
+        for (int i = 1; i <= 10_000; i++) {
+            idx.put(i, i * 2);
+        }
+        assertEquals(10_000, idx.size(), "All keys should be stored.");
+        for (int i = 1; i <= 10_000; i++) {
+            assertEquals(Integer.valueOf(i * 2), idx.get(i), "Every key should survive rehashing.");
+        }
+    }
+
+    @Test
+    void testRemoveKeepsOtherKeysReachable() {
+        // Mirror random operations against a HashMap to catch probe-chain bugs
+        IntIndex<Integer> idx = new IntIndex<>();
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random rnd = new Random(42);
+
+        for (int i = 0; i < 50_000; i++) {
+            int key = rnd.nextInt(2_000) - 1_000;
+            if (rnd.nextBoolean()) {
+                assertEquals(expected.put(key, i), idx.put(key, i), "put should return previous value.");
+            } else {
+                assertEquals(expected.remove(key), idx.remove(key), "remove should return removed value.");
+            }
+        }
+
+        assertEquals(expected.size(), idx.size(), "Sizes should match the reference map.");
+        for (Map.Entry<Integer, Integer> e : expected.entrySet()) {
+            assertEquals(e.getValue(), idx.get(e.getKey()), "Every live key should still be found.");
+        }
+    }
+
+    @Test
+    void testComputeIfAbsent() {
+        IntIndex<StringBuilder> idx = new IntIndex<>();
+        idx.computeIfAbsent(3, k -> new StringBuilder()).append("a");
+        idx.computeIfAbsent(3, k -> new StringBuilder()).append("b");
+        assertEquals("ab", idx.get(3).toString(), "computeIfAbsent should reuse the existing value.");
+    }
+}
@@ -3,7 +3,9 @@ package CTS.misc;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 class MoneyTests {
@@ -42,8 +44,17 @@ class MoneyTests {
     @Test
     void testToInlineString_Decimal() {
         Money m = new Money(1234.5678, EUR);
-        // Tests the output format using Double.toString() default precision
-        assertEquals("1234.5678:EUR", m.toInlineString(), "Output should handle decimals correctly.");
+        // Amounts are held in minor units, so EUR rounds half-up to cents
+        assertEquals("1234.57:EUR", m.toInlineString(), "Output should handle decimals correctly.");
+    }
+
+    @Test
+    void testToInlineString_MatchesDoubleToStringForPrices() {
+        // Same text older builds wrote with Double.toString, so files stay compatible
+        for (double d : new double[] { 0.0, 0.1, 0.05, 40.5, 19.99, 100.0, 1234567.89, -3.5 }) {
+            assertEquals(Double.toString(d) + ":USD", new Money(d, USD).toInlineString());
+        }
+        assertEquals("100.0:JPY", new Money(100, "JPY").toInlineString(), "JPY has no minor digits.");
     }
 
     @Test
@@ -60,9 +71,17 @@ class MoneyTests {
 
     @Test
     void testFromInlineString_Standard() {
-        Money m = Money.fromInlineString("100.25:JPY");
+        Money m = Money.fromInlineString("100.25:GBP");
         assertEquals(100.25, m.getAmount(), 0.001, "Amount should be parsed correctly.");
-        assertEquals("JPY", m.getCurrency(), "Currency should be parsed correctly.");
+        assertEquals("GBP", m.getCurrency(), "Currency should be parsed correctly.");
+    }
+
+    @Test
+    void testFromInlineString_RoundsToMinorUnit() {
+        // JPY has no minor unit, so an old "100.25" value rounds to whole yen
+        Money m = Money.fromInlineString("100.25:JPY");
+        assertEquals(100L, m.getMinorUnits(), "Amount should round to the currency's minor unit.");
+        assertEquals(0, m.getScale());
     }
     
     @Test
@@ -82,6 +101,52 @@ class MoneyTests {
     }
 
 
+    // ===============================================
+    //  FIXED-POINT ARITHMETIC TESTS
+    // ===============================================
+
+    @Test
+    void testMinorUnitsAreExact() {
+        Money m = new Money(0.1 + 0.2, USD);
+        assertEquals(30L, m.getMinorUnits(), "0.1 + 0.2 should be exactly 30 cents.");
+        assertEquals(new Money(0.3, USD), m);
+        assertEquals(29L, new Money(0.285, USD).getMinorUnits(), "0.285 rounds half-up to 29 cents.");
+        assertEquals(Money.ofMinor(4050, USD), new Money(40.5, USD));
+    }
+
+    @Test
+    void testArithmetic() {
+        Money a = new Money(19.99, USD);
+        Money b = new Money(0.01, USD);
+        assertEquals(new Money(20.00, USD), a.plus(b));
+        assertEquals(new Money(19.98, USD), a.minus(b));
+        assertEquals(new Money(59.97, USD), a.times(3));
+        assertEquals(new Money(-19.99, USD), a.negate());
+        assertTrue(a.compareTo(b) > 0);
+        assertTrue(Money.zero(USD).isZero());
+        assertEquals(1999L, a.getMinorUnits(), "Operations must not change the operands.");
+    }
+
+    @Test
+    void testMixedCurrenciesAreRejected() {
+        Money usd = new Money(1.0, USD);
+        Money eur = new Money(1.0, EUR);
+        assertThrows(IllegalArgumentException.class, () -> usd.plus(eur));
+        assertThrows(IllegalArgumentException.class, () -> Money.sum(List.of(usd, eur), USD));
+    }
+
+    @Test
+    void testSumOverCollection() {
+        List<Money> prices = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            prices.add(new Money(0.1, USD));
+        }
+        prices.add(null);
+        Money total = Money.sum(prices, USD);
+        assertEquals(10000L, total.getMinorUnits(), "1000 x 0.10 should be exactly 100.00.");
+        assertEquals(Money.zero(EUR), Money.sum(List.of(), EUR));
+    }
+
     // ===============================================
     //  EQUALITY TESTS (Verifies the equals() and hashCode() methods)
     // ===============================================
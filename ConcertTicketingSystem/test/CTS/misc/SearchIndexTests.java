@@ -0,0 +1,102 @@
+package CTS.misc;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import CTS.misc.SearchIndex.Document;
+
+class SearchIndexTests {
+
+    private SearchIndex<String> index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SearchIndex<>();
+        put(1, "Metallica World Tour", "Stadium Arena", "Heavy metal night");
+        put(2, "Jazz at Night", "Blue Note", "Smooth jazz trio");
+        put(3, "Beyoncé Renaissance", "Stade de France", "Pop spectacle");
+        put(4, "Metal Mania", "Club Rock", "Three metal bands");
+    }
+
+    private void put(int id, String name, String venue, String description) {
+        index.put(id, name, new Document().add(name, 10).add(venue, 4).add(description, 1));
+    }
+
+    @Test
+    void testTokenizeFoldsCaseAndDiacritics() {
+        List<String> tokens = new ArrayList<>();
+        SearchIndex.tokenize("Beyoncé, MOTÖRHEAD & Sigur Rós!", tokens);
+        assertEquals(List.of("beyonce", "motorhead", "sigur", "ros"), tokens);
+    }
+
+    @Test
+    void testFoldedQueryMatchesAccentedText() {
+        assertEquals(List.of("Beyoncé Renaissance"), index.search("BEYONCE", 10));
+        assertEquals(List.of("Beyoncé Renaissance"), index.search("stade france", 10));
+    }
+
+    @Test
+    void testAllTokensMustMatch() {
+        assertEquals(List.of("Jazz at Night"), index.search("jazz night", 10));
+        assertTrue(index.search("jazz metallica", 10).isEmpty(), "No item has both words.");
+    }
+
+    @Test
+    void testLastTokenMatchesAsPrefix() {
+        List<String> hits = index.search("metal", 10);
+        assertTrue(hits.contains("Metallica World Tour"), "Prefix should reach 'metallica'.");
+        assertTrue(hits.contains("Metal Mania"), "Exact term should match.");
+        assertTrue(index.search("m", 10).isEmpty(), "One letter only matches whole terms.");
+        assertEquals(List.of("Jazz at Night"), index.search("smooth ja", 10), "Only the last token is a prefix.");
+    }
+
+    @Test
+    void testNameHitsRankAboveDescriptionHits() {
+        // "metal" is in Metal Mania's name; Metallica only has it in its description
+        List<String> hits = index.search("metal", 10);
+        assertEquals("Metal Mania", hits.get(0), "Exact name match should win.");
+    }
+
+    @Test
+    void testLimitKeepsBestHits() {
+        for (int i = 10; i < 60; i++) {
+            put(i, "Show " + i, "Hall", "rock");
+        }
+        put(99, "Rock Legends", "Hall", "rock");
+        List<String> hits = index.search("rock", 5);
+        assertEquals(5, hits.size());
+        assertEquals("Rock Legends", hits.get(0), "Name hit should be first.");
+        assertEquals("Metal Mania", hits.get(1), "Venue hit should come next.");
+    }
+
+    @Test
+    void testUpdatesAreIncremental() {
+        put(2, "Blues at Night", "Blue Note", "Delta blues");
+        assertTrue(index.search("jazz", 10).isEmpty(), "Old terms should be gone after re-indexing.");
+        assertEquals(List.of("Blues at Night"), index.search("blues", 10));
+
+        index.remove(2);
+        assertTrue(index.search("blues", 10).isEmpty(), "Removed item should not match.");
+        assertEquals(3, index.size());
+
+        put(5, "Blues Brothers", "Club Rock", "Revival");
+        assertEquals(List.of("Blues Brothers"), index.search("blues", 10), "Freed slot should be reusable.");
+    }
+
+    @Test
+    void testFilterAppliesBeforeLimit() {
+        List<String> hits = index.search("metal", 1, s -> s.startsWith("Metallica"));
+        assertEquals(List.of("Metallica World Tour"), hits, "Filtered-out better hit must not take the slot.");
+    }
+
+    @Test
+    void testBlankQueryFindsNothing() {
+        assertTrue(index.search("  ,! ", 10).isEmpty());
+        assertTrue(index.search(null, 10).isEmpty());
+    }
+}
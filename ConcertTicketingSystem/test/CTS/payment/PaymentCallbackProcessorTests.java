@@ -0,0 +1,134 @@
+package CTS.payment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import CTS.booking.Order;
+import CTS.booking.OrderDatabase;
+import CTS.enums.OrderStatus;
+import CTS.enums.PaymentStatus;
+import CTS.enums.PaymentType;
+import CTS.metrics.Metrics;
+import CTS.misc.Money;
+import CTS.misc.PaymentTransaction;
+
+class PaymentCallbackProcessorTests {
+
+    static {
+        // Callbacks are journaled; keep that out of the project folder
+        try {
+            System.setProperty("cts.data.dir", Files.createTempDirectory("cts-test").toString());
+        } catch (java.io.IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static final Money PRICE = new Money(40.0, "USD");
+
+    private PaymentCallbackProcessor callbacks;
+
+    @BeforeEach
+    void setUp() {
+        callbacks = new PaymentCallbackProcessor(100, 60_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callbacks.shutdown();
+    }
+
+    // A PENDING order whose AUTH the gateway has not decided yet
+    private static PaymentTransaction pendingPayment() {
+        Order order = OrderDatabase.createGeneralAdmissionOrder(3, 9_024, PRICE, 1);
+        int id = PaymentTransaction.nextId();
+        PaymentTransaction t = new PaymentTransaction(id, "cb_" + id, PaymentType.AUTH, PRICE,
+                new Date(), PaymentStatus.PENDING, order);
+        OrderDatabase.recordPayments(List.of(t));
+        return t;
+    }
+
+    @Test
+    void testCallbackConfirmsPendingOrder() {
+        PaymentTransaction t = pendingPayment();
+        assertSame(t, OrderDatabase.getPaymentByGatewayRef(t.getGatewayRef()));
+
+        callbacks.submit(t.getGatewayRef(), PaymentStatus.SUCCESS, null);
+        callbacks.flush().join();
+
+        assertEquals(PaymentStatus.SUCCESS, t.getStatus());
+        assertEquals(OrderStatus.CONFIRMED, t.getOrder().getStatus());
+        assertSame(t, t.getOrder().getPayment());
+        assertEquals(0, callbacks.pending());
+    }
+
+    @Test
+    void testFailureByPaymentIdCancelsPendingOrder() {
+        PaymentTransaction t = pendingPayment();
+
+        callbacks.submit(t.getPaymentId(), PaymentStatus.FAILED, "insufficient funds");
+        callbacks.flush().join();
+
+        assertEquals(PaymentStatus.FAILED, t.getStatus());
+        assertEquals(OrderStatus.CANCELED, t.getOrder().getStatus());
+        assertEquals("insufficient funds", t.getFailureReason());
+        assertEquals("insufficient funds", PaymentTransaction.parseRawRow(t.toCsvRow()).failureReason,
+                "The reason is journaled with the payment.");
+        assertNull(PaymentTransaction.parseRawRow("5,3,cb_5,AUTH,40.0:USD,0,FAILED").failureReason,
+                "Rows written before reasons were kept still load.");
+    }
+
+    @Test
+    void testRepeatedAndConflictingCallbacksAreIgnored() {
+        PaymentTransaction t = pendingPayment();
+        long duplicates = Metrics.counter("payment.callbacks_duplicate").get();
+        long conflicts = Metrics.counter("payment.callbacks_conflict").get();
+
+        callbacks.submit(t.getGatewayRef(), PaymentStatus.SUCCESS, null);
+        callbacks.submit(t.getGatewayRef(), PaymentStatus.SUCCESS, null);
+        callbacks.submit(t.getGatewayRef(), PaymentStatus.FAILED, "late");
+        callbacks.flush().join();
+
+        assertEquals(PaymentStatus.SUCCESS, t.getStatus(), "A decided payment is never flipped.");
+        assertEquals(OrderStatus.CONFIRMED, t.getOrder().getStatus());
+        assertEquals(duplicates + 1, Metrics.counter("payment.callbacks_duplicate").get());
+        assertEquals(conflicts + 1, Metrics.counter("payment.callbacks_conflict").get());
+    }
+
+    @Test
+    void testUnknownReferenceIsCounted() {
+        long unknown = Metrics.counter("payment.callbacks_unknown").get();
+        callbacks.submit("no_such_ref", PaymentStatus.SUCCESS, null);
+        callbacks.flush().join();
+        assertEquals(unknown + 1, Metrics.counter("payment.callbacks_unknown").get());
+    }
+
+    @Test
+    void testBurstIsPersistedInBatches() {
+        int n = 2_000;
+        List<PaymentTransaction> txns = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            txns.add(pendingPayment());
+        }
+        long batches = Metrics.histogram("payment.callback_batch").count();
+
+        for (PaymentTransaction t : txns) {
+            callbacks.submit(t.getGatewayRef(), PaymentStatus.SUCCESS, null);
+        }
+        callbacks.flush().join();
+
+        for (PaymentTransaction t : txns) {
+            assertEquals(PaymentStatus.SUCCESS, t.getStatus());
+            assertEquals(OrderStatus.CONFIRMED, t.getOrder().getStatus());
+        }
+        long written = Metrics.histogram("payment.callback_batch").count() - batches;
+        assertTrue(written >= n / 100 && written < n / 10, "Expected batches of up to 100, got " + written);
+    }
+}
@@ -0,0 +1,175 @@
+package CTS.payment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+import CTS.booking.Order;
+import CTS.booking.OrderDatabase;
+import CTS.enums.OrderStatus;
+import CTS.enums.PaymentStatus;
+import CTS.enums.PaymentType;
+import CTS.misc.Money;
+import CTS.misc.PaymentTransaction;
+
+class PaymentProcessorTests {
+
+    static {
+        // Captures are journaled; keep that out of the project folder
+        try {
+            System.setProperty("cts.data.dir", Files.createTempDirectory("cts-test").toString());
+        } catch (java.io.IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static final String CARD = "4111 1111 1111 1111";
+    private static final Money PRICE = new Money(25.0, "USD");
+
+    // Answers at once; approves every capture unless told to refuse them
+    private static class StubGateway implements PaymentGateway {
+        final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        final List<String> voided = Collections.synchronizedList(new ArrayList<>());
+        volatile boolean refuseCaptures;
+        int nextRef;
+
+        @Override
+        public CompletableFuture<GatewayResult> authorize(String cardNumber, Money amount) {
+            return CompletableFuture.completedFuture(GatewayResult.approved("auth_" + next()));
+        }
+
+        @Override
+        public CompletableFuture<List<GatewayResult>> capture(List<Capture> captures) {
+            batchSizes.add(captures.size());
+            List<GatewayResult> results = new ArrayList<>();
+            for (int i = 0; i < captures.size(); i++) {
+                results.add(refuseCaptures ? GatewayResult.declined("try later") : GatewayResult.approved("ch_" + next()));
+            }
+            return CompletableFuture.completedFuture(results);
+        }
+
+        @Override
+        public CompletableFuture<GatewayResult> voidAuthorization(String authRef) {
+            voided.add(authRef);
+            return CompletableFuture.completedFuture(GatewayResult.approved(authRef));
+        }
+
+        @Override
+        public CompletableFuture<GatewayResult> refund(String gatewayRef, Money amount) {
+            return CompletableFuture.completedFuture(GatewayResult.approved("re_" + next()));
+        }
+
+        private synchronized int next() {
+            return ++nextRef;
+        }
+    }
+
+    // An order confirmed by a successful authorization, ready to capture
+    private static PaymentTransaction authorizedOrder(PaymentProcessor processor) {
+        PaymentTransaction auth = processor.authorize(PRICE, CARD).join();
+        Order order = OrderDatabase.createGeneralAdmissionOrder(7, 9_023, PRICE, 1);
+        auth.setOrder(order);
+        OrderDatabase.attachPayment(order, auth);
+        return auth;
+    }
+
+    private static PaymentTransaction chargeFor(Order order) {
+        for (PaymentTransaction t : OrderDatabase.getAllPayments()) {
+            if (t.getType() == PaymentType.CHARGE && t.getOrder() == order) {
+                return t;
+            }
+        }
+        return null;
+    }
+
+    @Test
+    void testSimulatorDeclinesTestCard() {
+        PaymentProcessor processor = PaymentProcessor.create(new SimulatedGateway(0, 0, 0, 0, 1));
+        try {
+            PaymentTransaction declined = processor.authorize(PRICE, "4000 0000 0000 0002").join();
+            assertEquals(PaymentStatus.FAILED, declined.getStatus());
+            assertEquals(PaymentType.AUTH, declined.getType());
+
+            PaymentTransaction approved = processor.authorize(PRICE, CARD).join();
+            assertEquals(PaymentStatus.SUCCESS, approved.getStatus());
+            assertNotNull(approved.getGatewayRef());
+        } finally {
+            processor.shutdown();
+        }
+    }
+
+    @Test
+    void testCapturesAreBatchedAndRecorded() {
+        StubGateway gateway = new StubGateway();
+        PaymentProcessor processor = PaymentProcessor.create(gateway, 3, 60_000);
+        try {
+            List<PaymentTransaction> auths = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                PaymentTransaction auth = authorizedOrder(processor);
+                processor.capture(auth, PRICE);
+                auths.add(auth);
+            }
+            processor.flushAll().join();
+
+            assertEquals(0, processor.pendingCaptures());
+            assertTrue(gateway.batchSizes.size() >= 2, "5 captures need at least two batches of 3.");
+            for (int size : gateway.batchSizes) {
+                assertTrue(size <= 3, "Batch too big: " + gateway.batchSizes);
+            }
+            for (PaymentTransaction auth : auths) {
+                PaymentTransaction charge = chargeFor(auth.getOrder());
+                assertNotNull(charge, "Every order is captured.");
+                assertEquals(PaymentStatus.SUCCESS, charge.getStatus());
+                assertSame(charge, auth.getOrder().getPayment(), "The capture becomes the order's payment.");
+            }
+        } finally {
+            processor.shutdown();
+        }
+    }
+
+    @Test
+    void testRefusedCaptureIsRetriedThenFailed() {
+        StubGateway gateway = new StubGateway();
+        gateway.refuseCaptures = true;
+        PaymentProcessor processor = PaymentProcessor.create(gateway, 10, 60_000);
+        List<Order> undone = Collections.synchronizedList(new ArrayList<>());
+        processor.onCaptureFailed(undone::addAll);
+        try {
+            PaymentTransaction auth = authorizedOrder(processor);
+            processor.capture(auth, PRICE);
+
+            for (int i = 1; i < PaymentProcessor.MAX_CAPTURE_ATTEMPTS; i++) {
+                processor.flushAll().join();
+                assertEquals(1, processor.pendingCaptures(), "A refused capture goes back on the queue.");
+                assertNull(chargeFor(auth.getOrder()));
+            }
+            processor.flushAll().join();
+
+            assertEquals(0, processor.pendingCaptures());
+            assertEquals(PaymentStatus.FAILED, chargeFor(auth.getOrder()).getStatus());
+            assertSame(auth, auth.getOrder().getPayment(), "A failed capture leaves the authorization linked.");
+            assertEquals(OrderStatus.CANCELED, auth.getOrder().getStatus(), "No money moved, so no sale.");
+            assertEquals(List.of(auth.getOrder()), undone, "The owner is told to give back the seats.");
+            assertEquals(List.of(auth.getGatewayRef()), gateway.voided);
+        } finally {
+            processor.shutdown();
+        }
+    }
+
+    @Test
+    void testCaptureNeedsLinkedAuthorization() {
+        PaymentProcessor processor = PaymentProcessor.create(new StubGateway());
+        try {
+            PaymentTransaction auth = processor.authorize(PRICE, CARD).join();
+            assertThrows(IllegalArgumentException.class, () -> processor.capture(auth, PRICE));
+        } finally {
+            processor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package CTS.seating;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import CTS.enums.SeatStatus;
+import CTS.misc.Money;
+
+class BinarySeatStoreTests {
+
+    @TempDir
+    Path dir;
+
+    private static List<Seat> seats(int n) {
+        List<Seat> seats = new ArrayList<>();
+        for (int i = 1; i <= n; i++) {
+            seats.add(new Seat(7, i, 1 + i % 3, i <= 10 ? "A" : "AB", i, new Money(12.5, "EUR")));
+        }
+        return seats;
+    }
+
+    // ===============================================
+    //  ROUND TRIP
+    // ===============================================
+
+    @Test
+    void testCreateAndReopenKeepsSeats() throws Exception {
+        Path file = dir.resolve("seats.bin");
+        List<Seat> original = seats(25);
+        original.get(4).markHeld();
+        original.get(4).markSold();
+        original.get(9).markAdminHeld();
+
+        BinarySeatStore.create(file, 7, original);
+        assertEquals(BinarySeatStore.HEADER + 25L * BinarySeatStore.RECORD, Files.size(file));
+
+        Seating loaded = BinarySeatStore.open(file).load();
+        assertEquals(7, loaded.getEventId());
+        assertEquals(25, loaded.getSeats().size());
+
+        Seat s = loaded.getSeatByNumber(12);
+        assertEquals(12, s.getSeatId());
+        assertEquals("AB", s.getRowLabel());
+        assertEquals(1, s.getSectionId());
+        assertEquals(12.5, s.getCurrentPrice().getAmount(), 0.001);
+        assertEquals("EUR", s.getCurrentPrice().getCurrency());
+
+        assertEquals(SeatStatus.SOLD, loaded.getSeatByNumber(5).getStatus());
+        assertEquals(SeatStatus.ADMIN_HELD, loaded.getSeatByNumber(10).getStatus());
+        assertEquals(SeatStatus.AVAILABLE, loaded.getSeatByNumber(1).getStatus());
+    }
+
+    @Test
+    void testChangesAreWrittenThroughWithoutSaving() throws Exception {
+        Path file = dir.resolve("seats.bin");
+        Seating seating = BinarySeatStore.create(file, 7, seats(100)).load();
+        BinarySeatStore other = BinarySeatStore.open(file);
+
+        assertTrue(seating.holdSeats(List.of(3, 4)));
+        assertEquals(SeatStatus.HELD, other.getStatus(2), "Each change reaches the file at once.");
+        assertTrue(seating.sellSeats(List.of(3, 4)));
+        assertEquals(SeatStatus.SOLD, other.getStatus(3));
+
+        Seating reopened = BinarySeatStore.open(file).load();
+        assertEquals(SeatStatus.SOLD, reopened.getSeatByNumber(3).getStatus());
+        assertEquals(2, reopened.getInventory().count(SeatStatus.SOLD));
+    }
+
+    @Test
+    void testHeldSeatsComeBackAvailable() throws Exception {
+        Path file = dir.resolve("seats.bin");
+        Seating seating = BinarySeatStore.create(file, 7, seats(10)).load();
+        assertTrue(seating.holdSeats(List.of(2, 3)));
+        assertTrue(seating.sellSeats(List.of(3)));
+
+        Seating reopened = BinarySeatStore.open(file).load();
+        assertEquals(SeatStatus.AVAILABLE, reopened.getSeatByNumber(2).getStatus(), "No hold survives a restart.");
+        assertEquals(SeatStatus.SOLD, reopened.getSeatByNumber(3).getStatus());
+    }
+
+    @Test
+    void testSetStatusIsVisibleThroughAnotherMapping() throws Exception {
+        Path file = dir.resolve("seats.bin");
+        BinarySeatStore a = BinarySeatStore.create(file, 7, seats(10));
+        BinarySeatStore b = BinarySeatStore.open(file);
+
+        a.setStatus(6, SeatStatus.HELD);
+        assertEquals(SeatStatus.HELD, b.getStatus(6));
+        assertThrows(IndexOutOfBoundsException.class, () -> a.setStatus(10, SeatStatus.SOLD));
+    }
+
+    // ===============================================
+    //  CONVERSION AND VALIDATION
+    // ===============================================
+
+    @Test
+    void testConvertFromCsv() throws Exception {
+        Path csv = dir.resolve("seats_event_7.csv");
+        Files.writeString(csv,
+                "# seatId,rowLabel,seatNumber,sectionId,status,priceInline\n"
+                + "1,A,1,1,AVAILABLE,40.0:USD\n"
+                + "2,A,2,1,SOLD,40.0:USD\n"
+                + "3,B,3,2,ADMIN_HELD,55.25:USD\n");
+
+        Seating seating = BinarySeatStore.convertCsv(csv, dir.resolve("seats_event_7.bin"), 7).load();
+        assertEquals(3, seating.getSeats().size());
+        assertEquals(SeatStatus.SOLD, seating.getSeatByNumber(2).getStatus());
+        assertEquals("B", seating.getSeatByNumber(3).getRowLabel());
+        assertEquals(55.25, seating.getSeatByNumber(3).getCurrentPrice().getAmount(), 0.001);
+    }
+
+    @Test
+    void testRejectsMixedCurrencyAndForeignFiles() throws Exception {
+        List<Seat> mixed = seats(3);
+        mixed.get(2).setCurrentPrice(new Money(1.0, "USD"));
+        assertThrows(IllegalArgumentException.class,
+                () -> BinarySeatStore.create(dir.resolve("mixed.bin"), 7, mixed));
+
+        Path junk = dir.resolve("junk.bin");
+        Files.writeString(junk, "this is not a seat file at all, honest");
+        assertThrows(IllegalArgumentException.class, () -> BinarySeatStore.open(junk));
+    }
+}
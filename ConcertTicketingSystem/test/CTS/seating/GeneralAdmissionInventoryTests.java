@@ -0,0 +1,140 @@
+package CTS.seating;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class GeneralAdmissionInventoryTests {
+
+    private static final int THREADS = 64;
+
+    private interface Worker {
+        void run(int thread) throws Exception;
+    }
+
+    private static void race(Worker worker) throws Exception {
+        CountDownLatch go = new CountDownLatch(1);
+        AtomicInteger errors = new AtomicInteger();
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            final int id = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    go.await();
+                    worker.run(id);
+                } catch (Exception e) {
+                    errors.incrementAndGet();
+                }
+            });
+            threads[t].start();
+        }
+        go.countDown();
+        for (Thread t : threads) t.join();
+        assertEquals(0, errors.get(), "Worker threads failed.");
+    }
+
+    // ===============================================
+    //  SINGLE-THREADED SEMANTICS
+    // ===============================================
+
+    @Test
+    void testReserveIsAllOrNothing() {
+        GeneralAdmissionInventory inv = new GeneralAdmissionInventory(10, 3);
+        assertEquals(7, inv.available());
+        assertFalse(inv.reserve(8), "Only 7 left.");
+        assertEquals(7, inv.available(), "A failed reserve takes nothing.");
+        assertTrue(inv.reserve(7));
+        assertEquals(10, inv.sold());
+        assertFalse(inv.reserve(1));
+
+        inv.release(2);
+        assertEquals(2, inv.available());
+        assertTrue(inv.reserve(2));
+        assertThrows(IllegalArgumentException.class, () -> inv.reserve(0));
+        assertThrows(IllegalArgumentException.class, () -> new GeneralAdmissionInventory(5, 6));
+    }
+
+    @Test
+    void testResize() {
+        GeneralAdmissionInventory inv = new GeneralAdmissionInventory(10, 0);
+        assertTrue(inv.reserve(4));
+        inv.resize(20);
+        assertEquals(16, inv.available());
+        inv.resize(3);
+        assertEquals(0, inv.available(), "Shrinking below sold leaves nothing.");
+        assertFalse(inv.reserve(1));
+        inv.release(4);
+        assertEquals(3, inv.available());
+    }
+
+    // ===============================================
+    //  CONCURRENT STRESS
+    // ===============================================
+
+    @Test
+    void testConcurrentBuyersSellExactlyCapacity() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            int capacity = 1_000 + round * 137;
+            GeneralAdmissionInventory inv = new GeneralAdmissionInventory(capacity, 0);
+            AtomicLong sold = new AtomicLong();
+            race(t -> {
+                while (inv.reserve(1)) sold.incrementAndGet();
+            });
+            assertEquals(capacity, sold.get(), "Every unit sold exactly once.");
+            assertEquals(0, inv.available());
+        }
+    }
+
+    @Test
+    void testFailuresAreNeverSpurious() throws Exception {
+        // No releases, so availability only falls: reserve(n) failing means
+        // fewer than n were left then, and so at the end as well
+        for (int round = 0; round < 20; round++) {
+            int capacity = 5_000;
+            GeneralAdmissionInventory inv = new GeneralAdmissionInventory(capacity, 0);
+            AtomicLong sold = new AtomicLong();
+            AtomicInteger smallestFailure = new AtomicInteger(Integer.MAX_VALUE);
+            race(t -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                for (int i = 0; i < 100; i++) {
+                    int n = 1 + rnd.nextInt(8);
+                    if (inv.reserve(n)) {
+                        sold.addAndGet(n);
+                    } else {
+                        smallestFailure.accumulateAndGet(n, Math::min);
+                    }
+                }
+            });
+            assertTrue(sold.get() <= capacity, "Oversold: " + sold.get());
+            assertEquals(capacity - sold.get(), inv.available());
+            assertTrue(inv.available() < smallestFailure.get(),
+                    "reserve(" + smallestFailure.get() + ") failed with " + inv.available() + " left.");
+        }
+    }
+
+    @Test
+    void testReleasesBalance() throws Exception {
+        GeneralAdmissionInventory inv = new GeneralAdmissionInventory(500, 0);
+        AtomicInteger peak = new AtomicInteger();
+        AtomicInteger outstanding = new AtomicInteger();
+        race(t -> {
+            ThreadLocalRandom rnd = ThreadLocalRandom.current();
+            for (int i = 0; i < 5_000; i++) {
+                int n = 1 + rnd.nextInt(4);
+                if (inv.reserve(n)) {
+                    peak.accumulateAndGet(outstanding.addAndGet(n), Math::max);
+                    outstanding.addAndGet(-n);
+                    inv.release(n);
+                }
+            }
+        });
+        assertTrue(peak.get() <= 500, "More than capacity was out at once: " + peak.get());
+        assertEquals(500, inv.available(), "Everything came back.");
+        assertEquals(0, inv.sold());
+    }
+}
@@ -0,0 +1,117 @@
+package CTS.seating;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import CTS.enums.SeatStatus;
+import CTS.misc.Money;
+
+class SeatAllocatorTests {
+
+    private static final int PER_ROW = 10;
+
+    private Seating seating;
+
+    // Section 1: rows A-B at $50; section 2: rows C-E at $20
+    @BeforeEach
+    void setUp() {
+        seating = new Seating(1, 5 * PER_ROW, "USD");
+        for (int i = 0; i < 5 * PER_ROW; i++) {
+            int row = i / PER_ROW;
+            seating.set(i, i + 1, row < 2 ? 1 : 2, row, row < 2 ? 5000 : 2000, SeatStatus.AVAILABLE);
+        }
+    }
+
+    private void take(int... seatNumbers) {
+        for (int num : seatNumbers) {
+            assertTrue(seating.getSeatByNumber(num).markHeld());
+        }
+    }
+
+    @Test
+    void testPicksFrontRowMiddle() {
+        assertEquals(List.of(5, 6), seating.getAllocator().hold(2), "Row A, centered.");
+        assertEquals(List.of(2, 3, 4), seating.getAllocator().hold(3), "Next best in row A sits beside the pair.");
+    }
+
+    @Test
+    void testSkipsRowsWithoutARun() {
+        take(3, 8);                        // row A: longest run 4 (seats 4-7)
+        take(11, 14, 17, 20);              // row B: runs of 2
+        assertEquals(List.of(23, 24, 25, 26, 27), seating.getAllocator().hold(5), "Row C is the first with 5 together.");
+        assertEquals(List.of(4, 5, 6, 7), seating.getAllocator().hold(4));
+        assertNull(seating.getAllocator().hold(PER_ROW + 1), "Blocks never span rows.");
+    }
+
+    @Test
+    void testSectionAndPriceConstraints() {
+        SeatAllocator allocator = seating.getAllocator();
+        assertEquals(List.of(24, 25, 26, 27), allocator.hold(4, 2, null), "Section 2 starts at row C.");
+        assertEquals(List.of(34, 35, 36, 37), allocator.hold(4, SeatAllocator.ANY_SECTION, new Money(20.0, "USD")),
+                "Rows A and B cost $50 and row C has no 4 together left.");
+        assertNull(allocator.hold(2, 9, null), "Unknown section.");
+        assertThrows(IllegalArgumentException.class, () -> allocator.hold(2, 1, new Money(20.0, "EUR")));
+        assertThrows(IllegalArgumentException.class, () -> allocator.hold(0));
+    }
+
+    @Test
+    void testFollowsChangesMadeOutsideTheAllocator() {
+        SeatAllocator allocator = seating.getAllocator();
+        assertTrue(seating.holdSeats(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10)), "Row A taken by clicks.");
+        assertEquals(List.of(15, 16), allocator.hold(2), "Allocator must not offer row A.");
+
+        seating.releaseSeats(List.of(4, 5, 6));
+        assertEquals(List.of(4, 5, 6), allocator.hold(3), "Released seats come back.");
+        assertEquals(SeatStatus.HELD, seating.getSeatByNumber(5).getStatus());
+    }
+
+    @Test
+    void testConcurrentHoldsNeverOverlap() throws Exception {
+        Seating big = new Seating(2, 200 * PER_ROW, "USD");
+        for (int i = 0; i < 200 * PER_ROW; i++) {
+            big.set(i, i + 1, 1, i / PER_ROW, 1000, SeatStatus.AVAILABLE);
+        }
+        SeatAllocator allocator = big.getAllocator();
+        ConcurrentHashMap<Integer, Boolean> owned = new ConcurrentHashMap<>();
+        AtomicInteger overlaps = new AtomicInteger();
+        CountDownLatch go = new CountDownLatch(1);
+
+        Thread[] threads = new Thread[16];
+        for (int t = 0; t < threads.length; t++) {
+            final int id = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 400; i++) {
+                    List<Integer> seats;
+                    if (id % 2 == 0) {
+                        seats = allocator.hold(1 + i % 4);
+                    } else {
+                        int num = 1 + (i * 37 + id * 101) % big.size(); // clicking seats directly
+                        seats = big.getSeatByNumber(num).markHeld() ? List.of(num) : null;
+                    }
+                    if (seats == null) continue;
+                    for (int num : seats) {
+                        if (owned.putIfAbsent(num, Boolean.TRUE) != null) overlaps.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        go.countDown();
+        for (Thread t : threads) t.join();
+
+        assertEquals(0, overlaps.get(), "A seat was handed out twice.");
+        assertEquals(owned.size(), big.getInventory().count(SeatStatus.HELD), "Every held seat has one owner.");
+    }
+}
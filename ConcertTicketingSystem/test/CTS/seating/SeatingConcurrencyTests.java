@@ -0,0 +1,120 @@
+package CTS.seating;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import CTS.enums.SeatStatus;
+import CTS.misc.Money;
+
+class SeatingConcurrencyTests {
+
+    private static final int SEATS = 300;
+    private static final int THREADS = 64;
+
+    private Seating seating;
+
+    @BeforeEach
+    void setUp() {
+        List<Seat> seats = new ArrayList<>();
+        for (int i = 1; i <= SEATS; i++) {
+            seats.add(new Seat(1, i, 1, "A", i, new Money(10.0, "USD")));
+        }
+        seating = Seating.of(1, seats);
+    }
+
+    // ===============================================
+    //  SINGLE-THREADED SEMANTICS
+    // ===============================================
+
+    @Test
+    void testHoldSeatsIsAllOrNothing() {
+        assertTrue(seating.getSeatByNumber(5).markHeld(), "Seat 5 should be holdable.");
+
+        assertFalse(seating.holdSeats(List.of(4, 5, 6)), "Overlapping multi-seat hold must fail.");
+        assertEquals(SeatStatus.AVAILABLE, seating.getSeatByNumber(4).getStatus(), "Seat 4 must be rolled back.");
+        assertEquals(SeatStatus.AVAILABLE, seating.getSeatByNumber(6).getStatus(), "Seat 6 must be rolled back.");
+
+        assertTrue(seating.holdSeats(List.of(6, 7)), "Disjoint hold should succeed.");
+        assertEquals(3, seating.getHeldSeats().size(), "Seats 5, 6 and 7 should be held.");
+    }
+
+    @Test
+    void testSellRequiresHold() {
+        assertFalse(seating.sellSeats(List.of(1)), "An AVAILABLE seat cannot be sold directly.");
+        assertTrue(seating.holdSeats(List.of(1, 2)), "Hold should succeed.");
+        assertTrue(seating.sellSeats(List.of(1, 2)), "Held seats should sell.");
+        assertFalse(seating.getSeatByNumber(1).markHeld(), "A SOLD seat cannot be held again.");
+    }
+
+    @Test
+    void testStandaloneSeatStateSurvivesBinding() {
+        Seat s = new Seat(1, 1, 1, "A", 1, new Money(10.0, "USD"));
+        s.markAdminHeld();
+        Seating single = Seating.of(1, new ArrayList<>(List.of(s)));
+        assertEquals(SeatStatus.ADMIN_HELD, single.getSeatByNumber(1).getStatus(), "Binding must keep the seat's state.");
+    }
+
+    // ===============================================
+    //  STRESS: NO DOUBLE SELLS UNDER CONTENTION
+    // ===============================================
+
+    @Test
+    void testNoDoubleSellUnder64Threads() throws Exception {
+        AtomicIntegerArray soldTo = new AtomicIntegerArray(SEATS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            Thread th = new Thread(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int attempt = 0; attempt < 2_000; attempt++) {
+                    List<Integer> want = new ArrayList<>();
+                    int first = 1 + rnd.nextInt(SEATS);
+                    int count = 1 + rnd.nextInt(4);
+                    for (int k = 0; k < count && first + k <= SEATS; k++) {
+                        want.add(first + k);
+                    }
+                    if (!seating.holdSeats(want)) continue;
+
+                    // Abandon some holds so seats keep cycling back
+                    if (rnd.nextInt(4) == 0) {
+                        seating.releaseSeats(want);
+                        continue;
+                    }
+                    assertTrue(seating.sellSeats(want), "Our own hold must always convert.");
+                    for (int num : want) {
+                        soldTo.incrementAndGet(num - 1);
+                    }
+                }
+            });
+            threads.add(th);
+            th.start();
+        }
+
+        start.countDown();
+        for (Thread th : threads) {
+            th.join();
+        }
+
+        int sold = 0;
+        for (int i = 0; i < SEATS; i++) {
+            assertTrue(soldTo.get(i) <= 1, "Seat " + (i + 1) + " was sold " + soldTo.get(i) + " times.");
+            sold += soldTo.get(i);
+        }
+        assertEquals(sold, seating.getInventory().count(SeatStatus.SOLD), "Recorded sales must match SOLD seats.");
+        assertEquals(0, seating.getHeldSeats().size(), "No seat should be left HELD.");
+    }
+}
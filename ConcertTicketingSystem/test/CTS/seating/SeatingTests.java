@@ -0,0 +1,151 @@
+package CTS.seating;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import CTS.enums.EventStatus;
+import CTS.enums.SeatStatus;
+import CTS.event.Event;
+import CTS.misc.Money;
+
+class SeatingTests {
+
+    static {
+        // loadOrCreate writes seat files into the data dir; keep them out of the project folder
+        try {
+            System.setProperty("cts.data.dir", Files.createTempDirectory("cts-test").toString());
+        } catch (java.io.IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @TempDir
+    Path dir;
+
+    private static Event event(int capacity) {
+        return new Event(3, "Stadium", new Date(), "Venue", "", capacity,
+                EventStatus.PUBLISHED, new Money(45.5, "USD"));
+    }
+
+    // ===============================================
+    //  COMPACT LAYOUT
+    // ===============================================
+
+    @Test
+    void testGeneratedSeatingMatchesSeatFactoryLayout() {
+        Event e = event(300);
+        List<Seat> expected = SeatFactory.generate(e);
+        Seating seating = SeatFactory.generateSeating(e);
+
+        assertEquals(expected.size(), seating.size());
+        for (int num : new int[] { 1, 10, 11, 260, 261, 300 }) {
+            Seat a = expected.get(num - 1);
+            Seat b = seating.getSeatByNumber(num);
+            assertEquals(a.getSeatId(), b.getSeatId());
+            assertEquals(a.getRowLabel(), b.getRowLabel(), "Row label of seat " + num);
+            assertEquals(a.getSectionId(), b.getSectionId());
+            assertEquals(a.getCurrentPrice(), b.getCurrentPrice());
+        }
+        assertEquals("AA", seating.getSeatByNumber(261).getRowLabel());
+    }
+
+    @Test
+    void testRowIndexRoundTrip() {
+        for (int i = 0; i < 20_000; i += 7) {
+            assertEquals(i, SeatFactory.rowIndex(SeatFactory.getRowLabel(i)));
+        }
+        assertEquals(-1, SeatFactory.rowIndex("Balcony"));
+        assertEquals(-1, SeatFactory.rowIndex(""));
+    }
+
+    @Test
+    void testKeepsCustomRowLabelsAndSeatIds() {
+        List<Seat> seats = new ArrayList<>();
+        seats.add(new Seat(3, 101, 2, "Balcony", 1, new Money(10.0, "USD")));
+        seats.add(new Seat(3, 102, 2, "Balcony", 2, new Money(10.0, "USD")));
+        seats.add(new Seat(3, 3, 1, "C", 3, new Money(12.25, "USD")));
+        Seating seating = Seating.of(3, seats);
+
+        assertEquals("Balcony", seating.getSeatByNumber(2).getRowLabel());
+        assertEquals(102, seating.getSeatByNumber(2).getSeatId());
+        assertEquals(3, seating.getSeatByNumber(3).getSeatId());
+        assertEquals(12.25, seating.getSeatByNumber(3).getCurrentPrice().getAmount(), 0.001);
+    }
+
+    // ===============================================
+    //  SEAT VIEWS
+    // ===============================================
+
+    @Test
+    void testViewsWriteThrough() {
+        Seating seating = SeatFactory.generateSeating(event(50));
+        Seat view = seating.getSeatByNumber(7);
+
+        assertTrue(view.markHeld());
+        assertEquals(SeatStatus.HELD, seating.getSeats().get(6).getStatus());
+        assertEquals(view, seating.getHeldSeats().get(0), "Views of one slot should be equal.");
+
+        view.setCurrentPrice(new Money(99.99, "USD"));
+        assertEquals(99.99, seating.getSeatByNumber(7).getCurrentPrice().getAmount(), 0.001);
+        assertThrows(IllegalArgumentException.class, () -> view.setCurrentPrice(new Money(1.0, "EUR")));
+    }
+
+    @Test
+    void testOriginalSeatsBecomeViews() {
+        Seat s = new Seat(3, 1, 1, "A", 1, new Money(10.0, "USD"));
+        Seating seating = Seating.of(3, new ArrayList<>(List.of(s)));
+
+        assertTrue(seating.getSeatByNumber(1).markHeld());
+        assertEquals(SeatStatus.HELD, s.getStatus(), "The original Seat should see the shared state.");
+    }
+
+    // ===============================================
+    //  PERSISTENCE
+    // ===============================================
+
+    @Test
+    void testHeldSeatsComeBackAvailable() throws Exception {
+        Seating seating = SeatFactory.generateSeating(event(10));
+        assertTrue(seating.holdSeats(List.of(1, 2)));
+        assertTrue(seating.holdSeats(List.of(3)) && seating.sellSeats(List.of(3)));
+        assertTrue(seating.getSeatByNumber(4).markAdminHeld());
+
+        Path file = dir.resolve("seats_event_3.csv");
+        SeatingManager.writeCsv(file, seating);
+        Seating reloaded = Seating.of(3, SeatingManager.readCsv(file, 3));
+
+        assertEquals(SeatStatus.AVAILABLE, reloaded.getSeatByNumber(1).getStatus(), "No hold survives a restart.");
+        assertEquals(SeatStatus.AVAILABLE, reloaded.getSeatByNumber(2).getStatus());
+        assertEquals(SeatStatus.SOLD, reloaded.getSeatByNumber(3).getStatus());
+        assertEquals(SeatStatus.ADMIN_HELD, reloaded.getSeatByNumber(4).getStatus());
+    }
+
+    @Test
+    void testConcurrentLoadsShareOneBinarySeating() throws Exception {
+        Event big = new Event(9_007, "Stadium", new Date(), "Venue", "", SeatingManager.BINARY_THRESHOLD,
+                EventStatus.PUBLISHED, new Money(45.5, "USD"));
+        try {
+            List<CompletableFuture<Seating>> loads = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                loads.add(CompletableFuture.supplyAsync(() -> SeatingManager.loadOrCreate(big)));
+            }
+            Seating first = loads.get(0).join();
+            assertNotNull(first.getStore(), "A large event is kept in a binary seat file.");
+            for (CompletableFuture<Seating> f : loads) {
+                assertSame(first, f.join(), "Every caller must sell against the same inventory.");
+            }
+            assertTrue(Files.exists(SeatingManager.binaryFile(big.getEventId())));
+        } finally {
+            Files.deleteIfExists(SeatingManager.binaryFile(big.getEventId()));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package CTS.user;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SessionStoreTests {
+
+    private AtomicLong now;
+    private SessionStore store;
+    private User ann;
+    private User bob;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(1_000);
+        store = new SessionStore(100, 3, now::get);
+        ann = new ConcertGoer(1, "Ann", "ann@example.com", "pw");
+        bob = new ConcertGoer(2, "Bob", "bob@example.com", "pw");
+    }
+
+    @Test
+    void testTokenResolvesToItsUser() {
+        String a = store.open(ann);
+        String b = store.open(bob);
+        assertNotEquals(a, b, "Every session should get its own token.");
+        assertSame(ann, store.resolve(a));
+        assertSame(bob, store.resolve(b));
+        assertNull(store.resolve("not-a-token"), "Unknown tokens resolve to nobody.");
+        assertNull(store.resolve(null));
+    }
+
+    @Test
+    void testExpirySlidesOnUse() {
+        String t = store.open(ann);
+        now.addAndGet(90);
+        assertSame(ann, store.resolve(t), "Still inside the TTL.");
+        now.addAndGet(90);
+        assertSame(ann, store.resolve(t), "Use should have pushed the deadline out.");
+        now.addAndGet(100);
+        assertNull(store.resolve(t), "Idle for a full TTL: expired.");
+        assertEquals(0, store.size(), "Expired session should be dropped.");
+    }
+
+    @Test
+    void testLeastRecentlyUsedIsEvictedWhenFull() {
+        String a = store.open(ann);
+        String b = store.open(bob);
+        String c = store.open(ann);
+        store.resolve(a); // b is now the least recently used
+        String d = store.open(bob);
+
+        assertEquals(3, store.size(), "Store should stay at its bound.");
+        assertNull(store.resolve(b), "LRU session should be evicted.");
+        assertSame(ann, store.resolve(a));
+        assertSame(ann, store.resolve(c));
+        assertSame(bob, store.resolve(d));
+    }
+
+    @Test
+    void testCloseEndsSessions() {
+        String a = store.open(ann);
+        String a2 = store.open(ann);
+        String b = store.open(bob);
+        assertTrue(store.close(a));
+        assertFalse(store.close(a), "Closing twice reports false.");
+        assertNull(store.resolve(a));
+
+        store.closeAll(ann);
+        assertNull(store.resolve(a2), "All of Ann's sessions should be gone.");
+        assertSame(bob, store.resolve(b), "Bob's session is untouched.");
+    }
+
+    @Test
+    void testConcurrentOpenAndResolve() throws Exception {
+        SessionStore shared = new SessionStore(60_000, 100_000);
+        Set<String> tokens = ConcurrentHashMap.newKeySet();
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int k = 0; k < 2_000; k++) {
+                    String t = shared.open(ann);
+                    tokens.add(t);
+                    if (shared.resolve(t) != ann) throw new AssertionError("lost session " + t);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread t : threads) t.join();
+        assertEquals(16_000, tokens.size(), "Tokens must be unique across threads.");
+        assertEquals(16_000, shared.size());
+    }
+
+    @Test
+    void testDatabaseSessionsSkipPasswordCheck() throws Exception {
+        java.nio.file.Path dir = java.nio.file.Files.createTempDirectory("cts-sessions");
+        userDatabase db = new userDatabase(dir.resolve("users.csv"));
+        User u = db.registerUser("Ann", "ann@example.com", "pw", "USER");
+
+        assertNull(db.openSession("ann@example.com", "wrong"), "Bad password opens no session.");
+        String token = db.openSession("ANN@example.com", "pw");
+        assertSame(u, db.getSessionUser(token));
+        db.closeSession(token);
+        assertNull(db.getSessionUser(token), "Logged-out token is dead.");
+    }
+}
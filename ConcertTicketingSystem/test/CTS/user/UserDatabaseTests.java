@@ -0,0 +1,108 @@
+package CTS.user;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class UserDatabaseTests {
+
+    @TempDir
+    Path dir;
+
+    private userDatabase open() {
+        return new userDatabase(dir.resolve("users.csv"));
+    }
+
+    // A database that reads the files again, as after a restart
+    private userDatabase reopen() throws Exception {
+        userDatabase.unload(dir.resolve("users.csv"));
+        return open();
+    }
+
+    @Test
+    void testLookupsIgnoreEmailCase() {
+        userDatabase db = open();
+        User u = db.registerUser("Ann", "Ann@Example.com", "pw123", "USER");
+
+        assertSame(u, db.getUserByEmail("ann@example.COM"), "Email lookup should ignore case.");
+        assertSame(u, db.getUserById(u.getUserId()), "Id lookup should find the new user.");
+        assertSame(u, db.login("ANN@EXAMPLE.COM", "pw123"), "Login should use the case-folded index.");
+        assertNull(db.login("ann@example.com", "wrong"), "Wrong password must fail.");
+        assertNull(db.getUserByEmail(null), "Null email should find nobody.");
+    }
+
+    @Test
+    void testDuplicateEmailIsRefused() {
+        userDatabase db = open();
+        assertNotNull(db.registerUser("Ann", "ann@example.com", "pw", "USER"));
+        assertNull(db.registerUser("Other Ann", "ANN@example.com", "pw", "ADMIN"),
+                "Same email in another case is a duplicate.");
+        assertEquals(1, db.size(), "Refused registration must not be stored.");
+    }
+
+    @Test
+    void testRegistrationAppendsToJournal() throws Exception {
+        userDatabase db = open();
+        db.registerUser("Ann", "ann@example.com", "pw", "USER");
+        db.registerUser("Bob", "bob@example.com", "pw", "ADMIN");
+
+        assertFalse(Files.exists(dir.resolve("users.csv")), "Registration must not rewrite the snapshot.");
+        assertTrue(Files.exists(dir.resolve("users.journal")), "Registration should append to the journal.");
+
+        userDatabase reopened = reopen();
+        assertEquals(2, reopened.size(), "Journaled users should load.");
+        assertTrue(reopened.getUserByEmail("bob@example.com") instanceof VenueAdmin, "Role should survive.");
+        assertNotNull(reopened.login("ann@example.com", "pw"), "Password hash should survive.");
+        assertEquals(3, reopened.registerUser("Cy", "cy@example.com", "pw", "USER").getUserId(),
+                "Ids should continue after the journaled users.");
+    }
+
+    @Test
+    void testCompactFoldsJournalIntoSnapshot() throws Exception {
+        userDatabase db = open();
+        db.registerUser("Ann", "ann@example.com", "pw", "USER");
+        db.compact();
+        db.registerUser("Bob", "bob@example.com", "pw", "USER");
+
+        assertTrue(Files.exists(dir.resolve("users.csv")), "Compaction should write the snapshot.");
+
+        userDatabase reopened = reopen();
+        assertEquals(2, reopened.size(), "Snapshot plus journal should give both users.");
+        assertEquals(1, reopened.getUserByEmail("ann@example.com").getUserId());
+        assertEquals(2, reopened.getUserByEmail("bob@example.com").getUserId());
+    }
+
+    @Test
+    void testDatabasesOnOneFileShareTheirUsers() throws Exception {
+        userDatabase panel = open();
+        userDatabase dashboard = open();
+        panel.registerUser("Ann", "ann@example.com", "pw", "USER");
+        dashboard.registerUser("Bob", "bob@example.com", "pw", "USER");
+        dashboard.compact();
+        panel.registerUser("Cy", "cy@example.com", "pw", "USER");
+        panel.compact();
+
+        assertNotNull(dashboard.login("cy@example.com", "pw"), "Each database sees the others' registrations.");
+        assertNull(dashboard.registerUser("Ann again", "ANN@example.com", "pw", "USER"),
+                "An email taken through another database is a duplicate.");
+
+        userDatabase reopened = reopen();
+        assertEquals(3, reopened.size(), "No compaction may write out a stale user list.");
+        assertNotEquals(reopened.getUserByEmail("ann@example.com").getUserId(),
+                reopened.getUserByEmail("bob@example.com").getUserId(), "Ids stay unique across databases.");
+    }
+
+    @Test
+    void testJournalCompactsAtThreshold() throws Exception {
+        userDatabase db = open();
+        for (int i = 0; i < userDatabase.COMPACT_THRESHOLD; i++) {
+            db.registerUser("User " + i, "u" + i + "@example.com", "pw", "USER");
+        }
+        assertFalse(Files.exists(dir.resolve("users.journal")), "A full journal should be folded away.");
+        assertEquals(userDatabase.COMPACT_THRESHOLD, reopen().size(), "Every user should be in the snapshot.");
+    }
+}
@@ -120,4 +120,12 @@ class UserTests {
         
         assertTrue(csvRow.contains("O'Malley\\, The III\\\\rd"), "CSV should escape commas and backslashes in the name field.");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testPasswordHashIsStandardSha256Hex() {
+        // Stored hashes must not change format: users.csv rows from older builds still log in
+        User abc = new ConcertGoer(103, "Abc", "abc@email.com", "abc");
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", abc.getPasswordHash(),
+                "Hash should be lowercase hex SHA-256 of the UTF-8 password.");
+    }
+}